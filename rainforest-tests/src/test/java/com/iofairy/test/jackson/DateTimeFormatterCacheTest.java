@@ -0,0 +1,79 @@
+package com.iofairy.test.jackson;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iofairy.rainforest.jackson.base.DateTimeFormatterCache;
+import com.iofairy.rainforest.jackson.module.JacksonModules;
+import com.iofairy.time.DateTime;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/20 03:05
+ */
+public class DateTimeFormatterCacheTest {
+
+    @Data
+    public static class Event {
+        DateTime plain;
+        @JsonFormat(pattern = "yyyy/MM/dd HH:mm", timezone = "UTC")
+        DateTime start;
+        @JsonFormat(pattern = "yyyy/MM/dd HH:mm", timezone = "UTC")
+        DateTime end;
+        @JsonFormat(pattern = "dd MMM yyyy HH:mm", locale = "en", timezone = "UTC")
+        DateTime month;
+    }
+
+    @Test
+    void testOfPattern() {
+        DateTimeFormatter formatter = DateTimeFormatterCache.ofPattern("yyyy-MM-dd HH:mm", Locale.ENGLISH, ZoneId.of("UTC"), false);
+        assertSame(formatter, DateTimeFormatterCache.ofPattern("yyyy-MM-dd HH:mm", Locale.ENGLISH, ZoneId.of("UTC"), false));
+        assertEquals(ZoneId.of("UTC"), formatter.getZone());
+        assertEquals(Locale.ENGLISH, formatter.getLocale());
+
+        assertNotSame(formatter, DateTimeFormatterCache.ofPattern("yyyy-MM-dd HH:mm", Locale.ENGLISH, null, false));
+        assertNotSame(formatter, DateTimeFormatterCache.ofPattern("yyyy-MM-dd HH:mm", Locale.CHINESE, ZoneId.of("UTC"), false));
+        assertSame(DateTimeFormatterCache.ofPattern("yyyy-MM-dd"), DateTimeFormatterCache.ofPattern("yyyy-MM-dd", Locale.getDefault(Locale.Category.FORMAT), null, false));
+
+        DateTimeFormatter insensitive = DateTimeFormatterCache.ofPattern("dd MMM yyyy", Locale.ENGLISH, null, true);
+        assertNotSame(insensitive, DateTimeFormatterCache.ofPattern("dd MMM yyyy", Locale.ENGLISH, null, false));
+        assertEquals("2025-08-19", java.time.LocalDate.parse("19 AUG 2025", insensitive).toString());
+
+        assertThrows(IllegalArgumentException.class, () -> DateTimeFormatterCache.ofPattern("yyyy-MM-dd {", null, null, false));
+    }
+
+    @Test
+    void testSerializeAndDeserialize() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setTimeZone(TimeZone.getTimeZone("GMT+8"));
+        JacksonModules.registerModules(mapper);
+
+        Event event = new Event();
+        DateTime dateTime = DateTime.of(0L);
+        event.setPlain(dateTime);
+        event.setStart(dateTime);
+        event.setEnd(dateTime);
+        event.setMonth(dateTime);
+
+        String json = mapper.writeValueAsString(event);
+        assertEquals("{\"plain\":\"1970-01-01 08:00:00\",\"start\":\"1970/01/01 00:00\",\"end\":\"1970/01/01 00:00\",\"month\":\"01 Jan 1970 00:00\"}", json);
+        // 上下文时区改变后，格式随之改变
+        String utcJson = mapper.writer().with(TimeZone.getTimeZone("UTC")).writeValueAsString(event);
+        assertTrue(utcJson.startsWith("{\"plain\":\"1970-01-01 00:00:00\""), utcJson);
+        assertEquals(json, mapper.writeValueAsString(event));
+
+        Event read = mapper.readValue(json, Event.class);
+        assertEquals(0L, read.getStart().toEpochMilli());
+        assertEquals(0L, read.getEnd().toEpochMilli());
+        assertEquals(0L, read.getMonth().toEpochMilli());
+    }
+}
@@ -0,0 +1,160 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import com.iofairy.falcon.io.MultiByteArrayInputStream;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperACs;
+import com.iofairy.rainforest.zip.ac.SuperTar;
+import com.iofairy.rainforest.zip.base.AddFile;
+import com.iofairy.rainforest.zip.base.AddSource;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.base.ZipResult;
+import com.iofairy.tuple.Tuple;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/20 01:10
+ */
+public class AddSourceTest {
+    static File zipDir = new File("src/test/resources/zip-files");
+    static File addSourceDir = new File(zipDir, "addSource");
+
+    @Test
+    void testReZipAddSource() throws Exception {
+        FileUtil.mkdir(addSourceDir);
+        byte[] fileBytes = randomBytes(1, 300 * 1024 + 3);
+        File file = new File(addSourceDir, "source.bin");
+        FileUtil.writeBytes(fileBytes, file);
+        byte[] bufferBytes = randomBytes(2, 70 * 1024);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bufferBytes.length);
+        direct.put(bufferBytes).flip();
+        int generatedSize = 8 * 1024 * 1024;
+
+        List<AddFile> addFiles = Arrays.asList(
+                AddFile.of(AddSource.of(file.toPath()), "added/path.bin"),
+                AddFile.of(AddSource.of(() -> new GeneratedInputStream(generatedSize), generatedSize), "added/generated.bin"),
+                AddFile.of(AddSource.of(direct), "added/buffer.bin"),
+                AddFile.of(AddSource.ofMapped(file.toPath(), 1000, 5000), "added/mapped.bin"));
+
+        File zipFile = new File(addSourceDir, "source.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            zos.putNextEntry(new ZipEntry("a.txt"));
+            zos.write("hello".getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+        }
+        File sevenZFile = new File(addSourceDir, "source.7z");
+        SuperAC.transcode(zipFile, ArchiveFormat.ZIP, sevenZFile, ArchiveFormat.SEVEN_ZIP, 0, null, SuperACs.allSupportedSuperACs());
+        File tarBz2File = new File(zipDir, "tar（1）.tar.bz2");
+
+        Object[][] sources = {{zipFile, ArchiveFormat.ZIP}, {sevenZFile, ArchiveFormat.SEVEN_ZIP}, {tarBz2File, ArchiveFormat.TAR_BZ2}};
+        for (Object[] source : sources) {
+            File archive = (File) source[0];
+            ArchiveFormat format = (ArchiveFormat) source[1];
+            ZipResult<String> zipResult = SuperAC.reZip(new FileInputStream(archive), format, archive.getName(), 0,
+                    (times, zipName) -> true, null, null, null, null, null,
+                    (times, zipName) -> Tuple.of(addFiles, Collections.<String>emptyList()),
+                    null, null, null, null,
+                    (is, os, times, zipName, entryName) -> {
+                        IoUtil.copy(is, os);
+                        return entryName;
+                    }, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+
+            Map<String, byte[]> added = new HashMap<>();
+            SuperAC.unzip(new MultiByteArrayInputStream(zipResult.getBytes()), format, archive.getName(), 0,
+                    null, (times, zipName, entryName) -> entryName.startsWith("added/"), null, null,
+                    (is, times, zipName, entryName) -> added.put(entryName, IoUtil.readBytes(is, false)),
+                    ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+
+            assertEquals(4, added.size(), format.toString());
+            assertArrayEquals(fileBytes, added.get("added/path.bin"), format.toString());
+            assertArrayEquals(Arrays.copyOfRange(fileBytes, 1000, 6000), added.get("added/mapped.bin"), format.toString());
+            assertArrayEquals(bufferBytes, added.get("added/buffer.bin"), format.toString());
+            byte[] generated = added.get("added/generated.bin");
+            assertEquals(generatedSize, generated.length, format.toString());
+            assertArrayEquals(IoUtil.readBytes(new GeneratedInputStream(generatedSize), false), generated, format.toString());
+        }
+        // 数据源可以重复写入，ByteBuffer 的 position 不变
+        assertEquals(bufferBytes.length, direct.remaining());
+    }
+
+    @Test
+    void testSourceSizeMismatch() throws Exception {
+        FileUtil.mkdir(addSourceDir);
+        File tarFile = new File(addSourceDir, "source.tar");
+        try (TarArchiveOutputStream tos = new TarArchiveOutputStream(new FileOutputStream(tarFile))) {
+            TarArchiveEntry entry = new TarArchiveEntry("a.txt");
+            entry.setSize(5);
+            tos.putArchiveEntry(entry);
+            tos.write("hello".getBytes(StandardCharsets.UTF_8));
+            tos.closeArchiveEntry();
+        }
+
+        // 原地更新同样支持数据源
+        SuperAC.update(tarFile, ArchiveFormat.TAR,
+                Collections.singletonList(AddFile.of(AddSource.of(() -> new ByteArrayInputStream(new byte[10]), 10), "b.bin")),
+                null, null, 1, Collections.singletonList(SuperTar.of()));
+        assertEquals(Arrays.asList("a.txt", "b.bin"), names(tarFile));
+
+        // 实际大小与声明的大小不一致
+        assertThrows(Exception.class, () -> SuperAC.reZip(new FileInputStream(tarFile), ArchiveFormat.TAR, tarFile.getName(), 0,
+                (times, zipName) -> true, null, null, null, null, null,
+                (times, zipName) -> Tuple.of(Collections.singletonList(AddFile.of(AddSource.of(() -> new ByteArrayInputStream(new byte[10]), 20), "c.bin")),
+                        Collections.<String>emptyList()),
+                null, null, null, null, null, ZipLogLevel.NONE, Collections.singletonList(SuperTar.of())));
+    }
+
+    private static List<String> names(File tarFile) {
+        List<String> names = new ArrayList<>();
+        SuperAC.list(tarFile, ArchiveFormat.TAR, 0, null, Collections.singletonList(SuperTar.of()))
+                .forEach(e -> names.add(e.getName()));
+        return names;
+    }
+
+    private static byte[] randomBytes(int seed, int length) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * 按需生成数据的输入流，不在内存中保存数据
+     */
+    static class GeneratedInputStream extends InputStream {
+        final long size;
+        long position;
+
+        GeneratedInputStream(long size) {
+            this.size = size;
+        }
+
+        @Override
+        public int read() {
+            return position < size ? (int) ((position++ * 31 + 7) % 251) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= size) return -1;
+            int n = (int) Math.min(len, size - position);
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) read();
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.FileUtil;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperACs;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.index.ArchiveIndex;
+import com.iofairy.rainforest.zip.index.ArchiveIndexCache;
+import com.iofairy.rainforest.zip.index.IndexEntry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/19 10:12
+ */
+public class ArchiveIndexTest {
+    static File zipDir = new File("src/test/resources/zip-files");
+    static File indexCacheDir = new File(zipDir, "indexCache");
+
+    @Test
+    void testIndexSerialization() throws Exception {
+        File zipFile = new File(zipDir, "unzip.zip");
+        ArchiveIndex archiveIndex = SuperAC.index(zipFile, ArchiveFormat.ZIP, -1, SuperACs.allSupportedSuperACs());
+        System.out.println(archiveIndex);
+        printEntries(archiveIndex.getEntries(), "");
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        archiveIndex.writeTo(baos);
+        System.out.println("索引大小：" + baos.size());
+
+        ArchiveIndex readIndex = ArchiveIndex.readFrom(new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(archiveIndex, readIndex);
+        assertEquals(archiveIndex.entryCount(), readIndex.entryCount());
+    }
+
+    @Test
+    void testUnzipWithIndexCache() throws Exception {
+        FileUtil.mkdir(indexCacheDir);
+        File zipFile = new File(zipDir, "unzip.zip");
+        ArchiveIndexCache indexCache = ArchiveIndexCache.of(indexCacheDir);
+        indexCache.remove(zipFile);
+
+        List<String> all = SuperAC.unzip(zipFile, ArchiveFormat.ZIP, -1, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName,
+                ZipLogLevel.DETAIL, SuperACs.allSupportedSuperACs(), indexCache);
+        System.out.println(all);
+        assertNotNull(indexCache.get(zipFile, ArchiveFormat.ZIP));
+
+        // 第二次使用缓存的索引，过滤器没有匹配任何文件，直接跳过整个压缩包
+        List<String> none = SuperAC.unzip(zipFile, ArchiveFormat.ZIP, -1, null,
+                (times, zipName, entryName) -> entryName.endsWith(".not-exists"), null, null,
+                (is, times, zipName, entryName) -> entryName,
+                ZipLogLevel.DETAIL, SuperACs.allSupportedSuperACs(), indexCache);
+        assertTrue(none.isEmpty());
+
+        // 只处理 .txt 文件，与全量解压的结果一致
+        List<String> txts = SuperAC.unzip(zipFile, ArchiveFormat.ZIP, -1, null,
+                (times, zipName, entryName) -> entryName.endsWith(".txt"), null, null,
+                (is, times, zipName, entryName) -> entryName,
+                ZipLogLevel.DETAIL, SuperACs.allSupportedSuperACs(), indexCache);
+        System.out.println(txts);
+        assertEquals(all.stream().filter(e -> e.endsWith(".txt")).count(), txts.size());
+    }
+
+    @Test
+    void testList() throws Exception {
+        File zipFile = new File(zipDir, "unzip.zip");
+        List<IndexEntry> entries = SuperAC.list(zipFile, ArchiveFormat.ZIP, 0, null, SuperACs.allSupportedSuperACs());
+        printEntries(entries, "");
+        assertTrue(entries.stream().allMatch(entry -> entry.getChildren() == null));
+
+        List<IndexEntry> allEntries = SuperAC.list(zipFile, ArchiveFormat.ZIP, -1, null, SuperACs.allSupportedSuperACs());
+        printEntries(allEntries, "");
+        assertEquals(entries.size(), allEntries.size());
+        ArchiveIndex archiveIndex = SuperAC.index(zipFile, ArchiveFormat.ZIP, -1, SuperACs.allSupportedSuperACs());
+        assertEquals(archiveIndex.entryCount(), ArchiveIndex.of(null, null, 0, 0, -1, allEntries).entryCount());
+
+        File tarFile = new File(zipDir, "tar（1）.tar.bz2");
+        List<IndexEntry> tarEntries = SuperAC.list(tarFile, ArchiveFormat.TAR_BZ2, 0, null, SuperACs.allSupportedSuperACs());
+        printEntries(tarEntries, "");
+        assertFalse(tarEntries.isEmpty());
+    }
+
+    private static void printEntries(List<IndexEntry> entries, String indent) {
+        if (entries == null) return;
+        for (IndexEntry entry : entries) {
+            System.out.println(indent + entry.getName() + "  size: " + entry.getSize() + "  crc: " + entry.getCrc() + "  format: " + entry.getFormat());
+            printEntries(entry.getChildren(), indent + "    ");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.iofairy.falcon.io.MultiByteArrayInputStream;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperACs;
+import com.iofairy.rainforest.zip.base.ArchiveSource;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.base.ZipResult;
+import com.iofairy.rainforest.zip.error.SuperACException;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/20 02:20
+ */
+public class ArchiveSourceTest {
+
+    @Test
+    void testUnzipFromSources() throws Exception {
+        byte[] zip = zip();
+        ByteArrayOutputStream sevenZ = new ByteArrayOutputStream();
+        SuperAC.transcode(new ByteArrayInputStream(zip), ArchiveFormat.ZIP, "outer.zip", sevenZ, ArchiveFormat.SEVEN_ZIP, 0, null,
+                SuperACs.allSupportedSuperACs());
+
+        for (ArchiveFormat format : Arrays.asList(ArchiveFormat.ZIP, ArchiveFormat.SEVEN_ZIP)) {
+            byte[] archive = format == ArchiveFormat.ZIP ? zip : sevenZ.toByteArray();
+            List<String> expected = unzip(ArchiveSource.of(new ByteArrayInputStream(archive)), format);
+            assertEquals(Arrays.asList("a.txt:hello a", "b.bin:" + DigestUtil.md5Hex(randomBytes(300 * 1024)), "c.txt:hello c"), expected);
+
+            Path path = Files.createTempFile("archive-source", ".bin");
+            try {
+                Files.write(path, archive);
+                assertEquals(expected, unzip(ArchiveSource.of(path), format));
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    assertEquals(expected, unzip(ArchiveSource.of(channel), format));
+                    assertFalse(channel.isOpen());
+                }
+            } finally {
+                Files.delete(path);
+            }
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(archive.length + 10);
+            direct.position(10);
+            direct.put(archive).flip().position(10);
+            assertEquals(expected, unzip(ArchiveSource.of(direct), format));
+            assertEquals(10, direct.position());
+
+            assertEquals(expected, unzip(ArchiveSource.of(Arrays.copyOf(archive, 100), Arrays.copyOfRange(archive, 100, archive.length)), format));
+            assertEquals(expected, unzip(ArchiveSource.of(new SeekableInMemoryByteChannel(archive)), format));
+        }
+
+        assertThrows(SuperACException.class, () -> unzip(null, ArchiveFormat.ZIP));
+    }
+
+    @Test
+    void testZipReadsCentralDirectory() throws Exception {
+        Path path = Files.createTempFile("archive-source", ".zip");
+        try {
+            Files.write(path, zip());
+            // 只从中央目录中删除 b.bin，本地条目仍在压缩包中
+            SuperAC.update(path.toFile(), ArchiveFormat.ZIP, null, null, name -> name.equals("b.bin"), 1, SuperACs.allSupportedSuperACs());
+
+            // 可以随机读取的数据源读取中央目录，不读取已删除的条目（流式读取本地文件头时，条目数与中央目录不一致）
+            assertEquals(Arrays.asList("a.txt:hello a", "c.txt:hello c"), unzip(ArchiveSource.of(path), ArchiveFormat.ZIP));
+
+            List<String> fast = SuperAC.unzipFast(ArchiveSource.of(Files.readAllBytes(path)), ArchiveFormat.ZIP, "outer", 0, null, null,
+                    (is, times, zipName, entryName, closeables) -> entryName + ":" + IoUtil.read(new InputStreamReader(is, StandardCharsets.UTF_8), false),
+                    ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+            assertEquals(Arrays.asList("a.txt:hello a", "c.txt:hello c"), fast);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testReZipFromSource() throws Exception {
+        byte[] zip = zip();
+        ByteArrayOutputStream sevenZ = new ByteArrayOutputStream();
+        SuperAC.transcode(new ByteArrayInputStream(zip), ArchiveFormat.ZIP, "outer.zip", sevenZ, ArchiveFormat.SEVEN_ZIP, 0, null,
+                SuperACs.allSupportedSuperACs());
+
+        ZipResult<String> zipResult = SuperAC.reZip(ArchiveSource.of(ByteBuffer.wrap(sevenZ.toByteArray())), ArchiveFormat.SEVEN_ZIP, "outer.7z", -1,
+                null, (times, zipName, entryName) -> entryName.equals("b.bin"), null, null, null, null, null, null, null, null, null,
+                (is, os, times, zipName, entryName) -> {
+                    os.write(IoUtil.read(new InputStreamReader(is, StandardCharsets.UTF_8), false).toUpperCase().getBytes(StandardCharsets.UTF_8));
+                    return entryName;
+                }, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+        assertEquals(Arrays.asList("a.txt", "c.txt"), zipResult.getResults());
+        assertEquals(Arrays.asList("a.txt:HELLO A", "c.txt:HELLO C"),
+                unzip(ArchiveSource.of(new MultiByteArrayInputStream(zipResult.getBytes())), ArchiveFormat.SEVEN_ZIP));
+    }
+
+    private static List<String> unzip(ArchiveSource source, ArchiveFormat format) throws Exception {
+        return SuperAC.unzip(source, format, "outer", -1, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + (entryName.endsWith(".txt")
+                        ? IoUtil.read(new InputStreamReader(is, StandardCharsets.UTF_8), false) : DigestUtil.md5Hex(is)),
+                ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+    }
+
+    private static byte[] zip() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            ZipTestFixtures.put(zos, "a.txt", "hello a".getBytes(StandardCharsets.UTF_8));
+            ZipTestFixtures.put(zos, "b.bin", randomBytes(300 * 1024));
+            ZipTestFixtures.put(zos, "c.txt", "hello c".getBytes(StandardCharsets.UTF_8));
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(7).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,106 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.IoUtil;
+import com.iofairy.falcon.io.MultiByteArrayInputStream;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperACs;
+import com.iofairy.rainforest.zip.base.ZipExecutors;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.base.ZipResult;
+import com.iofairy.rainforest.zip.error.SuperACException;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/19 23:40
+ */
+public class AsyncTest {
+    static File zipDir = new File("src/test/resources/zip-files");
+
+    @Test
+    void testUnzipAsync() throws Exception {
+        File tarBz2File = new File(zipDir, "tar（1）.tar.bz2");
+        List<String> expected = SuperAC.unzip(new FileInputStream(tarBz2File), ArchiveFormat.TAR_BZ2, tarBz2File.getName(), -1,
+                null, null, null, null, AsyncTest::content, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+
+        // 默认执行器，多个任务并发执行
+        List<CompletableFuture<List<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(SuperAC.unzipAsync(new FileInputStream(tarBz2File), ArchiveFormat.TAR_BZ2, tarBz2File.getName(), -1,
+                    null, null, null, null, AsyncTest::content, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs(), null));
+        }
+        for (CompletableFuture<List<String>> future : futures) {
+            assertEquals(expected, future.get(60, TimeUnit.SECONDS));
+        }
+
+        // 自定义执行器
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<String> actual = SuperAC.unzipFastAsync(new FileInputStream(tarBz2File), ArchiveFormat.TAR_BZ2, tarBz2File.getName(), -1,
+                    null, null, (is, times, zipName, entryName, closeables) -> content(is, times, zipName, entryName),
+                    ZipLogLevel.NONE, SuperACs.allSupportedSuperACs(), executor).get(60, TimeUnit.SECONDS);
+            assertEquals(expected, actual);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testReZipAsync() throws Exception {
+        File tarBz2File = new File(zipDir, "tar（1）.tar.bz2");
+        ZipResult<String> zipResult = SuperAC.reZipAsync(new FileInputStream(tarBz2File), ArchiveFormat.TAR_BZ2, tarBz2File.getName(), -1,
+                null, null, (is, os, times, zipName, entryName) -> {
+                    IoUtil.copy(is, os);
+                    return entryName;
+                }, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs(), null).get(60, TimeUnit.SECONDS);
+        assertFalse(zipResult.getResults().isEmpty());
+
+        List<String> expected = SuperAC.unzip(new FileInputStream(tarBz2File), ArchiveFormat.TAR_BZ2, tarBz2File.getName(), -1,
+                null, null, null, null, AsyncTest::content, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+        List<String> actual = SuperAC.unzip(new MultiByteArrayInputStream(zipResult.getBytes()), ArchiveFormat.TAR_BZ2, tarBz2File.getName(), -1,
+                null, null, null, null, AsyncTest::content, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+        assertEquals(expected, actual);
+
+        // 异常通过 CompletableFuture 传递
+        CompletableFuture<ZipResult<String>> future = SuperAC.reZipAsync(new ByteArrayInputStream(new byte[]{1, 2, 3}), ArchiveFormat.TAR_BZ2,
+                "error.tar.bz2", -1, null, null, (is, os, times, zipName, entryName) -> entryName,
+                ZipLogLevel.NONE, SuperACs.allSupportedSuperACs(), null);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(60, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof SuperACException);
+    }
+
+    @Test
+    void testVirtualThread() throws Exception {
+        boolean java21 = !System.getProperty("java.specification.version").startsWith("1.")
+                && Integer.parseInt(System.getProperty("java.specification.version")) >= 21;
+        assertEquals(java21, ZipExecutors.isVirtualThreadSupported());
+        if (!java21) {
+            assertThrows(UnsupportedOperationException.class, ZipExecutors::newVirtualThreadPerTaskExecutor);
+            return;
+        }
+
+        File tarBz2File = new File(zipDir, "tar（1）.tar.bz2");
+        ExecutorService executor = ZipExecutors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Boolean> virtuals = SuperAC.unzipAsync(new FileInputStream(tarBz2File), ArchiveFormat.TAR_BZ2, tarBz2File.getName(), 0,
+                    null, null, null, null, (is, times, zipName, entryName) -> Thread.currentThread().getName().startsWith("rainforest-async-virtual-"),
+                    ZipLogLevel.NONE, SuperACs.allSupportedSuperACs(), executor).get(60, TimeUnit.SECONDS);
+            assertTrue(virtuals.stream().allMatch(v -> v));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static String content(InputStream is, Integer times, String zipName, String entryName) throws IOException {
+        byte[] bytes = IoUtil.readBytes(is, false);
+        return entryName + ":" + bytes.length + ":" + Arrays.hashCode(bytes);
+    }
+}
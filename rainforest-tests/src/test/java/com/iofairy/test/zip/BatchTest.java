@@ -0,0 +1,104 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.ArchiveBatch;
+import com.iofairy.rainforest.zip.base.BatchResult;
+import com.iofairy.rainforest.zip.base.BatchSummary;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.error.SuperACException;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/19 23:55
+ */
+public class BatchTest {
+    static File zipDir = new File("src/test/resources/zip-files");
+    static File batchDir = new File(zipDir, "batch");
+
+    @Test
+    void testBatchUnzip() throws Exception {
+        prepareFiles();
+
+        List<BatchResult<List<String>>> results = new ArrayList<>();
+        BatchSummary summary = ArchiveBatch.of()
+                .setParallelism(3)
+                .unzip(Collections.singletonList(batchDir), -1, null, null,
+                        (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                        ZipLogLevel.NONE, results::add);
+
+        assertEquals(5, summary.getTotalFiles());
+        assertEquals(3, summary.getSucceededFiles());
+        assertEquals(1, summary.getFailedFiles());
+        assertEquals(1, summary.getSkippedFiles());
+        assertEquals(5, results.size());
+        assertTrue(summary.getBytesPerSecond() > 0);
+
+        Map<String, BatchResult<List<String>>> resultMap = results.stream().collect(Collectors.toMap(r -> r.getFile().getName(), r -> r));
+        assertTrue(resultMap.get("readme.txt").isSkipped());
+        assertNotNull(resultMap.get("broken.gz").getError());
+        assertEquals(ArchiveFormat.GZIP, resultMap.get("broken.gz").getFormat());
+        assertEquals(Collections.singletonList("a.txt:5"), resultMap.get("a.zip").getResult());
+        assertEquals(Collections.singletonList("b.txt:6"), resultMap.get("b.zip").getResult());
+        assertEquals(ArchiveFormat.TAR_BZ2, resultMap.get("tar（1）.tar.bz2").getFormat());
+        assertTrue(resultMap.get("tar（1）.tar.bz2").isSuccess());
+
+        // 不递归子目录
+        summary = ArchiveBatch.of().setRecursive(false).process(batchDir, (file, format) -> format, null);
+        assertEquals(4, summary.getTotalFiles());
+    }
+
+    @Test
+    void testLargestFirst() throws Exception {
+        prepareFiles();
+
+        // 单线程时按文件大小从大到小处理，内存上限小于单个文件时仍能处理
+        List<Long> sizes = new ArrayList<>();
+        BatchSummary summary = ArchiveBatch.of()
+                .setParallelism(1)
+                .setMaxInFlightBytes(16)
+                .process(batchDir, (file, format) -> file.length(), r -> {
+                    if (!r.isSkipped()) sizes.add(r.getResult());
+                });
+        assertEquals(4, sizes.size());
+        List<Long> sorted = new ArrayList<>(sizes);
+        sorted.sort(Comparator.reverseOrder());
+        assertEquals(sorted, sizes);
+        assertEquals(4, summary.getSucceededFiles());
+
+        // sink 的异常
+        assertThrows(SuperACException.class, () -> ArchiveBatch.of().process(batchDir, (file, format) -> format, r -> {
+            throw new IllegalStateException("sink error");
+        }));
+    }
+
+    private static void prepareFiles() throws IOException {
+        FileUtil.del(batchDir);
+        FileUtil.mkdir(new File(batchDir, "sub"));
+        FileUtil.copy(new File(zipDir, "tar（1）.tar.bz2"), batchDir, true);
+        writeZip(new File(batchDir, "a.zip"), "a.txt", "hello");
+        writeZip(new File(batchDir, "sub/b.zip"), "b.txt", "hello!");
+        FileUtil.writeBytes(new byte[]{1, 2, 3, 4}, new File(batchDir, "broken.gz"));
+        FileUtil.writeString("not an archive", new File(batchDir, "readme.txt"), StandardCharsets.UTF_8);
+    }
+
+    private static void writeZip(File file, String entryName, String content) throws IOException {
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(file))) {
+            zos.putNextEntry(new ZipEntry(entryName));
+            zos.write(content.getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperACs;
+import com.iofairy.rainforest.zip.ac.SuperTarGzip;
+import com.iofairy.rainforest.zip.base.TraceSpan;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.base.ZipTrace;
+import com.iofairy.rainforest.zip.error.SuperACException;
+import com.iofairy.rainforest.zip.index.GzipIndex;
+import com.iofairy.rainforest.zip.index.GzipIndexInputStream;
+import com.iofairy.tuple.Tuple2;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/19 15:36
+ */
+public class GzipIndexTest {
+    static File zipDir = new File("src/test/resources/zip-files");
+    static File gzipIndexDir = new File(zipDir, "gzipIndex");
+
+    @Test
+    void testRandomAccess() throws Exception {
+        File tarGzFile = createTarGz();
+        byte[] tarBytes = ZipTestFixtures.tarBytes();
+
+        GzipIndex gzipIndex;
+        try (GzipIndexInputStream gis = new GzipIndexInputStream(new FileInputStream(tarGzFile), 8 * 1024)) {
+            gzipIndex = GzipIndex.build(gis);
+        }
+        System.out.println(gzipIndex);
+        assertEquals(tarBytes.length, gzipIndex.getUncompressedSize());
+        assertEquals(tarGzFile.length(), gzipIndex.getCompressedSize());
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        gzipIndex.writeTo(baos);
+        GzipIndex readIndex = GzipIndex.readFrom(new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(gzipIndex.getPoints().size(), readIndex.getPoints().size());
+
+        try (GzipIndex.Reader reader = readIndex.reader(tarGzFile)) {
+            for (long offset = tarBytes.length - 1; offset >= 0; offset -= tarBytes.length / 17 + 1) {
+                byte[] bytes = IoUtil.readBytes(reader.open(offset, 3000), false);
+                int end = (int) Math.min(tarBytes.length, offset + 3000);
+                assertArrayEquals(Arrays.copyOfRange(tarBytes, (int) offset, end), bytes);
+            }
+        }
+    }
+
+    @Test
+    void testUnzipWithGzipIndex() throws Exception {
+        File tarGzFile = createTarGz();
+        File indexFile = new File(gzipIndexDir, tarGzFile.getName() + GzipIndex.INDEX_FILE_EXT);
+        FileUtil.del(indexFile);
+
+        SuperTarGzip superTarGzip = SuperTarGzip.of();
+        GzipIndex gzipIndex = superTarGzip.gzipIndex(tarGzFile, 8 * 1024, indexFile);
+        System.out.println(gzipIndex);
+        assertTrue(indexFile.isFile());
+        assertNotNull(gzipIndex.getEntries());
+
+        List<String> expected = SuperAC.unzip(new FileInputStream(tarGzFile), ArchiveFormat.TAR_GZ, tarGzFile.getName(), 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.DETAIL, SuperACs.allSupportedSuperACs());
+
+        // 第二次直接加载索引文件
+        GzipIndex loadedIndex = superTarGzip.gzipIndex(tarGzFile, 8 * 1024, indexFile);
+        List<String> actual = superTarGzip.unzip(tarGzFile, loadedIndex, 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.DETAIL, SuperACs.allSupportedSuperACs());
+        System.out.println(actual);
+        assertEquals(expected, actual);
+
+        String last = expected.get(expected.size() - 1);
+        List<String> one = superTarGzip.unzip(tarGzFile, loadedIndex, 0, null,
+                (times, zipName, entryName) -> last.startsWith(entryName + ":"), null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.DETAIL, SuperACs.allSupportedSuperACs());
+        assertEquals(1, one.size());
+        assertEquals(last, one.get(0));
+
+        // 与其他入口一样，记录最外层压缩包的跟踪，异常时包装为 SuperACException
+        Tuple2<List<String>, ZipTrace> tuple = ZipTrace.record(() -> superTarGzip.unzip(tarGzFile, loadedIndex, 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs()));
+        TraceSpan root = tuple._2.getRoots().get(0);
+        assertEquals(TraceSpan.Type.ARCHIVE, root.getType());
+        assertEquals(tarGzFile.getName(), root.getName());
+        assertTrue(root.isCompleted());
+        SuperACException e = assertThrows(SuperACException.class, () -> superTarGzip.unzip(tarGzFile, loadedIndex, 0, null, null, null, null,
+                (is, times, zipName, entryName) -> {
+                    throw new IOException("action failed");
+                }, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs()));
+        assertTrue(e.getMessage().contains(tarGzFile.getName()), e.getMessage());
+    }
+
+    private static File createTarGz() throws IOException {
+        FileUtil.mkdir(gzipIndexDir);
+        File tarGzFile = new File(gzipIndexDir, "tar（1）.tar.gz");
+        try (OutputStream os = new GZIPOutputStream(new FileOutputStream(tarGzFile))) {
+            os.write(ZipTestFixtures.tarBytes());
+        }
+        return tarGzFile;
+    }
+}
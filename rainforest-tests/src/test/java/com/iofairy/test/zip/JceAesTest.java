@@ -0,0 +1,191 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.iofairy.falcon.io.IOs;
+import com.iofairy.falcon.io.MultiByteArrayInputStream;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperACs;
+import com.iofairy.rainforest.zip.ac.SuperZipProtected;
+import com.iofairy.rainforest.zip.attr.ZipOutputProperty;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.base.ZipResult;
+import com.iofairy.rainforest.zip.config.PasswordProvider;
+import com.iofairy.rainforest.zip.config.ZipPassword;
+import com.iofairy.rainforest.zip.error.SuperACException;
+import net.lingala.zip4j.io.inputstream.ZipInputStream;
+import net.lingala.zip4j.io.outputstream.ZipOutputStream;
+import net.lingala.zip4j.model.LocalFileHeader;
+import net.lingala.zip4j.model.ZipParameters;
+import net.lingala.zip4j.model.enums.AesKeyStrength;
+import net.lingala.zip4j.model.enums.AesVersion;
+import net.lingala.zip4j.model.enums.CompressionMethod;
+import net.lingala.zip4j.model.enums.EncryptionMethod;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/20 02:35
+ */
+public class JceAesTest {
+    private static final String PASSWORD = "jce-aes-密码";
+
+    @Test
+    void testUnzipZip4jArchives() throws Exception {
+        Map<String, byte[]> contents = contents();
+        List<String> expected = expected(contents);
+        for (AesKeyStrength keyStrength : Arrays.asList(AesKeyStrength.KEY_STRENGTH_128, AesKeyStrength.KEY_STRENGTH_256)) {
+            for (AesVersion aesVersion : AesVersion.values()) {
+                for (CompressionMethod method : Arrays.asList(CompressionMethod.DEFLATE, CompressionMethod.STORE)) {
+                    byte[] zip = zip4jZip(contents, EncryptionMethod.AES, keyStrength, aesVersion, method);
+                    assertEquals(expected, unzip(zip, true), keyStrength + " " + aesVersion + " " + method);
+                    assertEquals(expected, unzip(zip, false));
+                }
+            }
+        }
+
+        // ZipCrypto 与未加密的压缩包同样可以读取
+        byte[] standardZip = zip4jZip(contents, EncryptionMethod.ZIP_STANDARD, null, null, CompressionMethod.DEFLATE);
+        assertEquals(expected, unzip(standardZip, true));
+        byte[] plainZip = zip4jZip(contents, EncryptionMethod.NONE, null, null, CompressionMethod.DEFLATE);
+        assertEquals(expected, unzip(plainZip, true));
+    }
+
+    @Test
+    void testReZipReadableByZip4j() throws Exception {
+        Map<String, byte[]> contents = contents();
+        byte[] zip = zip4jZip(contents, EncryptionMethod.AES, AesKeyStrength.KEY_STRENGTH_256, AesVersion.TWO, CompressionMethod.DEFLATE);
+        for (AesKeyStrength keyStrength : Arrays.asList(AesKeyStrength.KEY_STRENGTH_128, AesKeyStrength.KEY_STRENGTH_256)) {
+            ZipParameters zipParameters = new ZipParameters();
+            zipParameters.setEncryptionMethod(EncryptionMethod.AES);
+            zipParameters.setAesKeyStrength(keyStrength);
+            SuperZipProtected superZipProtected = superZipProtected(true)
+                    .setReZipOutputProperty(ZipOutputProperty.of().setZipParameters(zipParameters).setAdaptiveMethod(true));
+
+            ZipResult<Object> zipResult = SuperAC.reZip(new ByteArrayInputStream(zip), ArchiveFormat.ZIP, "secret.zip", 0,
+                    null, null, (is, os, times, zipName, entryName) -> {
+                        IOs.copy(is, os);
+                        return null;
+                    },
+                    ZipLogLevel.NONE, superACs(superZipProtected));
+
+            // zip4j 读取 JDK AES 加密的压缩包
+            Set<String> names = new LinkedHashSet<>();
+            try (ZipInputStream zis = new ZipInputStream(new MultiByteArrayInputStream(zipResult.getBytes()), PASSWORD.toCharArray())) {
+                LocalFileHeader header;
+                while ((header = zis.getNextEntry()) != null) {
+                    names.add(header.getFileName());
+                    if (header.isDirectory()) continue;
+                    assertTrue(header.isEncrypted());
+                    assertEquals(EncryptionMethod.AES, header.getEncryptionMethod());
+                    assertEquals(keyStrength, header.getAesExtraDataRecord().getAesKeyStrength());
+                    assertArrayEquals(contents.get(header.getFileName()), IoUtil.readBytes(zis, false));
+                }
+            }
+            assertEquals(new LinkedHashSet<>(Arrays.asList("dir/", "dir/text.txt", "random.bin", "empty.txt")), names);
+            assertEquals(expected(contents), unzip(IoUtil.readBytes(new MultiByteArrayInputStream(zipResult.getBytes()), false), true));
+        }
+    }
+
+    @Test
+    void testWrongPasswordAndTampered() throws Exception {
+        Map<String, byte[]> contents = contents();
+        byte[] zip = zip4jZip(contents, EncryptionMethod.AES, AesKeyStrength.KEY_STRENGTH_256, AesVersion.TWO, CompressionMethod.DEFLATE);
+
+        SuperZipProtected wrongPassword = SuperZipProtected.of().setUnzipPasswordProvider(PasswordProvider.of(ZipPassword.of("*.zip", "wrong")));
+        assertThrows(SuperACException.class, () -> unzip(zip, superACs(wrongPassword)));
+
+        // 修改加密的数据，认证码校验失败
+        byte[] tampered = zip.clone();
+        tampered[tampered.length / 2] ^= 0x01;
+        assertThrows(SuperACException.class, () -> unzip(tampered, true));
+    }
+
+    private static List<String> unzip(byte[] zip, boolean jceAes) throws Exception {
+        return unzip(zip, superACs(superZipProtected(jceAes)));
+    }
+
+    private static List<String> unzip(byte[] zip, List<SuperAC> superACs) throws Exception {
+        return SuperAC.unzip(new ByteArrayInputStream(zip), ArchiveFormat.ZIP, "secret.zip", -1, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + DigestUtil.md5Hex(is),
+                ZipLogLevel.NONE, superACs);
+    }
+
+    private static SuperZipProtected superZipProtected(boolean jceAes) {
+        PasswordProvider provider = PasswordProvider.of(ZipPassword.of("*.zip", PASSWORD));
+        return SuperZipProtected.of().setUnzipPasswordProvider(provider).setReZipPasswordProvider(provider).setJceAes(jceAes);
+    }
+
+    private static List<SuperAC> superACs(SuperZipProtected superZipProtected) {
+        List<SuperAC> superACs = SuperACs.allSupportedSuperACs();
+        superACs.add(superZipProtected);
+        return superACs;
+    }
+
+    private static List<String> expected(Map<String, byte[]> contents) {
+        List<String> expected = new ArrayList<>();
+        for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+            expected.add(entry.getKey() + ":" + DigestUtil.md5Hex(entry.getValue()));
+        }
+        return expected;
+    }
+
+    private static Map<String, byte[]> contents() {
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            text.append("line ").append(i).append(": the quick brown fox jumps over the lazy dog\n");
+        }
+        contents.put("dir/text.txt", text.toString().getBytes(StandardCharsets.UTF_8));
+
+        byte[] random = new byte[300 * 1024 + 7];
+        new Random(7).nextBytes(random);
+        contents.put("random.bin", random);
+        contents.put("empty.txt", new byte[0]);
+        return contents;
+    }
+
+    private static byte[] zip4jZip(Map<String, byte[]> contents, EncryptionMethod encryptionMethod, AesKeyStrength keyStrength,
+                                   AesVersion aesVersion, CompressionMethod method) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos, PASSWORD.toCharArray())) {
+            ZipParameters dirParameters = new ZipParameters();
+            dirParameters.setFileNameInZip("dir/");
+            zos.putNextEntry(dirParameters);
+            zos.closeEntry();
+
+            for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+                ZipParameters zipParameters = new ZipParameters();
+                zipParameters.setFileNameInZip(entry.getKey());
+                zipParameters.setCompressionMethod(method);
+                zipParameters.setEntrySize(entry.getValue().length);
+                if (encryptionMethod != EncryptionMethod.NONE) {
+                    zipParameters.setEncryptFiles(true);
+                    zipParameters.setEncryptionMethod(encryptionMethod);
+                }
+                if (keyStrength != null) zipParameters.setAesKeyStrength(keyStrength);
+                if (aesVersion != null) zipParameters.setAesVersion(aesVersion);
+                zos.putNextEntry(zipParameters);
+                // 分多次写入
+                InputStream is = new ByteArrayInputStream(entry.getValue());
+                byte[] buffer = new byte[7000];
+                int n;
+                while ((n = is.read(buffer)) != -1) {
+                    zos.write(buffer, 0, n);
+                }
+                zos.closeEntry();
+            }
+        }
+        return baos.toByteArray();
+    }
+}
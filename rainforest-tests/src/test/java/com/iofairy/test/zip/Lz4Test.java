@@ -0,0 +1,95 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import com.iofairy.falcon.io.MultiByteArrayInputStream;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.*;
+import com.iofairy.rainforest.zip.attr.Lz4OutputProperty;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.base.ZipResult;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/19 22:20
+ */
+public class Lz4Test {
+    static File zipDir = new File("src/test/resources/zip-files");
+    static File lz4Dir = new File(zipDir, "lz4");
+
+    @Test
+    void testUnzipTarLz4() throws Exception {
+        File tarBz2File = new File(zipDir, "tar（1）.tar.bz2");
+        File tarLz4File = createTarLz4(Lz4OutputProperty.of());
+
+        List<String> expected = sorted(SuperAC.unzip(new FileInputStream(tarBz2File), ArchiveFormat.TAR_BZ2, tarBz2File.getName(), -1, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.NONE, SuperACs.allSupportedSuperACs()));
+
+        // .tar.lz4 作为 SuperTarLz4 直接解压（后传入的 SuperTarLz4 替换 SuperLz4）
+        List<SuperAC> superACs = SuperACs.allSupportedSuperACs();
+        superACs.add(SuperTarLz4.of());
+        List<String> tarLz4 = sorted(SuperAC.unzip(new FileInputStream(tarLz4File), ArchiveFormat.LZ4, tarLz4File.getName(), -1, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.NONE, superACs));
+        assertEquals(expected, tarLz4);
+
+        // SuperLz4 先解压出 .tar，再自动解压内部的 tar
+        List<String> lz4 = sorted(SuperAC.unzipFast(new FileInputStream(tarLz4File), ArchiveFormat.LZ4, tarLz4File.getName(), -1, null, null,
+                (is, times, zipName, entryName, closeables) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.NONE, SuperACs.allSupportedSuperACs()));
+        assertEquals(expected, lz4);
+    }
+
+    @Test
+    void testReZipLz4() throws Exception {
+        File tarLz4File = createTarLz4(Lz4OutputProperty.of().setWithBlockDependency(true).setWithBlockChecksum(true));
+
+        List<String> expected = sorted(SuperAC.unzip(new FileInputStream(tarLz4File), ArchiveFormat.LZ4, tarLz4File.getName(), -1, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.NONE, SuperACs.allSupportedSuperACs()));
+
+        SuperTarLz4 superTarLz4 = SuperTarLz4.of().setReZipOutputProperty(Lz4OutputProperty.of().setBlockSize(FramedLZ4CompressorOutputStream.BlockSize.K64));
+        List<SuperAC> withTarLz4 = SuperACs.allSupportedSuperACs();
+        withTarLz4.add(superTarLz4);
+        List<List<SuperAC>> superACsList = Arrays.asList(SuperACs.allSupportedSuperACs(), withTarLz4);
+        for (List<SuperAC> superACs : superACsList) {
+            ZipResult<Object> zipResult = SuperAC.reZip(new FileInputStream(tarLz4File), ArchiveFormat.LZ4, tarLz4File.getName(), -1, null, null,
+                    (is, os, times, zipName, entryName) -> {
+                        IoUtil.copy(is, os);
+                        return null;
+                    },
+                    ZipLogLevel.NONE, superACs);
+
+            List<String> actual = sorted(SuperAC.unzip(new MultiByteArrayInputStream(zipResult.getBytes()), ArchiveFormat.LZ4, tarLz4File.getName(), -1, null, null, null, null,
+                    (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                    ZipLogLevel.NONE, SuperACs.allSupportedSuperACs()));
+            assertEquals(expected, actual);
+        }
+    }
+
+    private static List<String> sorted(List<String> list) {
+        return list.stream().sorted().collect(Collectors.toList());
+    }
+
+    private static File createTarLz4(Lz4OutputProperty outputProperty) throws IOException {
+        FileUtil.mkdir(lz4Dir);
+        File tarLz4File = new File(lz4Dir, "tar（1）.tar.lz4");
+        try (InputStream is = new BZip2CompressorInputStream(new FileInputStream(new File(zipDir, "tar（1）.tar.bz2")));
+             OutputStream os = new FramedLZ4CompressorOutputStream(new FileOutputStream(tarLz4File), outputProperty.toParameters())) {
+            IoUtil.copy(is, os);
+        }
+        return tarLz4File;
+    }
+}
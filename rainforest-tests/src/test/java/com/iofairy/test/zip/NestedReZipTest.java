@@ -0,0 +1,146 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.iofairy.falcon.io.MultiByteArrayInputStream;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperACs;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.base.ZipResult;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/20 01:50
+ */
+public class NestedReZipTest {
+
+    @Test
+    void testNestedZip() throws Exception {
+        byte[] outer = zip(entries("a.txt", "hello a".getBytes(StandardCharsets.UTF_8),
+                "inner.zip", zip(entries("b.txt", "hello b".getBytes(StandardCharsets.UTF_8),
+                        "deep.tar", tar(entries("c.txt", "hello c".getBytes(StandardCharsets.UTF_8), "d.bin", randomBytes(1, 100 * 1024)))))));
+
+        // 内部压缩包重压缩的结果直接写入父压缩包的条目
+        ZipResult<String> zipResult = reZip(outer, ArchiveFormat.ZIP, false);
+        assertEquals(Arrays.asList("a.txt", "b.txt", "c.txt"), nonNull(zipResult));
+        Map<String, String> contents = contents(zipResult, ArchiveFormat.ZIP);
+        assertEquals("HELLO A", contents.get("a.txt"));
+        assertEquals("HELLO B", contents.get("b.txt"));
+        assertEquals("HELLO C", contents.get("c.txt"));
+        assertEquals(DigestUtil.md5Hex(randomBytes(1, 100 * 1024)), contents.get("d.bin"));
+
+        // 执行 afterZipAction 时先缓存，结果相同
+        ZipResult<String> afterZipResult = reZip(outer, ArchiveFormat.ZIP, true);
+        assertEquals(Arrays.asList("a.txt", "b.txt", "c.txt", "after:deep.tar", "after:inner.zip"), nonNull(afterZipResult));
+        assertEquals(contents, contents(afterZipResult, ArchiveFormat.ZIP));
+    }
+
+    @Test
+    void testNestedTarAnd7z() throws Exception {
+        byte[] inner = zip(entries("b.txt", "hello b".getBytes(StandardCharsets.UTF_8)));
+        byte[] outerTar = tar(entries("a.txt", "hello a".getBytes(StandardCharsets.UTF_8),
+                "e.bin", randomBytes(2, 300 * 1024), "inner.zip", inner));
+
+        // tar：原样复制的条目大小已知，直接写入；内容被修改的条目先缓存
+        ZipResult<String> zipResult = reZip(outerTar, ArchiveFormat.TAR, false);
+        assertEquals(Arrays.asList("a.txt", "b.txt"), nonNull(zipResult));
+        Map<String, String> contents = contents(zipResult, ArchiveFormat.TAR);
+        assertEquals("HELLO A", contents.get("a.txt"));
+        assertEquals("HELLO B", contents.get("b.txt"));
+        assertEquals(DigestUtil.md5Hex(randomBytes(2, 300 * 1024)), contents.get("e.bin"));
+
+        // 7z
+        ByteArrayOutputStream sevenZ = new ByteArrayOutputStream();
+        SuperAC.transcode(new ByteArrayInputStream(outerTar), ArchiveFormat.TAR, "outer.tar", sevenZ, ArchiveFormat.SEVEN_ZIP, 0, null,
+                SuperACs.allSupportedSuperACs());
+        zipResult = reZip(sevenZ.toByteArray(), ArchiveFormat.SEVEN_ZIP, false);
+        assertEquals(Arrays.asList("a.txt", "b.txt"), nonNull(zipResult));
+        assertEquals(contents, contents(zipResult, ArchiveFormat.SEVEN_ZIP));
+    }
+
+    private static ZipResult<String> reZip(byte[] archive, ArchiveFormat format, boolean afterZip) throws Exception {
+        return SuperAC.reZip(new ByteArrayInputStream(archive), format, "outer", -1,
+                null, null, null, null, null, afterZip ? (times, zipName, entryName) -> true : null,
+                null, null, null, null,
+                afterZip ? (is, times, zipName, entryName) -> "after:" + entryName : null,
+                (is, os, times, zipName, entryName) -> {
+                    if (entryName.endsWith(".txt")) {
+                        os.write(IoUtil.read(new InputStreamReader(is, StandardCharsets.UTF_8), false).toUpperCase().getBytes(StandardCharsets.UTF_8));
+                        return entryName;
+                    }
+                    IoUtil.copy(is, os);
+                    return null;
+                }, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+    }
+
+    private static List<String> nonNull(ZipResult<String> zipResult) {
+        List<String> results = new ArrayList<>(zipResult.getResults());
+        results.removeIf(Objects::isNull);
+        return results;
+    }
+
+    /**
+     * 解压所有层级，文本文件取内容，其他文件取摘要
+     */
+    private static Map<String, String> contents(ZipResult<String> zipResult, ArchiveFormat format) throws Exception {
+        Map<String, String> contents = new TreeMap<>();
+        SuperAC.unzip(new MultiByteArrayInputStream(zipResult.getBytes()), format, "outer", -1, null, null, null, null,
+                (is, times, zipName, entryName) -> contents.put(entryName,
+                        entryName.endsWith(".txt") ? IoUtil.read(new InputStreamReader(is, StandardCharsets.UTF_8), false) : DigestUtil.md5Hex(is)),
+                ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+        return contents;
+    }
+
+    private static Map<String, byte[]> entries(Object... nameAndBytes) {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (int i = 0; i < nameAndBytes.length; i += 2) {
+            entries.put((String) nameAndBytes[i], (byte[]) nameAndBytes[i + 1]);
+        }
+        return entries;
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                zos.putNextEntry(new ZipEntry(entry.getKey()));
+                zos.write(entry.getValue());
+                zos.closeEntry();
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] tar(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tos = new TarArchiveOutputStream(baos)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                TarArchiveEntry tarArchiveEntry = new TarArchiveEntry(entry.getKey());
+                tarArchiveEntry.setSize(entry.getValue().length);
+                tos.putArchiveEntry(tarArchiveEntry);
+                tos.write(entry.getValue());
+                tos.closeArchiveEntry();
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] randomBytes(int seed, int length) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
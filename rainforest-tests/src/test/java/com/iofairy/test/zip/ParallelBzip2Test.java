@@ -0,0 +1,144 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.IoUtil;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.ParallelBzip2InputStream;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperTarBzip2;
+import com.iofairy.rainforest.zip.attr.Bzip2InputProperty;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/19 19:40
+ */
+public class ParallelBzip2Test {
+    static File zipDir = new File("src/test/resources/zip-files");
+
+    @Test
+    void testParallelBzip2InputStream() throws Exception {
+        // 块大小为 100KB，产生多个块
+        byte[] bytes = new byte[1024 * 1024];
+        Random random = new Random(42);
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ('a' + random.nextInt(26));
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (OutputStream os = new BZip2CompressorOutputStream(baos, 1)) {
+            os.write(bytes);
+        }
+        byte[] compressed = baos.toByteArray();
+
+        try (InputStream is = new ParallelBzip2InputStream(new ByteArrayInputStream(compressed), false, 4, null)) {
+            assertArrayEquals(bytes, IoUtil.readBytes(is, false));
+        }
+
+        // 流的 CRC 错误
+        byte[] badCrc = compressed.clone();
+        badCrc[badCrc.length - 2] ^= 1;
+        assertThrows(IOException.class, () -> {
+            try (InputStream is = new ParallelBzip2InputStream(new ByteArrayInputStream(badCrc), false, 4, null)) {
+                byte[] buffer = new byte[8192];
+                while (is.read(buffer) != -1) ;
+            }
+        });
+    }
+
+    @Test
+    void testEosMagicInBlockData() throws Exception {
+        /*
+         * 块头之后依次是：randomised（1比特）、origPtr（24比特）、16组字节值是否使用（16比特）、每个使用的组中字节值是否使用（16比特）。
+         * 只使用以下字节值时，从块的第105比特开始正好是流结束魔数 0x177245385090：
+         * 使用第 3,5,6,7,9,10,11,14 组（0x1772），第3组中使用 0x4538 对应的值，第5组中使用 0x5090 对应的值
+         */
+        byte[] values = {49, 53, 55, 58, 59, 60, 81, 83, 88, 91, 96, 112, (byte) 144, (byte) 160, (byte) 176, (byte) 224};
+        // 块大小为 100KB，产生多个块，每个块都包含所有的字节值；不连续出现4个相同的字节，避免游程编码引入其他字节值
+        byte[] bytes = new byte[250 * 1024];
+        Random random = new Random(42);
+        for (int i = 0; i < bytes.length; i++) {
+            do {
+                bytes[i] = values[random.nextInt(values.length)];
+            } while (i >= 3 && bytes[i] == bytes[i - 1] && bytes[i] == bytes[i - 2] && bytes[i] == bytes[i - 3]);
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (OutputStream os = new BZip2CompressorOutputStream(baos, 1)) {
+            os.write(bytes);
+        }
+        byte[] compressed = baos.toByteArray();
+        // 流头部（32比特）之后是第一个块，块中偶然出现了流结束魔数
+        assertEquals(0x177245385090L, readBits(compressed, 32 + 105, 48));
+
+        try (InputStream is = new BZip2CompressorInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(bytes, IoUtil.readBytes(is, false));
+        }
+        try (InputStream is = new ParallelBzip2InputStream(new ByteArrayInputStream(compressed), false, 4, null)) {
+            assertArrayEquals(bytes, IoUtil.readBytes(is, false));
+        }
+        try (InputStream is = new ParallelBzip2InputStream(new ByteArrayInputStream(compressed), true, 4, null)) {
+            assertArrayEquals(bytes, IoUtil.readBytes(is, false));
+        }
+
+        // 拼接的多个流
+        byte[] concatenated = new byte[compressed.length * 2];
+        System.arraycopy(compressed, 0, concatenated, 0, compressed.length);
+        System.arraycopy(compressed, 0, concatenated, compressed.length, compressed.length);
+        try (InputStream is = new ParallelBzip2InputStream(new ByteArrayInputStream(concatenated), true, 4, null)) {
+            byte[] actual = IoUtil.readBytes(is, false);
+            assertEquals(bytes.length * 2, actual.length);
+            assertArrayEquals(bytes, Arrays.copyOfRange(actual, bytes.length, actual.length));
+        }
+        // 非拼接模式下，第一个流之后的数据被忽略
+        try (InputStream is = new ParallelBzip2InputStream(new ByteArrayInputStream(concatenated), false, 4, null)) {
+            assertArrayEquals(bytes, IoUtil.readBytes(is, false));
+        }
+        // 拼接模式下，流结束之后的无效数据仍然报错
+        byte[] garbage = Arrays.copyOf(compressed, compressed.length + 16);
+        assertThrows(IOException.class, () -> {
+            try (InputStream is = new ParallelBzip2InputStream(new ByteArrayInputStream(garbage), true, 4, null)) {
+                byte[] buffer = new byte[8192];
+                while (is.read(buffer) != -1) ;
+            }
+        });
+    }
+
+    private static long readBits(byte[] bytes, int from, int n) {
+        long value = 0;
+        for (int i = from; i < from + n; i++) {
+            value = (value << 1) | ((bytes[i >>> 3] >>> (7 - (i & 7))) & 1);
+        }
+        return value;
+    }
+
+    @Test
+    void testParallelUnzipTarBz2() throws Exception {
+        File tarBz2File = new File(zipDir, "tar（1）.tar.bz2");
+        try (InputStream expected = new BZip2CompressorInputStream(new FileInputStream(tarBz2File));
+             InputStream actual = new ParallelBzip2InputStream(new FileInputStream(tarBz2File), true, 4, null)) {
+            assertArrayEquals(IoUtil.readBytes(expected, false), IoUtil.readBytes(actual, false));
+        }
+
+        SuperTarBzip2 superTarBzip2 = SuperTarBzip2.of();
+        List<String> expected = SuperAC.unzip(new FileInputStream(tarBz2File), ArchiveFormat.TAR_BZ2, tarBz2File.getName(), 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.DETAIL, Collections.singletonList(superTarBzip2));
+
+        superTarBzip2.setUnzipInputProperty(Bzip2InputProperty.of().setParallelism(4));
+        List<String> actual = SuperAC.unzip(new FileInputStream(tarBz2File), ArchiveFormat.TAR_BZ2, tarBz2File.getName(), 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.DETAIL, Collections.singletonList(superTarBzip2));
+        System.out.println(actual);
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,81 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.ParallelGzipInputStream;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperTarGzip;
+import com.iofairy.rainforest.zip.attr.GzipInputProperty;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/19 18:20
+ */
+public class ParallelGzipTest {
+    static File zipDir = new File("src/test/resources/zip-files");
+    static File parallelGzipDir = new File(zipDir, "parallelGzip");
+
+    @Test
+    void testParallelGzipInputStream() throws Exception {
+        byte[] tarBytes = ZipTestFixtures.tarBytes();
+        File multiMemberFile = createMultiMemberTarGz(tarBytes);
+
+        try (InputStream is = new ParallelGzipInputStream(new FileInputStream(multiMemberFile), 4, null, StandardCharsets.ISO_8859_1)) {
+            assertArrayEquals(tarBytes, IoUtil.readBytes(is, false));
+        }
+        // 段大小很小时退化为顺序解压，结果不变
+        try (InputStream is = new ParallelGzipInputStream(new FileInputStream(multiMemberFile), 4, null, StandardCharsets.ISO_8859_1, 1024)) {
+            assertArrayEquals(tarBytes, IoUtil.readBytes(is, false));
+        }
+    }
+
+    @Test
+    void testParallelUnzipTarGz() throws Exception {
+        File multiMemberFile = createMultiMemberTarGz(ZipTestFixtures.tarBytes());
+
+        SuperTarGzip superTarGzip = SuperTarGzip.of().setUnzipInputProperty(GzipInputProperty.of().setDecompressConcatenated(true));
+        List<String> expected = SuperAC.unzip(new FileInputStream(multiMemberFile), ArchiveFormat.TAR_GZ, multiMemberFile.getName(), 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.DETAIL, Collections.singletonList(superTarGzip));
+
+        superTarGzip.setUnzipInputProperty(GzipInputProperty.of().setDecompressConcatenated(true).setParallelism(4));
+        List<String> actual = SuperAC.unzip(new FileInputStream(multiMemberFile), ArchiveFormat.TAR_GZ, multiMemberFile.getName(), 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.DETAIL, Collections.singletonList(superTarGzip));
+        System.out.println(actual);
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * 每 8KB 一个 gzip 成员，拼接成一个 .tar.gz 文件
+     */
+    private static File createMultiMemberTarGz(byte[] tarBytes) throws IOException {
+        FileUtil.mkdir(parallelGzipDir);
+        File tarGzFile = new File(parallelGzipDir, "tar（1）-multi-member.tar.gz");
+        try (OutputStream os = new FileOutputStream(tarGzFile)) {
+            for (int offset = 0; offset < tarBytes.length; offset += 8192) {
+                GZIPOutputStream gos = new GZIPOutputStream(os) {
+                    @Override
+                    public void close() throws IOException {
+                        finish();
+                    }
+                };
+                gos.write(tarBytes, offset, Math.min(8192, tarBytes.length - offset));
+                gos.close();
+            }
+        }
+        return tarGzFile;
+    }
+}
@@ -0,0 +1,158 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.*;
+import com.iofairy.rainforest.zip.attr.XzInputProperty;
+import com.iofairy.rainforest.zip.base.ArchiveSource;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.index.ArchiveIndexCache;
+import com.iofairy.rainforest.zip.index.IndexEntry;
+import org.junit.jupiter.api.Test;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZInputStream;
+import org.tukaani.xz.XZOutputStream;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/19 20:30
+ */
+public class ParallelXzTest {
+    static File zipDir = new File("src/test/resources/zip-files");
+    static File parallelXzDir = new File(zipDir, "parallelXz");
+
+    @Test
+    void testRandomAccess() throws Exception {
+        byte[] tarBytes = ZipTestFixtures.tarBytes();
+        File tarXzFile = createTarXz(tarBytes, 8192);
+
+        try (XzSeekableChannel channel = XzSeekableChannel.open(tarXzFile, XzInputProperty.of())) {
+            assertNotNull(channel);
+            System.out.println("blockCount: " + channel.blockCount());
+            assertEquals((tarBytes.length + 8191) / 8192, channel.blockCount());
+            assertEquals(tarBytes.length, channel.size());
+
+            for (long offset = tarBytes.length - 1; offset >= 0; offset -= tarBytes.length / 17 + 1) {
+                ByteBuffer buffer = ByteBuffer.allocate(3000);
+                channel.position(offset);
+                while (buffer.hasRemaining() && channel.read(buffer) != -1) ;
+                int end = (int) Math.min(tarBytes.length, offset + 3000);
+                assertArrayEquals(Arrays.copyOfRange(tarBytes, (int) offset, end), Arrays.copyOf(buffer.array(), buffer.position()));
+            }
+        }
+
+        // 只有一个块，或不是 xz 格式时，不能随机访问
+        assertNull(XzSeekableChannel.open(createTarXz(tarBytes, Integer.MAX_VALUE), XzInputProperty.of()));
+        assertNull(XzSeekableChannel.open(new File(zipDir, "tar（1）.tar.bz2"), XzInputProperty.of()));
+    }
+
+    @Test
+    void testParallelXzInputStream() throws Exception {
+        byte[] tarBytes = ZipTestFixtures.tarBytes();
+        File tarXzFile = createTarXz(tarBytes, 8192);
+
+        try (InputStream is = new ParallelXzInputStream(XzSeekableChannel.open(tarXzFile, XzInputProperty.of()), 4, null)) {
+            assertArrayEquals(tarBytes, IoUtil.readBytes(is, false));
+        }
+        // 段大小小于块大小时，一个块为一段
+        try (InputStream is = new ParallelXzInputStream(XzSeekableChannel.open(tarXzFile, XzInputProperty.of()), 4, null, 1024)) {
+            assertArrayEquals(tarBytes, IoUtil.readBytes(is, false));
+        }
+        try (InputStream is = new XZInputStream(new FileInputStream(tarXzFile))) {
+            assertArrayEquals(tarBytes, IoUtil.readBytes(is, false));
+        }
+    }
+
+    @Test
+    void testUnzipMultiBlockTarXz() throws Exception {
+        File tarXzFile = createTarXz(ZipTestFixtures.tarBytes(), 8192);
+        SuperTarXz superTarXz = SuperTarXz.of();
+
+        List<String> expected = SuperAC.unzip(new FileInputStream(tarXzFile), ArchiveFormat.TAR_XZ, tarXzFile.getName(), 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.DETAIL, Collections.singletonList(superTarXz));
+        List<String> actual = superTarXz.unzip(tarXzFile, 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.DETAIL, Collections.singletonList(superTarXz));
+        System.out.println(actual);
+        assertEquals(expected, actual);
+
+        superTarXz.setUnzipInputProperty(XzInputProperty.of().setParallelism(4));
+        List<String> parallel = SuperAC.unzip(new FileInputStream(tarXzFile), ArchiveFormat.TAR_XZ, tarXzFile.getName(), 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.DETAIL, Collections.singletonList(superTarXz));
+        assertEquals(expected, parallel);
+
+        List<IndexEntry> entries = SuperAC.list(tarXzFile, ArchiveFormat.TAR_XZ, 0, null, SuperACs.allSupportedSuperACs());
+        assertEquals(expected.size(), entries.stream().filter(entry -> !entry.isDirectory()).count());
+    }
+
+    @Test
+    void testUnzipFileParallel() throws Exception {
+        File tarXzFile = createTarXz(ZipTestFixtures.tarBytes(), 8192);
+        SuperTarXz superTarXz = SuperTarXz.of();
+        List<String> expected = superTarXz.unzip(tarXzFile, 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.NONE, Collections.singletonList(superTarXz));
+
+        // 从文件、可随机读取的数据源解压时，使用指定的线程池按块并行解压
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(4);
+        try {
+            superTarXz.setUnzipInputProperty(XzInputProperty.of().setParallelism(4).setExecutor(executor));
+            ArchiveIndexCache indexCache = ArchiveIndexCache.of(new File(parallelXzDir, "indexCache"));
+            indexCache.remove(tarXzFile);
+            List<String> fromFile = SuperAC.unzip(tarXzFile, ArchiveFormat.TAR_XZ, 0, null, null, null, null,
+                    (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                    ZipLogLevel.NONE, Collections.singletonList(superTarXz), indexCache);
+            assertEquals(expected, fromFile);
+            long taskCount = executor.getTaskCount();
+            System.out.println("taskCount: " + taskCount);
+            assertTrue(taskCount > 0);
+
+            List<String> fromSource = SuperAC.unzip(ArchiveSource.of(FileUtil.readBytes(tarXzFile)), ArchiveFormat.TAR_XZ, tarXzFile.getName(), 0,
+                    null, null, null, null, (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                    ZipLogLevel.NONE, Collections.singletonList(superTarXz));
+            assertEquals(expected, fromSource);
+            assertTrue(executor.getTaskCount() > taskCount);
+
+            // 输入流数据源不能随机读取，顺序解压
+            taskCount = executor.getTaskCount();
+            List<String> fromStream = SuperAC.unzip(ArchiveSource.of(new ByteArrayInputStream(FileUtil.readBytes(tarXzFile))), ArchiveFormat.TAR_XZ,
+                    tarXzFile.getName(), 0, null, null, null, null, (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                    ZipLogLevel.NONE, Collections.singletonList(superTarXz));
+            assertEquals(expected, fromStream);
+            assertEquals(taskCount, executor.getTaskCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 每 {@code blockSize} 字节一个 xz 块
+     */
+    private static File createTarXz(byte[] tarBytes, int blockSize) throws IOException {
+        FileUtil.mkdir(parallelXzDir);
+        File tarXzFile = new File(parallelXzDir, "tar（1）-" + (blockSize == Integer.MAX_VALUE ? "single" : blockSize) + ".tar.xz");
+        try (XZOutputStream os = new XZOutputStream(new FileOutputStream(tarXzFile), new LZMA2Options())) {
+            for (int offset = 0; offset < tarBytes.length; ) {
+                int length = Math.min(blockSize, tarBytes.length - offset);
+                os.write(tarBytes, offset, length);
+                os.endBlock();
+                offset += length;
+            }
+        }
+        return tarXzFile;
+    }
+}
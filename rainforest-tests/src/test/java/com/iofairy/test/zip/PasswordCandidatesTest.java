@@ -0,0 +1,181 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.IoUtil;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.Super7Zip;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperACs;
+import com.iofairy.rainforest.zip.ac.SuperZipProtected;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.config.PasswordCandidates;
+import com.iofairy.rainforest.zip.config.PasswordProvider;
+import com.iofairy.rainforest.zip.config.ZipPassword;
+import com.iofairy.rainforest.zip.error.SuperACException;
+import net.lingala.zip4j.io.outputstream.ZipOutputStream;
+import net.lingala.zip4j.model.ZipParameters;
+import net.lingala.zip4j.model.enums.AesKeyStrength;
+import net.lingala.zip4j.model.enums.EncryptionMethod;
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.apache.commons.compress.archivers.sevenz.SevenZOutputFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/20 02:05
+ */
+public class PasswordCandidatesTest {
+
+    @Test
+    void testZipCandidates() throws Exception {
+        // AES：并行校验
+        byte[] aesZip = encryptedZip(EncryptionMethod.AES, "aes-pw");
+        PasswordProvider provider = PasswordProvider.of();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            PasswordCandidates candidates = PasswordCandidates.of(wrongPasswords(20, "aes-pw")).setParallelism(3).setExecutor(executor);
+            assertEquals(Arrays.asList("a.txt:hello a", "b.txt:hello b"), unzipZip(aesZip, "secret-aes.zip", provider, candidates));
+            assertArrayEquals("aes-pw".toCharArray(), provider.getPassword("secret-aes.zip"));
+        } finally {
+            executor.shutdown();
+        }
+
+        // ZipCrypto：provider 中的密码不正确，按顺序校验，记住为通配符文件名
+        byte[] standardZip = encryptedZip(EncryptionMethod.ZIP_STANDARD, "std-pw");
+        provider = PasswordProvider.of(ZipPassword.of("*.zip", "wrong"));
+        PasswordCandidates candidates = PasswordCandidates.of("x", "std-pw", "y").setNamePattern(zipName -> "secret-*.zip");
+        assertEquals(Arrays.asList("a.txt:hello a", "b.txt:hello b"), unzipZip(standardZip, "secret-std.zip", provider, candidates));
+        assertArrayEquals("std-pw".toCharArray(), provider.getPassword("secret-other.zip"));
+
+        // 压缩包的文件名含有通配符字符时，按原样记住
+        provider = PasswordProvider.of();
+        unzipZip(standardZip, "secret*?.zip", provider, PasswordCandidates.of("std-pw"));
+        assertArrayEquals("std-pw".toCharArray(), provider.getPassword("secret*?.zip"));
+        assertNull(provider.getPassword("secret-other.zip"));
+        assertNull(provider.getPassword("secret*x.zip"));
+
+        // 不记住
+        provider = PasswordProvider.of();
+        unzipZip(standardZip, "secret-std.zip", provider, PasswordCandidates.of("std-pw").setRemember(false));
+        assertNull(provider.getPassword("secret-std.zip"));
+
+        // 没有正确的候选密码
+        assertThrows(SuperACException.class, () -> unzipZip(aesZip, "secret-aes.zip", PasswordProvider.of(), PasswordCandidates.of("x", "y")));
+    }
+
+    @Test
+    void testSevenZCandidates() throws Exception {
+        byte[] sevenZ = encryptedSevenZ("7z-pw");
+        PasswordProvider provider = PasswordProvider.of();
+        PasswordCandidates candidates = PasswordCandidates.of(wrongPasswords(10, "7z-pw")).setParallelism(4);
+        assertEquals(Arrays.asList("a.txt:hello a", "b.txt:hello b"), unzipSevenZ(sevenZ, "secret.7z", provider, candidates));
+        assertArrayEquals("7z-pw".toCharArray(), provider.getPassword("secret.7z"));
+
+        // 头部未加密时，provider 提供的密码直接使用，不解码文件数据校验
+        PasswordProvider wrongProvider = PasswordProvider.of(ZipPassword.of("*.7z", "wrong"));
+        assertThrows(SuperACException.class, () -> unzipSevenZ(sevenZ, "secret.7z", wrongProvider, candidates));
+        assertArrayEquals("wrong".toCharArray(), wrongProvider.getPassword("secret.7z"));
+
+        assertThrows(SuperACException.class, () -> unzipSevenZ(sevenZ, "secret.7z", PasswordProvider.of(), PasswordCandidates.of("x", "y")));
+    }
+
+    @Test
+    void testSevenZVerifiesEntryPrefix() throws Exception {
+        // 第一个文件较大，校验时只解码其开头部分
+        SeekableInMemoryByteChannel channel = new SeekableInMemoryByteChannel();
+        byte[] big = new byte[300 * 1024];
+        new Random(7).nextBytes(big);
+        try (SevenZOutputFile sevenZOutputFile = new SevenZOutputFile(channel, "7z-pw".toCharArray())) {
+            for (Map.Entry<String, byte[]> entry : Arrays.asList(new AbstractMap.SimpleEntry<>("a.bin", big),
+                    new AbstractMap.SimpleEntry<>("b.txt", "hello b".getBytes(StandardCharsets.UTF_8)))) {
+                SevenZArchiveEntry archiveEntry = new SevenZArchiveEntry();
+                archiveEntry.setName(entry.getKey());
+                sevenZOutputFile.putArchiveEntry(archiveEntry);
+                sevenZOutputFile.write(entry.getValue());
+                sevenZOutputFile.closeArchiveEntry();
+            }
+        }
+        byte[] sevenZ = Arrays.copyOf(channel.array(), (int) channel.size());
+
+        PasswordProvider provider = PasswordProvider.of();
+        List<String> names = SuperAC.unzip(new ByteArrayInputStream(sevenZ), ArchiveFormat.SEVEN_ZIP, "big.7z", -1, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length, ZipLogLevel.NONE,
+                sevenZSuperACs(provider, PasswordCandidates.of(wrongPasswords(5, "7z-pw"))));
+        assertEquals(Arrays.asList("a.bin:" + big.length, "b.txt:7"), names);
+        assertArrayEquals("7z-pw".toCharArray(), provider.getPassword("big.7z"));
+    }
+
+    private static List<String> unzipZip(byte[] zip, String zipFileName, PasswordProvider provider, PasswordCandidates candidates) throws Exception {
+        List<SuperAC> superACs = SuperACs.allSupportedSuperACs();
+        superACs.add(SuperZipProtected.of().setUnzipPasswordProvider(provider).setPasswordCandidates(candidates));
+        return unzip(zip, ArchiveFormat.ZIP, zipFileName, superACs);
+    }
+
+    private static List<String> unzipSevenZ(byte[] sevenZ, String zipFileName, PasswordProvider provider, PasswordCandidates candidates) throws Exception {
+        return unzip(sevenZ, ArchiveFormat.SEVEN_ZIP, zipFileName, sevenZSuperACs(provider, candidates));
+    }
+
+    private static List<SuperAC> sevenZSuperACs(PasswordProvider provider, PasswordCandidates candidates) {
+        List<SuperAC> superACs = SuperACs.allSupportedSuperACs();
+        superACs.add(Super7Zip.of().setUnzipPasswordProvider(provider).setPasswordCandidates(candidates));
+        return superACs;
+    }
+
+    private static List<String> unzip(byte[] archive, ArchiveFormat format, String zipFileName, List<SuperAC> superACs) throws Exception {
+        return SuperAC.unzip(new ByteArrayInputStream(archive), format, zipFileName, -1, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.read(new InputStreamReader(is, StandardCharsets.UTF_8), false),
+                ZipLogLevel.NONE, superACs);
+    }
+
+    private static List<String> wrongPasswords(int count, String rightPassword) {
+        List<String> passwords = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            passwords.add("wrong-" + i);
+        }
+        passwords.add(rightPassword);
+        passwords.add("wrong-last");
+        return passwords;
+    }
+
+    private static byte[] encryptedZip(EncryptionMethod encryptionMethod, String password) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos, password.toCharArray())) {
+            for (String name : Arrays.asList("a", "b")) {
+                ZipParameters zipParameters = new ZipParameters();
+                zipParameters.setEncryptFiles(true);
+                zipParameters.setEncryptionMethod(encryptionMethod);
+                zipParameters.setAesKeyStrength(AesKeyStrength.KEY_STRENGTH_256);
+                zipParameters.setFileNameInZip(name + ".txt");
+                zos.putNextEntry(zipParameters);
+                zos.write(("hello " + name).getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] encryptedSevenZ(String password) throws Exception {
+        SeekableInMemoryByteChannel channel = new SeekableInMemoryByteChannel();
+        try (SevenZOutputFile sevenZOutputFile = new SevenZOutputFile(channel, password.toCharArray())) {
+            for (String name : Arrays.asList("a", "b")) {
+                SevenZArchiveEntry entry = new SevenZArchiveEntry();
+                entry.setName(name + ".txt");
+                sevenZOutputFile.putArchiveEntry(entry);
+                sevenZOutputFile.write(("hello " + name).getBytes(StandardCharsets.UTF_8));
+                sevenZOutputFile.closeArchiveEntry();
+            }
+        }
+        return Arrays.copyOf(channel.array(), (int) channel.size());
+    }
+}
@@ -0,0 +1,135 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.iofairy.falcon.io.MultiByteArrayInputStream;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperACs;
+import com.iofairy.rainforest.zip.attr.SnappyOutputProperty;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.base.ZipResult;
+import com.iofairy.rainforest.zip.index.IndexEntry;
+import org.apache.commons.compress.compressors.snappy.FramedSnappyCompressorOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/19 22:45
+ */
+public class SnappyTest {
+    static File zipDir = new File("src/test/resources/zip-files");
+    static File snappyDir = new File(zipDir, "snappy");
+
+    @Test
+    void testUnzipAndReZip() throws Exception {
+        File tarBz2File = new File(zipDir, "tar（1）.tar.bz2");
+        List<String> expected = sorted(SuperAC.unzip(new FileInputStream(tarBz2File), ArchiveFormat.TAR_BZ2, tarBz2File.getName(), -1, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.NONE, SuperACs.allSupportedSuperACs()));
+
+        // .sz 与 .snappy 两种后缀名
+        for (String fileName : new String[]{"tar（1）.tar.sz", "tar（1）.tar.snappy"}) {
+            File snappyFile = createSnappy(fileName, SnappyOutputProperty.of());
+            ArchiveFormat format = fileName.endsWith(".sz") ? ArchiveFormat.SZ : ArchiveFormat.SNAPPY;
+
+            List<String> actual = sorted(SuperAC.unzip(new FileInputStream(snappyFile), format, snappyFile.getName(), -1, null, null, null, null,
+                    (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                    ZipLogLevel.NONE, SuperACs.allSupportedSuperACs()));
+            assertEquals(expected, actual);
+
+            List<String> fast = sorted(SuperAC.unzipFast(new FileInputStream(snappyFile), format, snappyFile.getName(), -1, null, null,
+                    (is, times, zipName, entryName, closeables) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                    ZipLogLevel.NONE, SuperACs.allSupportedSuperACs()));
+            assertEquals(expected, fast);
+
+            List<IndexEntry> entries = SuperAC.list(snappyFile, format, 0, null, SuperACs.allSupportedSuperACs());
+            assertEquals("tar（1）.tar", entries.get(0).getName());
+
+            ZipResult<Object> zipResult = SuperAC.reZip(new FileInputStream(snappyFile), format, snappyFile.getName(), -1, null, null,
+                    (is, os, times, zipName, entryName) -> {
+                        IoUtil.copy(is, os);
+                        return null;
+                    },
+                    ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+            List<String> reZipped = sorted(SuperAC.unzip(new MultiByteArrayInputStream(zipResult.getBytes()), format, snappyFile.getName(), -1, null, null, null, null,
+                    (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                    ZipLogLevel.NONE, SuperACs.allSupportedSuperACs()));
+            assertEquals(expected, reZipped);
+
+            // 内嵌在 zip 中的 .tar.sz / .tar.snappy 自动解压
+            ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+            try (ZipOutputStream zos = new ZipOutputStream(zipBytes)) {
+                zos.putNextEntry(new ZipEntry(fileName));
+                zos.write(FileUtil.readBytes(snappyFile));
+                zos.closeEntry();
+            }
+            List<String> nested = sorted(SuperAC.unzip(new ByteArrayInputStream(zipBytes.toByteArray()), ArchiveFormat.ZIP, "nested.zip", -1, null, null, null, null,
+                    (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                    ZipLogLevel.NONE, SuperACs.allSupportedSuperACs()));
+            assertEquals(expected, nested);
+        }
+    }
+
+    /**
+     * 与低压缩级别的 gzip、zstd 对比压缩率与速度（只打印结果）
+     */
+    @Test
+    void testCompareWithGzipAndZstd() throws Exception {
+        byte[] bytes = ZipTestFixtures.tarBytes();
+
+        for (int round = 0; round < 3; round++) {
+            long snappySpeed = compress(bytes, os -> new FramedSnappyCompressorOutputStream(os, SnappyOutputProperty.of().setTunedForSpeed(true).toParameters()), "snappy(speed)");
+            long snappy = compress(bytes, os -> new FramedSnappyCompressorOutputStream(os, SnappyOutputProperty.of().toParameters()), "snappy");
+            long gzip = compress(bytes, os -> new GZIPOutputStream(os) {{
+                def.setLevel(Deflater.BEST_SPEED);
+            }}, "gzip(1)");
+            long zstd = compress(bytes, os -> new ZstdOutputStream(os, 1), "zstd(1)");
+            assertTrue(snappySpeed > 0 && snappy > 0 && gzip > 0 && zstd > 0);
+        }
+    }
+
+    private interface OutputStreamFactory {
+        OutputStream create(OutputStream os) throws IOException;
+    }
+
+    private static long compress(byte[] bytes, OutputStreamFactory factory, String name) throws IOException {
+        int times = 50;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(bytes.length);
+        long start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            baos.reset();
+            try (OutputStream os = factory.create(baos)) {
+                os.write(bytes);
+            }
+        }
+        long micros = (System.nanoTime() - start) / 1000 / times;
+        System.out.println(name + ": " + bytes.length + " -> " + baos.size() + " bytes, " + micros + " us");
+        return baos.size();
+    }
+
+    private static List<String> sorted(List<String> list) {
+        return list.stream().sorted().collect(Collectors.toList());
+    }
+
+    private static File createSnappy(String fileName, SnappyOutputProperty outputProperty) throws IOException {
+        FileUtil.mkdir(snappyDir);
+        File snappyFile = new File(snappyDir, fileName);
+        try (OutputStream os = new FramedSnappyCompressorOutputStream(new FileOutputStream(snappyFile), outputProperty.toParameters())) {
+            os.write(ZipTestFixtures.tarBytes());
+        }
+        return snappyFile;
+    }
+}
@@ -0,0 +1,118 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.iofairy.falcon.io.MultiByteArrayInputStream;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.lambda.RT4;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperACs;
+import com.iofairy.rainforest.zip.base.TeeAction;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.base.ZipResult;
+import com.iofairy.rainforest.zip.error.SuperACException;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/20 01:35
+ */
+public class TeeTest {
+
+    @Test
+    void testTeeUnzip() throws Exception {
+        byte[] outer = outerZip();
+        List<String> expected = unzip(outer, (is, times, zipName, entryName) -> "before:" + entryName + ":" + DigestUtil.md5Hex(is));
+
+        // tee 模式：结果（包括顺序）与非 tee 模式相同，beforeUnzipAction 在其他线程中执行
+        Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        List<String> actual = unzip(outer, TeeAction.of((is, times, zipName, entryName) -> {
+            threads.add(Thread.currentThread().getName());
+            return "before:" + entryName + ":" + DigestUtil.md5Hex(is);
+        }, 1024, null));
+        assertEquals(expected, actual);
+        assertEquals(4, actual.stream().filter(s -> s.startsWith("before:")).count());
+        assertFalse(threads.contains(Thread.currentThread().getName()));
+
+        // 只读取部分数据
+        actual = unzip(outer, TeeAction.of((is, times, zipName, entryName) -> "before:" + entryName + ":" + is.read()));
+        assertEquals(expected.size(), actual.size());
+        assertTrue(actual.contains("before:inner.zip:80"));
+
+        // beforeUnzipAction 的异常
+        assertThrows(SuperACException.class, () -> unzip(outer, TeeAction.of((is, times, zipName, entryName) -> {
+            throw new IllegalStateException("before action error");
+        })));
+    }
+
+    @Test
+    void testTeeReZip() throws Exception {
+        byte[] outer = outerZip();
+        ZipResult<String> expected = reZip(outer, (is, times, zipName, entryName) -> "before:" + entryName + ":" + DigestUtil.md5Hex(is), 1);
+        ZipResult<String> actual = reZip(outer, TeeAction.of((is, times, zipName, entryName) -> "before:" + entryName + ":" + DigestUtil.md5Hex(is)), 1);
+        assertEquals(expected.getResults(), actual.getResults());
+        assertTrue(actual.getResults().contains("before:inner.zip:" + DigestUtil.md5Hex(innerZip("inner"))));
+        assertEquals(unzip(IoUtil.readBytes(new MultiByteArrayInputStream(expected.getBytes()), false), null),
+                unzip(IoUtil.readBytes(new MultiByteArrayInputStream(actual.getBytes()), false), null));
+
+        // 不解压内部压缩包时，内部压缩包原样复制
+        actual = reZip(outer, TeeAction.of((is, times, zipName, entryName) -> "before:" + entryName + ":" + DigestUtil.md5Hex(is)), 0);
+        assertEquals(Arrays.asList(null, "before:inner.zip:" + DigestUtil.md5Hex(innerZip("inner"))), actual.getResults());
+        try (ZipArchiveInputStream zis = new ZipArchiveInputStream(new MultiByteArrayInputStream(actual.getBytes()))) {
+            assertEquals("a.txt", zis.getNextZipEntry().getName());
+            assertEquals("inner.zip", zis.getNextZipEntry().getName());
+            assertArrayEquals(innerZip("inner"), IoUtil.readBytes(zis, false));
+        }
+    }
+
+    private static List<String> unzip(byte[] zip, RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends String, Exception> beforeUnzipAction) throws Exception {
+        return SuperAC.unzip(new ByteArrayInputStream(zip), ArchiveFormat.ZIP, "outer.zip", -1,
+                null, null, (times, zipName, entryName) -> true, beforeUnzipAction,
+                (is, times, zipName, entryName) -> entryName + ":" + (entryName.endsWith(".zip") ? DigestUtil.md5Hex(is) : IoUtil.read(new InputStreamReader(is, StandardCharsets.UTF_8), false)),
+                ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+    }
+
+    private static ZipResult<String> reZip(byte[] zip, RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends String, Exception> beforeUnzipAction,
+                                           int unzipLevel) throws Exception {
+        return SuperAC.reZip(new ByteArrayInputStream(zip), ArchiveFormat.ZIP, "outer.zip", unzipLevel,
+                null, null, (times, zipName, entryName) -> true, null, beforeUnzipAction, null,
+                (is, os, times, zipName, entryName) -> {
+                    IoUtil.copy(is, os);
+                    return null;
+                }, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+    }
+
+    private static byte[] outerZip() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            ZipTestFixtures.put(zos, "a.txt", "hello a".getBytes(StandardCharsets.UTF_8));
+            ZipTestFixtures.put(zos, "inner.zip", innerZip("inner"));
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] innerZip(String name) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            Random random = new Random(name.hashCode());
+            byte[] bytes = new byte[200 * 1024];
+            random.nextBytes(bytes);
+            ZipTestFixtures.put(zos, name + ".bin", bytes);
+            if (name.equals("inner")) {
+                ZipTestFixtures.put(zos, "deep1.zip", innerZip("deep1"));
+                ZipTestFixtures.put(zos, "deep2.zip", innerZip("deep2"));
+                ZipTestFixtures.put(zos, "deep3.zip", innerZip("deep3"));
+            }
+        }
+        return baos.toByteArray();
+    }
+}
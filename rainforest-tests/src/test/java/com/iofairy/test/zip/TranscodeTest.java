@@ -0,0 +1,147 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperACs;
+import com.iofairy.rainforest.zip.ac.SuperZipProtected;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.error.SuperACException;
+import com.iofairy.rainforest.zip.index.IndexEntry;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/19 23:10
+ */
+public class TranscodeTest {
+    static File zipDir = new File("src/test/resources/zip-files");
+    static File transcodeDir = new File(zipDir, "transcode");
+
+    @Test
+    void testTarBz2ToTarZst() throws Exception {
+        File tarBz2File = new File(zipDir, "tar（1）.tar.bz2");
+        List<String> expected = contents(new FileInputStream(tarBz2File), ArchiveFormat.TAR_BZ2, tarBz2File.getName(), 0);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = new FileInputStream(tarBz2File)) {
+            List<IndexEntry> entries = SuperAC.transcode(is, ArchiveFormat.TAR_BZ2, tarBz2File.getName(), baos, ArchiveFormat.TAR_ZST,
+                    0, null, SuperACs.allSupportedSuperACs());
+            assertFalse(entries.isEmpty());
+        }
+
+        List<String> actual = contents(new ByteArrayInputStream(baos.toByteArray()), ArchiveFormat.TAR_ZST, "tar（1）.tar.zst", 0);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testNestedTranscode() throws Exception {
+        FileUtil.mkdir(transcodeDir);
+        File zipFile = new File(transcodeDir, "nested.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            zos.putNextEntry(new ZipEntry("dir/"));
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("dir/a.txt"));
+            zos.write("hello transcode".getBytes(StandardCharsets.UTF_8));
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("dir/inner.tar.gz"));
+            try (GZIPOutputStream gos = new GZIPOutputStream(new NonClosing(zos))) {
+                gos.write(ZipTestFixtures.tarBytes());
+            }
+            zos.closeEntry();
+        }
+        List<String> expected = contents(new FileInputStream(zipFile), ArchiveFormat.ZIP, zipFile.getName(), -1);
+
+        Map<ArchiveFormat, ArchiveFormat> nestedFormats = new HashMap<>();
+        nestedFormats.put(ArchiveFormat.TAR_GZ, ArchiveFormat.TAR_ZST);
+
+        // 文件：随机读取ZIP，写入 7z
+        File sevenZFile = new File(transcodeDir, "nested.7z");
+        List<IndexEntry> entries = SuperAC.transcode(zipFile, ArchiveFormat.ZIP, sevenZFile, ArchiveFormat.SEVEN_ZIP, -1, nestedFormats, SuperACs.allSupportedSuperACs());
+        IndexEntry inner = entries.stream().filter(e -> e.getName().equals("dir/inner.tar.zst")).findFirst().orElse(null);
+        assertNotNull(inner);
+        assertEquals(ArchiveFormat.TAR_ZST, inner.getFormat());
+        assertFalse(inner.getChildren().isEmpty());
+        assertEquals(expected, contents(new FileInputStream(sevenZFile), ArchiveFormat.SEVEN_ZIP, sevenZFile.getName(), -1));
+
+        // 输入流：条目使用数据描述符（大小未知），写入 tar 时缓存条目
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        SuperAC.transcode(new FileInputStream(zipFile), ArchiveFormat.ZIP, zipFile.getName(), baos, ArchiveFormat.TAR_XZ, -1, nestedFormats, SuperACs.allSupportedSuperACs());
+        List<IndexEntry> list = SuperAC.list(new ByteArrayInputStream(baos.toByteArray()), ArchiveFormat.TAR_XZ, "nested.tar.xz", 0, null, SuperACs.allSupportedSuperACs());
+        assertEquals(Arrays.asList("dir/", "dir/a.txt", "dir/inner.tar.zst"), list.stream().map(IndexEntry::getName).collect(Collectors.toList()));
+        assertEquals(expected, contents(new ByteArrayInputStream(baos.toByteArray()), ArchiveFormat.TAR_XZ, "nested.tar.xz", -1));
+
+        // unzipLevel 为 0 时内嵌压缩包原样写入
+        baos.reset();
+        SuperAC.transcode(new FileInputStream(zipFile), ArchiveFormat.ZIP, zipFile.getName(), baos, ArchiveFormat.TAR, 0, nestedFormats, SuperACs.allSupportedSuperACs());
+        list = SuperAC.list(new ByteArrayInputStream(baos.toByteArray()), ArchiveFormat.TAR, "nested.tar", 0, null, SuperACs.allSupportedSuperACs());
+        assertEquals("dir/inner.tar.gz", list.get(2).getName());
+    }
+
+    @Test
+    void testCompressedFormats() throws Exception {
+        byte[] tarBytes = ZipTestFixtures.tarBytes();
+        ByteArrayOutputStream gz = new ByteArrayOutputStream();
+        try (GZIPOutputStream gos = new GZIPOutputStream(gz)) {
+            gos.write(tarBytes);
+        }
+
+        // 单文件压缩格式之间转换
+        ByteArrayOutputStream xz = new ByteArrayOutputStream();
+        List<IndexEntry> entries = SuperAC.transcode(new ByteArrayInputStream(gz.toByteArray()), ArchiveFormat.GZIP, "tar（1）.tar.gz", xz, ArchiveFormat.XZ,
+                0, null, SuperACs.allSupportedSuperACs());
+        assertEquals(1, entries.size());
+        assertEquals(tarBytes.length, entries.get(0).getSize());
+        try (InputStream is = new XZCompressorInputStream(new ByteArrayInputStream(xz.toByteArray()))) {
+            assertArrayEquals(tarBytes, IoUtil.readBytes(is, false));
+        }
+
+        // 多个文件不能转换成单文件压缩格式
+        File tarBz2File = new File(zipDir, "tar（1）.tar.bz2");
+        assertThrows(SuperACException.class, () -> SuperAC.transcode(new FileInputStream(tarBz2File), ArchiveFormat.TAR_BZ2, tarBz2File.getName(),
+                new ByteArrayOutputStream(), ArchiveFormat.ZSTD, 0, null, SuperACs.allSupportedSuperACs()));
+        // 不支持转换为加密的ZIP
+        assertThrows(SuperACException.class, () -> SuperAC.transcode(new FileInputStream(tarBz2File), ArchiveFormat.TAR_BZ2, tarBz2File.getName(),
+                new ByteArrayOutputStream(), ArchiveFormat.ZIP, 0, null, Arrays.asList(SuperACs.getSuperAC(ArchiveFormat.TAR_BZ2),
+                        SuperZipProtected.of())));
+    }
+
+    private static List<String> contents(InputStream is, ArchiveFormat format, String zipFileName, int unzipLevel) throws Exception {
+        List<String> contents = SuperAC.unzip(is, format, zipFileName, unzipLevel, null, null, null, null,
+                (entryIs, times, zipName, entryName) -> {
+                    byte[] bytes = IoUtil.readBytes(entryIs, false);
+                    return entryName + ":" + bytes.length + ":" + Arrays.hashCode(bytes);
+                },
+                ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+        return contents.stream().sorted().collect(Collectors.toList());
+    }
+
+    private static class NonClosing extends FilterOutputStream {
+        NonClosing(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
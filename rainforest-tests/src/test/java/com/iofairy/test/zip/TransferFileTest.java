@@ -0,0 +1,143 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import com.iofairy.falcon.io.MultiByteArrayInputStream;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperACs;
+import com.iofairy.rainforest.zip.ac.SuperZip;
+import com.iofairy.rainforest.zip.attr.ZipOutputProperty;
+import com.iofairy.rainforest.zip.base.AddFile;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.base.ZipResult;
+import com.iofairy.rainforest.zip.index.IndexEntry;
+import com.iofairy.tuple.Tuple;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/20 00:20
+ */
+public class TransferFileTest {
+    static File zipDir = new File("src/test/resources/zip-files");
+    static File transferDir = new File(zipDir, "transfer");
+
+    @Test
+    void testTransferFile() throws Exception {
+        File bigFile = bigFile();
+        byte[] expected = FileUtil.readBytes(bigFile);
+
+        // 文件输出流
+        File copy = new File(transferDir, "big-copy.bin");
+        try (FileOutputStream fos = new FileOutputStream(copy)) {
+            assertEquals(expected.length, SuperACs.transferFile(bigFile, fos));
+        }
+        assertArrayEquals(expected, FileUtil.readBytes(copy));
+
+        // 其他输出流
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        assertEquals(expected.length, SuperACs.transferFile(bigFile, baos));
+        assertArrayEquals(expected, baos.toByteArray());
+    }
+
+    @Test
+    void testReZipAddFile() throws Exception {
+        File bigFile = bigFile();
+        byte[] expected = FileUtil.readBytes(bigFile);
+
+        File zipFile = new File(transferDir, "source.zip");
+        writeZip(zipFile, ZipEntry.DEFLATED);
+        File sevenZFile = new File(transferDir, "source.7z");
+        SuperAC.transcode(zipFile, ArchiveFormat.ZIP, sevenZFile, ArchiveFormat.SEVEN_ZIP, 0, null, SuperACs.allSupportedSuperACs());
+        File tarBz2File = new File(zipDir, "tar（1）.tar.bz2");
+
+        Object[][] sources = {{tarBz2File, ArchiveFormat.TAR_BZ2}, {sevenZFile, ArchiveFormat.SEVEN_ZIP}, {zipFile, ArchiveFormat.ZIP}};
+        for (Object[] source : sources) {
+            File file = (File) source[0];
+            ArchiveFormat format = (ArchiveFormat) source[1];
+            ZipResult<String> zipResult = SuperAC.reZip(new FileInputStream(file), format, file.getName(), 0,
+                    (times, zipName) -> true, null, null, null, null, null,
+                    (times, zipName) -> Tuple.of(Collections.singletonList(AddFile.of(bigFile, "added/big.bin", false)), Collections.<String>emptyList()),
+                    null, null, null, null,
+                    (is, os, times, zipName, entryName) -> {
+                        IoUtil.copy(is, os);
+                        return entryName;
+                    }, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+
+            List<byte[]> added = SuperAC.unzip(new MultiByteArrayInputStream(zipResult.getBytes()), format, file.getName(), 0,
+                    null, (times, zipName, entryName) -> entryName.equals("added/big.bin"), null, null,
+                    (is, times, zipName, entryName) -> IoUtil.readBytes(is, false),
+                    ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+            assertEquals(1, added.size(), format.toString());
+            assertArrayEquals(expected, added.get(0), format.toString());
+        }
+    }
+
+    @Test
+    void testTranscodeStoredEntries() throws Exception {
+        File zipFile = new File(transferDir, "stored.zip");
+        writeZip(zipFile, ZipEntry.STORED);
+
+        // STORED 条目的大小与CRC已知，直接写入目标ZIP
+        File outputFile = new File(transferDir, "stored-copy.zip");
+        SuperZip superZip = SuperZip.of().setReZipOutputProperty(ZipOutputProperty.of().setMethod(ZipEntry.STORED));
+        List<IndexEntry> entries = SuperAC.transcode(zipFile, ArchiveFormat.ZIP, outputFile, ArchiveFormat.ZIP, 0, null, Collections.singletonList(superZip));
+        assertEquals(2, entries.size());
+
+        try (ZipFile source = ZipFile.builder().setFile(zipFile).get();
+             ZipFile target = ZipFile.builder().setFile(outputFile).get()) {
+            for (ZipArchiveEntry sourceEntry : Collections.list(source.getEntries())) {
+                ZipArchiveEntry targetEntry = target.getEntry(sourceEntry.getName());
+                assertEquals(ZipEntry.STORED, targetEntry.getMethod());
+                assertEquals(sourceEntry.getCrc(), targetEntry.getCrc());
+                try (InputStream sis = source.getInputStream(sourceEntry); InputStream tis = target.getInputStream(targetEntry)) {
+                    assertArrayEquals(IoUtil.readBytes(sis, false), IoUtil.readBytes(tis, false));
+                }
+            }
+        }
+    }
+
+    private static File bigFile() {
+        FileUtil.mkdir(transferDir);
+        File bigFile = new File(transferDir, "big.bin");
+        if (!bigFile.exists() || bigFile.length() != 3 * 1024 * 1024 + 7) {
+            byte[] bytes = new byte[3 * 1024 * 1024 + 7];
+            new Random(40).nextBytes(bytes);
+            FileUtil.writeBytes(bytes, bigFile);
+        }
+        return bigFile;
+    }
+
+    private static void writeZip(File file, int method) throws IOException {
+        FileUtil.mkdir(transferDir);
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(file))) {
+            for (int i = 0; i < 2; i++) {
+                byte[] bytes = ("entry " + i + " content").getBytes(StandardCharsets.UTF_8);
+                ZipEntry zipEntry = new ZipEntry("dir/entry" + i + ".txt");
+                if (method == ZipEntry.STORED) {
+                    CRC32 crc32 = new CRC32();
+                    crc32.update(bytes);
+                    zipEntry.setMethod(ZipEntry.STORED);
+                    zipEntry.setSize(bytes.length);
+                    zipEntry.setCrc(crc32.getValue());
+                }
+                zos.putNextEntry(zipEntry);
+                zos.write(bytes);
+                zos.closeEntry();
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.lambda.PT1;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperACs;
+import com.iofairy.rainforest.zip.ac.SuperTar;
+import com.iofairy.rainforest.zip.ac.SuperZip;
+import com.iofairy.rainforest.zip.base.AddBytes;
+import com.iofairy.rainforest.zip.base.AddFile;
+import com.iofairy.rainforest.zip.base.AddSource;
+import com.iofairy.rainforest.zip.error.SuperACException;
+import com.iofairy.rainforest.zip.index.IndexEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarFile;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/20 00:45
+ */
+public class UpdateTest {
+    static File zipDir = new File("src/test/resources/zip-files");
+    static File updateDir = new File(zipDir, "update");
+
+    @Test
+    void testUpdateZip() throws Exception {
+        FileUtil.mkdir(updateDir);
+        File zipFile = new File(updateDir, "update.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            for (int i = 0; i < 3; i++) {
+                zos.putNextEntry(new ZipEntry("entry" + i + ".txt"));
+                zos.write(content(i, 2000));
+                zos.closeEntry();
+            }
+        }
+        File addedFile = new File(updateDir, "added.bin");
+        byte[] added = new byte[5000];
+        new Random(41).nextBytes(added);
+        FileUtil.writeBytes(added, addedFile);
+        List<SuperAC> superACs = Collections.singletonList(SuperZip.of());
+
+        // 添加、替换、删除，不整理
+        List<IndexEntry> entries = SuperAC.update(zipFile, ArchiveFormat.ZIP,
+                Arrays.asList(AddFile.of(addedFile, "dir/added.bin", false), AddFile.of(null, "empty", true)),
+                Collections.singletonList(AddBytes.of(new byte[][]{content(7, 10), content(8, 10)}, "entry1.txt", false)),
+                name -> name.equals("entry0.txt"), 1, superACs);
+        assertEquals(Arrays.asList("entry2.txt", "dir/added.bin", "empty/", "entry1.txt"),
+                entries.stream().map(IndexEntry::getName).collect(Collectors.toList()));
+
+        Map<String, byte[]> zipEntries = readZip(zipFile);
+        assertEquals(4, zipEntries.size());
+        assertArrayEquals(content(2, 2000), zipEntries.get("entry2.txt"));
+        assertArrayEquals(added, zipEntries.get("dir/added.bin"));
+        assertArrayEquals(concat(content(7, 10), content(8, 10)), zipEntries.get("entry1.txt"));
+        assertArrayEquals(new byte[0], zipEntries.get("empty/"));
+
+        // 只删除，超过阈值时整理
+        long before = zipFile.length();
+        SuperAC.update(zipFile, ArchiveFormat.ZIP, null, null, name -> name.startsWith("dir/"), 0.2, superACs);
+        assertTrue(zipFile.length() < before - 5000);
+        zipEntries = readZip(zipFile);
+        assertEquals(new HashSet<>(Arrays.asList("entry2.txt", "empty/", "entry1.txt")), zipEntries.keySet());
+        assertArrayEquals(content(2, 2000), zipEntries.get("entry2.txt"));
+        assertArrayEquals(concat(content(7, 10), content(8, 10)), zipEntries.get("entry1.txt"));
+
+        // 不支持的格式
+        assertThrows(SuperACException.class, () -> SuperAC.update(new File(zipDir, "tar（1）.tar.bz2"), ArchiveFormat.TAR_BZ2,
+                null, null, null, 1, SuperACs.allSupportedSuperACs()));
+    }
+
+    @Test
+    void testUpdateTar() throws Exception {
+        FileUtil.mkdir(updateDir);
+        File tarFile = new File(updateDir, "update.tar");
+        try (TarArchiveOutputStream tos = new TarArchiveOutputStream(new FileOutputStream(tarFile))) {
+            tos.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            for (int i = 0; i < 4; i++) {
+                byte[] bytes = content(i, 700 * (i + 1));
+                // 第2个条目的名称超过100个字符，带 PAX 扩展头
+                String name = i == 1 ? String.join("", Collections.nCopies(30, "long")) + ".txt" : "entry" + i + ".txt";
+                TarArchiveEntry entry = new TarArchiveEntry(name);
+                entry.setSize(bytes.length);
+                tos.putArchiveEntry(entry);
+                tos.write(bytes);
+                tos.closeArchiveEntry();
+            }
+        }
+        File addedFile = new File(updateDir, "added.txt");
+        FileUtil.writeBytes(content(9, 5000), addedFile);
+        String longName = String.join("", Collections.nCopies(30, "long")) + ".txt";
+
+        List<IndexEntry> entries = SuperAC.update(tarFile, ArchiveFormat.TAR,
+                Collections.singletonList(AddFile.of(addedFile, "dir/added.txt", false)),
+                Arrays.asList(AddBytes.of(new byte[][]{content(7, 10)}, "entry3.txt", false), AddBytes.of(null, "empty", true)),
+                name -> name.equals("entry0.txt"), 1, Collections.singletonList(SuperTar.of()));
+        assertEquals(Arrays.asList(longName, "entry2.txt", "dir/added.txt", "entry3.txt", "empty/"),
+                entries.stream().map(IndexEntry::getName).collect(Collectors.toList()));
+
+        Map<String, byte[]> tarEntries = new LinkedHashMap<>();
+        try (TarFile tar = new TarFile(tarFile)) {
+            for (TarArchiveEntry entry : tar.getEntries()) {
+                try (InputStream is = tar.getInputStream(entry)) {
+                    tarEntries.put(entry.getName(), IoUtil.readBytes(is, false));
+                }
+            }
+        }
+        assertEquals(5, tarEntries.size());
+        assertArrayEquals(content(1, 1400), tarEntries.get(longName));
+        assertArrayEquals(content(2, 2100), tarEntries.get("entry2.txt"));
+        assertArrayEquals(content(9, 5000), tarEntries.get("dir/added.txt"));
+        assertArrayEquals(content(7, 10), tarEntries.get("entry3.txt"));
+        assertEquals(0, tarFile.length() % 512);
+    }
+
+    @Test
+    void testUpdateFailureKeepsArchive() throws Exception {
+        FileUtil.mkdir(updateDir);
+        File zipFile = new File(updateDir, "failure.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            for (int i = 0; i < 3; i++) {
+                ZipTestFixtures.put(zos, "entry" + i + ".txt", content(i, 2000));
+            }
+        }
+        File tarFile = new File(updateDir, "failure.tar");
+        try (TarArchiveOutputStream tos = new TarArchiveOutputStream(new FileOutputStream(tarFile))) {
+            for (int i = 0; i < 3; i++) {
+                byte[] bytes = content(i, 2000);
+                TarArchiveEntry entry = new TarArchiveEntry("entry" + i + ".txt");
+                entry.setSize(bytes.length);
+                tos.putArchiveEntry(entry);
+                tos.write(bytes);
+                tos.closeArchiveEntry();
+            }
+        }
+        byte[] zipBytes = FileUtil.readBytes(zipFile);
+        byte[] tarBytes = FileUtil.readBytes(tarFile);
+
+        // 第二个新条目读取到一半时出错
+        List<AddFile> addFiles = Arrays.asList(AddFile.of(AddSource.of(() -> new ByteArrayInputStream(content(5, 3000)), 3000), "ok.txt"),
+                AddFile.of(AddSource.of(() -> new FailingInputStream(content(6, 100000), 50000), 100000), "broken.txt"));
+        for (PT1<String, Exception> deleteFilter : Arrays.<PT1<String, Exception>>asList(null, name -> name.equals("entry0.txt"))) {
+            assertThrows(SuperACException.class, () -> SuperAC.update(zipFile, ArchiveFormat.ZIP, addFiles, null, deleteFilter, 1,
+                    Collections.singletonList(SuperZip.of())));
+            assertArrayEquals(zipBytes, FileUtil.readBytes(zipFile));
+            assertThrows(SuperACException.class, () -> SuperAC.update(tarFile, ArchiveFormat.TAR, addFiles, null, deleteFilter, 1,
+                    Collections.singletonList(SuperTar.of())));
+            assertArrayEquals(tarBytes, FileUtil.readBytes(tarFile));
+        }
+        // 临时文件已删除
+        String[] tmpFiles = updateDir.list((dir, name) -> name.startsWith("failure.") && (name.endsWith(".stage") || name.endsWith(".compact")));
+        assertEquals(0, tmpFiles.length);
+    }
+
+    /**
+     * 读取到指定位置时抛出异常
+     */
+    private static final class FailingInputStream extends ByteArrayInputStream {
+        private final int failAt;
+
+        FailingInputStream(byte[] bytes, int failAt) {
+            super(bytes);
+            this.failAt = failAt;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            if (pos >= failAt) throw new UncheckedIOException(new IOException("读取失败"));
+            return super.read(b, off, Math.min(len, failAt - pos));
+        }
+
+        @Override
+        public synchronized int read() {
+            if (pos >= failAt) throw new UncheckedIOException(new IOException("读取失败"));
+            return super.read();
+        }
+    }
+
+    private static Map<String, byte[]> readZip(File zipFile) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipFile zip = ZipFile.builder().setFile(zipFile).get()) {
+            for (ZipArchiveEntry entry : Collections.list(zip.getEntries())) {
+                try (InputStream is = zip.getInputStream(entry)) {
+                    entries.put(entry.getName(), IoUtil.readBytes(is, false));
+                }
+            }
+        }
+        // JDK 的实现同样能读取
+        try (java.util.zip.ZipFile zip = new java.util.zip.ZipFile(zipFile)) {
+            assertEquals(entries.size(), zip.size());
+        }
+        return entries;
+    }
+
+    private static byte[] content(int seed, int length) {
+        StringBuilder sb = new StringBuilder();
+        Random random = new Random(seed);
+        while (sb.length() < length) {
+            sb.append("line ").append(random.nextInt(100)).append('\n');
+        }
+        return sb.substring(0, length).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] bytes = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, bytes, a.length, b.length);
+        return bytes;
+    }
+}
@@ -0,0 +1,144 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.IoUtil;
+import com.iofairy.falcon.io.IOs;
+import com.iofairy.falcon.io.MultiByteArrayInputStream;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperZip;
+import com.iofairy.rainforest.zip.ac.SuperZipProtected;
+import com.iofairy.rainforest.zip.attr.ZipOutputProperty;
+import com.iofairy.rainforest.zip.base.AddBytes;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.base.ZipResult;
+import com.iofairy.rainforest.zip.config.PasswordProvider;
+import com.iofairy.rainforest.zip.config.ZipPassword;
+import com.iofairy.tuple.Tuple;
+import net.lingala.zip4j.model.LocalFileHeader;
+import net.lingala.zip4j.model.enums.CompressionMethod;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/19 21:50
+ */
+public class ZipAdaptiveMethodTest {
+
+    @Test
+    void testAdaptiveMethod() throws Exception {
+        Map<String, byte[]> contents = contents();
+        SuperZip superZip = SuperZip.of().setReZipOutputProperty(ZipOutputProperty.of().setAdaptiveMethod(true));
+
+        ZipResult<Object> zipResult = SuperAC.reZip(new ByteArrayInputStream(createZip(contents)), ArchiveFormat.ZIP, "adaptive.zip", 0,
+                (times, zipName) -> true, null, null, null, null, null, null,
+                (times, zipName) -> Tuple.of(Collections.singletonList(AddBytes.of(new byte[][]{contents.get("random.bin")}, "added.bin", false)), null),
+                null, null, null,
+                (is, os, times, zipName, entryName) -> {
+                    IOs.copy(is, os);
+                    return null;
+                },
+                ZipLogLevel.NONE, Collections.singletonList(superZip));
+
+        Map<String, Integer> entryMethods = zipResult.getEntryMethods();
+        System.out.println(entryMethods);
+        assertEquals(ZipEntry.DEFLATED, entryMethods.get("text.txt"));
+        assertEquals(ZipEntry.STORED, entryMethods.get("random.bin"));
+        assertEquals(ZipEntry.STORED, entryMethods.get("inner.gz"));
+        assertEquals(ZipEntry.STORED, entryMethods.get("empty.txt"));
+        assertEquals(ZipEntry.STORED, entryMethods.get("added.bin"));
+
+        Map<String, Integer> actualMethods = new HashMap<>();
+        try (ZipArchiveInputStream zis = new ZipArchiveInputStream(new MultiByteArrayInputStream(zipResult.getBytes()))) {
+            ZipArchiveEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                actualMethods.put(entry.getName(), entry.getMethod());
+                byte[] expected = entry.getName().equals("added.bin") ? contents.get("random.bin") : contents.get(entry.getName());
+                assertArrayEquals(expected, IoUtil.readBytes(zis, false));
+            }
+        }
+        assertEquals(entryMethods, actualMethods);
+
+        // 未开启时不记录
+        ZipResult<Object> defaultResult = SuperAC.reZip(new ByteArrayInputStream(createZip(contents)), ArchiveFormat.ZIP, "adaptive.zip", 0,
+                null, null, null, ZipLogLevel.NONE, Collections.singletonList(SuperZip.of()));
+        assertNull(defaultResult.getEntryMethods());
+    }
+
+    @Test
+    void testAdaptiveMethodProtected() throws Exception {
+        Map<String, byte[]> contents = contents();
+        PasswordProvider provider = PasswordProvider.of(ZipPassword.of("*.zip", "zipfdskafj$%"));
+        SuperZipProtected superZipProtected = SuperZipProtected.of().setReZipPasswordProvider(provider)
+                .setReZipOutputProperty(ZipOutputProperty.of().setAdaptiveMethod(true));
+
+        ZipResult<Object> zipResult = SuperAC.reZip(new ByteArrayInputStream(createZip(contents)), ArchiveFormat.ZIP, "adaptive.zip", 0,
+                null, null, (is, os, times, zipName, entryName) -> {
+                    IOs.copy(is, os);
+                    return null;
+                },
+                ZipLogLevel.NONE, Collections.singletonList(superZipProtected));
+
+        Map<String, Integer> entryMethods = zipResult.getEntryMethods();
+        assertEquals(ZipEntry.DEFLATED, entryMethods.get("text.txt"));
+        assertEquals(ZipEntry.STORED, entryMethods.get("random.bin"));
+        assertEquals(ZipEntry.STORED, entryMethods.get("inner.gz"));
+
+        try (net.lingala.zip4j.io.inputstream.ZipInputStream zis = new net.lingala.zip4j.io.inputstream.ZipInputStream(
+                new MultiByteArrayInputStream(zipResult.getBytes()), "zipfdskafj$%".toCharArray())) {
+            LocalFileHeader header;
+            while ((header = zis.getNextEntry()) != null) {
+                CompressionMethod expectedMethod = entryMethods.get(header.getFileName()) == ZipEntry.STORED ? CompressionMethod.STORE : CompressionMethod.DEFLATE;
+                assertEquals(expectedMethod, header.getCompressionMethod());
+                assertArrayEquals(contents.get(header.getFileName()), IoUtil.readBytes(zis, false));
+            }
+        }
+    }
+
+    private static Map<String, byte[]> contents() throws IOException {
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append("line ").append(i).append(": the quick brown fox jumps over the lazy dog\n");
+        }
+        contents.put("text.txt", text.toString().getBytes(StandardCharsets.UTF_8));
+
+        byte[] random = new byte[64 * 1024];
+        new Random(7).nextBytes(random);
+        contents.put("random.bin", random);
+
+        // 内部压缩包，即使内容可压缩，也直接存储
+        ByteArrayOutputStream gz = new ByteArrayOutputStream();
+        try (GZIPOutputStream gos = new GZIPOutputStream(gz)) {
+            gos.write(contents.get("text.txt"));
+        }
+        contents.put("inner.gz", gz.toByteArray());
+        contents.put("empty.txt", new byte[0]);
+        return contents;
+    }
+
+    private static byte[] createZip(Map<String, byte[]> contents) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+                zos.putNextEntry(new ZipEntry(entry.getKey()));
+                zos.write(entry.getValue());
+                zos.closeEntry();
+            }
+        }
+        return baos.toByteArray();
+    }
+}
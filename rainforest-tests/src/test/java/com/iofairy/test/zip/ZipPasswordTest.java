@@ -5,7 +5,10 @@ import com.iofairy.rainforest.zip.config.ZipPassword;
 import com.iofairy.top.G;
 import org.junit.jupiter.api.Test;
 
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -144,4 +147,60 @@ public class ZipPasswordTest {
 
     }
 
+    /**
+     * 查找结果与按顺序逐个正则匹配相同
+     */
+    @Test
+    void testPasswordLookupMatchesRegex() throws Exception {
+        Random random = new Random(7);
+        String alphabet = "ab.-*?|";
+        List<ZipPassword> zipPasswords = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            zipPasswords.add(ZipPassword.of(randomName(random, alphabet, 1 + random.nextInt(6)), "p" + i));
+        }
+        zipPasswords.add(ZipPassword.of("a{2}", "quantifier"));
+        PasswordProvider passwordProvider = PasswordProvider.of().addPasswords(zipPasswords);
+
+        List<String> fileNames = new ArrayList<>(Arrays.asList("aa", "a\nb", "a\uD83D\uDE00b", "a|b", "ab.-"));
+        for (int i = 0; i < 2000; i++) {
+            fileNames.add(randomName(random, "ab.-|{}\n", 1 + random.nextInt(8)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (String fileName : fileNames) {
+                        assertEquals(regexLookup(passwordProvider.getZipPasswordList(), fileName), G.toString(passwordProvider.getPassword(fileName)), fileName);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // 添加密码后，原子替换查找快照
+        passwordProvider.addPassword(ZipPassword.of("aa", "new_aa"));
+        assertEquals("new_aa", new String(passwordProvider.getPassword("aa")));
+    }
+
+    private static String regexLookup(List<ZipPassword> zipPasswordList, String fileName) {
+        for (ZipPassword zipPassword : zipPasswordList) {
+            if (zipPassword.getPattern().matcher(fileName).matches()) return G.toString(zipPassword.getPassword());
+        }
+        return G.toString((char[]) null);
+    }
+
+    private static String randomName(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
 }
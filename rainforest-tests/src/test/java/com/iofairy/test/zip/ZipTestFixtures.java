@@ -0,0 +1,56 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.IoUtil;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 测试共用的压缩包数据与工具方法
+ *
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/20 04:10
+ */
+final class ZipTestFixtures {
+    static File resDir = null;     // 资源目录
+    static File zipDir = null;     // 压缩包目录
+
+    private static byte[] tarBytes = null; // tar（1）.tar.bz2 解压后的 tar 数据
+
+    static {
+        resDir = new File("src/test/resources");
+        zipDir = new File(resDir, "zip-files");
+    }
+
+    private ZipTestFixtures() {
+    }
+
+    /**
+     * tar（1）.tar.bz2 解压后的 tar 数据（只解压一次，调用者不要修改返回的数组）
+     */
+    static synchronized byte[] tarBytes() throws IOException {
+        if (tarBytes == null) {
+            try (InputStream is = new BZip2CompressorInputStream(new FileInputStream(new File(zipDir, "tar（1）.tar.bz2")))) {
+                tarBytes = IoUtil.readBytes(is, false);
+            }
+        }
+        return tarBytes;
+    }
+
+    /**
+     * 向 zip 中写入一个文件（修改时间固定为0，内容相同时压缩包的字节也相同，便于比较摘要）
+     */
+    static void put(ZipOutputStream zos, String name, byte[] bytes) throws IOException {
+        ZipEntry zipEntry = new ZipEntry(name);
+        zipEntry.setTime(0);
+        zos.putNextEntry(zipEntry);
+        zos.write(bytes);
+        zos.closeEntry();
+    }
+}
@@ -0,0 +1,171 @@
+package com.iofairy.test.zip;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iofairy.falcon.io.IOs;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperACs;
+import com.iofairy.rainforest.zip.base.*;
+import com.iofairy.rainforest.zip.error.SuperACException;
+import com.iofairy.tuple.Tuple2;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/20 02:50
+ */
+public class ZipTraceTest {
+
+    @Test
+    void testUnzipTraced() throws Exception {
+        UnzipResult<String> unzipResult = SuperAC.unzipTraced(new ByteArrayInputStream(outerZip()), ArchiveFormat.ZIP, "outer.zip", -1,
+                null, null, null, null, (is, times, zipName, entryName) -> entryName, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+        assertEquals(Arrays.asList("a.txt", "b.txt", "c.txt"), unzipResult.getResults());
+
+        ZipTrace trace = unzipResult.getTrace();
+        assertEquals(1, trace.getRoots().size());
+        TraceSpan root = trace.getRoots().get(0);
+        assertEquals(TraceSpan.Type.ARCHIVE, root.getType());
+        assertEquals("outer.zip", root.getName());
+        assertTrue(root.isCompleted());
+        assertTrue(root.getDurationNanos() > 0 && root.getDurationNanos() <= trace.getDurationNanos());
+
+        assertEquals(Arrays.asList("ENTRY a.txt", "NESTED_ARCHIVE inner.zip"), describe(root.getChildren()));
+        TraceSpan inner = root.getChildren().get(1);
+        assertEquals("outer.zip", inner.getZipFileName());
+        assertEquals(SuperACs.INIT_UNZIP_TIMES, inner.getUnzipTimes());
+        assertEquals(Arrays.asList("ENTRY b.txt", "ENTRY c.txt"), describe(inner.getChildren()));
+        assertEquals(SuperACs.INIT_UNZIP_TIMES + 1, inner.getChildren().get(0).getUnzipTimes());
+        for (TraceSpan span : trace.getSpans()) {
+            assertTrue(span.isCompleted());
+            assertTrue(span.getStartNanos() >= root.getStartNanos());
+        }
+
+        assertFalse(ZipTrace.isRecording());
+    }
+
+    @Test
+    void testReZipTraced() throws Exception {
+        ZipResult<String> zipResult = SuperAC.reZipTraced(new ByteArrayInputStream(outerZip()), ArchiveFormat.ZIP, "outer.zip", -1,
+                null, null, null, (times, zipName, entryName) -> !entryName.equals("c.txt"), null, null, null, null, null, null, null,
+                (is, os, times, zipName, entryName) -> {
+                    IOs.copy(is, os);
+                    return entryName;
+                }, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+        assertEquals(Arrays.asList("a.txt", "b.txt"), zipResult.getResults());
+
+        ZipTrace trace = zipResult.getTrace();
+        TraceSpan root = trace.getRoots().get(0);
+        long byteLength = Arrays.stream(zipResult.getBytes()).mapToLong(bs -> bs.length).sum();
+        assertEquals(byteLength, root.getBytes());
+
+        List<TraceSpan> spans = trace.getSpans();
+        List<String> writes = spans.stream().filter(span -> span.getType() == TraceSpan.Type.WRITE).map(TraceSpan::getName).collect(Collectors.toList());
+        assertEquals(Arrays.asList("a.txt", "inner.zip", "b.txt", "c.txt"), writes);
+        for (TraceSpan span : spans) {
+            if (span.getType() == TraceSpan.Type.WRITE) assertTrue(span.getBytes() >= 0, span.toString());
+        }
+        TraceSpan filter = spans.stream().filter(span -> span.getType() == TraceSpan.Type.EVENT).findFirst().orElseThrow(AssertionError::new);
+        assertEquals("filter", filter.getEvent());
+        assertEquals("c.txt", filter.getName());
+        assertEquals("inner.zip", filter.getZipFileName());
+
+        // 未记录跟踪时没有 trace
+        ZipResult<String> plain = SuperAC.reZip(new ByteArrayInputStream(outerZip()), ArchiveFormat.ZIP, "outer.zip", -1, null, null,
+                (is, os, times, zipName, entryName) -> {
+                    IOs.copy(is, os);
+                    return entryName;
+                }, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs());
+        assertNull(plain.getTrace());
+    }
+
+    @Test
+    void testChromeTraceJson() throws Exception {
+        Tuple2<List<String>, ZipTrace> tuple = ZipTrace.record(() -> SuperAC.unzip(new ByteArrayInputStream(outerZip()), ArchiveFormat.ZIP,
+                "outer \"1\".zip", -1, null, null, null, null, (is, times, zipName, entryName) -> entryName, ZipLogLevel.NONE,
+                SuperACs.allSupportedSuperACs()));
+        ZipTrace trace = tuple._2;
+
+        JsonNode json = new ObjectMapper().readTree(trace.toChromeTraceJson());
+        JsonNode events = json.get("traceEvents");
+        assertEquals("M", events.get(0).get("ph").asText());
+        List<String> names = new ArrayList<>();
+        for (int i = 1; i < events.size(); i++) {
+            JsonNode event = events.get(i);
+            assertEquals("X", event.get("ph").asText());
+            assertTrue(event.get("dur").asDouble() >= 0);
+            names.add(event.get("cat").asText() + ":" + event.get("name").asText());
+        }
+        assertEquals(Arrays.asList("archive:outer \"1\".zip", "entry:a.txt", "nested:inner.zip", "entry:b.txt", "entry:c.txt"), names);
+        assertEquals(trace.getSpans().get(0).getUnzipId(), events.get(1).get("args").get("unzipId").asText());
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        trace.writeChromeTrace(baos);
+        assertEquals(trace.toChromeTraceJson(), new String(baos.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testTraceOnFailure() throws Exception {
+        // 处理到 c.txt 时失败，失败前的跟踪附在异常上
+        SuperACException e = assertThrows(SuperACException.class, () -> ZipTrace.record(() -> SuperAC.unzip(new ByteArrayInputStream(outerZip()),
+                ArchiveFormat.ZIP, "outer.zip", -1, null, null, (times, zipName, entryName) -> true,
+                (is, times, zipName, entryName) -> entryName,
+                (is, times, zipName, entryName) -> {
+                    if (entryName.equals("c.txt")) throw new IOException("failed: " + entryName);
+                    return entryName;
+                }, ZipLogLevel.NONE, SuperACs.allSupportedSuperACs())));
+        ZipTrace trace = ZipTrace.of(e);
+        assertNotNull(trace);
+        assertFalse(ZipTrace.isRecording());
+
+        TraceSpan root = trace.getRoots().get(0);
+        assertEquals("outer.zip", root.getName());
+        assertFalse(root.isCompleted());
+        assertTrue(root.getDurationNanos() > 0);
+        assertEquals(Arrays.asList("ENTRY a.txt", "EVENT inner.zip", "NESTED_ARCHIVE inner.zip"), describe(root.getChildren()));
+        assertEquals("beforeUnzipAction", root.getChildren().get(1).getEvent());
+        TraceSpan inner = root.getChildren().get(2);
+        assertFalse(inner.isCompleted());
+        assertEquals(Arrays.asList("ENTRY b.txt", "ENTRY c.txt"), describe(inner.getChildren()));
+        assertTrue(inner.getChildren().get(0).isCompleted());
+        assertFalse(inner.getChildren().get(1).isCompleted());
+
+        // 不是 SuperACException 时，跟踪附在被抑制的异常上
+        IOException ioe = assertThrows(IOException.class, () -> ZipTrace.record(() -> {
+            throw new IOException("failed");
+        }));
+        assertNotNull(ZipTrace.of(ioe));
+        assertTrue(ZipTrace.of(ioe).getRoots().isEmpty());
+        assertNull(ZipTrace.of(new IOException()));
+    }
+
+    private static List<String> describe(List<TraceSpan> spans) {
+        return spans.stream().map(span -> span.getType() + " " + span.getName()).collect(Collectors.toList());
+    }
+
+    private static byte[] outerZip() throws IOException {
+        ByteArrayOutputStream inner = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(inner)) {
+            ZipTestFixtures.put(zos, "b.txt", "hello b".getBytes(StandardCharsets.UTF_8));
+            ZipTestFixtures.put(zos, "c.txt", "hello c".getBytes(StandardCharsets.UTF_8));
+        }
+        ByteArrayOutputStream outer = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(outer)) {
+            ZipTestFixtures.put(zos, "a.txt", "hello a".getBytes(StandardCharsets.UTF_8));
+            ZipTestFixtures.put(zos, "inner.zip", inner.toByteArray());
+        }
+        return outer.toByteArray();
+    }
+}
@@ -0,0 +1,139 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.*;
+import com.iofairy.rainforest.zip.attr.ZstdInputProperty;
+import com.iofairy.rainforest.zip.attr.ZstdOutputProperty;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.base.ZstdDictRegistry;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/19 21:10
+ */
+public class ZstdDictTest {
+    static File zipDir = new File("src/test/resources/zip-files");
+    static File zstdDictDir = new File(zipDir, "zstdDict");
+
+    @Test
+    void testTrainDict() throws Exception {
+        FileUtil.del(zstdDictDir);
+        File dictDir = new File(zstdDictDir, "dicts");
+        ZstdDictRegistry registry = ZstdDictRegistry.of(dictDir);
+
+        File plainFile = createTarZst(ZstdOutputProperty.of().setSeekableFrameSize(4096), "plain.tar.zst");
+        ZstdOutputProperty outputProperty = ZstdOutputProperty.of().setSeekableFrameSize(4096)
+                .setTrainDictSize(16 * 1024).setDictRegistry(registry);
+        File dictFile = createTarZst(outputProperty, "dict.tar.zst");
+        System.out.println("without dict: " + plainFile.length() + ", with dict: " + dictFile.length());
+        assertEquals(1, registry.size());
+        assertTrue(dictFile.length() < plainFile.length());
+
+        // 没有字典时无法解压
+        SuperTarZstd superTarZstd = SuperTarZstd.of();
+        assertThrows(Exception.class, () -> superTarZstd.unzip(dictFile, 0, null, null, null, null,
+                (is, times, zipName, entryName) -> IoUtil.readBytes(is, false).length, ZipLogLevel.NONE, Collections.singletonList(superTarZstd)));
+
+        List<String> expected = SuperAC.unzip(new FileInputStream(plainFile), ArchiveFormat.TAR_ZST, plainFile.getName(), 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + new String(IoUtil.readBytes(is, false), StandardCharsets.UTF_8),
+                ZipLogLevel.NONE, Collections.singletonList(superTarZstd));
+
+        // 从磁盘重新加载注册表，根据帧头中的字典ID找到字典
+        superTarZstd.setUnzipInputProperty(ZstdInputProperty.of().setDictRegistry(ZstdDictRegistry.of(dictDir)));
+        List<String> streaming = SuperAC.unzip(new FileInputStream(dictFile), ArchiveFormat.TAR_ZST, dictFile.getName(), 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + new String(IoUtil.readBytes(is, false), StandardCharsets.UTF_8),
+                ZipLogLevel.NONE, Collections.singletonList(superTarZstd));
+        List<String> seekable = superTarZstd.unzip(dictFile, 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + new String(IoUtil.readBytes(is, false), StandardCharsets.UTF_8),
+                ZipLogLevel.NONE, Collections.singletonList(superTarZstd));
+        assertEquals(expected, streaming);
+        assertEquals(expected, seekable);
+    }
+
+    @Test
+    void testDefaultFrameSize() throws Exception {
+        ZstdDictRegistry registry = ZstdDictRegistry.of();
+        int frameSize = ZstdDictTrainingOutputStream.DEFAULT_FRAME_SIZE;
+        File plainFile = createTarZst(ZstdOutputProperty.of().setSeekableFrameSize(frameSize), "plain-default.tar.zst");
+        // 没有设置 seekableFrameSize，训练字典时仍按默认的帧大小以 Seekable Format 格式压缩
+        File dictFile = createTarZst(ZstdOutputProperty.of().setTrainDictSize(16 * 1024).setDictRegistry(registry), "dict-default.tar.zst");
+        System.out.println("without dict: " + plainFile.length() + ", with dict: " + dictFile.length());
+        assertEquals(1, registry.size());
+        assertTrue(dictFile.length() < plainFile.length());
+
+        try (ZstdSeekableChannel channel = ZstdSeekableChannel.open(dictFile, ZstdInputProperty.of().setDictRegistry(registry))) {
+            assertNotNull(channel);
+            assertEquals((channel.size() + frameSize - 1) / frameSize, channel.frameCount());
+        }
+
+        SuperTarZstd superTarZstd = SuperTarZstd.of().setUnzipInputProperty(ZstdInputProperty.of().setDictRegistry(registry));
+        List<String> expected = superTarZstd.unzip(plainFile, 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + new String(IoUtil.readBytes(is, false), StandardCharsets.UTF_8),
+                ZipLogLevel.NONE, Collections.singletonList(superTarZstd));
+        List<String> actual = superTarZstd.unzip(dictFile, 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + new String(IoUtil.readBytes(is, false), StandardCharsets.UTF_8),
+                ZipLogLevel.NONE, Collections.singletonList(superTarZstd));
+        assertEquals(2000, actual.size());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testTooFewSamples() throws Exception {
+        ZstdDictRegistry registry = ZstdDictRegistry.of();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZstdDictTrainingOutputStream os = new ZstdDictTrainingOutputStream(baos, ZstdOutputProperty.of().setTrainDictSize(16 * 1024).setDictRegistry(registry))) {
+            os.write("{\"id\": 1}".getBytes(StandardCharsets.UTF_8));
+            os.close();
+            assertEquals(0, os.getDictId());
+        }
+        assertEquals(0, registry.size());
+        assertTrue(baos.size() > 0);
+    }
+
+    @Test
+    void testTrainWithoutRegistry() {
+        // 没有注册表时，训练出的字典会丢失，压缩后的数据无法解压
+        assertThrows(IllegalArgumentException.class,
+                () -> new ZstdDictTrainingOutputStream(new ByteArrayOutputStream(), ZstdOutputProperty.of().setTrainDictSize(16 * 1024)));
+    }
+
+    /**
+     * 2000 个相似的小 JSON 文件
+     */
+    private static File createTarZst(ZstdOutputProperty outputProperty, String fileName) throws IOException {
+        FileUtil.mkdir(zstdDictDir);
+        File tarZstFile = new File(zstdDictDir, fileName);
+        Random random = new Random(42);
+        OutputStream os = outputProperty.getTrainDictSize() == null
+                ? new ZstdSeekableOutputStream(new FileOutputStream(tarZstFile), outputProperty)
+                : new ZstdDictTrainingOutputStream(new FileOutputStream(tarZstFile), outputProperty);
+        try (TarArchiveOutputStream tos = new TarArchiveOutputStream(os)) {
+            for (int i = 0; i < 2000; i++) {
+                String json = "{\"id\": " + i + ", \"name\": \"user-" + random.nextInt(100000) + "\", \"email\": \"user" + random.nextInt(1000)
+                        + "@example.com\", \"active\": " + random.nextBoolean() + ", \"roles\": [\"reader\", \"writer\"], \"score\": "
+                        + random.nextInt(100) + "." + random.nextInt(100) + "}";
+                byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+                TarArchiveEntry entry = new TarArchiveEntry("json/" + i + ".json");
+                entry.setSize(bytes.length);
+                tos.putArchiveEntry(entry);
+                tos.write(bytes);
+                tos.closeArchiveEntry();
+            }
+        }
+        return tarZstFile;
+    }
+}
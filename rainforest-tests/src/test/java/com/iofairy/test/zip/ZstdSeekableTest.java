@@ -0,0 +1,90 @@
+package com.iofairy.test.zip;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import com.github.luben.zstd.ZstdInputStream;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.rainforest.zip.ac.*;
+import com.iofairy.rainforest.zip.attr.ZstdInputProperty;
+import com.iofairy.rainforest.zip.attr.ZstdOutputProperty;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.index.IndexEntry;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author GG
+ * @version 1.0
+ * @date 2026/10/19 17:05
+ */
+public class ZstdSeekableTest {
+    static File zipDir = new File("src/test/resources/zip-files");
+    static File zstdSeekableDir = new File(zipDir, "zstdSeekable");
+
+    @Test
+    void testRandomAccess() throws Exception {
+        File tarZstFile = createTarZst();
+        byte[] tarBytes = ZipTestFixtures.tarBytes();
+
+        // Seekable Format 仍然是合法的 zstd 数据
+        try (InputStream is = new ZstdInputStream(new FileInputStream(tarZstFile))) {
+            assertArrayEquals(tarBytes, IoUtil.readBytes(is, false));
+        }
+
+        try (ZstdSeekableChannel channel = ZstdSeekableChannel.open(tarZstFile, ZstdInputProperty.of())) {
+            assertNotNull(channel);
+            System.out.println("frameCount: " + channel.frameCount());
+            assertEquals((tarBytes.length + 4095) / 4096, channel.frameCount());
+            assertEquals(tarBytes.length, channel.size());
+
+            for (long offset = tarBytes.length - 1; offset >= 0; offset -= tarBytes.length / 17 + 1) {
+                ByteBuffer buffer = ByteBuffer.allocate(3000);
+                channel.position(offset);
+                while (buffer.hasRemaining() && channel.read(buffer) != -1) ;
+                int end = (int) Math.min(tarBytes.length, offset + 3000);
+                assertArrayEquals(Arrays.copyOfRange(tarBytes, (int) offset, end), Arrays.copyOf(buffer.array(), buffer.position()));
+            }
+        }
+
+        assertNull(ZstdSeekableChannel.open(new File(zipDir, "tar（1）.tar.bz2"), ZstdInputProperty.of()));
+    }
+
+    @Test
+    void testUnzipSeekableTarZst() throws Exception {
+        File tarZstFile = createTarZst();
+        SuperTarZstd superTarZstd = SuperTarZstd.of();
+
+        List<String> expected = SuperAC.unzip(new FileInputStream(tarZstFile), ArchiveFormat.TAR_ZST, tarZstFile.getName(), 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.DETAIL, SuperACs.allSupportedSuperACs());
+        List<String> actual = superTarZstd.unzip(tarZstFile, 0, null, null, null, null,
+                (is, times, zipName, entryName) -> entryName + ":" + IoUtil.readBytes(is, false).length,
+                ZipLogLevel.DETAIL, SuperACs.allSupportedSuperACs());
+        System.out.println(actual);
+        assertEquals(expected, actual);
+
+        // 不解压内部压缩包时，内部压缩包不会被 otherAction 处理，但会被列出
+        List<IndexEntry> entries = SuperAC.list(tarZstFile, ArchiveFormat.TAR_ZST, 0, null, SuperACs.allSupportedSuperACs());
+        List<String> names = entries.stream().map(IndexEntry::getName).collect(Collectors.toList());
+        for (String entry : expected) {
+            assertTrue(names.contains(entry.substring(0, entry.lastIndexOf(':'))));
+        }
+    }
+
+    private static File createTarZst() throws IOException {
+        FileUtil.mkdir(zstdSeekableDir);
+        File tarZstFile = new File(zstdSeekableDir, "tar（1）.tar.zst");
+        ZstdOutputProperty outputProperty = ZstdOutputProperty.of().setSeekableFrameSize(4096);
+        try (OutputStream os = new ZstdSeekableOutputStream(new FileOutputStream(tarZstFile), outputProperty)) {
+            os.write(ZipTestFixtures.tarBytes());
+        }
+        return tarZstFile;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.jackson.base;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * {@link DateTimeFormatter} 的共享缓存（有上限），以 <b>(格式, Locale, 时区, 是否忽略大小写)</b> 为 key。<br>
+ * 每个带 {@code @JsonFormat(pattern = ...)} 的属性在序列化器/反序列化器上下文化时都需要一个格式，
+ * 相同的格式只解析一次；{@link DateTimeFormatter} 不可变且线程安全，可以共享。
+ * 缓存数量达到 {@link #MAX_SIZE} 后，新的格式不再缓存（仍正常创建并返回）
+ *
+ * @since 0.6.2
+ */
+public final class DateTimeFormatterCache {
+    /**
+     * 缓存的最大数量
+     */
+    public static final int MAX_SIZE = 512;
+
+    private static final Map<Key, DateTimeFormatter> CACHE = new ConcurrentHashMap<>();
+
+    private DateTimeFormatterCache() {
+    }
+
+    /**
+     * 获取（或创建并缓存）格式
+     *
+     * @param pattern         格式
+     * @param locale          Locale，为{@code null}则使用默认的 Locale
+     * @param zoneId          时区，为{@code null}则不设置时区
+     * @param caseInsensitive 解析时是否忽略大小写
+     * @return DateTimeFormatter
+     * @throws IllegalArgumentException 格式不正确
+     */
+    public static DateTimeFormatter ofPattern(String pattern, Locale locale, ZoneId zoneId, boolean caseInsensitive) {
+        checkHasNullNPE(args(pattern), args("pattern"));
+
+        // 默认的 Locale 可能被修改，作为 key 的一部分
+        Key key = new Key(pattern, locale == null ? Locale.getDefault(Locale.Category.FORMAT) : locale, zoneId, caseInsensitive);
+        DateTimeFormatter formatter = CACHE.get(key);
+        if (formatter != null) return formatter;
+
+        formatter = newFormatter(key);
+        if (CACHE.size() < MAX_SIZE) {
+            DateTimeFormatter previous = CACHE.putIfAbsent(key, formatter);
+            if (previous != null) formatter = previous;
+        }
+        return formatter;
+    }
+
+    /**
+     * 获取（或创建并缓存）格式，使用默认的 Locale，不设置时区
+     *
+     * @param pattern 格式
+     * @return DateTimeFormatter
+     */
+    public static DateTimeFormatter ofPattern(String pattern) {
+        return ofPattern(pattern, null, null, false);
+    }
+
+    /**
+     * 当前缓存的数量
+     *
+     * @return 缓存的数量
+     */
+    public static int size() {
+        return CACHE.size();
+    }
+
+    /**
+     * 清空缓存
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    private static DateTimeFormatter newFormatter(Key key) {
+        DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+        if (key.caseInsensitive) builder.parseCaseInsensitive();
+        builder.appendPattern(key.pattern);
+        DateTimeFormatter formatter = builder.toFormatter(key.locale);
+        return key.zoneId == null ? formatter : formatter.withZone(key.zoneId);
+    }
+
+    private static final class Key {
+        final String pattern;
+        final Locale locale;
+        final ZoneId zoneId;
+        final boolean caseInsensitive;
+        final int hash;
+
+        Key(String pattern, Locale locale, ZoneId zoneId, boolean caseInsensitive) {
+            this.pattern = pattern;
+            this.locale = locale;
+            this.zoneId = zoneId;
+            this.caseInsensitive = caseInsensitive;
+            this.hash = Objects.hash(pattern, locale, zoneId, caseInsensitive);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return caseInsensitive == key.caseInsensitive
+                    && pattern.equals(key.pattern)
+                    && locale.equals(key.locale)
+                    && Objects.equals(zoneId, key.zoneId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
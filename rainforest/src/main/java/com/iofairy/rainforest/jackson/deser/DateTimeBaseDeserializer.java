@@ -21,13 +21,14 @@ import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.cfg.CoercionAction;
 import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
 import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.iofairy.rainforest.jackson.base.DateTimeFormatterCache;
 import com.iofairy.time.DateTime;
 import com.iofairy.tcf.Try;
 
 import java.io.IOException;
 import java.time.DateTimeException;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeFormatterBuilder;
 import java.util.Locale;
 
 /**
@@ -59,7 +60,7 @@ public abstract class DateTimeBaseDeserializer<T> extends StdScalarDeserializer<
 
     protected DateTimeBaseDeserializer(Class<T> clazz, String pattern) {
         super(clazz);
-        _formatter = DateTimeFormatter.ofPattern(pattern);
+        _formatter = DateTimeFormatterCache.ofPattern(pattern);
         _currentType = null;
         _useTimestamp = null;
         _writeZoneId = null;
@@ -132,21 +133,11 @@ public abstract class DateTimeBaseDeserializer<T> extends StdScalarDeserializer<
             if (format.hasPattern()) {
                 final String pattern = format.getPattern();
                 final Locale locale = format.hasLocale() ? format.getLocale() : ctxt.getLocale();
-                DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
-                if (acceptCaseInsensitiveValues(ctxt, format)) {
-                    builder.parseCaseInsensitive();
-                }
-                builder.appendPattern(pattern);
-                DateTimeFormatter df;
-                if (locale == null) {
-                    df = builder.toFormatter();
-                } else {
-                    df = builder.toFormatter(locale);
-                }
-
-                if (format.hasTimeZone()) {
-                    df = df.withZone(format.getTimeZone().toZoneId());
-                }
+                final ZoneId zoneId = format.hasTimeZone() ? format.getTimeZone().toZoneId() : null;
+                /*
+                 * 相同的 (格式, Locale, 时区, 是否忽略大小写) 共享同一个 DateTimeFormatter，不再为每个属性重新解析格式
+                 */
+                DateTimeFormatter df = DateTimeFormatterCache.ofPattern(pattern, locale, zoneId, acceptCaseInsensitiveValues(ctxt, format));
 
                 deser = deser.withFormat(df, useTimestamp);
             }
@@ -16,6 +16,7 @@
 package com.iofairy.rainforest.jackson.module;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iofairy.rainforest.jackson.base.DateTimeFormatterCache;
 import com.iofairy.top.S;
 
 import java.text.DateFormat;
@@ -37,14 +38,8 @@ public class JacksonModules {
             deserPattern = S.isBlank(deserPattern) ? serPattern : deserPattern;
         }
 
-        DateTimeFormatter serFormatter = DateTimeFormatter.ofPattern(S.isBlank(serPattern) ? "yyyy-MM-dd HH:mm:ss" : serPattern);
-        if (zoneId != null) {
-            serFormatter = serFormatter.withZone(zoneId);
-        }
-        DateTimeFormatter deserFormatter = DateTimeFormatter.ofPattern(S.isBlank(deserPattern) ? "y-M-d H:m:s" : deserPattern);
-        if (zoneId != null) {
-            deserFormatter = deserFormatter.withZone(zoneId);
-        }
+        DateTimeFormatter serFormatter = DateTimeFormatterCache.ofPattern(S.isBlank(serPattern) ? "yyyy-MM-dd HH:mm:ss" : serPattern, null, zoneId, false);
+        DateTimeFormatter deserFormatter = DateTimeFormatterCache.ofPattern(S.isBlank(deserPattern) ? "y-M-d H:m:s" : deserPattern, null, zoneId, false);
 
         registerModules(objectMapper, serFormatter, deserFormatter);
     }
@@ -19,11 +19,14 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.ser.ContextualSerializer;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.iofairy.rainforest.jackson.base.DateTimeFormatterCache;
 import com.iofairy.time.DateTime;
 import com.iofairy.time.DateTimes;
 
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
+import java.util.TimeZone;
 
 import static com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_WITH_CONTEXT_TIME_ZONE;
 
@@ -42,6 +45,16 @@ public abstract class DatetimeBaseSerializer<T> extends StdSerializer<T> impleme
     protected final Boolean _writeZoneId;
     protected final JsonFormat.Shape _shape;
 
+    /**
+     * 序列化字符串时实际使用的格式（按上下文时区调整、附加时区ID后），上下文化时计算，
+     * 上下文时区不变时每个值直接复用，不再逐个调用 {@link DateTimeFormatter#withZone(ZoneId)}
+     */
+    private transient volatile ResolvedFormatter _resolvedFormatter;
+    /**
+     * 带时区ID的格式（{@code DateTimes.withTimeZone(_formatter)}），第一次使用时创建
+     */
+    private transient volatile DateTimeFormatter _zoneIdFormatter;
+
     protected DatetimeBaseSerializer(Class<T> clazz, DateTimeFormatter formatter) {
         super(clazz);
         _formatter = formatter;
@@ -53,7 +66,7 @@ public abstract class DatetimeBaseSerializer<T> extends StdSerializer<T> impleme
 
     protected DatetimeBaseSerializer(Class<T> clazz, String pattern) {
         super(clazz);
-        _formatter = DateTimeFormatter.ofPattern(pattern);
+        _formatter = DateTimeFormatterCache.ofPattern(pattern);
         _currentType = null;
         _useTimestamp = null;
         _writeZoneId = null;
@@ -132,34 +145,67 @@ public abstract class DatetimeBaseSerializer<T> extends StdSerializer<T> impleme
             }
         }
 
+        if (prov != null) {
+            ser.resolveFormatter(prov);
+        }
         return ser;
     }
 
     protected DateTimeFormatter _useDateTimeFormatter(SerializerProvider prov, JsonFormat.Value format) {
-        DateTimeFormatter dtf;
         final String pattern = format.getPattern();
         final Locale locale = format.hasLocale() ? format.getLocale() : prov.getLocale();
-        if (locale == null) {
-            dtf = DateTimeFormatter.ofPattern(pattern);
-        } else {
-            dtf = DateTimeFormatter.ofPattern(pattern, locale);
-        }
-
-        if (format.hasTimeZone()) {
-            dtf = dtf.withZone(format.getTimeZone().toZoneId());
-        }
-        return dtf;
+        final ZoneId zoneId = format.hasTimeZone() ? format.getTimeZone().toZoneId() : null;
+        return DateTimeFormatterCache.ofPattern(pattern, locale, zoneId, false);
     }
 
     protected String formatValue(DateTime value, SerializerProvider provider) {
-        DateTimeFormatter formatter = getFormatter(_formatter, provider);
+        return value.format(resolveFormatter(provider));
+    }
 
-        if (_shape == JsonFormat.Shape.STRING) {
-            if (Boolean.TRUE.equals(_writeZoneId)) {
-                formatter = DateTimes.withTimeZone(formatter);
+    /**
+     * 序列化字符串时实际使用的格式，只在上下文时区改变时重新计算
+     *
+     * @param provider SerializerProvider
+     * @return DateTimeFormatter
+     */
+    protected DateTimeFormatter resolveFormatter(SerializerProvider provider) {
+        TimeZone contextTimeZone = contextTimeZone(provider);
+        ResolvedFormatter resolved = _resolvedFormatter;
+        if (resolved == null || resolved.contextTimeZone != contextTimeZone) {
+            DateTimeFormatter formatter = getFormatter(_formatter, provider);
+            if (_shape == JsonFormat.Shape.STRING) {
+                if (Boolean.TRUE.equals(_writeZoneId)) {
+                    formatter = DateTimes.withTimeZone(formatter);
+                }
             }
+            resolved = new ResolvedFormatter(contextTimeZone, formatter);
+            _resolvedFormatter = resolved;
         }
-        return value.format(formatter);
+        return resolved.formatter;
+    }
+
+    /**
+     * 带时区ID的格式
+     *
+     * @return DateTimeFormatter
+     */
+    protected DateTimeFormatter zoneIdFormatter() {
+        DateTimeFormatter formatter = _zoneIdFormatter;
+        if (formatter == null) {
+            formatter = DateTimes.withTimeZone(_formatter == null ? DateTimes.DTF_STD : _formatter);
+            _zoneIdFormatter = formatter;
+        }
+        return formatter;
+    }
+
+    /**
+     * {@link #getFormatter} 使用的上下文时区，不使用上下文时区时为 {@code null}
+     */
+    private static TimeZone contextTimeZone(SerializerProvider provider) {
+        if (provider.getConfig().hasExplicitTimeZone() && provider.isEnabled(WRITE_DATES_WITH_CONTEXT_TIME_ZONE)) {
+            return provider.getTimeZone();
+        }
+        return null;
     }
 
     protected DateTimeFormatter getFormatter(DateTimeFormatter formatter, SerializerProvider provider) {
@@ -196,4 +242,14 @@ public abstract class DatetimeBaseSerializer<T> extends StdSerializer<T> impleme
         return (_writeZoneId != null) ? _writeZoneId : ctxt.isEnabled(SerializationFeature.WRITE_DATES_WITH_ZONE_ID);
     }
 
+    private static final class ResolvedFormatter {
+        final TimeZone contextTimeZone;
+        final DateTimeFormatter formatter;
+
+        ResolvedFormatter(TimeZone contextTimeZone, DateTimeFormatter formatter) {
+            this.contextTimeZone = contextTimeZone;
+            this.formatter = formatter;
+        }
+    }
+
 }
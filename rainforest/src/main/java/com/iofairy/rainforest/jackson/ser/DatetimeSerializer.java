@@ -107,8 +107,7 @@ public class DatetimeSerializer extends DatetimeBaseSerializer<DateTime> impleme
             if ((_formatter != null) && (_shape == JsonFormat.Shape.STRING)) {
 
             } else if (shouldWriteWithZoneId(provider)) {
-                DateTimeFormatter formatter = _formatter == null ? DateTimes.DTF_STD : _formatter;
-                gen.writeString(DateTimes.withTimeZone(formatter).format(value));
+                gen.writeString(zoneIdFormatter().format(value));
                 return;
             }
         }
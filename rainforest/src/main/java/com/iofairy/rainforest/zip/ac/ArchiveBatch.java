@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.lambda.*;
+import com.iofairy.rainforest.zip.base.BatchResult;
+import com.iofairy.rainforest.zip.base.BatchSummary;
+import com.iofairy.rainforest.zip.base.ZipLogLevel;
+import com.iofairy.rainforest.zip.error.SuperACException;
+import com.iofairy.rainforest.zip.utils.ZipKit;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 批量处理大量压缩包<br>
+ * <ul>
+ * <li>根据文件名识别每个压缩包的格式，并从 {@link #superACs} 中选择相匹配的 SuperAC，不是压缩包的文件会跳过</li>
+ * <li>在工作窃取线程池（{@link ForkJoinPool}）中并发处理，单个压缩包的异常不会影响其他压缩包</li>
+ * <li>默认先处理大的压缩包，缩短整批的总耗时</li>
+ * <li>可限制同时处理的压缩包的总大小，避免同时处理多个大压缩包时占用过多内存</li>
+ * <li>每个压缩包处理完后立即把结果交给 {@code sink}，不在内存中保留所有结果；处理完后返回汇总信息（包括吞吐量）</li>
+ * </ul>
+ *
+ * @since 0.6.2
+ */
+@Getter
+@Setter
+@ToString
+public class ArchiveBatch {
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    /**
+     * 支持哪些类型的压缩/解压处理器
+     */
+    @Accessors(chain = true)
+    List<SuperAC> superACs = SuperACs.allSupportedSuperACs();
+    /**
+     * 并行度（同时处理的压缩包数）
+     */
+    @Accessors(chain = true)
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    /**
+     * 执行器，为{@code null}则每批创建一个并行度为 {@link #parallelism} 的 {@link ForkJoinPool}，处理完后关闭；
+     * 使用调用者提供的执行器时，同时提交的任务数仍受 {@link #parallelism} 限制，且处理完后不关闭执行器
+     */
+    @Accessors(chain = true)
+    ExecutorService executor;
+    /**
+     * 是否按文件大小从大到小处理（最长处理时间优先，缩短整批的总耗时），为{@code false}则按输入的顺序处理
+     */
+    @Accessors(chain = true)
+    boolean largestFirst = true;
+    /**
+     * 同时处理的压缩包的总大小上限（字节），小于等于0则不限制。单个压缩包超过上限时，等其他压缩包处理完后单独处理
+     */
+    @Accessors(chain = true)
+    long maxInFlightBytes = 0;
+    /**
+     * 输入为目录时，是否递归处理子目录中的文件
+     */
+    @Accessors(chain = true)
+    boolean recursive = true;
+
+    public static ArchiveBatch of() {
+        return new ArchiveBatch();
+    }
+
+    /**
+     * 批量解压处理压缩包中的文件，每个压缩包调用 {@link SuperAC#unzip(InputStream, ArchiveFormat, String, int, PT3, PT3, PT3, RT4, RT4, ZipLogLevel, List)}
+     *
+     * @param files       压缩包文件或目录
+     * @param unzipLevel  解压层级。-1：无限解压，碰到压缩包就解压；0：只解压<b>当前压缩包</b>，不解压内部压缩包；&gt;=1：对内部压缩包的解压次数
+     * @param unzipFilter 内部压缩包的是否解压的过滤器，为{@code null}则<b>都解压</b>
+     * @param otherFilter 除压缩包以外的文件是否处理的过滤器，为{@code null}则<b>都处理</b>
+     * @param otherAction 非压缩包的处理逻辑 {@code RT4<InputStream, Integer, String, String, R, Exception>(解压之前文件流, 压缩包的第几层, 父压缩包的文件名，当前内部文件的名称, 返回值)}
+     * @param zipLogLevel 解压缩日志等级
+     * @param sink        接收每个压缩包的处理结果，串行调用（不需要线程安全），为{@code null}则不接收
+     * @param <R>         Action返回值类型
+     * @return 汇总信息
+     * @throws InterruptedException 等待处理完成时被中断
+     */
+    public <R> BatchSummary unzip(Collection<File> files,
+                                  int unzipLevel,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                  ZipLogLevel zipLogLevel,
+                                  Consumer<? super BatchResult<List<R>>> sink) throws InterruptedException {
+        return process(files, (file, format) -> SuperAC.unzip(new FileInputStream(file), format, file.getName(), unzipLevel, unzipFilter,
+                otherFilter, null, null, otherAction, zipLogLevel, superACs), sink);
+    }
+
+    /**
+     * 批量处理压缩包
+     *
+     * @param fileOrDir 压缩包文件或目录
+     * @param action    每个压缩包的处理逻辑 {@code RT2<File, ArchiveFormat, R, Exception>(压缩包文件, 压缩包格式, 返回值)}
+     * @param sink      接收每个压缩包的处理结果，串行调用（不需要线程安全），为{@code null}则不接收
+     * @param <R>       处理结果类型
+     * @return 汇总信息
+     * @throws InterruptedException 等待处理完成时被中断
+     */
+    public <R> BatchSummary process(File fileOrDir,
+                                    RT2<? super File, ? super ArchiveFormat, ? extends R, Exception> action,
+                                    Consumer<? super BatchResult<R>> sink) throws InterruptedException {
+        checkHasNullNPE(args(fileOrDir), args("fileOrDir"));
+        return process(Collections.singletonList(fileOrDir), action, sink);
+    }
+
+    /**
+     * 批量处理压缩包
+     *
+     * @param files  压缩包文件或目录
+     * @param action 每个压缩包的处理逻辑 {@code RT2<File, ArchiveFormat, R, Exception>(压缩包文件, 压缩包格式, 返回值)}
+     * @param sink   接收每个压缩包的处理结果，串行调用（不需要线程安全），为{@code null}则不接收
+     * @param <R>    处理结果类型
+     * @return 汇总信息
+     * @throws InterruptedException 等待处理完成时被中断
+     */
+    public <R> BatchSummary process(Collection<File> files,
+                                    RT2<? super File, ? super ArchiveFormat, ? extends R, Exception> action,
+                                    Consumer<? super BatchResult<R>> sink) throws InterruptedException {
+        checkHasNullNPE(args(files, action, superACs), args("files", "action", "superACs"));
+        checkArgument(parallelism < 1, "参数`parallelism`必须 >= 1！");
+
+        long startTime = System.nanoTime();
+        Map<ArchiveFormat, SuperAC> superACMap = SuperACs.toSuperACMap(superACs);
+        Batch<R> batch = new Batch<>(sink);
+
+        List<BatchResult<R>> tasks = new ArrayList<>();
+        for (File file : listFiles(files)) {
+            ArchiveFormat format = ZipKit.getArchiveFormat(file.getName());
+            BatchResult<R> task = new BatchResult<R>().setFile(file).setSize(file.length());
+            if (format == null || superACMap.get(format) == null) {
+                batch.complete(task.setSkipped(true));
+            } else {
+                tasks.add(task.setFormat(format));
+            }
+        }
+        if (largestFirst) tasks.sort(Comparator.comparingLong((BatchResult<R> t) -> t.getSize()).reversed());
+
+        ExecutorService pool = executor == null ? newPool(parallelism) : executor;
+        Semaphore permits = new Semaphore(parallelism);
+        try {
+            for (BatchResult<R> task : tasks) {
+                long weight = maxInFlightBytes > 0 ? Math.min(task.getSize(), maxInFlightBytes) : 0;
+                permits.acquire();
+                try {
+                    batch.acquireBytes(weight, maxInFlightBytes);
+                } catch (InterruptedException e) {
+                    permits.release();
+                    throw e;
+                }
+                try {
+                    pool.execute(() -> {
+                        try {
+                            batch.run(task, action);
+                        } finally {
+                            batch.releaseBytes(weight);
+                            permits.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    batch.releaseBytes(weight);
+                    permits.release();
+                    throw e;
+                }
+            }
+            // 等待所有任务处理完
+            permits.acquire(parallelism);
+            permits.release(parallelism);
+        } finally {
+            if (executor == null) pool.shutdownNow();
+        }
+
+        if (batch.sinkError != null) {
+            throw new SuperACException(batch.sinkError, "【ArchiveBatch.process()】`sink`处理结果时出现异常！");
+        }
+        return batch.summary.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+
+    private List<File> listFiles(Collection<File> files) {
+        List<File> result = new ArrayList<>();
+        Deque<File> dirs = new ArrayDeque<>();
+        for (File file : files) {
+            if (file == null) continue;
+            if (file.isDirectory()) {
+                dirs.add(file);
+            } else {
+                result.add(file);
+            }
+        }
+        while (!dirs.isEmpty()) {
+            File[] children = dirs.poll().listFiles();
+            if (children == null) continue;
+            Arrays.sort(children);
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    if (recursive) dirs.add(child);
+                } else {
+                    result.add(child);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static ExecutorService newPool(int parallelism) {
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("archive-batch-" + THREAD_NUMBER.incrementAndGet());
+            return thread;
+        }, null, true);
+    }
+
+    /**
+     * 一批压缩包的处理状态
+     */
+    private static class Batch<R> {
+        final Consumer<? super BatchResult<R>> sink;
+        final BatchSummary summary = new BatchSummary();
+        Throwable sinkError;
+        long inFlightBytes;
+
+        Batch(Consumer<? super BatchResult<R>> sink) {
+            this.sink = sink;
+        }
+
+        void run(BatchResult<R> task, RT2<? super File, ? super ArchiveFormat, ? extends R, Exception> action) {
+            long start = System.nanoTime();
+            try {
+                task.setResult(action.$(task.getFile(), task.getFormat()));
+            } catch (Throwable e) {
+                task.setError(e);
+            }
+            task.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            complete(task);
+        }
+
+        synchronized void complete(BatchResult<R> result) {
+            summary.setTotalFiles(summary.getTotalFiles() + 1);
+            if (result.isSkipped()) {
+                summary.setSkippedFiles(summary.getSkippedFiles() + 1);
+            } else {
+                summary.setTotalBytes(summary.getTotalBytes() + result.getSize());
+                if (result.getError() == null) {
+                    summary.setSucceededFiles(summary.getSucceededFiles() + 1);
+                } else {
+                    summary.setFailedFiles(summary.getFailedFiles() + 1);
+                }
+            }
+            if (sink != null && sinkError == null) {
+                try {
+                    sink.accept(result);
+                } catch (Throwable e) {
+                    sinkError = e;
+                }
+            }
+        }
+
+        synchronized void acquireBytes(long weight, long maxInFlightBytes) throws InterruptedException {
+            if (weight <= 0) return;
+            while (inFlightBytes > 0 && inFlightBytes + weight > maxInFlightBytes) {
+                wait();
+            }
+            inFlightBytes += weight;
+        }
+
+        synchronized void releaseBytes(long weight) {
+            if (weight <= 0) return;
+            inFlightBytes -= weight;
+            notifyAll();
+        }
+    }
+}
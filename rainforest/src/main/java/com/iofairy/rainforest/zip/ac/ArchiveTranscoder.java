@@ -0,0 +1,640 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import com.iofairy.falcon.io.IOs;
+import com.iofairy.falcon.io.MultiByteArrayInputStream;
+import com.iofairy.falcon.io.MultiByteArrayOutputStream;
+import com.iofairy.falcon.nio.MemoryHugeBytesChannel;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.falcon.zip.ArchiveType;
+import com.iofairy.rainforest.zip.attr.TarInputProperty;
+import com.iofairy.rainforest.zip.attr.TarOutputProperty;
+import com.iofairy.rainforest.zip.attr.ZipOutputProperty;
+import com.iofairy.rainforest.zip.index.IndexEntry;
+import com.iofairy.rainforest.zip.utils.ZipKit;
+import com.iofairy.tcf.Close;
+import net.lingala.zip4j.io.inputstream.ZipInputStream;
+import net.lingala.zip4j.model.LocalFileHeader;
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.apache.commons.compress.archivers.sevenz.SevenZFile;
+import org.apache.commons.compress.archivers.sevenz.SevenZOutputFile;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.*;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import static com.iofairy.rainforest.zip.index.IndexEntry.UNKNOWN;
+
+/**
+ * 跨格式转换压缩包（如：tar.gz → tar.zst、7z → zip）：用一个 {@link SuperAC} 的解压属性读取，用另一个 {@link SuperAC} 的压缩属性写入<br>
+ * <ul>
+ * <li>条目数据直接从源压缩包流向目标压缩包，不在内存中缓存；只有目标格式需要预先知道大小而源压缩包中没有记录
+ * （如：使用数据描述符的ZIP条目、单文件压缩格式写入 tar），或者需要预先计算CRC32（ZIP 的 STORED）时，才缓存该条目
+ * <li>tar.* 与单文件压缩格式的解压、压缩分别在独立的后台线程中执行，与读写条目的当前线程并行
+ * <li>7z 需要随机访问：从输入流读取时先读入内存，写入时先写入内存再输出
+ * <li>内嵌压缩包按 {@code nestedFormats} 在内存中递归转换，条目名的后缀名随之改变；不在映射中的内嵌压缩包原样写入
+ * <li>只转换文件与目录，tar 中的链接等特殊条目以及存在路径遍历风险的条目会被跳过
+ * </ul>
+ *
+ * @since 0.6.2
+ */
+final class ArchiveTranscoder {
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * 解压线程、压缩线程与当前线程之间最多缓存的块数（每块 64KB）
+     */
+    private static final int MAX_CHUNKS = 16;
+
+    /**
+     * 支持哪些类型的压缩/解压处理器
+     */
+    private final Map<ArchiveFormat, SuperAC> superACs;
+    /**
+     * 内嵌压缩包的格式映射：内嵌压缩包的格式 -&gt; 转换后的格式
+     */
+    private final Map<ArchiveFormat, ArchiveFormat> nestedFormats;
+
+    ArchiveTranscoder(Map<ArchiveFormat, SuperAC> superACs, Map<ArchiveFormat, ArchiveFormat> nestedFormats) {
+        this.superACs = superACs;
+        this.nestedFormats = nestedFormats == null ? Collections.emptyMap() : nestedFormats;
+    }
+
+    /**
+     * 源压缩包能否被转换
+     */
+    static boolean isReadable(SuperAC superAC) {
+        if (superAC instanceof SuperZip || superAC instanceof SuperZipProtected || superAC instanceof Super7Zip) return true;
+        return superAC instanceof SuperACs && (((SuperACs) superAC).getUnTarInputProperty() != null
+                || superAC.format().archiveTypes.contains(ArchiveType.COMPRESSION_ONLY));
+    }
+
+    /**
+     * 能否转换成该 SuperAC 的格式（加密的ZIP不支持）
+     */
+    static boolean isWritable(SuperAC superAC) {
+        if (superAC instanceof SuperZip || superAC instanceof Super7Zip) return true;
+        return superAC instanceof SuperACs && (((SuperACs) superAC).getReTarOutputProperty() != null
+                || superAC.format().archiveTypes.contains(ArchiveType.COMPRESSION_ONLY));
+    }
+
+    /**
+     * 转换后的文件名：替换源格式的后缀名，如：{@code a.tar.gz} → {@code a.tar.zst}，{@code a.tar.lz4} → {@code a.zip}
+     */
+    static String transcodedName(String fileName, ArchiveFormat sourceFormat, ArchiveFormat targetFormat) {
+        String baseName = baseName(fileName, sourceFormat);
+        // 单文件压缩格式（如：.lz4）保留 .tar，其他格式的后缀名已包含（.tar.zst）或不需要（.zip）
+        if (endsWithIgnoreCase(baseName, ".tar") && !targetFormat.archiveTypes.contains(ArchiveType.COMPRESSION_ONLY)) {
+            baseName = baseName.substring(0, baseName.length() - 4);
+        }
+        return baseName + targetFormat.extName;
+    }
+
+    List<IndexEntry> transcode(File file, SuperAC source, String zipFileName, OutputStream os,
+                               SuperAC target, ArchiveFormat outputFormat, String outputFileName, int unzipTimes, int unzipLevel) throws Exception {
+        try (EntryWriter writer = newWriter(os, target, outputFormat, outputFileName)) {
+            if (source instanceof SuperZip || source instanceof Super7Zip) {
+                try (SeekableByteChannel channel = Files.newByteChannel(file.toPath(), StandardOpenOption.READ)) {
+                    return read(channel, source, zipFileName, writer, unzipTimes, unzipLevel);
+                }
+            }
+            try (InputStream is = new BufferedInputStream(new FileInputStream(file), 64 * 1024)) {
+                return read(is, source, zipFileName, writer, unzipTimes, unzipLevel);
+            }
+        }
+    }
+
+    List<IndexEntry> transcode(InputStream is, SuperAC source, String zipFileName, OutputStream os,
+                               SuperAC target, ArchiveFormat outputFormat, String outputFileName, int unzipTimes, int unzipLevel) throws Exception {
+        try (EntryWriter writer = newWriter(os, target, outputFormat, outputFileName)) {
+            return read(is, source, zipFileName, writer, unzipTimes, unzipLevel);
+        }
+    }
+
+    private List<IndexEntry> read(SeekableByteChannel channel, SuperAC source, String zipFileName, EntryWriter writer, int unzipTimes, int unzipLevel) throws Exception {
+        if (source instanceof Super7Zip) return readSevenZ(channel, (Super7Zip) source, zipFileName, writer, unzipTimes, unzipLevel);
+
+        List<IndexEntry> entries = new ArrayList<>();
+        try (ZipFile zipFile = ZipFile.builder()
+                .setSeekableByteChannel(channel)
+                .setCharset(((SuperZip) source).getUnzipInputProperty().getFileNameEncoding())
+                .get()) {
+            Enumeration<ZipArchiveEntry> zipEntries = zipFile.getEntriesInPhysicalOrder();
+            while (zipEntries.hasMoreElements()) {
+                ZipArchiveEntry zipEntry = zipEntries.nextElement();
+                IndexEntry entry = toIndexEntry(zipEntry);
+                if (zipEntry.isDirectory()) {
+                    transfer(entries, entry, null, writer, zipFileName, unzipTimes, unzipLevel);
+                    continue;
+                }
+                checkReadable(zipFile.canReadEntryData(zipEntry), zipEntry.getName());
+                try (InputStream entryIs = zipFile.getInputStream(zipEntry)) {
+                    transfer(entries, entry, entryIs, writer, zipFileName, unzipTimes, unzipLevel);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private List<IndexEntry> read(InputStream is, SuperAC source, String zipFileName, EntryWriter writer, int unzipTimes, int unzipLevel) throws Exception {
+        if (source instanceof SuperZip) return readZip(is, (SuperZip) source, zipFileName, writer, unzipTimes, unzipLevel);
+        if (source instanceof SuperZipProtected) return readZip4j(is, (SuperZipProtected) source, zipFileName, writer, unzipTimes, unzipLevel);
+        if (source instanceof Super7Zip) {
+            try (MemoryHugeBytesChannel channel = new MemoryHugeBytesChannel(IOs.readBytes(is, false))) {
+                return readSevenZ(channel, (Super7Zip) source, zipFileName, writer, unzipTimes, unzipLevel);
+            }
+        }
+
+        SuperACs acs = (SuperACs) source;
+        InputStream zipis = acs.newUnzipInputStream(new NonClosingInputStream(is));
+        TarInputProperty unTarInputProperty = acs.getUnTarInputProperty();
+        if (unTarInputProperty != null) {
+            InputStream tarIs = zipis == null ? new NonClosingInputStream(is) : new AsyncInputStream(zipis, MAX_CHUNKS, "transcode-unzip");
+            try (TarArchiveInputStream tis = new TarArchiveInputStream(tarIs, unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(),
+                    unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient())) {
+                return readTar(tis, zipFileName, writer, unzipTimes, unzipLevel);
+            }
+        }
+        if (zipis == null) throw new UnsupportedOperationException("不支持转换【" + source.format() + "】格式的压缩包！");
+
+        String entryFileName;
+        if (acs instanceof SuperGzip) {
+            entryFileName = SuperACs.fileNameInGzip(zipis, zipFileName, ((SuperGzip) acs).getUnzipInputProperty());
+        } else if (acs instanceof SuperSnappy) {
+            entryFileName = SuperSnappy.uncompressedName(zipFileName);
+        } else {
+            entryFileName = ZipKit.getUncompressedName(zipFileName, acs.format());
+        }
+
+        List<IndexEntry> entries = new ArrayList<>();
+        try (InputStream entryIs = new AsyncInputStream(zipis, MAX_CHUNKS, "transcode-unzip")) {
+            // 单文件压缩格式只有一个条目，大小未知
+            transfer(entries, IndexEntry.of(entryFileName, false), entryIs, writer, zipFileName, unzipTimes, unzipLevel);
+        }
+        return entries;
+    }
+
+    private List<IndexEntry> readZip(InputStream is, SuperZip superZip, String zipFileName, EntryWriter writer, int unzipTimes, int unzipLevel) throws Exception {
+        List<IndexEntry> entries = new ArrayList<>();
+        ZipArchiveInputStream zipis = new ZipArchiveInputStream(is, superZip.getUnzipInputProperty().getFileNameEncoding());
+        ZipArchiveEntry zipEntry;
+        while ((zipEntry = zipis.getNextEntry()) != null) {
+            if (!zipEntry.isDirectory()) checkReadable(zipis.canReadEntryData(zipEntry), zipEntry.getName());
+            // 使用数据描述符（data descriptor）的条目，大小为 UNKNOWN
+            transfer(entries, toIndexEntry(zipEntry), zipEntry.isDirectory() ? null : zipis, writer, zipFileName, unzipTimes, unzipLevel);
+        }
+        return entries;
+    }
+
+    private List<IndexEntry> readZip4j(InputStream is, SuperZipProtected superZip, String zipFileName, EntryWriter writer, int unzipTimes, int unzipLevel) throws Exception {
+        char[] password = superZip.getUnzipPasswordProvider().getPassword(zipFileName);
+        Charset charset = Charset.forName(superZip.getUnzipInputProperty().getFileNameEncoding());
+
+        List<IndexEntry> entries = new ArrayList<>();
+        ZipInputStream zipis = new ZipInputStream(is, password, charset);
+        LocalFileHeader header;
+        while ((header = zipis.getNextEntry()) != null) {
+            // 加密条目的本地文件头中的大小可能为0，视为未知
+            IndexEntry entry = IndexEntry.of(header.getFileName(), header.isDirectory()).setLastModified(header.getLastModifiedTimeEpoch());
+            transfer(entries, entry, header.isDirectory() ? null : zipis, writer, zipFileName, unzipTimes, unzipLevel);
+        }
+        return entries;
+    }
+
+    private List<IndexEntry> readSevenZ(SeekableByteChannel channel, Super7Zip super7Zip, String zipFileName, EntryWriter writer, int unzipTimes, int unzipLevel) throws Exception {
+        char[] password = super7Zip.getUnzipPasswordProvider().getPassword(zipFileName);
+
+        List<IndexEntry> entries = new ArrayList<>();
+        SevenZFile sevenZFile = null;
+        try {
+            sevenZFile = super7Zip.getUnzipInputProperty().getSevenZFileBuilder().setSeekableByteChannel(channel).setPassword(password).get();
+            // 按顺序读取，固实压缩（solid）的数据块只解压一次
+            final SevenZFile sevenZIs = sevenZFile;
+            InputStream entryIs = new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    return sevenZIs.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return sevenZIs.read(b, off, len);
+                }
+            };
+
+            SevenZArchiveEntry sevenZEntry;
+            while ((sevenZEntry = sevenZFile.getNextEntry()) != null) {
+                IndexEntry entry = IndexEntry.of(sevenZEntry.getName(), sevenZEntry.isDirectory())
+                        .setSize(sevenZEntry.isDirectory() ? UNKNOWN : sevenZEntry.getSize())
+                        .setCrc(sevenZEntry.getHasCrc() ? sevenZEntry.getCrcValue() : UNKNOWN)
+                        .setLastModified(sevenZEntry.getHasLastModifiedDate() ? sevenZEntry.getLastModifiedDate().getTime() : UNKNOWN);
+                transfer(entries, entry, sevenZEntry.isDirectory() ? null : entryIs, writer, zipFileName, unzipTimes, unzipLevel);
+            }
+        } finally {
+            Close.close(sevenZFile);
+        }
+        return entries;
+    }
+
+    private List<IndexEntry> readTar(TarArchiveInputStream tis, String zipFileName, EntryWriter writer, int unzipTimes, int unzipLevel) throws Exception {
+        List<IndexEntry> entries = new ArrayList<>();
+        TarArchiveEntry tarEntry;
+        while ((tarEntry = tis.getNextEntry()) != null) {
+            if (!tarEntry.isDirectory() && !tarEntry.isFile()) continue;
+
+            IndexEntry entry = IndexEntry.of(tarEntry.getName(), tarEntry.isDirectory())
+                    .setSize(tarEntry.isDirectory() ? UNKNOWN : tarEntry.getSize())
+                    .setLastModified(tarEntry.getModTime().getTime());
+            transfer(entries, entry, tarEntry.isDirectory() ? null : tis, writer, zipFileName, unzipTimes, unzipLevel);
+        }
+        return entries;
+    }
+
+    /**
+     * 把条目写入目标压缩包，需要转换的内嵌压缩包先在内存中转换，再以新的文件名写入
+     */
+    private void transfer(List<IndexEntry> entries, IndexEntry entry, InputStream data, EntryWriter writer,
+                          String zipFileName, int unzipTimes, int unzipLevel) throws Exception {
+        if (SuperACs.hasPathTraversalRisk(entry.getName())) return;
+
+        if (!entry.isDirectory() && unzipLevel != 0) {
+            ArchiveFormat nestedFormat = ZipKit.getArchiveFormat(entry.getName());
+            ArchiveFormat targetFormat = nestedFormat == null ? null : nestedFormats.get(nestedFormat);
+            SuperAC nestedSource = targetFormat == null ? null : superACs.get(nestedFormat);
+            if (nestedSource != null && isReadable(nestedSource)) {
+                String nestedFileName = transcodedName(entry.getName(), nestedFormat, targetFormat);
+                int newUnzipLevel = unzipLevel < 0 ? unzipLevel : unzipLevel - 1;
+
+                MultiByteArrayOutputStream baos = new MultiByteArrayOutputStream();
+                List<IndexEntry> children = transcode(data, nestedSource, entry.getName(), baos,
+                        superACs.get(targetFormat), targetFormat, nestedFileName, unzipTimes + 1, newUnzipLevel);
+                byte[][] byteArrays = baos.toByteArrays();
+
+                IndexEntry nestedEntry = IndexEntry.of(nestedFileName, false)
+                        .setSize(size(byteArrays))
+                        .setLastModified(entry.getLastModified())
+                        .setFormat(targetFormat)
+                        .setChildren(children);
+                writer.write(nestedEntry, new MultiByteArrayInputStream(byteArrays));
+                entries.add(nestedEntry);
+                return;
+            }
+        }
+
+        if (writer.write(entry, data)) entries.add(entry);
+    }
+
+    private EntryWriter newWriter(OutputStream os, SuperAC target, ArchiveFormat outputFormat, String outputFileName) throws IOException {
+        OutputStream out = new NonClosingOutputStream(os);
+        if (target instanceof SuperZip) return new ZipWriter(out, ((SuperZip) target).getReZipOutputProperty());
+        if (target instanceof Super7Zip) {
+            Super7Zip super7Zip = (Super7Zip) target;
+            return new SevenZWriter(out, super7Zip.getReZipPasswordProvider().getPassword(outputFileName), super7Zip);
+        }
+
+        SuperACs acs = (SuperACs) target;
+        TarOutputProperty reTarOutputProperty = acs.getReTarOutputProperty();
+        if (reTarOutputProperty != null) {
+            OutputStream zos = acs.newReZipOutputStream(out, transcodedName(outputFileName, outputFormat, ArchiveFormat.TAR));
+            OutputStream tarOs = zos == null ? out : new AsyncOutputStream(zos, MAX_CHUNKS, "transcode-zip");
+            TarArchiveOutputStream tos = new TarArchiveOutputStream(tarOs, reTarOutputProperty.getBlockSize(), reTarOutputProperty.getFileNameEncoding());
+            // 源压缩包（如：ZIP）中的文件名与大小不受 tar 的限制
+            tos.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            tos.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+            return new TarWriter(tos);
+        }
+        return new CompressedWriter(out, acs, outputFileName);
+    }
+
+    private static void checkReadable(boolean canReadEntryData, String entryFileName) throws IOException {
+        if (!canReadEntryData) throw new IOException("无法读取条目【" + entryFileName + "】的数据（加密或不支持的压缩方法）！");
+    }
+
+    private static IndexEntry toIndexEntry(ZipArchiveEntry zipEntry) {
+        return IndexEntry.of(zipEntry.getName(), zipEntry.isDirectory())
+                .setSize(zipEntry.isDirectory() ? UNKNOWN : zipEntry.getSize())
+                .setCrc(zipEntry.isDirectory() ? UNKNOWN : zipEntry.getCrc())
+                .setLastModified(zipEntry.getTime());
+    }
+
+    /**
+     * 去掉格式的后缀名
+     */
+    private static String baseName(String fileName, ArchiveFormat format) {
+        if (format == null || !endsWithIgnoreCase(fileName, format.extName)) return fileName;
+        return fileName.substring(0, fileName.length() - format.extName.length());
+    }
+
+    private static boolean endsWithIgnoreCase(String str, String suffix) {
+        return str.regionMatches(true, str.length() - suffix.length(), suffix, 0, suffix.length());
+    }
+
+    private static String directoryName(String name) {
+        return name.endsWith("/") ? name : name + "/";
+    }
+
+    private static long size(byte[][] byteArrays) {
+        long size = 0;
+        for (byte[] bytes : byteArrays) {
+            size += bytes.length;
+        }
+        return size;
+    }
+
+    private static long copy(InputStream is, OutputStream os) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+        int n;
+        while ((n = is.read(buffer)) != -1) {
+            os.write(buffer, 0, n);
+            size += n;
+        }
+        return size;
+    }
+
+    /**
+     * 向目标压缩包写入条目
+     */
+    private interface EntryWriter extends Closeable {
+        /**
+         * 写入一个条目，写入后补全条目的大小
+         *
+         * @param entry 条目
+         * @param data  条目数据，目录为 {@code null}
+         * @return 是否写入（单文件压缩格式不写入目录）
+         * @throws IOException IOException
+         */
+        boolean write(IndexEntry entry, InputStream data) throws IOException;
+    }
+
+    private static final class TarWriter implements EntryWriter {
+        private final TarArchiveOutputStream tos;
+
+        TarWriter(TarArchiveOutputStream tos) {
+            this.tos = tos;
+        }
+
+        @Override
+        public boolean write(IndexEntry entry, InputStream data) throws IOException {
+            TarArchiveEntry tarEntry = new TarArchiveEntry(entry.isDirectory() ? directoryName(entry.getName()) : entry.getName());
+            if (entry.getLastModified() != UNKNOWN) tarEntry.setModTime(entry.getLastModified());
+            if (entry.isDirectory()) {
+                tos.putArchiveEntry(tarEntry);
+                tos.closeArchiveEntry();
+                return true;
+            }
+
+            // tar 的文件头中需要大小，大小未知时先缓存条目
+            byte[][] byteArrays = null;
+            if (entry.getSize() == UNKNOWN) {
+                byteArrays = IOs.readBytes(data, false);
+                entry.setSize(size(byteArrays));
+            }
+            tarEntry.setSize(entry.getSize());
+            tos.putArchiveEntry(tarEntry);
+            if (byteArrays == null) {
+                copy(data, tos);
+            } else {
+                for (byte[] bytes : byteArrays) {
+                    tos.write(bytes);
+                }
+            }
+            tos.closeArchiveEntry();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            tos.close();
+        }
+    }
+
+    private static final class ZipWriter implements EntryWriter {
+        private final ZipArchiveOutputStream zos;
+        private final ZipOutputProperty outputProperty;
+
+        ZipWriter(OutputStream os, ZipOutputProperty outputProperty) {
+            this.outputProperty = outputProperty;
+            this.zos = new ZipArchiveOutputStream(os);
+            zos.setLevel(outputProperty.getLevel());
+            zos.setMethod(outputProperty.getMethod());
+            zos.setUseZip64(outputProperty.getZip64Mode());
+            zos.setEncoding(outputProperty.getFileNameEncoding());
+        }
+
+        @Override
+        public boolean write(IndexEntry entry, InputStream data) throws IOException {
+            if (entry.isDirectory()) {
+                ZipArchiveEntry zipEntry = new ZipArchiveEntry(directoryName(entry.getName()));
+                if (entry.getLastModified() != UNKNOWN) zipEntry.setTime(entry.getLastModified());
+                zos.putArchiveEntry(zipEntry);
+                zos.closeArchiveEntry();
+                return true;
+            }
+
+            boolean adaptive = SuperACs.isAdaptiveZipMethod(outputProperty);
+            boolean stored = !adaptive && outputProperty.getMethod() == ZipEntry.STORED;
+            // 源条目的大小与CRC已知（如：ZIP、7z 中的文件），STORED 条目直接写入，不需要缓存
+            if (stored && entry.getSize() != UNKNOWN && entry.getCrc() != UNKNOWN) {
+                ZipArchiveEntry zipEntry = new ZipArchiveEntry(entry.getName());
+                zipEntry.setMethod(ZipEntry.STORED);
+                zipEntry.setSize(entry.getSize());
+                zipEntry.setCrc(entry.getCrc());
+                if (entry.getLastModified() != UNKNOWN) zipEntry.setTime(entry.getLastModified());
+                zos.putArchiveEntry(zipEntry);
+                copy(data, zos);
+                zos.closeArchiveEntry();
+                return true;
+            }
+
+            // 输出流不可随机写入，STORED 需要预先设置大小与CRC，自适应选择压缩方法需要先试压缩，都需要缓存条目
+            if (adaptive || stored) {
+                byte[][] byteArrays = IOs.readBytes(data, false);
+                ZipArchiveEntry zipEntry = adaptive
+                        ? SuperACs.newZipArchiveEntry(entry.getName(), byteArrays, outputProperty, new HashMap<>())
+                        : storedEntry(entry.getName(), byteArrays);
+                if (entry.getLastModified() != UNKNOWN) zipEntry.setTime(entry.getLastModified());
+                zos.putArchiveEntry(zipEntry);
+                for (byte[] bytes : byteArrays) {
+                    zos.write(bytes);
+                }
+                zos.closeArchiveEntry();
+                entry.setSize(size(byteArrays));
+                return true;
+            }
+
+            ZipArchiveEntry zipEntry = new ZipArchiveEntry(entry.getName());
+            if (entry.getSize() != UNKNOWN) zipEntry.setSize(entry.getSize());
+            if (entry.getLastModified() != UNKNOWN) zipEntry.setTime(entry.getLastModified());
+            zos.putArchiveEntry(zipEntry);
+            entry.setSize(copy(data, zos));
+            zos.closeArchiveEntry();
+            return true;
+        }
+
+        private static ZipArchiveEntry storedEntry(String entryFileName, byte[][] byteArrays) {
+            CRC32 crc32 = new CRC32();
+            for (byte[] bytes : byteArrays) {
+                crc32.update(bytes);
+            }
+            ZipArchiveEntry zipEntry = new ZipArchiveEntry(entryFileName);
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(size(byteArrays));
+            zipEntry.setCrc(crc32.getValue());
+            return zipEntry;
+        }
+
+        @Override
+        public void close() throws IOException {
+            zos.close();
+        }
+    }
+
+    /**
+     * 7z 需要随机写入，先写入内存，关闭时再输出
+     */
+    private static final class SevenZWriter implements EntryWriter {
+        private final OutputStream os;
+        private final MemoryHugeBytesChannel channel;
+        private final SevenZOutputFile zos;
+
+        SevenZWriter(OutputStream os, char[] password, Super7Zip super7Zip) throws IOException {
+            this.os = os;
+            this.channel = new MemoryHugeBytesChannel();
+            this.zos = new SevenZOutputFile(channel, password);
+            zos.setContentCompression(super7Zip.getReZipOutputProperty().getSevenZMethod());
+        }
+
+        @Override
+        public boolean write(IndexEntry entry, InputStream data) throws IOException {
+            String name = entry.getName();
+            SevenZArchiveEntry sevenZEntry = new SevenZArchiveEntry();
+            sevenZEntry.setName(entry.isDirectory() && name.endsWith("/") ? name.substring(0, name.length() - 1) : name);
+            sevenZEntry.setDirectory(entry.isDirectory());
+            if (entry.getLastModified() != UNKNOWN) sevenZEntry.setLastModifiedDate(new Date(entry.getLastModified()));
+            zos.putArchiveEntry(sevenZEntry);
+            if (!entry.isDirectory()) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long size = 0;
+                int n;
+                while ((n = data.read(buffer)) != -1) {
+                    zos.write(buffer, 0, n);
+                    size += n;
+                }
+                entry.setSize(size);
+            }
+            zos.closeArchiveEntry();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                zos.close();
+                for (byte[] bytes : channel.toByteArrays()) {
+                    os.write(bytes);
+                }
+                os.flush();
+            } finally {
+                Close.close(channel);
+            }
+        }
+    }
+
+    /**
+     * 单文件压缩格式，只能写入一个文件（目录被忽略）
+     */
+    private static final class CompressedWriter implements EntryWriter {
+        private final OutputStream os;
+        private final SuperACs superAC;
+        private final String outputFileName;
+        private OutputStream zos;
+
+        CompressedWriter(OutputStream os, SuperACs superAC, String outputFileName) {
+            this.os = os;
+            this.superAC = superAC;
+            this.outputFileName = outputFileName;
+        }
+
+        @Override
+        public boolean write(IndexEntry entry, InputStream data) throws IOException {
+            if (entry.isDirectory()) return false;
+            if (zos != null) throw new IOException("单文件压缩格式【" + superAC.format() + "】只能包含一个文件，源压缩包中有多个文件！");
+
+            String name = entry.getName();
+            zos = new AsyncOutputStream(newZipOutputStream(name.substring(name.lastIndexOf('/') + 1)), MAX_CHUNKS, "transcode-zip");
+            entry.setSize(copy(data, zos));
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // 源压缩包中没有文件时，输出空文件的压缩数据
+            if (zos == null) zos = newZipOutputStream(baseName(outputFileName, superAC.format()));
+            zos.close();
+        }
+
+        private OutputStream newZipOutputStream(String entryFileName) throws IOException {
+            OutputStream zipos = superAC.newReZipOutputStream(os, entryFileName);
+            if (zipos == null) throw new UnsupportedOperationException("不支持转换为【" + superAC.format() + "】格式！");
+            return zipos;
+        }
+    }
+
+    /**
+     * 关闭时不关闭内部输入流
+     */
+    private static final class NonClosingInputStream extends FilterInputStream {
+        NonClosingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * 关闭时只刷新，不关闭内部输出流
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,764 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import com.iofairy.falcon.io.MultiByteArrayInputStream;
+import com.iofairy.lambda.PT1;
+import com.iofairy.rainforest.zip.attr.TarInputProperty;
+import com.iofairy.rainforest.zip.attr.TarOutputProperty;
+import com.iofairy.rainforest.zip.attr.ZipOutputProperty;
+import com.iofairy.rainforest.zip.base.AddBytes;
+import com.iofairy.rainforest.zip.base.AddFile;
+import com.iofairy.rainforest.zip.base.AddSource;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.apache.commons.compress.archivers.tar.TarFile;
+import org.apache.commons.compress.archivers.zip.ZipUtil;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 原地更新磁盘上的 ZIP 与 TAR 文件，更新的开销与变更的大小成正比，而不是与压缩包的大小成正比<br>
+ * <ul>
+ * <li>ZIP：新条目先写入临时文件，全部写完后再复制到原中央目录的位置（最后一个本地条目之后），最后重写中央目录；
+ * 删除条目只重写中央目录，被删除条目的数据成为空洞，空洞的比例超过阈值时才整理（只复制数据，不重新压缩）</li>
+ * <li>TAR：新条目写在归档结束标记（end-of-archive）之前；删除条目时把保留的条目复制到临时文件，再替换原文件</li>
+ * </ul>
+ * <b>注：</b>修改原文件的过程中出错时，恢复原来的中央目录（ZIP）或归档结束标记（TAR）；进程被强制终止时压缩包仍可能损坏
+ *
+ * @since 0.6.2
+ */
+final class ArchiveUpdater {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int LFH_SIG = 0x04034b50;
+    private static final int CFH_SIG = 0x02014b50;
+    private static final int DD_SIG = 0x08074b50;
+    private static final int EOCD_SIG = 0x06054b50;
+    private static final int ZIP64_EOCD_SIG = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+    private static final int EOCD_LENGTH = 22;
+    private static final int ZIP64_EOCD_LENGTH = 56;
+    private static final int ZIP64_LOCATOR_LENGTH = 20;
+    private static final int LFH_LENGTH = 30;
+    private static final int CFH_LENGTH = 46;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int UTF8_FLAG = 0x0800;
+    private static final int DATA_DESCRIPTOR_FLAG = 0x0008;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_SHORT = 0xFFFF;
+    /**
+     * 条目大小超过此值时，本地文件头中预留 zip64 扩展字段（压缩后的大小可能略大于原大小）
+     */
+    private static final long ZIP64_LOCAL_THRESHOLD = 0xF0000000L;
+
+    private ArchiveUpdater() {
+    }
+
+    /**
+     * 原地更新压缩包文件
+     *
+     * @param file         压缩包文件
+     * @param superAC      {@link SuperZip} 或 {@link SuperTar}
+     * @param addFiles     要添加的文件，与压缩包中已有的条目同名时替换已有的条目
+     * @param addBytesList 要添加的字节数组，与压缩包中已有的条目同名时替换已有的条目
+     * @param deleteFilter 是否删除该条目，为{@code null}则<b>都不删除</b>
+     * @param compactRatio ZIP中被删除条目的空洞占文件大小的比例超过该值时整理压缩包，&gt;=1 则不整理
+     * @throws Exception 更新失败
+     */
+    static void update(File file,
+                       SuperAC superAC,
+                       List<AddFile> addFiles,
+                       List<AddBytes> addBytesList,
+                       PT1<? super String, Exception> deleteFilter,
+                       double compactRatio) throws Exception {
+        List<NewEntry> newEntries = newEntries(addFiles, addBytesList);
+        if (superAC instanceof SuperZip) {
+            SuperZip superZip = (SuperZip) superAC;
+            Charset charset = Charset.forName(superZip.getUnzipInputProperty().getFileNameEncoding());
+            boolean compact = updateZip(file, charset, superZip.getReZipOutputProperty(), newEntries, deleteFilter, compactRatio);
+            if (compact) compactZip(file, charset);
+        } else {
+            updateTar(file, (SuperTar) superAC, newEntries, deleteFilter);
+        }
+    }
+
+    private static List<NewEntry> newEntries(List<AddFile> addFiles, List<AddBytes> addBytesList) throws FileNotFoundException {
+        List<NewEntry> newEntries = new ArrayList<>();
+        if (addFiles != null) {
+            for (AddFile addFile : addFiles) {
+                if (addFile == null) continue;
+                String entryFileName = addFile.getEntryFileName();
+                Objects.requireNonNull(entryFileName, "AddFile实例对象中的成员变量`entryFileName`不能为null！");
+                File file = addFile.getFile();
+                AddSource source = addFile.isDirectory() ? null : addFile.getSource();
+                if (source != null) {
+                    newEntries.add(new NewEntry(entryFileName, false, null, null, source));
+                    continue;
+                }
+                if (!addFile.isDirectory()) {
+                    Objects.requireNonNull(file, "AddFile实例对象中的成员变量`isDirectory`为false时，`file`不能为null！");
+                    checkFileNotFound(!file.exists(), "文件[${path}]不存在。", file.getAbsolutePath());
+                }
+                boolean isDirectory = addFile.isDirectory() || !file.isFile();
+                newEntries.add(new NewEntry(entryFileName, isDirectory, isDirectory ? null : file, null, null));
+            }
+        }
+        if (addBytesList != null) {
+            for (AddBytes addBytes : addBytesList) {
+                if (addBytes == null) continue;
+                String entryFileName = addBytes.getEntryFileName();
+                Objects.requireNonNull(entryFileName, "AddBytes实例对象中的成员变量`entryFileName`不能为null！");
+                byte[][] bytes = addBytes.getBytes() == null ? new byte[0][] : addBytes.getBytes();
+                newEntries.add(new NewEntry(entryFileName, addBytes.isDirectory(), null, addBytes.isDirectory() ? null : bytes, null));
+            }
+        }
+        return newEntries;
+    }
+
+    /*
+     * ================================================================================
+     * ZIP
+     * ================================================================================
+     */
+
+    /**
+     * 更新ZIP文件
+     *
+     * @return 是否需要整理
+     */
+    private static boolean updateZip(File file,
+                                     Charset charset,
+                                     ZipOutputProperty outputProperty,
+                                     List<NewEntry> newEntries,
+                                     PT1<? super String, Exception> deleteFilter,
+                                     double compactRatio) throws Exception {
+        Set<String> newNames = new HashSet<>();
+        for (NewEntry newEntry : newEntries) {
+            newNames.add(newEntry.name);
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ZipDirectory directory = ZipDirectory.of(channel, charset);
+
+            List<CentralRecord> records = new ArrayList<>();
+            for (CentralRecord record : directory.records) {
+                // 同名的条目被新条目替换
+                if (newNames.contains(record.name) || (deleteFilter != null && deleteFilter.$(record.name))) continue;
+                records.add(record);
+            }
+
+            // 新条目先写入临时文件，全部写完后再复制到原中央目录的位置（最后一个本地条目之后）
+            File stageFile = newEntries.isEmpty() ? null : File.createTempFile(file.getName() + ".", ".stage", file.getAbsoluteFile().getParentFile());
+            try {
+                long staged = 0;
+                if (stageFile != null) {
+                    try (FileChannel stageChannel = FileChannel.open(stageFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                        for (NewEntry newEntry : newEntries) {
+                            CentralRecord record = writeLocalEntry(stageChannel, staged, directory.cdOffset + staged, newEntry, outputProperty);
+                            staged += record.span;
+                            records.add(record);
+                        }
+                    }
+                }
+
+                // 原中央目录及之后的数据，修改原文件出错时恢复
+                long fileSize = channel.size();
+                ByteBuffer tail = readAt(channel, directory.cdOffset, (int) Math.min(fileSize - directory.cdOffset, Integer.MAX_VALUE));
+                long position = directory.cdOffset + staged;
+                try {
+                    if (stageFile != null) {
+                        try (FileChannel stageChannel = FileChannel.open(stageFile.toPath(), StandardOpenOption.READ)) {
+                            transfer(stageChannel, 0, staged, channel, directory.cdOffset);
+                        }
+                    }
+                    writeCentralDirectory(channel, position, records, directory.comment);
+                } catch (Throwable e) {
+                    writeAt(channel, tail, directory.cdOffset);
+                    channel.truncate(fileSize);
+                    throw e;
+                }
+
+                if (compactRatio >= 1) return false;
+                long liveBytes = 0;
+                for (CentralRecord record : records) {
+                    liveBytes += record.span(channel);
+                }
+                return position - liveBytes > compactRatio * channel.size();
+            } finally {
+                if (stageFile != null) Files.deleteIfExists(stageFile.toPath());
+            }
+        }
+    }
+
+    /**
+     * 整理ZIP文件：按顺序把未删除的条目复制到临时文件（通过 {@link FileChannel#transferTo} 直接复制，不重新压缩），再替换原文件
+     */
+    private static void compactZip(File file, Charset charset) throws IOException {
+        File tmpFile = File.createTempFile(file.getName() + ".", ".compact", file.getAbsoluteFile().getParentFile());
+        try {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                 FileChannel tmpChannel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ZipDirectory directory = ZipDirectory.of(channel, charset);
+                List<CentralRecord> byOffset = new ArrayList<>(directory.records);
+                byOffset.sort(Comparator.comparingLong(r -> r.localOffset));
+
+                long position = 0;
+                for (CentralRecord record : byOffset) {
+                    long span = record.span(channel);
+                    transfer(channel, record.localOffset, span, tmpChannel, position);
+                    // 条目只会前移，新偏移量一定能放入原来的字段中
+                    record.setLocalOffset(position);
+                    position += span;
+                }
+                writeCentralDirectory(tmpChannel, position, directory.records, directory.comment);
+            }
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmpFile.toPath());
+        }
+    }
+
+    /**
+     * 写入本地条目
+     *
+     * @param offset      在 {@code channel} 中写入的位置
+     * @param localOffset 条目在压缩包中的最终位置（记录在中央目录中）
+     */
+    private static CentralRecord writeLocalEntry(FileChannel channel, long offset, long localOffset, NewEntry newEntry, ZipOutputProperty outputProperty) throws IOException {
+        Charset charset = Charset.forName(outputProperty.getFileNameEncoding());
+        String entryName = newEntry.directory && !newEntry.name.endsWith("/") ? newEntry.name + "/" : newEntry.name;
+        byte[] name = entryName.getBytes(charset);
+        int flags = charset.equals(StandardCharsets.UTF_8) ? UTF8_FLAG : 0;
+        int method = newEntry.directory ? ZipEntry.STORED : method(newEntry, outputProperty);
+        boolean zip64 = newEntry.size() >= ZIP64_LOCAL_THRESHOLD;
+        byte[] dosTime = ZipUtil.toDosTime(newEntry.file == null ? System.currentTimeMillis() : newEntry.file.lastModified());
+
+        // 本地文件头，CRC与大小写完数据后回填
+        ByteBuffer header = ByteBuffer.allocate(LFH_LENGTH + name.length + (zip64 ? 20 : 0)).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(LFH_SIG)
+                .putShort((short) (zip64 ? 45 : 20))
+                .putShort((short) flags)
+                .putShort((short) method)
+                .put(dosTime)
+                .putInt(0)
+                .putInt(zip64 ? (int) ZIP64_MAGIC : 0)
+                .putInt(zip64 ? (int) ZIP64_MAGIC : 0)
+                .putShort((short) name.length)
+                .putShort((short) (zip64 ? 20 : 0))
+                .put(name);
+        if (zip64) header.putShort((short) ZIP64_EXTRA_ID).putShort((short) 16).putLong(0).putLong(0);
+        header.flip();
+        writeAt(channel, header, offset);
+
+        long dataOffset = offset + header.limit();
+        CRC32 crc32 = new CRC32();
+        long size = 0;
+        ChannelOutputStream cos = new ChannelOutputStream(channel, dataOffset);
+        if (!newEntry.directory) {
+            try (InputStream is = newEntry.open()) {
+                Deflater deflater = method == ZipEntry.DEFLATED ? new Deflater(outputProperty.getLevel(), true) : null;
+                try {
+                    OutputStream os = deflater == null ? cos : new DeflaterOutputStream(cos, deflater, BUFFER_SIZE);
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int n;
+                    while ((n = is.read(buffer)) != -1) {
+                        crc32.update(buffer, 0, n);
+                        os.write(buffer, 0, n);
+                        size += n;
+                    }
+                    if (deflater != null) ((DeflaterOutputStream) os).finish();
+                } finally {
+                    if (deflater != null) deflater.end();
+                }
+            }
+        }
+        long compressedSize = cos.position - dataOffset;
+        if (!zip64 && (size >= ZIP64_MAGIC || compressedSize >= ZIP64_MAGIC)) {
+            throw new IOException("条目【" + entryName + "】在写入过程中变大，超过了ZIP的大小限制！");
+        }
+
+        ByteBuffer patch = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        patch.putInt((int) crc32.getValue());
+        if (!zip64) patch.putInt((int) compressedSize).putInt((int) size);
+        patch.flip();
+        writeAt(channel, patch, offset + 14);
+        if (zip64) {
+            ByteBuffer extra = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN).putLong(size).putLong(compressedSize);
+            extra.flip();
+            writeAt(channel, extra, offset + LFH_LENGTH + name.length + 4);
+        }
+
+        CentralRecord record = CentralRecord.of(entryName, name, flags, method, dosTime, crc32.getValue(), compressedSize, size, newEntry.directory, localOffset);
+        record.span = cos.position - offset;
+        return record;
+    }
+
+    private static int method(NewEntry newEntry, ZipOutputProperty outputProperty) throws IOException {
+        if (!SuperACs.isAdaptiveZipMethod(outputProperty) || newEntry.source != null) return outputProperty.getMethod();
+        Map<String, Integer> entryMethods = new HashMap<>();
+        if (newEntry.file != null) {
+            return SuperACs.newZipArchiveEntry(newEntry.name, newEntry.file, outputProperty, entryMethods).getMethod();
+        }
+        return SuperACs.newZipArchiveEntry(newEntry.name, newEntry.bytes, outputProperty, entryMethods).getMethod();
+    }
+
+    private static void writeCentralDirectory(FileChannel channel, long cdOffset, List<CentralRecord> records, byte[] comment) throws IOException {
+        long position = cdOffset;
+        ChannelOutputStream cos = new ChannelOutputStream(channel, position);
+        try (OutputStream os = new BufferedOutputStream(cos, BUFFER_SIZE)) {
+            for (CentralRecord record : records) {
+                os.write(record.raw);
+            }
+
+            os.flush();
+            long cdSize = cos.position - cdOffset;
+            long count = records.size();
+            if (count >= ZIP64_MAGIC_SHORT || cdOffset >= ZIP64_MAGIC || cdSize >= ZIP64_MAGIC) {
+                long zip64EocdOffset = cos.position;
+                ByteBuffer zip64 = ByteBuffer.allocate(ZIP64_EOCD_LENGTH + ZIP64_LOCATOR_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+                zip64.putInt(ZIP64_EOCD_SIG).putLong(ZIP64_EOCD_LENGTH - 12)
+                        .putShort((short) 45).putShort((short) 45)
+                        .putInt(0).putInt(0)
+                        .putLong(count).putLong(count)
+                        .putLong(cdSize).putLong(cdOffset);
+                zip64.putInt(ZIP64_LOCATOR_SIG).putInt(0).putLong(zip64EocdOffset).putInt(1);
+                os.write(zip64.array());
+            }
+
+            ByteBuffer eocd = ByteBuffer.allocate(EOCD_LENGTH + comment.length).order(ByteOrder.LITTLE_ENDIAN);
+            eocd.putInt(EOCD_SIG).putShort((short) 0).putShort((short) 0)
+                    .putShort((short) Math.min(count, ZIP64_MAGIC_SHORT))
+                    .putShort((short) Math.min(count, ZIP64_MAGIC_SHORT))
+                    .putInt((int) Math.min(cdSize, ZIP64_MAGIC))
+                    .putInt((int) Math.min(cdOffset, ZIP64_MAGIC))
+                    .putShort((short) comment.length)
+                    .put(comment);
+            os.write(eocd.array());
+        }
+        channel.truncate(cos.position);
+    }
+
+    /**
+     * ZIP的中央目录
+     */
+    private static final class ZipDirectory {
+        long cdOffset;
+        byte[] comment;
+        final List<CentralRecord> records = new ArrayList<>();
+
+        static ZipDirectory of(FileChannel channel, Charset charset) throws IOException {
+            long fileSize = channel.size();
+            int tailLength = (int) Math.min(fileSize, EOCD_LENGTH + ZIP64_MAGIC_SHORT);
+            ByteBuffer tail = readAt(channel, fileSize - tailLength, tailLength);
+            int eocd = -1;
+            for (int i = tailLength - EOCD_LENGTH; i >= 0; i--) {
+                if (tail.getInt(i) == EOCD_SIG) {
+                    eocd = i;
+                    break;
+                }
+            }
+            if (eocd < 0) throw new IOException("不是ZIP文件或ZIP文件已损坏：未找到中央目录结束记录！");
+
+            ZipDirectory directory = new ZipDirectory();
+            long eocdOffset = fileSize - tailLength + eocd;
+            long cdSize = tail.getInt(eocd + 12) & ZIP64_MAGIC;
+            directory.cdOffset = tail.getInt(eocd + 16) & ZIP64_MAGIC;
+            int commentLength = Math.min(tail.getShort(eocd + 20) & 0xFFFF, tailLength - eocd - EOCD_LENGTH);
+            directory.comment = new byte[commentLength];
+            tail.position(eocd + EOCD_LENGTH);
+            tail.get(directory.comment);
+
+            if (eocdOffset >= ZIP64_LOCATOR_LENGTH) {
+                ByteBuffer locator = readAt(channel, eocdOffset - ZIP64_LOCATOR_LENGTH, ZIP64_LOCATOR_LENGTH);
+                if (locator.getInt(0) == ZIP64_LOCATOR_SIG) {
+                    ByteBuffer zip64 = readAt(channel, locator.getLong(8), ZIP64_EOCD_LENGTH);
+                    if (zip64.getInt(0) != ZIP64_EOCD_SIG) throw new IOException("ZIP文件已损坏：zip64中央目录结束记录错误！");
+                    cdSize = zip64.getLong(40);
+                    directory.cdOffset = zip64.getLong(48);
+                }
+            }
+            if (cdSize > Integer.MAX_VALUE) throw new IOException("ZIP文件的中央目录过大：" + cdSize);
+
+            ByteBuffer cd = readAt(channel, directory.cdOffset, (int) cdSize);
+            int pos = 0;
+            while (pos + CFH_LENGTH <= cdSize) {
+                if (cd.getInt(pos) != CFH_SIG) throw new IOException("ZIP文件已损坏：中央目录记录错误！");
+                int length = CFH_LENGTH + (cd.getShort(pos + 28) & 0xFFFF) + (cd.getShort(pos + 30) & 0xFFFF) + (cd.getShort(pos + 32) & 0xFFFF);
+                byte[] raw = new byte[length];
+                cd.position(pos);
+                cd.get(raw);
+                directory.records.add(CentralRecord.parse(raw, charset));
+                pos += length;
+            }
+            return directory;
+        }
+    }
+
+    /**
+     * 中央目录中的一条记录，保留原始字节，整理时只修改本地文件头的偏移量
+     */
+    private static final class CentralRecord {
+        final byte[] raw;
+        final String name;
+        final int flags;
+        long compressedSize;
+        long localOffset;
+        /**
+         * 偏移量字段在 {@link #raw} 中的位置与宽度（4字节，或在 zip64 扩展字段中为8字节）
+         */
+        int offsetFieldPosition = 42;
+        int offsetFieldWidth = 4;
+        /**
+         * 本地条目（文件头、数据、数据描述符）的总长度，未知时为 -1
+         */
+        long span = -1;
+
+        private CentralRecord(byte[] raw, String name, int flags) {
+            this.raw = raw;
+            this.name = name;
+            this.flags = flags;
+        }
+
+        static CentralRecord parse(byte[] raw, Charset charset) {
+            ByteBuffer buffer = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+            int flags = buffer.getShort(8) & 0xFFFF;
+            int nameLength = buffer.getShort(28) & 0xFFFF;
+            int extraLength = buffer.getShort(30) & 0xFFFF;
+            String name = new String(raw, CFH_LENGTH, nameLength, (flags & UTF8_FLAG) != 0 ? StandardCharsets.UTF_8 : charset);
+
+            CentralRecord record = new CentralRecord(raw, name, flags);
+            long size = buffer.getInt(24) & ZIP64_MAGIC;
+            record.compressedSize = buffer.getInt(20) & ZIP64_MAGIC;
+            record.localOffset = buffer.getInt(42) & ZIP64_MAGIC;
+
+            int pos = CFH_LENGTH + nameLength;
+            int end = pos + extraLength;
+            while (pos + 4 <= end) {
+                int id = buffer.getShort(pos) & 0xFFFF;
+                int length = buffer.getShort(pos + 2) & 0xFFFF;
+                if (id == ZIP64_EXTRA_ID) {
+                    int field = pos + 4;
+                    if (size == ZIP64_MAGIC) field += 8;
+                    if (record.compressedSize == ZIP64_MAGIC && field + 8 <= end) {
+                        record.compressedSize = buffer.getLong(field);
+                        field += 8;
+                    }
+                    if (record.localOffset == ZIP64_MAGIC && field + 8 <= end) {
+                        record.localOffset = buffer.getLong(field);
+                        record.offsetFieldPosition = field;
+                        record.offsetFieldWidth = 8;
+                    }
+                    break;
+                }
+                pos += 4 + length;
+            }
+            return record;
+        }
+
+        static CentralRecord of(String entryName, byte[] name, int flags, int method, byte[] dosTime, long crc,
+                                long compressedSize, long size, boolean directory, long localOffset) {
+            boolean zip64Size = size >= ZIP64_MAGIC || compressedSize >= ZIP64_MAGIC;
+            boolean zip64Offset = localOffset >= ZIP64_MAGIC;
+            int extraLength = zip64Size || zip64Offset ? 4 + (zip64Size ? 16 : 0) + (zip64Offset ? 8 : 0) : 0;
+
+            ByteBuffer buffer = ByteBuffer.allocate(CFH_LENGTH + name.length + extraLength).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(CFH_SIG)
+                    .putShort((short) (extraLength > 0 ? 45 : 20))
+                    .putShort((short) (extraLength > 0 ? 45 : 20))
+                    .putShort((short) flags)
+                    .putShort((short) method)
+                    .put(dosTime)
+                    .putInt((int) crc)
+                    .putInt(zip64Size ? (int) ZIP64_MAGIC : (int) compressedSize)
+                    .putInt(zip64Size ? (int) ZIP64_MAGIC : (int) size)
+                    .putShort((short) name.length)
+                    .putShort((short) extraLength)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putInt(directory ? 0x10 : 0)
+                    .putInt(zip64Offset ? (int) ZIP64_MAGIC : (int) localOffset)
+                    .put(name);
+            if (extraLength > 0) {
+                buffer.putShort((short) ZIP64_EXTRA_ID).putShort((short) (extraLength - 4));
+                if (zip64Size) buffer.putLong(size).putLong(compressedSize);
+                if (zip64Offset) buffer.putLong(localOffset);
+            }
+
+            CentralRecord record = new CentralRecord(buffer.array(), entryName, flags);
+            record.compressedSize = compressedSize;
+            record.localOffset = localOffset;
+            if (zip64Offset) {
+                record.offsetFieldPosition = buffer.capacity() - 8;
+                record.offsetFieldWidth = 8;
+            }
+            return record;
+        }
+
+        /**
+         * 读取本地文件头与数据描述符，计算本地条目的总长度
+         */
+        long span(FileChannel channel) throws IOException {
+            if (span >= 0) return span;
+
+            ByteBuffer header = readAt(channel, localOffset, LFH_LENGTH);
+            if (header.getInt(0) != LFH_SIG) throw new IOException("ZIP文件已损坏：条目【" + name + "】的本地文件头错误！");
+            int nameLength = header.getShort(26) & 0xFFFF;
+            int extraLength = header.getShort(28) & 0xFFFF;
+            long dataEnd = localOffset + LFH_LENGTH + nameLength + extraLength + compressedSize;
+            long length = dataEnd - localOffset;
+            if ((flags & DATA_DESCRIPTOR_FLAG) != 0) {
+                boolean zip64 = false;
+                if (extraLength > 0) {
+                    ByteBuffer extra = readAt(channel, localOffset + LFH_LENGTH + nameLength, extraLength);
+                    for (int pos = 0; pos + 4 <= extraLength; pos += 4 + (extra.getShort(pos + 2) & 0xFFFF)) {
+                        if ((extra.getShort(pos) & 0xFFFF) == ZIP64_EXTRA_ID) zip64 = true;
+                    }
+                }
+                boolean hasSignature = dataEnd + 4 <= channel.size() && readAt(channel, dataEnd, 4).getInt(0) == DD_SIG;
+                length += (hasSignature ? 4 : 0) + 4 + (zip64 ? 16 : 8);
+            }
+            span = length;
+            return span;
+        }
+
+        void setLocalOffset(long localOffset) {
+            this.localOffset = localOffset;
+            ByteBuffer buffer = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+            if (offsetFieldWidth == 8) {
+                buffer.putLong(offsetFieldPosition, localOffset);
+            } else {
+                buffer.putInt(offsetFieldPosition, (int) localOffset);
+            }
+        }
+    }
+
+    /*
+     * ================================================================================
+     * TAR
+     * ================================================================================
+     */
+
+    private static void updateTar(File file, SuperTar superTar, List<NewEntry> newEntries, PT1<? super String, Exception> deleteFilter) throws Exception {
+        TarInputProperty inputProperty = superTar.getUnTarInputProperty();
+        TarOutputProperty outputProperty = superTar.getReTarOutputProperty();
+        Set<String> newNames = new HashSet<>();
+        for (NewEntry newEntry : newEntries) {
+            newNames.add(tarEntryName(newEntry));
+        }
+
+        /*
+         * 每个条目占用 [上一个条目的结束位置, 当前条目数据的结束位置)，包括它之前的 PAX、GNU长文件名等扩展头
+         */
+        List<long[]> keptSpans = new ArrayList<>();
+        long firstDeleted = -1;
+        long end = 0;
+        if (file.length() > 0) {
+            try (TarFile tarFile = new TarFile(Files.newByteChannel(file.toPath(), StandardOpenOption.READ), inputProperty.getBlockSize(),
+                    inputProperty.getRecordSize(), inputProperty.getFileNameEncoding(), inputProperty.isLenient())) {
+                for (TarArchiveEntry entry : tarFile.getEntries()) {
+                    long start = end;
+                    end = entry.getDataOffset() + roundUp(entry.isDirectory() ? 0 : entry.getSize());
+                    String name = entry.getName();
+                    boolean deleted = newNames.contains(name) || (deleteFilter != null && deleteFilter.$(name));
+                    if (deleted) {
+                        if (firstDeleted < 0) firstDeleted = start;
+                    } else if (firstDeleted >= 0) {
+                        keptSpans.add(new long[]{start, end});
+                    }
+                }
+            }
+        }
+
+        if (firstDeleted < 0) {
+            // 没有删除条目：新条目写在归档结束标记之前，出错时恢复原来的结束标记
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long fileSize = channel.size();
+                ByteBuffer tail = readAt(channel, end, (int) Math.min(fileSize - end, Integer.MAX_VALUE));
+                try {
+                    writeTarEntries(channel, end, newEntries, outputProperty);
+                } catch (Throwable e) {
+                    writeAt(channel, tail, end);
+                    channel.truncate(fileSize);
+                    throw e;
+                }
+            }
+            return;
+        }
+
+        // 删除条目：把保留的条目与新条目写入临时文件（直接复制，不重新打包），再替换原文件
+        File tmpFile = File.createTempFile(file.getName() + ".", ".compact", file.getAbsoluteFile().getParentFile());
+        try {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                 FileChannel tmpChannel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                transfer(channel, 0, firstDeleted, tmpChannel, 0);
+                long position = firstDeleted;
+                for (long[] span : keptSpans) {
+                    transfer(channel, span[0], span[1] - span[0], tmpChannel, position);
+                    position += span[1] - span[0];
+                }
+                writeTarEntries(tmpChannel, position, newEntries, outputProperty);
+            }
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmpFile.toPath());
+        }
+    }
+
+    /**
+     * 从指定位置开始写入新条目与归档结束标记，并截断之后的数据
+     */
+    private static void writeTarEntries(FileChannel channel, long position, List<NewEntry> newEntries, TarOutputProperty outputProperty) throws IOException {
+        ChannelOutputStream cos = new ChannelOutputStream(channel, position);
+        try (TarArchiveOutputStream tos = new TarArchiveOutputStream(new BufferedOutputStream(cos, BUFFER_SIZE),
+                outputProperty.getBlockSize(), outputProperty.getFileNameEncoding())) {
+            tos.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            tos.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+            for (NewEntry newEntry : newEntries) {
+                String entryName = tarEntryName(newEntry);
+                if (newEntry.directory) {
+                    SuperACs.putTarArchiveEntry(tos, entryName, null, 0);
+                } else if (newEntry.source != null) {
+                    SuperACs.putTarArchiveEntry(tos, entryName, newEntry.source);
+                } else if (newEntry.file != null) {
+                    SuperACs.putTarArchiveEntry(tos, entryName, newEntry.file);
+                } else {
+                    SuperACs.putTarArchiveEntry(tos, entryName, newEntry.bytes, newEntry.size());
+                }
+            }
+        }
+        channel.truncate(cos.position);
+    }
+
+    private static String tarEntryName(NewEntry newEntry) {
+        return newEntry.directory && !newEntry.name.endsWith("/") ? newEntry.name + "/" : newEntry.name;
+    }
+
+    private static long roundUp(long size) {
+        long recordSize = TarConstants.DEFAULT_RCDSIZE;
+        return (size + recordSize - 1) / recordSize * recordSize;
+    }
+
+    /*
+     * ================================================================================
+     * 通用
+     * ================================================================================
+     */
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) throw new EOFException("读取位置[" + position + "]时已到达文件末尾！");
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int writeAt(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + length - buffer.remaining());
+        }
+        return length;
+    }
+
+    private static void transfer(FileChannel source, long position, long count, FileChannel target, long targetPosition) throws IOException {
+        target.position(targetPosition);
+        long transferred = 0;
+        while (transferred < count) {
+            long n = source.transferTo(position + transferred, count - transferred, target);
+            if (n <= 0) throw new EOFException("文件已损坏：数据不完整！");
+            transferred += n;
+        }
+    }
+
+    /**
+     * 要添加的条目
+     */
+    private static final class NewEntry {
+        final String name;
+        final boolean directory;
+        final File file;
+        final byte[][] bytes;
+        final AddSource source;
+
+        NewEntry(String name, boolean directory, File file, byte[][] bytes, AddSource source) {
+            this.name = name;
+            this.directory = directory;
+            this.file = file;
+            this.bytes = bytes;
+            this.source = source;
+        }
+
+        long size() {
+            if (source != null) return source.getSize();
+            if (file != null) return file.length();
+            long size = 0;
+            if (bytes != null) {
+                for (byte[] b : bytes) {
+                    size += b.length;
+                }
+            }
+            return size;
+        }
+
+        InputStream open() throws IOException {
+            if (source != null) return source.openStream();
+            return file != null ? new FileInputStream(file) : new MultiByteArrayInputStream(bytes);
+        }
+    }
+
+    /**
+     * 从指定位置开始写入文件通道的输出流，关闭时不关闭通道
+     */
+    private static final class ChannelOutputStream extends OutputStream {
+        private final FileChannel channel;
+        long position;
+
+        ChannelOutputStream(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            position += writeAt(channel, ByteBuffer.wrap(b, off, len), position);
+        }
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import com.iofairy.falcon.io.IOs;
+import com.iofairy.falcon.io.MultiByteArrayInputStream;
+import com.iofairy.falcon.nio.MemoryHugeBytesChannel;
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.lambda.PT3;
+import com.iofairy.rainforest.zip.attr.TarInputProperty;
+import com.iofairy.rainforest.zip.index.IndexEntry;
+import com.iofairy.rainforest.zip.utils.ZipKit;
+import com.iofairy.tcf.Close;
+import net.lingala.zip4j.io.inputstream.ZipInputStream;
+import net.lingala.zip4j.model.LocalFileHeader;
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.apache.commons.compress.archivers.sevenz.SevenZFile;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarFile;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+import static com.iofairy.rainforest.zip.index.IndexEntry.UNKNOWN;
+
+/**
+ * 遍历压缩包（包括内嵌压缩包）的条目，生成 {@link IndexEntry} 条目树<br>
+ * ZIP、7z 与 tar 在有可随机访问的通道时直接读取中央目录（文件头），不解压条目数据；
+ * 其他格式只能顺序读取，需要时在读取条目数据的同时计算 CRC32
+ *
+ * @since 0.6.2
+ */
+final class ArchiveWalker {
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * 支持哪些类型的压缩/解压处理器
+     */
+    private final Map<ArchiveFormat, SuperAC> superACs;
+    /**
+     * 格式本身不记录 CRC32（如：tar）时，是否读取条目数据来计算
+     */
+    private final boolean computeCrc;
+    /**
+     * 内部压缩包是否遍历的过滤器，为{@code null}则<b>都遍历</b>
+     */
+    private final PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter;
+
+    ArchiveWalker(Map<ArchiveFormat, SuperAC> superACs, boolean computeCrc) {
+        this(superACs, computeCrc, null);
+    }
+
+    ArchiveWalker(Map<ArchiveFormat, SuperAC> superACs, boolean computeCrc, PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter) {
+        this.superACs = superACs;
+        this.computeCrc = computeCrc;
+        this.unzipFilter = unzipFilter;
+    }
+
+    /**
+     * 遍历压缩包文件，ZIP、7z、tar、Seekable Format 的 .tar.zst 与多块的 .tar.xz 使用 {@link SeekableByteChannel} 随机访问
+     */
+    List<IndexEntry> walk(File file, SuperAC superAC, String zipFileName, int unzipTimes, int unzipLevel) throws Exception {
+        if (isSeekable(superAC, unzipLevel)) {
+            try (SeekableByteChannel channel = Files.newByteChannel(file.toPath(), StandardOpenOption.READ)) {
+                return walk(channel, superAC, zipFileName, unzipTimes, unzipLevel);
+            }
+        }
+
+        try (InputStream is = new BufferedInputStream(new FileInputStream(file), 64 * 1024)) {
+            return walk(is, superAC, zipFileName, unzipTimes, unzipLevel);
+        }
+    }
+
+    List<IndexEntry> walk(SeekableByteChannel channel, SuperAC superAC, String zipFileName, int unzipTimes, int unzipLevel) throws Exception {
+        if (superAC instanceof SuperZip) {
+            String fileNameEncoding = ((SuperZip) superAC).getUnzipInputProperty().getFileNameEncoding();
+            return walkZipFile(channel, fileNameEncoding, zipFileName, unzipTimes, unzipLevel);
+        }
+        // 加密的ZIP只加密条目数据，不遍历内嵌压缩包时，可以直接读取中央目录，不需要密码
+        if (superAC instanceof SuperZipProtected && unzipLevel == 0) {
+            String fileNameEncoding = ((SuperZipProtected) superAC).getUnzipInputProperty().getFileNameEncoding();
+            return walkZipFile(channel, fileNameEncoding, zipFileName, unzipTimes, unzipLevel);
+        }
+        if (superAC instanceof Super7Zip) return walkSevenZ(channel, (Super7Zip) superAC, zipFileName, unzipTimes, unzipLevel);
+        if (superAC instanceof SuperTar) return walkTarFile(channel, ((SuperTar) superAC).getUnTarInputProperty(), zipFileName, unzipTimes, unzipLevel);
+        // Seekable Format 的 .tar.zst 只需要解压文件头所在的帧
+        if (superAC instanceof SuperTarZstd) {
+            SuperTarZstd superTarZstd = (SuperTarZstd) superAC;
+            ZstdSeekableChannel seekableChannel = ZstdSeekableChannel.open(channel, superTarZstd.getUnzipInputProperty());
+            if (seekableChannel != null) return walkTarFile(seekableChannel, superTarZstd.getUnTarInputProperty(), zipFileName, unzipTimes, unzipLevel);
+            channel.position(0);
+        }
+        // 多块的 .tar.xz 只需要解压文件头所在的块
+        if (superAC instanceof SuperTarXz) {
+            SuperTarXz superTarXz = (SuperTarXz) superAC;
+            XzSeekableChannel seekableChannel = XzSeekableChannel.open(channel, superTarXz.getUnzipInputProperty());
+            if (seekableChannel != null) return walkTarFile(seekableChannel, superTarXz.getUnTarInputProperty(), zipFileName, unzipTimes, unzipLevel);
+            channel.position(0);
+        }
+
+        return walk(Channels.newInputStream(channel), superAC, zipFileName, unzipTimes, unzipLevel);
+    }
+
+    List<IndexEntry> walk(InputStream is, SuperAC superAC, String zipFileName, int unzipTimes, int unzipLevel) throws Exception {
+        if (superAC instanceof SuperZip) return walkZipStream(is, (SuperZip) superAC, zipFileName, unzipTimes, unzipLevel);
+        if (superAC instanceof SuperZipProtected) return walkZip4jStream(is, (SuperZipProtected) superAC, zipFileName, unzipTimes, unzipLevel);
+        if (superAC instanceof Super7Zip) {
+            try (MemoryHugeBytesChannel channel = new MemoryHugeBytesChannel(IOs.readBytes(is, false))) {
+                return walkSevenZ(channel, (Super7Zip) superAC, zipFileName, unzipTimes, unzipLevel);
+            }
+        }
+
+        if (superAC instanceof SuperACs) {
+            SuperACs acs = (SuperACs) superAC;
+            TarArchiveInputStream tis = acs.newUnTarInputStream(is);
+            if (tis != null) return walkTar(tis, zipFileName, unzipTimes, unzipLevel);
+
+            InputStream zipis = acs.newUnzipInputStream(is);
+            if (zipis != null) return walkCompressed(zipis, acs, zipFileName, unzipTimes, unzipLevel);
+        }
+
+        // 自定义的 SuperAC，无法遍历
+        return null;
+    }
+
+    private List<IndexEntry> walkZipFile(SeekableByteChannel channel, String fileNameEncoding, String zipFileName, int unzipTimes, int unzipLevel) throws Exception {
+        List<IndexEntry> entries = new ArrayList<>();
+        try (ZipFile zipFile = ZipFile.builder()
+                .setSeekableByteChannel(channel)
+                .setCharset(fileNameEncoding)
+                .get()) {
+            Enumeration<ZipArchiveEntry> zipEntries = zipFile.getEntriesInPhysicalOrder();
+            while (zipEntries.hasMoreElements()) {
+                ZipArchiveEntry zipEntry = zipEntries.nextElement();
+                IndexEntry entry = toIndexEntry(zipEntry);
+                entries.add(entry);
+                if (entry.isDirectory()) continue;
+
+                SuperAC nestedSuperAC = nestedSuperAC(entry, zipFileName, unzipTimes, unzipLevel);
+                if (!zipFile.canReadEntryData(zipEntry) || !needsData(entry, nestedSuperAC)) continue;
+
+                try (InputStream entryIs = zipFile.getInputStream(zipEntry)) {
+                    walkEntry(entry, entryIs, nestedSuperAC, unzipTimes, unzipLevel);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private List<IndexEntry> walkZipStream(InputStream is, SuperZip superZip, String zipFileName, int unzipTimes, int unzipLevel) throws Exception {
+        List<IndexEntry> entries = new ArrayList<>();
+        ZipArchiveInputStream zipis = new ZipArchiveInputStream(is, superZip.getUnzipInputProperty().getFileNameEncoding());
+        ZipArchiveEntry zipEntry;
+        while ((zipEntry = zipis.getNextEntry()) != null) {
+            IndexEntry entry = toIndexEntry(zipEntry);
+            entries.add(entry);
+            if (entry.isDirectory() || !zipis.canReadEntryData(zipEntry)) continue;
+
+            // 使用数据描述符（data descriptor）的条目，读完数据后才知道大小与CRC32
+            SuperAC nestedSuperAC = nestedSuperAC(entry, zipFileName, unzipTimes, unzipLevel);
+            if (needsData(entry, nestedSuperAC) || entry.getSize() == UNKNOWN) {
+                walkEntry(entry, zipis, nestedSuperAC, unzipTimes, unzipLevel);
+                if (zipEntry.getCrc() != UNKNOWN) entry.setCrc(zipEntry.getCrc());
+                if (zipEntry.getCompressedSize() != UNKNOWN) entry.setCompressedSize(zipEntry.getCompressedSize());
+            }
+        }
+        return entries;
+    }
+
+    private List<IndexEntry> walkZip4jStream(InputStream is, SuperZipProtected superZip, String zipFileName, int unzipTimes, int unzipLevel) throws Exception {
+        char[] password = superZip.getUnzipPasswordProvider().getPassword(zipFileName);
+        Charset charset = Charset.forName(superZip.getUnzipInputProperty().getFileNameEncoding());
+
+        List<IndexEntry> entries = new ArrayList<>();
+        ZipInputStream zipis = new ZipInputStream(is, password, charset);
+        LocalFileHeader header;
+        while ((header = zipis.getNextEntry()) != null) {
+            IndexEntry entry = IndexEntry.of(header.getFileName(), header.isDirectory())
+                    .setCompressedSize(header.getCompressedSize())
+                    .setOffset(header.getOffsetStartOfData())
+                    .setLastModified(header.getLastModifiedTimeEpoch());
+            // 加密条目的本地文件头中的大小与CRC32可能为0，以读取到的数据为准
+            entries.add(entry);
+            if (!entry.isDirectory()) walkEntry(entry, zipis, nestedSuperAC(entry, zipFileName, unzipTimes, unzipLevel), unzipTimes, unzipLevel);
+        }
+        return entries;
+    }
+
+    private List<IndexEntry> walkSevenZ(SeekableByteChannel channel, Super7Zip super7Zip, String zipFileName, int unzipTimes, int unzipLevel) throws Exception {
+        char[] password = super7Zip.getUnzipPasswordProvider().getPassword(zipFileName);
+
+        List<IndexEntry> entries = new ArrayList<>();
+        SevenZFile sevenZFile = null;
+        try {
+            sevenZFile = super7Zip.getUnzipInputProperty().getSevenZFileBuilder().setSeekableByteChannel(channel).setPassword(password).get();
+            for (SevenZArchiveEntry sevenZEntry : sevenZFile.getEntries()) {
+                IndexEntry entry = IndexEntry.of(sevenZEntry.getName(), sevenZEntry.isDirectory())
+                        .setSize(sevenZEntry.getSize())
+                        .setCrc(sevenZEntry.getHasCrc() ? sevenZEntry.getCrcValue() : UNKNOWN)
+                        .setLastModified(sevenZEntry.getHasLastModifiedDate() ? sevenZEntry.getLastModifiedDate().getTime() : UNKNOWN);
+                entries.add(entry);
+                if (entry.isDirectory() || !sevenZEntry.hasStream()) continue;
+
+                SuperAC nestedSuperAC = nestedSuperAC(entry, zipFileName, unzipTimes, unzipLevel);
+                if (!needsData(entry, nestedSuperAC)) continue;
+
+                try (InputStream entryIs = sevenZFile.getInputStream(sevenZEntry)) {
+                    walkEntry(entry, entryIs, nestedSuperAC, unzipTimes, unzipLevel);
+                }
+            }
+        } finally {
+            Close.close(sevenZFile);
+        }
+        return entries;
+    }
+
+    /**
+     * 通过 {@link TarFile} 一次读取所有文件头，文件头之间的条目数据直接 seek 跳过
+     */
+    private List<IndexEntry> walkTarFile(SeekableByteChannel channel, TarInputProperty unTarInputProperty, String zipFileName, int unzipTimes, int unzipLevel) throws Exception {
+        List<IndexEntry> entries = new ArrayList<>();
+        try (TarFile tarFile = new TarFile(channel, unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(),
+                unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient())) {
+            for (TarArchiveEntry tarEntry : tarFile.getEntries()) {
+                IndexEntry entry = IndexEntry.of(tarEntry.getName(), tarEntry.isDirectory())
+                        .setSize(tarEntry.getSize())
+                        .setOffset(tarEntry.getDataOffset())
+                        .setLastModified(tarEntry.getModTime().getTime());
+                entries.add(entry);
+                if (entry.isDirectory() || !tarEntry.isFile()) continue;
+
+                SuperAC nestedSuperAC = nestedSuperAC(entry, zipFileName, unzipTimes, unzipLevel);
+                if (!needsData(entry, nestedSuperAC)) continue;
+
+                try (InputStream entryIs = tarFile.getInputStream(tarEntry)) {
+                    walkEntry(entry, entryIs, nestedSuperAC, unzipTimes, unzipLevel);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 顺序读取 tar 流，不需要的条目数据通过 {@link InputStream#skip(long)} 跳过
+     */
+    private List<IndexEntry> walkTar(TarArchiveInputStream tis, String zipFileName, int unzipTimes, int unzipLevel) throws Exception {
+        List<IndexEntry> entries = new ArrayList<>();
+        TarArchiveEntry tarEntry;
+        while ((tarEntry = tis.getNextEntry()) != null) {
+            IndexEntry entry = IndexEntry.of(tarEntry.getName(), tarEntry.isDirectory())
+                    .setSize(tarEntry.getSize())
+                    .setOffset(tis.getBytesRead())
+                    .setLastModified(tarEntry.getModTime().getTime());
+            entries.add(entry);
+            if (entry.isDirectory() || !tarEntry.isFile()) continue;
+
+            SuperAC nestedSuperAC = nestedSuperAC(entry, zipFileName, unzipTimes, unzipLevel);
+            if (!needsData(entry, nestedSuperAC)) continue;
+
+            walkEntry(entry, tis, nestedSuperAC, unzipTimes, unzipLevel);
+        }
+        return entries;
+    }
+
+    private List<IndexEntry> walkCompressed(InputStream zipis, SuperACs superAC, String zipFileName, int unzipTimes, int unzipLevel) throws Exception {
+        String entryFileName;
+        if (superAC instanceof SuperGzip) {
+            entryFileName = SuperACs.fileNameInGzip(zipis, zipFileName, ((SuperGzip) superAC).getUnzipInputProperty());
+        } else if (superAC instanceof SuperSnappy) {
+            entryFileName = SuperSnappy.uncompressedName(zipFileName);
+        } else {
+            entryFileName = ZipKit.getUncompressedName(zipFileName, superAC.format());
+        }
+
+        IndexEntry entry = IndexEntry.of(entryFileName, false);
+        // 单文件压缩格式只有一个条目，只有读完数据才知道大小
+        walkEntry(entry, zipis, nestedSuperAC(entry, zipFileName, unzipTimes, unzipLevel), unzipTimes, unzipLevel);
+        return Collections.singletonList(entry);
+    }
+
+    /**
+     * 是否需要读取条目的数据：需要计算CRC32，或者是需要遍历的内嵌压缩包
+     */
+    private boolean needsData(IndexEntry entry, SuperAC nestedSuperAC) {
+        return (computeCrc && entry.getCrc() == UNKNOWN) || nestedSuperAC != null;
+    }
+
+    /**
+     * 读取条目数据：补全大小与CRC32，{@code nestedSuperAC} 不为 {@code null} 时继续遍历内嵌压缩包
+     */
+    private void walkEntry(IndexEntry entry, InputStream entryIs, SuperAC nestedSuperAC, int unzipTimes, int unzipLevel) throws Exception {
+        if (nestedSuperAC == null) {
+            if (computeCrc || entry.getSize() == UNKNOWN) {
+                CRC32 crc32 = new CRC32();
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long size = 0;
+                int n;
+                while ((n = entryIs.read(buffer)) != -1) {
+                    crc32.update(buffer, 0, n);
+                    size += n;
+                }
+                entry.setSize(size);
+                if (computeCrc) entry.setCrc(crc32.getValue());
+            }
+            return;
+        }
+
+        byte[][] byteArrays = IOs.readBytes(entryIs, false);
+        CRC32 crc32 = new CRC32();
+        long size = 0;
+        for (byte[] bytes : byteArrays) {
+            crc32.update(bytes, 0, bytes.length);
+            size += bytes.length;
+        }
+        entry.setSize(size);
+        if (entry.getCrc() == UNKNOWN) entry.setCrc(crc32.getValue());
+
+        int newUnzipTimes = unzipTimes + 1;
+        int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
+        if (isSeekable(nestedSuperAC, newUnzipLevel)) {
+            try (MemoryHugeBytesChannel channel = new MemoryHugeBytesChannel(byteArrays)) {
+                entry.setChildren(walk(channel, nestedSuperAC, entry.getName(), newUnzipTimes, newUnzipLevel));
+            }
+        } else {
+            try (MultiByteArrayInputStream nestedIs = new MultiByteArrayInputStream(byteArrays)) {
+                entry.setChildren(walk(nestedIs, nestedSuperAC, entry.getName(), newUnzipTimes, newUnzipLevel));
+            }
+        }
+    }
+
+    /**
+     * 条目是需要遍历的内嵌压缩包时，返回对应的 SuperAC（同时记录条目的压缩包格式），否则返回 {@code null}
+     */
+    private SuperAC nestedSuperAC(IndexEntry entry, String zipFileName, int unzipTimes, int unzipLevel) throws Exception {
+        String entryFileName = entry.getName();
+        ArchiveFormat archiveFormat = ZipKit.getArchiveFormat(entryFileName);
+        SuperAC nestedSuperAC = archiveFormat == null ? null : superACs.get(archiveFormat);
+        if (nestedSuperAC == null) return null;
+
+        entry.setFormat(archiveFormat);
+        if (unzipLevel == 0 || SuperACs.hasPathTraversalRisk(entryFileName)) return null;
+        return unzipFilter == null || unzipFilter.$(unzipTimes, zipFileName, entryFileName) ? nestedSuperAC : null;
+    }
+
+    private static boolean isSeekable(SuperAC superAC, int unzipLevel) {
+        return superAC instanceof SuperZip || superAC instanceof Super7Zip || superAC instanceof SuperTar
+                || superAC instanceof SuperTarZstd || superAC instanceof SuperTarXz
+                || (superAC instanceof SuperZipProtected && unzipLevel == 0);
+    }
+
+    private static IndexEntry toIndexEntry(ZipArchiveEntry zipEntry) {
+        return IndexEntry.of(zipEntry.getName(), zipEntry.isDirectory())
+                .setSize(zipEntry.getSize())
+                .setCompressedSize(zipEntry.getCompressedSize())
+                .setCrc(zipEntry.getCrc())
+                .setOffset(zipEntry.getLocalHeaderOffset())
+                .setLastModified(zipEntry.getTime());
+    }
+
+}
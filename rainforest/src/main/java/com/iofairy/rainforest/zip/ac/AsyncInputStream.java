@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import com.iofairy.tcf.Close;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 在后台线程中读取的输入流，用于让解压（后台线程）与后续的处理（当前线程）并行执行<br>
+ * 后台线程按块读取 {@code in} 放入有界队列，最多预读 {@code maxChunks} 块；读取结束或关闭时由后台线程关闭 {@code in}，后台线程的异常在读取到末尾时抛出
+ *
+ * @since 0.6.2
+ */
+final class AsyncInputStream extends InputStream {
+    static final int CHUNK_SIZE = 64 * 1024;
+    private static final byte[] EOF = new byte[0];
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final BlockingQueue<byte[]> queue;
+    private final Thread thread;
+    private final byte[] singleByte = new byte[1];
+    private volatile Throwable error;
+    private volatile boolean closed;
+
+    private byte[] chunk;
+    private int pos;
+
+    AsyncInputStream(InputStream in, int maxChunks, String threadName) {
+        this.queue = new ArrayBlockingQueue<>(maxChunks);
+        this.thread = new Thread(() -> pump(in), threadName + "-" + THREAD_NUMBER.incrementAndGet());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public int read() throws IOException {
+        int n = read(singleByte, 0, 1);
+        return n == -1 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) throw new IOException("Stream closed");
+        if (len == 0) return 0;
+        if (chunk == EOF) return -1;
+        if (chunk == null || pos == chunk.length) {
+            chunk = take();
+            pos = 0;
+            if (chunk == EOF) {
+                if (error != null) throw error instanceof IOException ? (IOException) error : new IOException(error);
+                return -1;
+            }
+        }
+        int n = Math.min(len, chunk.length - pos);
+        System.arraycopy(chunk, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return chunk == null || chunk == EOF ? 0 : chunk.length - pos;
+    }
+
+    /**
+     * 关闭并等待后台线程结束（最多再读取一块），之后不会再有线程读取 {@code in}
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        // 不中断后台线程：中断可能导致基于通道的输入流被关闭，只清空队列让后台线程不再阻塞
+        try {
+            while (thread.isAlive()) {
+                queue.clear();
+                thread.join(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the decompression thread");
+        }
+    }
+
+    private byte[] take() throws IOException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the decompression thread");
+        }
+    }
+
+    private void pump(InputStream in) {
+        try {
+            while (!closed) {
+                byte[] buf = new byte[CHUNK_SIZE];
+                int len = 0;
+                int n;
+                while (len < buf.length && (n = in.read(buf, len, buf.length - len)) != -1) {
+                    len += n;
+                }
+                if (len > 0) queue.put(len == buf.length ? buf : Arrays.copyOf(buf, len));
+                if (len < buf.length) break;
+            }
+            queue.put(EOF);
+        } catch (Throwable e) {
+            error = e;
+            try {
+                queue.put(EOF);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            Close.close(in);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import com.iofairy.tcf.Close;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 在后台线程中写入的输出流，用于让压缩（后台线程）与之前的处理（当前线程）并行执行<br>
+ * 写入的数据按块放入有界队列，最多缓存 {@code maxChunks} 块；{@link #close()} 时等待后台线程写完并关闭 {@code out}，
+ * 后台线程的异常在之后的写入或关闭时抛出
+ *
+ * @since 0.6.2
+ */
+final class AsyncOutputStream extends OutputStream {
+    private static final byte[] EOF = new byte[0];
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final BlockingQueue<byte[]> queue;
+    private final Thread thread;
+    private final byte[] singleByte = new byte[1];
+    private volatile Throwable error;
+    private boolean closed;
+
+    private byte[] chunk = new byte[AsyncInputStream.CHUNK_SIZE];
+    private int pos;
+
+    AsyncOutputStream(OutputStream out, int maxChunks, String threadName) {
+        this.queue = new ArrayBlockingQueue<>(maxChunks);
+        this.thread = new Thread(() -> pump(out), threadName + "-" + THREAD_NUMBER.incrementAndGet());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        singleByte[0] = (byte) b;
+        write(singleByte, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) throw new IOException("Stream closed");
+        while (len > 0) {
+            int n = Math.min(len, chunk.length - pos);
+            System.arraycopy(b, off, chunk, pos, n);
+            pos += n;
+            off += n;
+            len -= n;
+            if (pos == chunk.length) {
+                put(chunk);
+                chunk = new byte[chunk.length];
+                pos = 0;
+            }
+        }
+    }
+
+    /**
+     * 把已写入的数据交给后台线程，不等待写入完成
+     */
+    @Override
+    public void flush() throws IOException {
+        if (closed) throw new IOException("Stream closed");
+        if (pos > 0) {
+            put(Arrays.copyOf(chunk, pos));
+            pos = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        try {
+            flush();
+            put(EOF);
+        } finally {
+            closed = true;
+            chunk = null;
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                thread.interrupt();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the compression thread");
+            }
+        }
+        checkError();
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        checkError();
+        try {
+            queue.put(bytes);
+        } catch (InterruptedException e) {
+            thread.interrupt();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the compression thread");
+        }
+    }
+
+    private void checkError() throws IOException {
+        Throwable e = error;
+        if (e != null) throw e instanceof IOException ? (IOException) e : new IOException(e);
+    }
+
+    private void pump(OutputStream out) {
+        try {
+            byte[] bytes;
+            while ((bytes = queue.take()) != EOF) {
+                // 出错后只丢弃数据，避免写入方阻塞在已满的队列上
+                if (error == null) {
+                    try {
+                        out.write(bytes);
+                    } catch (Throwable e) {
+                        error = e;
+                    }
+                }
+            }
+            if (error == null) out.close();
+        } catch (InterruptedException e) {
+            // 写入方被中断
+            Close.close(out);
+        } catch (Throwable e) {
+            error = e;
+        } finally {
+            if (error != null) Close.close(out);
+        }
+    }
+}
@@ -0,0 +1,439 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import net.lingala.zip4j.crypto.StandardDecrypter;
+import net.lingala.zip4j.exception.ZipException;
+import net.lingala.zip4j.headers.HeaderReader;
+import net.lingala.zip4j.headers.HeaderSignature;
+import net.lingala.zip4j.io.inputstream.ZipInputStream;
+import net.lingala.zip4j.model.*;
+import net.lingala.zip4j.model.enums.AesVersion;
+import net.lingala.zip4j.model.enums.CompressionMethod;
+import net.lingala.zip4j.model.enums.EncryptionMethod;
+import net.lingala.zip4j.util.Zip4jUtil;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 使用 JDK 的 AES（见 {@link WinZipAes}）解密的 zip4j {@link ZipInputStream}<br>
+ * zip4j 的解密层不能替换，所以重新实现了条目数据的解密与解压，本地文件头与数据描述符仍由 zip4j 的 {@link HeaderReader} 解析。
+ * 与 zip4j 相同，支持 STORE、DEFLATE 压缩方法与 AES、ZipCrypto 加密方法，并校验 AES 认证码与 CRC，异常信息与 zip4j 相同。<br>
+ * 只用于 AES 加密的压缩包（见 {@link #isAesEncrypted(PushbackInputStream)}），其他压缩包仍使用 zip4j 的 {@link ZipInputStream}
+ *
+ * @since 0.6.2
+ */
+final class JceZipInputStream extends ZipInputStream {
+    /**
+     * 判断是否为 AES 加密的压缩包时，最多预读的字节数
+     */
+    static final int PEEK_SIZE = 64 * 1024;
+
+    private static final int LOCAL_FILE_HEADER_SIG = 0x04034b50;
+    private static final int AES_METHOD = 99;
+
+    private final PushbackInputStream inputStream;
+    private final Charset charset;
+    private final boolean useUtf8CharsetForPasswords;
+    private final HeaderReader headerReader = new HeaderReader();
+    private final CRC32 crc32 = new CRC32();
+    /**
+     * 读取的原始（加密的）数据
+     */
+    private final byte[] rawBuffer;
+    /**
+     * 解密后待解压的数据
+     */
+    private final byte[] plainBuffer;
+    private char[] password;
+
+    private LocalFileHeader localFileHeader;
+    private Inflater inflater;
+    private boolean deflate;
+    private WinZipAes aes;
+    private StandardDecrypter standardDecrypter;
+    /**
+     * 条目剩余的数据字节数，{@code -1} 表示未知（DEFLATE 且有数据描述符，由解压器判断结束位置）
+     */
+    private long remaining;
+    /**
+     * 已交给解压器的原始数据的长度
+     */
+    private int rawLength;
+    private byte[] endOfEntryBuffer;
+    private final byte[] singleByte = new byte[1];
+    /**
+     * 大小与CRC取自中央目录的文件头，不读取数据描述符
+     */
+    private boolean canSkipExtendedLocalFileHeader;
+    private boolean entryEOFReached;
+    private boolean streamClosed;
+
+    JceZipInputStream(InputStream inputStream, char[] password, Zip4jConfig zip4jConfig) {
+        super(inputStream, password, zip4jConfig);
+        int bufferSize = zip4jConfig.getBufferSize();
+        this.inputStream = new PushbackInputStream(inputStream, bufferSize);
+        this.charset = zip4jConfig.getCharset();
+        this.useUtf8CharsetForPasswords = zip4jConfig.isUseUtf8CharsetForPasswords();
+        this.rawBuffer = new byte[bufferSize];
+        this.plainBuffer = new byte[bufferSize];
+        this.password = password;
+    }
+
+    @Override
+    public LocalFileHeader getNextEntry() throws IOException {
+        return getNextEntry(null, true);
+    }
+
+    /**
+     * 读取下一个条目
+     *
+     * @param fileHeader          中央目录的文件头，不为{@code null}时与 zip4j 相同，使用其中的大小与CRC，不读取数据描述符
+     * @param readUntilEndOfEntry 是否读完当前条目
+     * @return 本地文件头，没有更多条目时返回{@code null}
+     * @throws IOException 读取失败
+     */
+    @Override
+    public LocalFileHeader getNextEntry(FileHeader fileHeader, boolean readUntilEndOfEntry) throws IOException {
+        assertStreamOpen();
+        if (localFileHeader != null && readUntilEndOfEntry) readUntilEndOfEntry();
+
+        localFileHeader = headerReader.readLocalFileHeader(inputStream, charset);
+        if (localFileHeader == null) return null;
+        verifyLocalFileHeader(localFileHeader);
+        crc32.reset();
+        if (fileHeader != null) {
+            localFileHeader.setCrc(fileHeader.getCrc());
+            localFileHeader.setCompressedSize(fileHeader.getCompressedSize());
+            localFileHeader.setUncompressedSize(fileHeader.getUncompressedSize());
+            localFileHeader.setDirectory(fileHeader.isDirectory());
+            canSkipExtendedLocalFileHeader = true;
+        } else {
+            canSkipExtendedLocalFileHeader = false;
+        }
+        initializeEntry(localFileHeader);
+        entryEOFReached = false;
+        return localFileHeader;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int n = read(singleByte);
+        return n == -1 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        assertStreamOpen();
+        if (len < 0) throw new IllegalArgumentException("Negative read length");
+        if (len == 0) return 0;
+        if (localFileHeader == null) return -1;
+
+        try {
+            int n = deflate ? inflate(b, off, len) : readStored(b, off, len);
+            if (n == -1) {
+                endOfCompressedDataReached();
+            } else {
+                crc32.update(b, off, n);
+            }
+            return n;
+        } catch (IOException e) {
+            if (isEncryptionMethodZipStandard(localFileHeader)) {
+                throw new ZipException(e.getMessage(), e.getCause(), ZipException.Type.WRONG_PASSWORD);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        assertStreamOpen();
+        return entryEOFReached ? 0 : 1;
+    }
+
+    @Override
+    public void setPassword(char[] password) {
+        this.password = password;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (streamClosed) return;
+        try {
+            inputStream.close();
+        } finally {
+            if (inflater != null) inflater.end();
+            streamClosed = true;
+        }
+    }
+
+    private void initializeEntry(LocalFileHeader localFileHeader) throws IOException {
+        aes = null;
+        standardDecrypter = null;
+        rawLength = 0;
+        if (localFileHeader.isEncrypted()) {
+            if (localFileHeader.getEncryptionMethod() == EncryptionMethod.AES) {
+                initializeAes(localFileHeader);
+            } else if (localFileHeader.getEncryptionMethod() == EncryptionMethod.ZIP_STANDARD) {
+                byte[] headerBytes = readFully(new byte[12]);
+                standardDecrypter = new StandardDecrypter(password, localFileHeader.getCrc(), localFileHeader.getLastModifiedTime(),
+                        headerBytes, useUtf8CharsetForPasswords);
+            } else {
+                throw new ZipException(String.format("Entry [%s] Strong Encryption not supported", localFileHeader.getFileName()),
+                        ZipException.Type.UNSUPPORTED_ENCRYPTION);
+            }
+        }
+
+        deflate = Zip4jUtil.getCompressionMethod(localFileHeader) == CompressionMethod.DEFLATE;
+        if (deflate) {
+            if (inflater == null) {
+                inflater = new Inflater(true);
+            } else {
+                inflater.reset();
+            }
+            remaining = localFileHeader.isDataDescriptorExists() && !canSkipExtendedLocalFileHeader
+                    ? -1
+                    : localFileHeader.getCompressedSize() - getEncryptionOverhead(localFileHeader);
+        } else {
+            remaining = localFileHeader.getUncompressedSize();
+        }
+    }
+
+    private void initializeAes(LocalFileHeader localFileHeader) throws IOException {
+        AESExtraDataRecord aesExtraDataRecord = localFileHeader.getAesExtraDataRecord();
+        if (aesExtraDataRecord == null || aesExtraDataRecord.getAesKeyStrength() == null) {
+            throw new ZipException("AesExtraDataRecord not found or invalid for Aes encrypted entry");
+        }
+        if (password == null || password.length == 0) {
+            throw new ZipException("empty or null password provided for AES decryption", ZipException.Type.WRONG_PASSWORD);
+        }
+        byte[] salt = readFully(new byte[aesExtraDataRecord.getAesKeyStrength().getSaltLength()]);
+        byte[] passwordVerifier = readFully(new byte[WinZipAes.PASSWORD_VERIFIER_LENGTH]);
+        try {
+            aes = WinZipAes.of(password, salt, aesExtraDataRecord.getAesKeyStrength().getKeyLength());
+        } catch (GeneralSecurityException e) {
+            throw new ZipException(e);
+        }
+        if (!Arrays.equals(passwordVerifier, aes.getPasswordVerifier())) {
+            throw new ZipException("Wrong Password", ZipException.Type.WRONG_PASSWORD);
+        }
+    }
+
+    private int readStored(byte[] b, int off, int len) throws IOException {
+        if (remaining <= 0) return -1;
+        int n = inputStream.read(b, off, (int) Math.min(len, remaining));
+        if (n == -1) throw new EOFException("Unexpected end of input stream");
+        remaining -= n;
+        if (aes != null) {
+            aes.updateMac(b, off, n);
+            aes.crypt(b, off, b, off, n);
+        } else if (standardDecrypter != null) {
+            standardDecrypter.decryptData(b, off, n);
+        }
+        return n;
+    }
+
+    private int inflate(byte[] b, int off, int len) throws IOException {
+        while (true) {
+            int n;
+            try {
+                n = inflater.inflate(b, off, len);
+            } catch (DataFormatException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            if (n > 0) return n;
+            if (inflater.finished() || inflater.needsDictionary()) {
+                endOfInflate();
+                return -1;
+            }
+            if (inflater.needsInput()) fill();
+        }
+    }
+
+    /**
+     * 读取并解密下一段数据交给解压器，上一段数据已全部被解压，计入认证码
+     */
+    private void fill() throws IOException {
+        if (aes != null) aes.updateMac(rawBuffer, 0, rawLength);
+        rawLength = 0;
+
+        int len = remaining < 0 ? rawBuffer.length : (int) Math.min(rawBuffer.length, remaining);
+        int n = len == 0 ? -1 : inputStream.read(rawBuffer, 0, len);
+        if (n == -1) throw new EOFException("Unexpected end of input stream");
+        if (remaining > 0) remaining -= n;
+        rawLength = n;
+
+        if (aes != null) {
+            aes.crypt(rawBuffer, 0, plainBuffer, 0, n);
+            inflater.setInput(plainBuffer, 0, n);
+        } else if (standardDecrypter != null) {
+            System.arraycopy(rawBuffer, 0, plainBuffer, 0, n);
+            standardDecrypter.decryptData(plainBuffer, 0, n);
+            inflater.setInput(plainBuffer, 0, n);
+        } else {
+            inflater.setInput(rawBuffer, 0, n);
+        }
+    }
+
+    /**
+     * 解压结束：多读取的数据退回输入流（AES 认证码或数据描述符），已解压的部分计入认证码
+     */
+    private void endOfInflate() throws IOException {
+        int unused = inflater.getRemaining();
+        if (aes != null) aes.updateMac(rawBuffer, 0, rawLength - unused);
+        if (unused > 0) {
+            if (remaining >= 0) remaining += unused;
+            inputStream.unread(rawBuffer, rawLength - unused, unused);
+        }
+        rawLength = 0;
+
+        // 已知数据长度时，跳过压缩数据之后多余的字节
+        while (remaining > 0) {
+            int n = inputStream.read(rawBuffer, 0, (int) Math.min(rawBuffer.length, remaining));
+            if (n == -1) throw new EOFException("Unexpected end of input stream");
+            if (aes != null) aes.updateMac(rawBuffer, 0, n);
+            remaining -= n;
+        }
+    }
+
+    private void endOfCompressedDataReached() throws IOException {
+        if (aes != null) {
+            byte[] storedMac = readFully(new byte[WinZipAes.MAC_LENGTH]);
+            if (!Arrays.equals(storedMac, aes.authenticationCode())) {
+                throw new IOException("Reached end of data for this entry, but aes verification failed");
+            }
+        }
+        if (localFileHeader.isDataDescriptorExists() && !canSkipExtendedLocalFileHeader) {
+            DataDescriptor dataDescriptor = headerReader.readDataDescriptor(inputStream, checkIfZip64ExtraDataRecordPresentInLFH(localFileHeader));
+            localFileHeader.setCompressedSize(dataDescriptor.getCompressedSize());
+            localFileHeader.setUncompressedSize(dataDescriptor.getUncompressedSize());
+            localFileHeader.setCrc(dataDescriptor.getCrc());
+        }
+        verifyCrc();
+
+        localFileHeader = null;
+        crc32.reset();
+        entryEOFReached = true;
+    }
+
+    private void verifyCrc() throws IOException {
+        if (localFileHeader.getEncryptionMethod() == EncryptionMethod.AES
+                && localFileHeader.getAesExtraDataRecord().getAesVersion() == AesVersion.TWO) {
+            // AE-2 不存储 CRC
+            return;
+        }
+        if (localFileHeader.getCrc() != crc32.getValue()) {
+            ZipException.Type type = isEncryptionMethodZipStandard(localFileHeader) ? ZipException.Type.WRONG_PASSWORD : ZipException.Type.CHECKSUM_MISMATCH;
+            throw new ZipException("Reached end of entry, but crc verification failed for " + localFileHeader.getFileName(), type);
+        }
+    }
+
+    private void readUntilEndOfEntry() throws IOException {
+        if (endOfEntryBuffer == null) endOfEntryBuffer = new byte[512];
+        while (read(endOfEntryBuffer) != -1) {
+            // 读完当前条目
+        }
+        entryEOFReached = true;
+    }
+
+    /**
+     * 预读本地文件头，找到的第一个加密的条目是否为 AES 加密，预读的数据退回输入流<br>
+     * 只在 {@link #PEEK_SIZE} 字节内查找，之前的条目使用数据描述符（本地文件头中没有压缩后的大小）时无法定位下一个文件头，返回{@code false}
+     *
+     * @param in 输入流，可退回的字节数不小于 {@link #PEEK_SIZE}
+     * @return 是否为 AES 加密
+     * @throws IOException 读取失败
+     */
+    static boolean isAesEncrypted(PushbackInputStream in) throws IOException {
+        byte[] prefix = new byte[PEEK_SIZE];
+        int length = 0;
+        int n;
+        while (length < prefix.length && (n = in.read(prefix, length, prefix.length - length)) != -1) {
+            length += n;
+        }
+        if (length == 0) return false;
+        in.unread(prefix, 0, length);
+
+        ByteBuffer buffer = ByteBuffer.wrap(prefix, 0, length).order(ByteOrder.LITTLE_ENDIAN);
+        long pos = 0;
+        while (pos + 30 <= length && buffer.getInt((int) pos) == LOCAL_FILE_HEADER_SIG) {
+            int flags = buffer.getShort((int) pos + 6) & 0xFFFF;
+            if ((flags & 1) != 0) return (buffer.getShort((int) pos + 8) & 0xFFFF) == AES_METHOD;
+            long compressedSize = buffer.getInt((int) pos + 18) & 0xFFFFFFFFL;
+            if ((flags & 8) != 0 || compressedSize == 0xFFFFFFFFL) return false;
+            pos += 30 + (buffer.getShort((int) pos + 26) & 0xFFFF) + (buffer.getShort((int) pos + 28) & 0xFFFF) + compressedSize;
+        }
+        return false;
+    }
+
+    private byte[] readFully(byte[] b) throws IOException {
+        if (Zip4jUtil.readFully(inputStream, b) != b.length) throw new ZipException("Could not read enough bytes");
+        return b;
+    }
+
+    /**
+     * 加密增加的字节数：AES 为盐值、密码校验值与认证码，ZipCrypto 为12个字节的加密头
+     */
+    private static long getEncryptionOverhead(LocalFileHeader localFileHeader) {
+        if (!localFileHeader.isEncrypted()) return 0;
+        if (localFileHeader.getEncryptionMethod() == EncryptionMethod.AES) {
+            return localFileHeader.getAesExtraDataRecord().getAesKeyStrength().getSaltLength()
+                    + WinZipAes.PASSWORD_VERIFIER_LENGTH + WinZipAes.MAC_LENGTH;
+        }
+        return 12;
+    }
+
+    private static void verifyLocalFileHeader(LocalFileHeader localFileHeader) throws IOException {
+        String fileName = localFileHeader.getFileName();
+        boolean isDirectory = fileName.endsWith("/") || fileName.endsWith("\\");
+        if (!isDirectory && localFileHeader.getCompressionMethod() == CompressionMethod.STORE && localFileHeader.getUncompressedSize() < 0) {
+            throw new IOException("Invalid local file header for: " + fileName
+                    + ". Uncompressed size has to be set for entry of compression type store which is not a directory");
+        }
+    }
+
+    private static boolean checkIfZip64ExtraDataRecordPresentInLFH(LocalFileHeader localFileHeader) {
+        if (localFileHeader.getExtraDataRecords() == null) return false;
+        for (ExtraDataRecord extraDataRecord : localFileHeader.getExtraDataRecords()) {
+            if (extraDataRecord.getHeader() == HeaderSignature.ZIP64_EXTRA_FIELD_SIGNATURE.getValue()) return true;
+        }
+        return false;
+    }
+
+    private static boolean isEncryptionMethodZipStandard(LocalFileHeader localFileHeader) {
+        return localFileHeader.isEncrypted() && localFileHeader.getEncryptionMethod() == EncryptionMethod.ZIP_STANDARD;
+    }
+
+    private void assertStreamOpen() throws IOException {
+        if (streamClosed) throw new IOException("Stream closed");
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import net.lingala.zip4j.crypto.StandardEncrypter;
+import net.lingala.zip4j.exception.ZipException;
+import net.lingala.zip4j.headers.FileHeaderFactory;
+import net.lingala.zip4j.headers.HeaderWriter;
+import net.lingala.zip4j.io.outputstream.CountingOutputStream;
+import net.lingala.zip4j.io.outputstream.ZipOutputStream;
+import net.lingala.zip4j.model.*;
+import net.lingala.zip4j.model.enums.AesVersion;
+import net.lingala.zip4j.model.enums.CompressionMethod;
+import net.lingala.zip4j.model.enums.EncryptionMethod;
+import net.lingala.zip4j.util.FileUtils;
+import net.lingala.zip4j.util.RawIO;
+import net.lingala.zip4j.util.Zip4jUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 使用 JDK 的 AES（见 {@link WinZipAes}）加密的 zip4j {@link ZipOutputStream}<br>
+ * zip4j 的加密层不能替换，所以重新实现了条目数据的压缩与加密，文件头、数据描述符与中央目录仍由 zip4j 的
+ * {@link FileHeaderFactory} 与 {@link HeaderWriter} 生成，输出与 zip4j 的格式相同。
+ * 只支持 zip4j 支持的压缩方法（STORE、DEFLATE）与加密方法（AES、ZipCrypto），非分卷压缩
+ *
+ * @since 0.6.2
+ */
+final class JceZipOutputStream extends ZipOutputStream {
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private final CountingOutputStream countingOutputStream;
+    private final char[] password;
+    private final Zip4jConfig zip4jConfig;
+    private final ZipModel zipModel;
+    private final FileHeaderFactory fileHeaderFactory = new FileHeaderFactory();
+    private final HeaderWriter headerWriter = new HeaderWriter();
+    private final RawIO rawIO = new RawIO();
+    private final CRC32 crc32 = new CRC32();
+    private final byte[] buffer;
+    private final byte[] singleByte = new byte[1];
+
+    private FileHeader fileHeader;
+    private LocalFileHeader localFileHeader;
+    private Deflater deflater;
+    private boolean deflate;
+    private WinZipAes aes;
+    private StandardEncrypter standardEncrypter;
+    private long compressedSize;
+    private long uncompressedSize;
+    private boolean entryClosed = true;
+    private boolean streamClosed;
+
+    JceZipOutputStream(OutputStream outputStream, char[] password, Zip4jConfig zip4jConfig, ZipModel zipModel) throws IOException {
+        super(outputStream, password, zip4jConfig, zipModel);
+        this.countingOutputStream = new CountingOutputStream(outputStream);
+        this.password = password;
+        this.zip4jConfig = zip4jConfig;
+        this.zipModel = zipModel == null ? new ZipModel() : zipModel;
+        this.buffer = new byte[zip4jConfig.getBufferSize()];
+    }
+
+    @Override
+    public void putNextEntry(ZipParameters zipParameters) throws IOException {
+        ensureStreamOpen();
+        verifyZipParameters(zipParameters);
+        ZipParameters parameters = cloneAndPrepareZipParameters(zipParameters);
+
+        fileHeader = fileHeaderFactory.generateFileHeader(parameters, false, 0, zip4jConfig.getCharset(), rawIO);
+        fileHeader.setOffsetLocalHeader(countingOutputStream.getOffsetForNextEntry());
+        localFileHeader = fileHeaderFactory.generateLocalFileHeader(fileHeader);
+        headerWriter.writeLocalFileHeader(zipModel, localFileHeader, countingOutputStream, zip4jConfig.getCharset());
+
+        initializeEncrypter(parameters);
+        deflate = parameters.getCompressionMethod() == CompressionMethod.DEFLATE;
+        if (deflate) {
+            if (deflater == null) {
+                deflater = new Deflater(parameters.getCompressionLevel().getLevel(), true);
+            } else {
+                deflater.reset();
+                deflater.setLevel(parameters.getCompressionLevel().getLevel());
+            }
+        }
+        entryClosed = false;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        singleByte[0] = (byte) b;
+        write(singleByte, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureStreamOpen();
+        crc32.update(b, off, len);
+        uncompressedSize += len;
+        if (deflate) {
+            deflater.setInput(b, off, len);
+            while (!deflater.needsInput()) {
+                deflate();
+            }
+        } else {
+            // 加密时不修改调用者的数组
+            while (len > 0) {
+                int n = Math.min(len, buffer.length);
+                System.arraycopy(b, off, buffer, 0, n);
+                writeEncrypted(buffer, n);
+                off += n;
+                len -= n;
+            }
+        }
+    }
+
+    @Override
+    public FileHeader closeEntry() throws IOException {
+        if (deflate) {
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate();
+            }
+        }
+        if (aes != null) {
+            countingOutputStream.write(aes.authenticationCode());
+            compressedSize += WinZipAes.MAC_LENGTH;
+        }
+
+        fileHeader.setCompressedSize(compressedSize);
+        localFileHeader.setCompressedSize(compressedSize);
+        fileHeader.setUncompressedSize(uncompressedSize);
+        localFileHeader.setUncompressedSize(uncompressedSize);
+        if (writeCrc(fileHeader)) {
+            fileHeader.setCrc(crc32.getValue());
+            localFileHeader.setCrc(crc32.getValue());
+        }
+        zipModel.getLocalFileHeaders().add(localFileHeader);
+        zipModel.getCentralDirectory().getFileHeaders().add(fileHeader);
+        if (localFileHeader.isDataDescriptorExists()) {
+            headerWriter.writeExtendedLocalHeader(localFileHeader, countingOutputStream);
+        }
+
+        FileHeader closedFileHeader = fileHeader;
+        reset();
+        entryClosed = true;
+        return closedFileHeader;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (streamClosed) return;
+        try {
+            if (!entryClosed) closeEntry();
+            zipModel.getEndOfCentralDirectoryRecord().setOffsetOfStartOfCentralDirectory(countingOutputStream.getNumberOfBytesWritten());
+            headerWriter.finalizeZipFile(zipModel, countingOutputStream, zip4jConfig.getCharset());
+            countingOutputStream.close();
+        } finally {
+            if (deflater != null) deflater.end();
+            streamClosed = true;
+        }
+    }
+
+    @Override
+    public void setComment(String comment) throws IOException {
+        ensureStreamOpen();
+        zipModel.getEndOfCentralDirectoryRecord().setComment(comment);
+    }
+
+    private void deflate() throws IOException {
+        int n = deflater.deflate(buffer, 0, buffer.length);
+        if (n > 0) writeEncrypted(buffer, n);
+    }
+
+    /**
+     * 加密（原地修改 {@code b}）并写出
+     */
+    private void writeEncrypted(byte[] b, int len) throws IOException {
+        if (aes != null) {
+            aes.crypt(b, 0, b, 0, len);
+            aes.updateMac(b, 0, len);
+        } else if (standardEncrypter != null) {
+            standardEncrypter.encryptData(b, 0, len);
+        }
+        countingOutputStream.write(b, 0, len);
+        compressedSize += len;
+    }
+
+    /**
+     * 初始化加密并写出加密头（AES 为盐值与密码校验值，ZipCrypto 为12个字节的加密头）
+     */
+    private void initializeEncrypter(ZipParameters parameters) throws IOException {
+        if (!parameters.isEncryptFiles()) return;
+        if (password == null || password.length == 0) throw new ZipException("password not set");
+
+        if (parameters.getEncryptionMethod() == EncryptionMethod.AES) {
+            byte[] salt = new byte[parameters.getAesKeyStrength().getSaltLength()];
+            SECURE_RANDOM.nextBytes(salt);
+            try {
+                aes = WinZipAes.of(password, salt, parameters.getAesKeyStrength().getKeyLength());
+            } catch (GeneralSecurityException e) {
+                throw new ZipException(e);
+            }
+            countingOutputStream.write(salt);
+            countingOutputStream.write(aes.getPasswordVerifier());
+            compressedSize += salt.length + WinZipAes.PASSWORD_VERIFIER_LENGTH;
+        } else if (parameters.getEncryptionMethod() == EncryptionMethod.ZIP_STANDARD) {
+            // 与 zip4j 相同：有数据描述符时用修改时间校验，否则用 CRC 校验
+            long key = parameters.isWriteExtendedLocalFileHeader()
+                    ? (Zip4jUtil.epochToExtendedDosTime(parameters.getLastModifiedFileTime()) & 0x0000ffff) << 16
+                    : parameters.getEntryCRC();
+            standardEncrypter = new StandardEncrypter(password, key, zip4jConfig.isUseUtf8CharsetForPasswords());
+            byte[] headerBytes = standardEncrypter.getHeaderBytes();
+            countingOutputStream.write(headerBytes);
+            compressedSize += headerBytes.length;
+        } else {
+            throw new ZipException(parameters.getEncryptionMethod() + " encryption method is not supported");
+        }
+    }
+
+    private void reset() {
+        crc32.reset();
+        compressedSize = 0;
+        uncompressedSize = 0;
+        aes = null;
+        standardEncrypter = null;
+        fileHeader = null;
+        localFileHeader = null;
+    }
+
+    private void ensureStreamOpen() throws IOException {
+        if (streamClosed) throw new IOException("Stream is closed");
+    }
+
+    private static void verifyZipParameters(ZipParameters zipParameters) {
+        if (Zip4jUtil.isStringNullOrEmpty(zipParameters.getFileNameInZip())) {
+            throw new IllegalArgumentException("fileNameInZip is null or empty");
+        }
+        if (zipParameters.getCompressionMethod() == CompressionMethod.STORE && zipParameters.getEntrySize() < 0
+                && !FileUtils.isZipEntryDirectory(zipParameters.getFileNameInZip()) && zipParameters.isWriteExtendedLocalFileHeader()) {
+            throw new IllegalArgumentException("uncompressed size should be set for zip entries of compression type store");
+        }
+    }
+
+    private static ZipParameters cloneAndPrepareZipParameters(ZipParameters zipParameters) {
+        ZipParameters parameters = new ZipParameters(zipParameters);
+        if (FileUtils.isZipEntryDirectory(zipParameters.getFileNameInZip())) {
+            parameters.setWriteExtendedLocalFileHeader(false);
+            parameters.setCompressionMethod(CompressionMethod.STORE);
+            parameters.setEncryptFiles(false);
+            parameters.setEntrySize(0);
+        }
+        if (zipParameters.getLastModifiedFileTime() <= 0) {
+            parameters.setLastModifiedFileTime(System.currentTimeMillis());
+        }
+        return parameters;
+    }
+
+    /**
+     * AE-2 不写 CRC
+     */
+    private static boolean writeCrc(FileHeader fileHeader) {
+        boolean isAesEncrypted = fileHeader.isEncrypted() && fileHeader.getEncryptionMethod() == EncryptionMethod.AES;
+        return !isAesEncrypted || fileHeader.getAesExtraDataRecord().getAesVersion() == AesVersion.ONE;
+    }
+}
@@ -0,0 +1,553 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 并行解压 bzip2 的输入流（lbzip2 方式），解压结果与 {@link BZip2CompressorInputStream} 一致<br>
+ * bzip2 的每个块都以 48 比特的魔数（{@code 0x314159265359}）开头，且块之间没有依赖：
+ * 按比特扫描块魔数切分出各个块，每个块包装成只有一个块的独立 bzip2 流，在线程池中并发解压，按顺序输出。
+ * 每个块的 CRC 由解压器校验，整个流的 CRC（combined CRC）在按顺序输出时校验<br>
+ * 块的数据中偶然出现块魔数时，切分出的两段都无法解压，此时与下一段合并后重新解压<br>
+ * <b>注：</b>
+ * <ul>
+ * <li>同时在解压中或等待输出的块最多为 {@code parallelism * 2} 个，每个块解压后最大约 900KB（重复数据较多时可能更大）
+ * <li>为了切分块，会预先读取输入流，{@code decompressConcatenated} 为假时，第一个 .bz2 流之后的数据也可能已被读取
+ * </ul>
+ *
+ * @since 0.6.2
+ */
+public class ParallelBzip2InputStream extends InputStream {
+    private static final long BLOCK_MAGIC = 0x314159265359L;
+    private static final long EOS_MAGIC = 0x177245385090L;
+    private static final long MAGIC_MASK = 0xFFFFFFFFFFFFL;
+    private static final int MAGIC_BITS = 48;
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final InputStream in;
+    private final int parallelism;
+    private final boolean decompressConcatenated;
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    /**
+     * 已切分的块与流结束标记（按顺序）
+     */
+    private final ArrayDeque<Task> tasks = new ArrayDeque<>();
+    private final byte[] singleByte = new byte[1];
+
+    /**
+     * 还未切分的压缩数据：从 {@code buf} 的第 {@code bitPos} 比特开始，到 {@code buf[bufLen]} 结束
+     */
+    private byte[] buf = new byte[256 * 1024];
+    private int bufLen;
+    private long bitPos;
+    private boolean inEof;
+    private boolean firstStream = true;
+    private boolean expectHeader = true;
+    private boolean finished;
+    /**
+     * 下一段是前一个块的后续数据（偶然出现的流结束魔数之后），而不是从魔数开始
+     */
+    private boolean expectFragment;
+    private int level;
+
+    /**
+     * 当前流已输出的块的 combined CRC
+     */
+    private int combinedCrc;
+    private byte[] out = new byte[0];
+    private int outPos;
+    private boolean closed;
+
+    /**
+     * 构造并行解压的输入流
+     *
+     * @param in                     bzip2 压缩数据，关闭时一并关闭
+     * @param decompressConcatenated 是否一直解压到输入的结尾（多个 .bz2 流拼接，如 pbzip2 的输出）
+     * @param parallelism            并行解压的线程数
+     * @param executor               解压使用的线程池，为{@code null}则创建 {@code parallelism} 个守护线程，关闭流时一并关闭
+     * @throws IOException 不是 bzip2 格式或读取失败
+     */
+    public ParallelBzip2InputStream(InputStream in, boolean decompressConcatenated, int parallelism, ExecutorService executor) throws IOException {
+        checkHasNullNPE(args(in), args("in"));
+        checkArgument(parallelism < 1, "参数`parallelism`必须大于0！");
+
+        this.in = in;
+        this.decompressConcatenated = decompressConcatenated;
+        this.parallelism = parallelism;
+        this.ownExecutor = executor == null;
+        this.executor = executor == null ? newExecutor(parallelism) : executor;
+        try {
+            // 与 BZip2CompressorInputStream 一样，构造时校验流的头部
+            readStreamHeader();
+        } catch (Throwable e) {
+            if (ownExecutor) this.executor.shutdownNow();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(singleByte, 0, 1) == -1 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (len == 0) return 0;
+        while (outPos == out.length) {
+            if (!nextOutput()) return -1;
+        }
+        int n = Math.min(len, out.length - outPos);
+        System.arraycopy(out, outPos, b, off, n);
+        outPos += n;
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return out.length - outPos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        for (Task task : tasks) {
+            if (task.result != null) task.result.cancel(true);
+        }
+        tasks.clear();
+        if (ownExecutor) executor.shutdownNow();
+        in.close();
+    }
+
+    /**
+     * 取出下一个块的解压结果
+     *
+     * @return 没有更多数据时返回{@code false}
+     */
+    private boolean nextOutput() throws IOException {
+        submitTasks();
+        Task task = tasks.poll();
+        if (task == null) return false;
+        if (task.error != null) throw task.error;
+
+        if (task.streamEnd) {
+            // 流结束标记
+            if (task.crc != combinedCrc) throw new IOException("BZip2 CRC error");
+            combinedCrc = 0;
+            out = new byte[0];
+            outPos = 0;
+            return true;
+        }
+        if (task.result == null) {
+            // 前一个块完整解压后，后面仍有数据：流结束之后是无效数据
+            throw new IOException(task.crc == combinedCrc ? "Garbage after a valid BZip2 stream" : "Bad bzip2 block header");
+        }
+
+        byte[] result;
+        try {
+            result = await(task.result);
+        } catch (IOException e) {
+            result = decodeMerged(task, e);
+        }
+        combinedCrc = (combinedCrc << 1 | combinedCrc >>> 31) ^ task.crc;
+        out = result;
+        outPos = 0;
+        submitTasks();
+        return true;
+    }
+
+    /**
+     * 块解压失败时，依次与后面的块合并后重新解压（块的数据中偶然出现了块魔数或流结束魔数）
+     */
+    private byte[] decodeMerged(Task task, IOException error) throws IOException {
+        List<BitSlice> slices = new ArrayList<>();
+        slices.add(task.slice);
+        while (true) {
+            submitTasks();
+            Task next = tasks.peek();
+            if (next == null || next.slice == null) throw error;
+
+            tasks.poll();
+            if (next.result != null) next.result.cancel(true);
+            if (next.streamEnd) {
+                // 不是真正的流结束（见 nextTask），从流结束标记之后继续切分
+                finished = false;
+                expectFragment = true;
+            }
+            slices.add(next.slice);
+            try {
+                return decodeBlock(task.level, slices, task.crc);
+            } catch (IOException e) {
+                // 继续合并下一段
+            }
+        }
+    }
+
+    private void submitTasks() throws IOException {
+        while (tasks.size() < parallelism * 2) {
+            Task task = nextTask();
+            if (task == null) return;
+            tasks.add(task);
+        }
+    }
+
+    /**
+     * 切分下一个块（或流结束标记）
+     *
+     * @return 没有更多数据时返回{@code null}
+     */
+    private Task nextTask() throws IOException {
+        if (finished) return null;
+        try {
+            if (expectHeader && !readStreamHeader()) return null;
+            if (expectFragment) {
+                expectFragment = false;
+                return nextFragment(0, 0);
+            }
+
+            if (!fillBits(MAGIC_BITS)) throw new EOFException("Unexpected end of bzip2 stream");
+            long magic = readBits(bitPos, MAGIC_BITS);
+            if (magic == EOS_MAGIC) {
+                if (!fillBits(MAGIC_BITS + 32)) throw new EOFException("Unexpected end of bzip2 stream");
+                int crc = (int) readBits(bitPos + MAGIC_BITS, 32);
+                // 流结束后按字节对齐
+                long end = (bitPos + MAGIC_BITS + 32 + 7) & ~7L;
+                /*
+                 * 流结束魔数也可能偶然出现在块的数据中。真正的流结束之后是输入的结尾或下一个流的头部；否则：
+                 * 拼接模式下不是流的结尾，作为前一个块的后续数据；非拼接模式下流结束之后的数据会被忽略，无法区分，
+                 * 先作为流的结尾，前一个块解压失败时再与后面的数据合并（见 decodeMerged）
+                 */
+                boolean followedByData = followedByData(end);
+                if (followedByData && decompressConcatenated) return nextFragment(MAGIC_BITS, crc);
+
+                BitSlice slice = followedByData ? copyBits(bitPos, end) : null;
+                bitPos = end;
+                if (decompressConcatenated) {
+                    expectHeader = true;
+                } else {
+                    finished = true;
+                }
+                return Task.streamEnd(crc, slice);
+            }
+            if (magic != BLOCK_MAGIC) throw new IOException("Bad bzip2 block header");
+
+            if (!fillBits(MAGIC_BITS + 32)) throw new EOFException("Unexpected end of bzip2 stream");
+            int blockCrc = (int) readBits(bitPos + MAGIC_BITS, 32);
+            long next = findNextMagic(MAGIC_BITS + 32);
+            BitSlice slice = copyBits(bitPos, next);
+            bitPos = next;
+            int blockLevel = level;
+            Future<byte[]> result = executor.submit(() -> decodeBlock(blockLevel, Collections.singletonList(slice), blockCrc));
+            return Task.block(slice, blockLevel, blockCrc, result);
+        } catch (IOException e) {
+            // 错误在前面的块都输出后再抛出
+            finished = true;
+            return Task.failed(e);
+        }
+    }
+
+    /**
+     * 切分前一个块的后续数据：从当前位置到下一个魔数
+     *
+     * @param scanFrom 相对于当前位置，从哪一比特开始查找魔数
+     * @param crc      偶然出现的流结束魔数之后的 CRC（用于报错）
+     */
+    private Task nextFragment(long scanFrom, int crc) throws IOException {
+        long next = findNextMagic(scanFrom);
+        BitSlice slice = copyBits(bitPos, next);
+        bitPos = next;
+        return Task.fragment(slice, crc);
+    }
+
+    /**
+     * 流结束（字节对齐后）的位置之后是否还有数据，且不是下一个流的头部
+     *
+     * @param end 流结束的比特位置（字节对齐）
+     */
+    private boolean followedByData(long end) throws IOException {
+        fillBits(end - bitPos + 32);
+        long available = (long) bufLen * 8 - end;
+        if (available <= 0) return false;
+        int p = (int) (end >>> 3);
+        return available < 32 || buf[p] != 'B' || buf[p + 1] != 'Z' || buf[p + 2] != 'h' || buf[p + 3] < '1' || buf[p + 3] > '9';
+    }
+
+    /**
+     * 读取流的头部：{@code BZh} + 块大小（'1' ~ '9'）
+     *
+     * @return 没有更多的流时返回{@code false}
+     */
+    private boolean readStreamHeader() throws IOException {
+        fillBits(32);
+        long available = (long) bufLen * 8 - bitPos;
+        if (available <= 0 && !firstStream) {
+            finished = true;
+            return false;
+        }
+        int p = (int) (bitPos >>> 3);
+        boolean isBzip2 = available >= 32 && buf[p] == 'B' && buf[p + 1] == 'Z' && buf[p + 2] == 'h'
+                && buf[p + 3] >= '1' && buf[p + 3] <= '9';
+        if (!isBzip2) {
+            throw new IOException(firstStream ? "Stream is not in the BZip2 format" : "Garbage after a valid BZip2 stream");
+        }
+        level = buf[p + 3] - '0';
+        bitPos += 32;
+        firstStream = false;
+        expectHeader = false;
+        return true;
+    }
+
+    /**
+     * 从当前位置之后查找下一个块魔数或流结束魔数
+     *
+     * @param scanFrom 相对于当前位置，从哪一比特开始查找（如块魔数与块 CRC 之后）
+     * @return 下一个魔数的比特位置；输入结束仍未找到时返回输入结尾的比特位置
+     */
+    private long findNextMagic(long scanFrom) throws IOException {
+        // scanFrom 是相对于 bitPos 的偏移量（fillBits 时数据可能会移动到 buf 的开头）
+        while (true) {
+            long end = (long) bufLen * 8;
+            long p = bitPos + scanFrom;
+            if (p + MAGIC_BITS <= end) {
+                long reg = readBits(p, MAGIC_BITS);
+                while (true) {
+                    if (reg == BLOCK_MAGIC || reg == EOS_MAGIC) return p;
+                    if (p + MAGIC_BITS >= end) break;
+                    long bitIndex = p + MAGIC_BITS;
+                    int bit = (buf[(int) (bitIndex >>> 3)] >>> (7 - (int) (bitIndex & 7))) & 1;
+                    reg = ((reg << 1) | bit) & MAGIC_MASK;
+                    p++;
+                }
+                scanFrom = p + 1 - bitPos;
+            }
+            if (inEof) return end;
+            fillBits(end - bitPos + 256 * 1024 * 8);
+        }
+    }
+
+    /**
+     * 保证从 {@code bitPos} 开始至少有 {@code bits} 比特（输入结束时可能不足）
+     *
+     * @return 是否有足够的比特
+     */
+    private boolean fillBits(long bits) throws IOException {
+        long needBytes = (bitPos + bits + 7) >>> 3;
+        if (needBytes <= bufLen) return true;
+        if (inEof) return false;
+
+        int drop = (int) (bitPos >>> 3);
+        if (drop > 0) {
+            System.arraycopy(buf, drop, buf, 0, bufLen - drop);
+            bufLen -= drop;
+            bitPos -= (long) drop * 8;
+            needBytes -= drop;
+        }
+        if (needBytes > Integer.MAX_VALUE - 8) throw new IOException("bzip2 block is too large");
+        if (buf.length < needBytes) buf = Arrays.copyOf(buf, (int) Math.max(needBytes, Math.min((long) buf.length * 2, Integer.MAX_VALUE - 8)));
+        while (bufLen < needBytes) {
+            int n = in.read(buf, bufLen, buf.length - bufLen);
+            if (n == -1) {
+                inEof = true;
+                return false;
+            }
+            bufLen += n;
+        }
+        return true;
+    }
+
+    /**
+     * 读取 {@code n}（&lt;= 57）比特
+     */
+    private long readBits(long from, int n) {
+        long value = 0;
+        int bitOffset = (int) (from & 7);
+        int p = (int) (from >>> 3);
+        int bytes = (bitOffset + n + 7) >>> 3;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | (buf[p + i] & 0xFF);
+        }
+        return (value >>> (bytes * 8 - bitOffset - n)) & ((1L << n) - 1);
+    }
+
+    private BitSlice copyBits(long from, long to) {
+        long bitLength = to - from;
+        byte[] data = new byte[(int) ((bitLength + 7) >>> 3)];
+        int shift = (int) (from & 7);
+        int p = (int) (from >>> 3);
+        for (int i = 0; i < data.length; i++) {
+            int hi = (buf[p + i] & 0xFF) << shift;
+            int lo = shift == 0 || p + i + 1 >= bufLen ? 0 : (buf[p + i + 1] & 0xFF) >>> (8 - shift);
+            data[i] = (byte) (hi | lo);
+        }
+        return new BitSlice(data, bitLength);
+    }
+
+    private byte[] await(Future<byte[]> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("并行解压 bzip2 时被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("Stream closed");
+    }
+
+    /**
+     * 将块包装成只有一个块的独立 bzip2 流并解压，解压器会校验块的 CRC 以及流的 CRC（即块的 CRC）
+     */
+    static byte[] decodeBlock(int level, List<BitSlice> slices, int blockCrc) throws IOException {
+        BitWriter writer = new BitWriter();
+        writer.write('B', 8);
+        writer.write('Z', 8);
+        writer.write('h', 8);
+        writer.write('0' + level, 8);
+        for (BitSlice slice : slices) {
+            writer.write(slice);
+        }
+        writer.write(EOS_MAGIC >>> 24, 24);
+        writer.write(EOS_MAGIC & 0xFFFFFF, 24);
+        writer.write(blockCrc & 0xFFFFFFFFL, 32);
+
+        try (InputStream is = new BZip2CompressorInputStream(new ByteArrayInputStream(writer.toByteArray()))) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(level * 100000);
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                baos.write(buffer, 0, n);
+            }
+            return baos.toByteArray();
+        } catch (RuntimeException e) {
+            // 数据损坏时，解压器可能抛出运行时异常（如数组越界）
+            throw new IOException("Corrupted bzip2 block", e);
+        }
+    }
+
+    private static ExecutorService newExecutor(int parallelism) {
+        return Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "parallel-bzip2-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 按比特切分出的数据，从 {@code data[0]} 的最高位开始
+     */
+    static class BitSlice {
+        final byte[] data;
+        final long bitLength;
+
+        BitSlice(byte[] data, long bitLength) {
+            this.data = data;
+            this.bitLength = bitLength;
+        }
+    }
+
+    private static class BitWriter {
+        private final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        private long acc;
+        private int accBits;
+
+        void write(long value, int n) {
+            acc = (acc << n) | (value & ((1L << n) - 1));
+            accBits += n;
+            while (accBits >= 8) {
+                accBits -= 8;
+                baos.write((int) (acc >>> accBits));
+            }
+        }
+
+        void write(BitSlice slice) {
+            int fullBytes = (int) (slice.bitLength >>> 3);
+            if (accBits == 0) {
+                baos.write(slice.data, 0, fullBytes);
+            } else {
+                for (int i = 0; i < fullBytes; i++) {
+                    write(slice.data[i] & 0xFF, 8);
+                }
+            }
+            int rest = (int) (slice.bitLength & 7);
+            if (rest > 0) write((slice.data[fullBytes] & 0xFF) >>> (8 - rest), rest);
+        }
+
+        byte[] toByteArray() {
+            if (accBits > 0) {
+                baos.write((int) (acc << (8 - accBits)));
+                accBits = 0;
+            }
+            return baos.toByteArray();
+        }
+    }
+
+    private static class Task {
+        final BitSlice slice;
+        final int level;
+        final int crc;
+        final Future<byte[]> result;
+        final IOException error;
+        final boolean streamEnd;
+
+        private Task(BitSlice slice, int level, int crc, Future<byte[]> result, IOException error, boolean streamEnd) {
+            this.slice = slice;
+            this.level = level;
+            this.crc = crc;
+            this.result = result;
+            this.error = error;
+            this.streamEnd = streamEnd;
+        }
+
+        static Task block(BitSlice slice, int level, int crc, Future<byte[]> result) {
+            return new Task(slice, level, crc, result, null, false);
+        }
+
+        /**
+         * 流结束标记，{@code slice} 不为{@code null}时可能不是真正的流结束，可以作为前一个块的数据合并
+         */
+        static Task streamEnd(int crc, BitSlice slice) {
+            return new Task(slice, 0, crc, null, null, true);
+        }
+
+        /**
+         * 前一个块的后续数据，只用于合并
+         */
+        static Task fragment(BitSlice slice, int crc) {
+            return new Task(slice, 0, crc, null, null, false);
+        }
+
+        static Task failed(IOException error) {
+            return new Task(null, 0, 0, null, error, false);
+        }
+    }
+}
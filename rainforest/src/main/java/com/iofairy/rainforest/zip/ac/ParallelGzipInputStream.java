@@ -0,0 +1,475 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 并行解压多成员（multi-member）gzip 的输入流，解压结果与 {@code GzipCompressorInputStream}（{@code decompressConcatenated = true}）一致<br>
+ * 成员边界的定位方式：
+ * <ul>
+ * <li>BGZF 格式（gzip 头部 extra 字段中有 {@code BC} 子字段）：直接读取块大小，边界是确定的
+ * <li>其他格式（pigz、多个 .gz 文件直接拼接等）：推测扫描下一个 gzip 头部（{@code 1f 8b 08} 以及合法的标志位），
+ * 每一段只有在最后一个成员恰好在下一段的开头结束时才有效
+ * </ul>
+ * 各段在线程池中并发解压，按顺序输出。以下情况退化为顺序解压（从当前位置开始使用 {@code GzipCompressorInputStream}）：
+ * 推测的边界不是真正的成员边界；一段压缩数据超过 {@code maxSegmentSize} 仍没有找到下一个成员（如单成员的大文件）<br>
+ * <b>注：</b>同时在解压中或等待输出的段最多为 {@code parallelism * 2} 个，内存占用约为 {@code parallelism * 2 * (maxSegmentSize + 段解压后的大小)}
+ *
+ * @since 0.6.2
+ */
+public class ParallelGzipInputStream extends InputStream {
+    /**
+     * 默认的段（压缩后）的最大字节数：4MB
+     */
+    public static final int DEFAULT_MAX_SEGMENT_SIZE = 4 * 1024 * 1024;
+    /**
+     * 最小的 gzip 成员：头部（10字节） + 空的 deflate 块（2字节） + 尾部（8字节）
+     */
+    private static final int MIN_MEMBER_SIZE = 20;
+    private static final int HEADER_SIZE = 10;
+    private static final int FHCRC = 0x02;
+    private static final int FEXTRA = 0x04;
+    private static final int FNAME = 0x08;
+    private static final int FCOMMENT = 0x10;
+    private static final int FRESERVED = 0xE0;
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final InputStream in;
+    private final int parallelism;
+    private final int maxSegmentSize;
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final String fileName;
+    /**
+     * 已提交解压的段（按顺序）
+     */
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private final byte[] singleByte = new byte[1];
+
+    /**
+     * 还未分段的压缩数据：{@code buf[bufPos, bufLen)}
+     */
+    private byte[] buf = new byte[64 * 1024];
+    private int bufPos;
+    private int bufLen;
+    private boolean inEof;
+    /**
+     * 剩余的压缩数据需要顺序解压（找不到下一个成员的边界）
+     */
+    private boolean sequentialPending;
+
+    private byte[] out = new byte[0];
+    private int outPos;
+    private InputStream sequential;
+    private boolean closed;
+
+    /**
+     * 构造并行解压的输入流
+     *
+     * @param in              gzip 压缩数据，关闭时一并关闭
+     * @param parallelism     并行解压的线程数
+     * @param executor        解压使用的线程池，为{@code null}则创建 {@code parallelism} 个守护线程，关闭流时一并关闭
+     * @param fileNameCharset 第一个成员中文件名的编码
+     * @throws IOException 不是 gzip 格式或读取失败
+     */
+    public ParallelGzipInputStream(InputStream in, int parallelism, ExecutorService executor, Charset fileNameCharset) throws IOException {
+        this(in, parallelism, executor, fileNameCharset, DEFAULT_MAX_SEGMENT_SIZE);
+    }
+
+    /**
+     * 构造并行解压的输入流
+     *
+     * @param in              gzip 压缩数据，关闭时一并关闭
+     * @param parallelism     并行解压的线程数
+     * @param executor        解压使用的线程池，为{@code null}则创建 {@code parallelism} 个守护线程，关闭流时一并关闭
+     * @param fileNameCharset 第一个成员中文件名的编码
+     * @param maxSegmentSize  段（压缩后）的最大字节数，超过后退化为顺序解压
+     * @throws IOException 不是 gzip 格式或读取失败
+     */
+    public ParallelGzipInputStream(InputStream in, int parallelism, ExecutorService executor, Charset fileNameCharset, int maxSegmentSize) throws IOException {
+        checkHasNullNPE(args(in), args("in"));
+        checkArgument(parallelism < 1, "参数`parallelism`必须大于0！");
+        checkArgument(maxSegmentSize < MIN_MEMBER_SIZE, "参数`maxSegmentSize`不能小于${?}！", MIN_MEMBER_SIZE);
+
+        this.in = in;
+        this.parallelism = parallelism;
+        this.maxSegmentSize = maxSegmentSize;
+        this.ownExecutor = executor == null;
+        this.executor = executor == null ? newExecutor(parallelism) : executor;
+        try {
+            this.fileName = readFirstHeader(fileNameCharset == null ? StandardCharsets.ISO_8859_1 : fileNameCharset);
+        } catch (Throwable e) {
+            if (ownExecutor) this.executor.shutdownNow();
+            throw e;
+        }
+    }
+
+    /**
+     * 第一个成员头部中的文件名
+     *
+     * @return 文件名，没有则返回{@code null}
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(singleByte, 0, 1) == -1 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (len == 0) return 0;
+        while (true) {
+            if (outPos < out.length) {
+                int n = Math.min(len, out.length - outPos);
+                System.arraycopy(out, outPos, b, off, n);
+                outPos += n;
+                return n;
+            }
+            if (sequential != null) return sequential.read(b, off, len);
+            if (!nextOutput()) return -1;
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        if (outPos < out.length) return out.length - outPos;
+        return sequential == null ? 0 : sequential.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        for (Segment segment : segments) {
+            segment.result.cancel(true);
+        }
+        segments.clear();
+        if (ownExecutor) executor.shutdownNow();
+        if (sequential != null) {
+            sequential.close();
+        } else {
+            in.close();
+        }
+    }
+
+    /**
+     * 取出下一段的解压结果
+     *
+     * @return 没有更多数据时返回{@code false}
+     */
+    private boolean nextOutput() throws IOException {
+        submitSegments();
+        Segment segment = segments.poll();
+        if (segment == null) {
+            if (!sequentialPending) return false;
+            startSequential(null);
+            return true;
+        }
+
+        byte[] result = await(segment.result);
+        if (result == null) {
+            // 推测的边界不是真正的成员边界，从这一段开始顺序解压
+            startSequential(segment);
+            return true;
+        }
+        out = result;
+        outPos = 0;
+        submitSegments();
+        return true;
+    }
+
+    private void submitSegments() throws IOException {
+        while (!sequentialPending && segments.size() < parallelism * 2) {
+            byte[] data = nextSegment();
+            if (data == null) return;
+            segments.add(new Segment(data, executor.submit(() -> decodeSegment(data))));
+        }
+    }
+
+    /**
+     * 切分下一段压缩数据
+     *
+     * @return 没有更多数据，或需要顺序解压时返回{@code null}
+     */
+    private byte[] nextSegment() throws IOException {
+        fill(512);
+        if (bufPos == bufLen) return null;
+
+        int blockSize = bgzfBlockSize(buf, bufPos, bufLen);
+        if (blockSize > 0) {
+            fill(blockSize);
+            return takeSegment(Math.min(blockSize, bufLen - bufPos));
+        }
+
+        // 相对于 bufPos 的扫描起点（fill 时数据可能会移动到 buf 的开头）
+        int scanFrom = MIN_MEMBER_SIZE;
+        while (true) {
+            for (int i = bufPos + scanFrom; i + HEADER_SIZE <= bufLen; i++) {
+                if (isMemberHeader(buf, i)) return takeSegment(i - bufPos);
+            }
+            if (inEof) return takeSegment(bufLen - bufPos);
+            if (bufLen - bufPos >= maxSegmentSize) {
+                sequentialPending = true;
+                return null;
+            }
+            scanFrom = Math.max(scanFrom, bufLen - bufPos - HEADER_SIZE + 1);
+            fill(Math.min(maxSegmentSize, bufLen - bufPos + 64 * 1024));
+        }
+    }
+
+    private byte[] takeSegment(int length) {
+        byte[] data = Arrays.copyOfRange(buf, bufPos, bufPos + length);
+        bufPos += length;
+        return data;
+    }
+
+    /**
+     * 保证 {@code buf[bufPos, bufLen)} 至少有 {@code length} 字节（输入结束时可能不足）
+     */
+    private void fill(int length) throws IOException {
+        if (bufLen - bufPos >= length || inEof) return;
+        if (bufPos > 0) {
+            System.arraycopy(buf, bufPos, buf, 0, bufLen - bufPos);
+            bufLen -= bufPos;
+            bufPos = 0;
+        }
+        if (buf.length < length) buf = Arrays.copyOf(buf, Math.max(length, Math.min(buf.length * 2, maxSegmentSize + HEADER_SIZE)));
+        while (bufLen < length) {
+            int n = in.read(buf, bufLen, buf.length - bufLen);
+            if (n == -1) {
+                inEof = true;
+                return;
+            }
+            bufLen += n;
+        }
+    }
+
+    /**
+     * 从 {@code from} 段开始（为{@code null}则从未分段的数据开始）顺序解压剩余的数据
+     */
+    private void startSequential(Segment from) throws IOException {
+        List<InputStream> streams = new ArrayList<>();
+        if (from != null) {
+            streams.add(new ByteArrayInputStream(from.data));
+            for (Segment segment : segments) {
+                segment.result.cancel(true);
+                streams.add(new ByteArrayInputStream(segment.data));
+            }
+            segments.clear();
+        }
+        streams.add(new ByteArrayInputStream(buf, bufPos, bufLen - bufPos));
+        streams.add(in);
+        bufPos = bufLen;
+        sequentialPending = false;
+
+        sequential = GzipCompressorInputStream.builder()
+                .setInputStream(new SequenceInputStream(Collections.enumeration(streams)))
+                .setDecompressConcatenated(true)
+                .get();
+    }
+
+    private String readFirstHeader(Charset fileNameCharset) throws IOException {
+        fill(HEADER_SIZE);
+        if (bufLen - bufPos < 2 || (buf[bufPos] & 0xFF) != 0x1F || (buf[bufPos + 1] & 0xFF) != 0x8B) {
+            throw new IOException("Input is not in the .gz format");
+        }
+        fill(Math.min(maxSegmentSize, 64 * 1024));
+        int flags = bufLen - bufPos > 3 ? buf[bufPos + 3] & 0xFF : 0;
+        if ((flags & FNAME) == 0) return null;
+
+        int pos = bufPos + HEADER_SIZE;
+        if ((flags & FEXTRA) != 0) {
+            if (pos + 2 > bufLen) return null;
+            pos += 2 + ((buf[pos] & 0xFF) | (buf[pos + 1] & 0xFF) << 8);
+        }
+        for (int end = pos; end < bufLen; end++) {
+            if (buf[end] == 0) return new String(buf, pos, end - pos, fileNameCharset);
+        }
+        return null;
+    }
+
+    private byte[] await(Future<byte[]> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("并行解压 gzip 时被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("Stream closed");
+    }
+
+    /**
+     * 解压一段数据中的所有成员
+     *
+     * @return 解压后的数据；最后一个成员不完整（推测的边界不是真正的成员边界）时返回{@code null}
+     */
+    static byte[] decodeSegment(byte[] data) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(Math.max(32, Math.min(data.length, 1024 * 1024) * 2));
+        byte[] buffer = new byte[64 * 1024];
+        CRC32 crc32 = new CRC32();
+        Inflater inflater = new Inflater(true);
+        try {
+            int pos = 0;
+            while (pos < data.length) {
+                int headerLength = headerLength(data, pos);
+                if (headerLength == -1) return null;
+
+                inflater.reset();
+                crc32.reset();
+                inflater.setInput(data, pos + headerLength, data.length - pos - headerLength);
+                long size = 0;
+                while (!inflater.finished()) {
+                    int n = inflater.inflate(buffer);
+                    if (n > 0) {
+                        baos.write(buffer, 0, n);
+                        crc32.update(buffer, 0, n);
+                        size += n;
+                    } else if (inflater.needsInput()) {
+                        return null;
+                    } else if (inflater.needsDictionary()) {
+                        throw new IOException("Gzip-compressed data is corrupt");
+                    }
+                }
+
+                int trailer = data.length - inflater.getRemaining();
+                if (trailer + 8 > data.length) return null;
+                if (readInt(data, trailer) != (int) crc32.getValue()) {
+                    throw new IOException("Gzip-compressed data is corrupt (CRC32 error)");
+                }
+                if (readInt(data, trailer + 4) != (int) size) {
+                    throw new IOException("Gzip-compressed data is corrupt (uncompressed size mismatch)");
+                }
+                pos = trailer + 8;
+            }
+            return baos.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Gzip-compressed data is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * gzip 头部的长度
+     *
+     * @return 数据不足时返回 -1
+     */
+    private static int headerLength(byte[] data, int pos) throws IOException {
+        if (pos + HEADER_SIZE > data.length) return -1;
+        if ((data[pos] & 0xFF) != 0x1F || (data[pos + 1] & 0xFF) != 0x8B) {
+            throw new IOException(pos == 0 ? "Input is not in the .gz format" : "Trailing garbage after a valid .gz stream");
+        }
+        if (data[pos + 2] != 8) throw new IOException("Unsupported compression method " + (data[pos + 2] & 0xFF) + " in the .gz header");
+
+        int flags = data[pos + 3] & 0xFF;
+        if ((flags & FRESERVED) != 0) throw new IOException("Reserved flags are set in the .gz header");
+        int p = pos + HEADER_SIZE;
+        if ((flags & FEXTRA) != 0) {
+            if (p + 2 > data.length) return -1;
+            p += 2 + ((data[p] & 0xFF) | (data[p + 1] & 0xFF) << 8);
+        }
+        if ((flags & FNAME) != 0) p = skipZeroTerminated(data, p);
+        if (p != -1 && (flags & FCOMMENT) != 0) p = skipZeroTerminated(data, p);
+        if (p != -1 && (flags & FHCRC) != 0) p += 2;
+        return p == -1 || p > data.length ? -1 : p - pos;
+    }
+
+    private static int skipZeroTerminated(byte[] data, int pos) {
+        for (int i = pos; i < data.length; i++) {
+            if (data[i] == 0) return i + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * 是否像一个 gzip 成员的头部：魔数、压缩方法、保留标志位为0、XFL 与 OS 合法
+     */
+    private static boolean isMemberHeader(byte[] data, int pos) {
+        if (data[pos] != 0x1F || (data[pos + 1] & 0xFF) != 0x8B || data[pos + 2] != 8) return false;
+        if ((data[pos + 3] & FRESERVED) != 0) return false;
+        int xfl = data[pos + 8] & 0xFF;
+        int os = data[pos + 9] & 0xFF;
+        return (xfl == 0 || xfl == 2 || xfl == 4) && (os <= 13 || os == 255);
+    }
+
+    /**
+     * BGZF 块的大小（extra 字段中的 {@code BC} 子字段）
+     *
+     * @return 不是 BGZF 块时返回 -1
+     */
+    static int bgzfBlockSize(byte[] data, int pos, int limit) {
+        if (pos + HEADER_SIZE + 2 > limit || !isMemberHeader(data, pos) || (data[pos + 3] & FEXTRA) == 0) return -1;
+        int xlen = (data[pos + 10] & 0xFF) | (data[pos + 11] & 0xFF) << 8;
+        int p = pos + 12;
+        int end = Math.min(limit, p + xlen);
+        while (p + 4 <= end) {
+            int subfieldLength = (data[p + 2] & 0xFF) | (data[p + 3] & 0xFF) << 8;
+            if (data[p] == 'B' && data[p + 1] == 'C' && subfieldLength == 2 && p + 6 <= end) {
+                return ((data[p + 4] & 0xFF) | (data[p + 5] & 0xFF) << 8) + 1;
+            }
+            p += 4 + subfieldLength;
+        }
+        return -1;
+    }
+
+    private static int readInt(byte[] data, int pos) {
+        return (data[pos] & 0xFF) | (data[pos + 1] & 0xFF) << 8 | (data[pos + 2] & 0xFF) << 16 | (data[pos + 3] & 0xFF) << 24;
+    }
+
+    private static ExecutorService newExecutor(int parallelism) {
+        return Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "parallel-gzip-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static class Segment {
+        final byte[] data;
+        final Future<byte[]> result;
+
+        Segment(byte[] data, Future<byte[]> result) {
+            this.data = data;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import com.iofairy.tcf.Close;
+import org.tukaani.xz.SeekableXZInputStream;
+
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 并行解压多块（multi-block）xz 的输入流，解压结果与 {@code XZInputStream} 一致<br>
+ * 根据 xz 索引（见 {@link XzSeekableChannel}）把连续的块合并成段（解压后不超过 {@code maxSegmentSize}，至少一个块），
+ * 各段在线程池中使用各自的解压流并发解压，按顺序输出。解压流在段之间复用，不需要重复读取索引<br>
+ * <b>注：</b>同时在解压中或等待输出的段最多为 {@code parallelism * 2} 个；每个解压流都有自己的 LZMA2 字典，
+ * 内存占用约为 {@code parallelism * (字典大小 + 2 * 段解压后的大小)}
+ *
+ * @since 0.6.2
+ */
+public class ParallelXzInputStream extends InputStream {
+    /**
+     * 默认的段（解压后）的最大字节数：4MB
+     */
+    public static final int DEFAULT_MAX_SEGMENT_SIZE = 4 * 1024 * 1024;
+    /**
+     * 一个段解压后的最大字节数（数组的最大长度）
+     */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final XzSeekableChannel channel;
+    private final int parallelism;
+    private final int maxSegmentSize;
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    /**
+     * 空闲的解压流，同一时间只被一个任务使用
+     */
+    private final ConcurrentLinkedQueue<SeekableXZInputStream> decoders = new ConcurrentLinkedQueue<>();
+    /**
+     * 已提交解压的段（按顺序）
+     */
+    private final ArrayDeque<Future<byte[]>> segments = new ArrayDeque<>();
+    private final byte[] singleByte = new byte[1];
+
+    /**
+     * 下一个需要提交解压的块
+     */
+    private int nextBlock;
+    private byte[] out = new byte[0];
+    private int outPos;
+    private volatile boolean closed;
+
+    /**
+     * 构造并行解压的输入流
+     *
+     * @param channel     多块的 xz 压缩数据，关闭时一并关闭
+     * @param parallelism 并行解压的线程数
+     * @param executor    解压使用的线程池，为{@code null}则创建 {@code parallelism} 个守护线程，关闭流时一并关闭
+     */
+    public ParallelXzInputStream(XzSeekableChannel channel, int parallelism, ExecutorService executor) {
+        this(channel, parallelism, executor, DEFAULT_MAX_SEGMENT_SIZE);
+    }
+
+    /**
+     * 构造并行解压的输入流
+     *
+     * @param channel        多块的 xz 压缩数据，关闭时一并关闭
+     * @param parallelism    并行解压的线程数
+     * @param executor       解压使用的线程池，为{@code null}则创建 {@code parallelism} 个守护线程，关闭流时一并关闭
+     * @param maxSegmentSize 段（解压后）的最大字节数，块本身超过此大小时一个块为一段
+     */
+    public ParallelXzInputStream(XzSeekableChannel channel, int parallelism, ExecutorService executor, int maxSegmentSize) {
+        checkHasNullNPE(args(channel), args("channel"));
+        checkArgument(parallelism < 1, "参数`parallelism`必须大于0！");
+        checkArgument(maxSegmentSize < 1, "参数`maxSegmentSize`必须大于0！");
+
+        this.channel = channel;
+        this.parallelism = parallelism;
+        this.maxSegmentSize = maxSegmentSize;
+        this.ownExecutor = executor == null;
+        this.executor = executor == null ? newExecutor(parallelism) : executor;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(singleByte, 0, 1) == -1 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (len == 0) return 0;
+        while (outPos == out.length) {
+            if (!nextOutput()) return -1;
+        }
+        int n = Math.min(len, out.length - outPos);
+        System.arraycopy(out, outPos, b, off, n);
+        outPos += n;
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return out.length - outPos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        for (Future<byte[]> segment : segments) {
+            segment.cancel(true);
+        }
+        segments.clear();
+        if (ownExecutor) executor.shutdownNow();
+        SeekableXZInputStream decoder;
+        while ((decoder = decoders.poll()) != null) {
+            Close.close(decoder);
+        }
+        channel.close();
+    }
+
+    /**
+     * 取出下一段的解压结果
+     *
+     * @return 没有更多数据时返回{@code false}
+     */
+    private boolean nextOutput() throws IOException {
+        submitSegments();
+        Future<byte[]> segment = segments.poll();
+        if (segment == null) return false;
+
+        out = await(segment);
+        outPos = 0;
+        submitSegments();
+        return true;
+    }
+
+    private void submitSegments() throws IOException {
+        int blockCount = channel.blockCount();
+        while (segments.size() < parallelism * 2 && nextBlock < blockCount) {
+            int firstBlock = nextBlock;
+            long size = channel.blockSize(nextBlock++);
+            while (nextBlock < blockCount && size + channel.blockSize(nextBlock) <= maxSegmentSize) {
+                size += channel.blockSize(nextBlock++);
+            }
+            if (size > MAX_ARRAY_SIZE) throw new IOException("xz 块解压后的大小为 " + size + " 字节，超过了并行解压的上限！");
+
+            long pos = channel.blockPos(firstBlock);
+            int length = (int) size;
+            segments.add(executor.submit(() -> decodeSegment(pos, length)));
+        }
+    }
+
+    /**
+     * 从解压数据的 {@code pos} 处（块的开头）开始解压 {@code length} 字节
+     */
+    private byte[] decodeSegment(long pos, int length) throws IOException {
+        SeekableXZInputStream decoder = decoders.poll();
+        if (decoder == null) decoder = channel.newDecoder();
+        boolean reusable = false;
+        try {
+            decoder.seek(pos);
+            byte[] data = new byte[length];
+            int off = 0;
+            while (off < length) {
+                int n = decoder.read(data, off, length - off);
+                if (n == -1) throw new EOFException("xz 压缩数据与索引不一致！");
+                off += n;
+            }
+            reusable = true;
+            return data;
+        } finally {
+            if (reusable && !closed) {
+                decoders.add(decoder);
+            } else {
+                Close.close(decoder);
+            }
+        }
+    }
+
+    private byte[] await(Future<byte[]> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("并行解压 xz 时被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("Stream closed");
+    }
+
+    private static ExecutorService newExecutor(int parallelism) {
+        return Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "parallel-xz-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,419 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import com.iofairy.lambda.PT1;
+import com.iofairy.rainforest.zip.base.ArchiveSource;
+import com.iofairy.rainforest.zip.config.PasswordCandidates;
+import com.iofairy.rainforest.zip.config.PasswordProvider;
+import com.iofairy.rainforest.zip.config.ZipPassword;
+import com.iofairy.top.S;
+import com.iofairy.tuple.Tuple;
+import com.iofairy.tuple.Tuple2;
+import org.apache.commons.compress.PasswordRequiredException;
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.apache.commons.compress.archivers.sevenz.SevenZFile;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 候选密码校验（见 {@link PasswordCandidates}）：只用加密头校验密码，不完整解密文件
+ *
+ * @since 0.6.2
+ */
+final class PasswordTrial {
+    /**
+     * 查找加密的本地文件头时，最多预读的字节数
+     */
+    private static final int MAX_PEEK_SIZE = 1024 * 1024;
+    /**
+     * 最多校验的加密文件头数（ZipCrypto 每个文件头只有1个字节的校验值，多个文件头一起校验降低误判）
+     */
+    private static final int MAX_HEADERS = 8;
+    /**
+     * 7z 头部未加密时，校验候选密码最多解码的字节数（文件不超过此大小时完整解码并校验CRC）
+     */
+    private static final int SEVEN_Z_VERIFY_SIZE = 64 * 1024;
+
+    private static final int LOCAL_FILE_HEADER_SIG = 0x04034b50;
+    private static final int AES_METHOD = 99;
+    private static final int AES_EXTRA_FIELD_ID = 0x9901;
+    private static final int ZIP_CRYPTO_HEADER_SIZE = 12;
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i;
+            for (int j = 0; j < 8; j++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0xEDB88320 : crc >>> 1;
+            }
+            CRC_TABLE[i] = crc;
+        }
+    }
+
+    private PasswordTrial() {
+    }
+
+    /**
+     * 获取 ZIP 压缩包的密码：{@code provider} 获取不到密码，或密码不正确时，从 {@code candidates} 中查找
+     *
+     * @return {@code (后续应该读取的输入流, 密码)}，预读的数据在返回的输入流中
+     */
+    static Tuple2<InputStream, char[]> zip(InputStream is, String zipFileName, PasswordProvider provider, PasswordCandidates candidates) throws Exception {
+        char[] password = provider.getPassword(zipFileName);
+        if (candidates == null || candidates.getPasswords().isEmpty()) return Tuple.of(is, password);
+
+        ZipHeaders headers = ZipHeaders.read(is);
+        InputStream zipIs = new SequenceInputStream(new ByteArrayInputStream(headers.prefix, 0, headers.length), is);
+        // 未找到加密的文件头（未加密或无法解析），按原方式处理
+        if (headers.isEmpty() || (password != null && headers.verify(password))) return Tuple.of(zipIs, password);
+
+        char[] found = find(candidates, headers::verify);
+        if (found == null) return Tuple.of(zipIs, password);
+        remember(provider, candidates, zipFileName, found);
+        return Tuple.of(zipIs, found);
+    }
+
+    /**
+     * 获取 7z 压缩包的密码：{@code provider} 获取不到密码（或头部加密且密码不正确）时，从 {@code candidates} 中查找。<br>
+     * 只读取头部判断是否加密：{@code provider} 的密码不解码文件数据，头部加密时能解码头部即可，否则直接使用
+     *
+     * @param source 7z 压缩包的数据源（可以随机读取）
+     * @return 密码
+     */
+    static char[] sevenZ(ArchiveSource source, String zipFileName, PasswordProvider provider, PasswordCandidates candidates) throws Exception {
+        char[] password = provider.getPassword(zipFileName);
+        if (candidates == null || candidates.getPasswords().isEmpty()) return password;
+
+        SevenZEncryption encryption = SevenZEncryption.read(source);
+        // 未加密或无法解析，按原方式处理
+        if (encryption == null) return password;
+        if (password != null && (!encryption.headerEncrypted || encryption.verify(source, password))) return password;
+
+        char[] found = find(candidates, candidate -> encryption.verify(source, candidate));
+        if (found == null) return password;
+        remember(provider, candidates, zipFileName, found);
+        return found;
+    }
+
+    /**
+     * 按顺序查找第一个通过校验的候选密码，并行校验时结果与顺序校验相同
+     */
+    private static char[] find(PasswordCandidates candidates, PT1<char[], Exception> verifier) {
+        List<char[]> passwords = candidates.getPasswords();
+        int parallelism = Math.min(candidates.getParallelism(), passwords.size());
+        if (parallelism <= 1) {
+            for (char[] password : passwords) {
+                if (test(verifier, password)) return password;
+            }
+            return null;
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger found = new AtomicInteger(Integer.MAX_VALUE);
+        CompletableFuture<?>[] futures = new CompletableFuture[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            futures[i] = SuperACs.supplyAsync(() -> {
+                int index;
+                // 已找到更靠前的密码时，不再校验后面的
+                while ((index = next.getAndIncrement()) < passwords.size() && index < found.get()) {
+                    if (test(verifier, passwords.get(index))) found.accumulateAndGet(index, Math::min);
+                }
+                return null;
+            }, candidates.getExecutor());
+        }
+        CompletableFuture.allOf(futures).join();
+        int index = found.get();
+        return index == Integer.MAX_VALUE ? null : passwords.get(index);
+    }
+
+    private static boolean test(PT1<char[], Exception> verifier, char[] password) {
+        try {
+            return verifier.$(password);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void remember(PasswordProvider provider, PasswordCandidates candidates, String zipFileName, char[] password) throws Exception {
+        if (!candidates.isRemember() || S.isEmpty(zipFileName)) return;
+
+        if (candidates.getNamePattern() == null) {
+            // 压缩包的文件名可能含有 * 或 ?，按原样匹配，不能作为通配符
+            ZipPassword existing = provider.getZipPasswordMap().get(zipFileName);
+            // 同名的通配符规则还匹配其他文件，不覆盖
+            if (existing != null && !existing.isExact() && (zipFileName.contains("*") || zipFileName.contains("?"))) return;
+            provider.addPassword(ZipPassword.ofExact(zipFileName, new String(password)));
+            return;
+        }
+
+        String name = candidates.getNamePattern().$(zipFileName);
+        if (S.isEmpty(name)) return;
+        try {
+            provider.addPassword(ZipPassword.of(name, new String(password)));
+        } catch (PatternSyntaxException e) {
+            // 文件名无法转换为 ZipPassword 的匹配规则，不记住
+        }
+    }
+
+    /**
+     * 7z 压缩包的加密方式（只读取头部及文件的第一个字节，不带密码读取）
+     */
+    private static final class SevenZEncryption {
+        /**
+         * 头部是否加密（打开压缩包需要密码）
+         */
+        final boolean headerEncrypted;
+        /**
+         * 头部未加密时，第一个加密的文件的序号（也是其所在 folder 的第一个文件，解码时不需要先解码其他文件）
+         */
+        final int entryIndex;
+
+        private SevenZEncryption(boolean headerEncrypted, int entryIndex) {
+            this.headerEncrypted = headerEncrypted;
+            this.entryIndex = entryIndex;
+        }
+
+        /**
+         * @return 未加密或无法解析时返回{@code null}
+         */
+        static SevenZEncryption read(ArchiveSource source) {
+            try (SevenZFile sevenZFile = SevenZFile.builder().setSeekableByteChannel(source.openChannel()).get()) {
+                int index = 0;
+                for (SevenZArchiveEntry entry : sevenZFile.getEntries()) {
+                    if (entry.hasStream() && isEncrypted(sevenZFile, entry)) return new SevenZEncryption(false, index);
+                    index++;
+                }
+                return null;
+            } catch (PasswordRequiredException e) {
+                return new SevenZEncryption(true, -1);
+            } catch (IOException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        /**
+         * 头部加密时，能打开压缩包（解码头部）即密码正确；否则解码第一个加密的文件的开头部分（小文件则全部解码并校验CRC）
+         */
+        boolean verify(ArchiveSource source, char[] password) {
+            try (SevenZFile sevenZFile = SevenZFile.builder().setSeekableByteChannel(source.openChannel()).setPassword(password).get()) {
+                if (headerEncrypted) return true;
+
+                Iterator<SevenZArchiveEntry> entries = sevenZFile.getEntries().iterator();
+                for (int i = 0; i < entryIndex; i++) {
+                    entries.next();
+                }
+                try (InputStream in = sevenZFile.getInputStream(entries.next())) {
+                    byte[] buffer = new byte[8192];
+                    int total = 0;
+                    int n;
+                    while (total < SEVEN_Z_VERIFY_SIZE && (n = in.read(buffer)) != -1) {
+                        total += n;
+                    }
+                }
+                return true;
+            } catch (IOException | RuntimeException e) {
+                return false;
+            }
+        }
+
+        /**
+         * 不带密码读取文件的第一个字节（{@link SevenZArchiveEntry#getContentMethods()} 在构建输入流后才有值，故直接尝试读取）
+         */
+        private static boolean isEncrypted(SevenZFile sevenZFile, SevenZArchiveEntry entry) throws IOException {
+            try (InputStream in = sevenZFile.getInputStream(entry)) {
+                in.read();
+                return false;
+            } catch (PasswordRequiredException e) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 预读的 ZIP 本地文件头中，加密文件的校验信息
+     */
+    private static final class ZipHeaders {
+        byte[] prefix = new byte[8192];
+        int length;
+        final List<ZipCryptoHeader> zipCryptoHeaders = new ArrayList<>();
+        final List<AesHeader> aesHeaders = new ArrayList<>();
+        private InputStream in;
+
+        static ZipHeaders read(InputStream in) throws IOException {
+            ZipHeaders headers = new ZipHeaders();
+            headers.in = in;
+            headers.parse();
+            headers.in = null;
+            return headers;
+        }
+
+        private void parse() throws IOException {
+            long pos = 0;
+            while (zipCryptoHeaders.size() + aesHeaders.size() < MAX_HEADERS) {
+                if (!ensure(pos + 30) || int32(pos) != LOCAL_FILE_HEADER_SIG) return;
+                int flags = uint16(pos + 6);
+                int method = uint16(pos + 8);
+                int time = uint16(pos + 10);
+                long crc = int32(pos + 14) & 0xFFFFFFFFL;
+                long compressedSize = int32(pos + 18) & 0xFFFFFFFFL;
+                int nameLength = uint16(pos + 26);
+                int extraLength = uint16(pos + 28);
+                long extraPos = pos + 30 + nameLength;
+                long dataPos = extraPos + extraLength;
+                if (!ensure(dataPos)) return;
+
+                if ((flags & 1) != 0) {
+                    if (method == AES_METHOD) {
+                        int strength = aesStrength(extraPos, dataPos);
+                        if (strength < 1 || strength > 3) return;
+                        int saltLength = 4 + 4 * strength;
+                        if (!ensure(dataPos + saltLength + 2)) return;
+                        aesHeaders.add(new AesHeader(slice(dataPos, saltLength), slice(dataPos + saltLength, 2), 8 + 8 * strength));
+                    } else {
+                        if (!ensure(dataPos + ZIP_CRYPTO_HEADER_SIZE)) return;
+                        zipCryptoHeaders.add(new ZipCryptoHeader(slice(dataPos, ZIP_CRYPTO_HEADER_SIZE), (int) (crc >>> 24), time >>> 8));
+                    }
+                }
+                // 使用数据描述符或 zip64 时，本地文件头中没有压缩后的大小，无法定位下一个文件头
+                if ((flags & 8) != 0 || compressedSize == 0xFFFFFFFFL) return;
+                pos = dataPos + compressedSize;
+            }
+        }
+
+        private int aesStrength(long from, long to) {
+            long pos = from;
+            while (pos + 4 <= to) {
+                int id = uint16(pos);
+                int size = uint16(pos + 2);
+                if (id == AES_EXTRA_FIELD_ID && size >= 7) return prefix[(int) pos + 8] & 0xFF;
+                pos += 4 + size;
+            }
+            return -1;
+        }
+
+        /**
+         * 预读到至少 {@code size} 个字节
+         */
+        private boolean ensure(long size) throws IOException {
+            if (size > MAX_PEEK_SIZE) return false;
+            while (length < size) {
+                if (prefix.length < size) prefix = Arrays.copyOf(prefix, (int) Math.min(MAX_PEEK_SIZE, Math.max(size, prefix.length * 2L)));
+                int n = in.read(prefix, length, prefix.length - length);
+                if (n < 0) return false;
+                length += n;
+            }
+            return true;
+        }
+
+        private int uint16(long pos) {
+            return (prefix[(int) pos] & 0xFF) | (prefix[(int) pos + 1] & 0xFF) << 8;
+        }
+
+        private int int32(long pos) {
+            return uint16(pos) | uint16(pos + 2) << 16;
+        }
+
+        private byte[] slice(long pos, int size) {
+            return Arrays.copyOfRange(prefix, (int) pos, (int) pos + size);
+        }
+
+        boolean isEmpty() {
+            return zipCryptoHeaders.isEmpty() && aesHeaders.isEmpty();
+        }
+
+        boolean verify(char[] password) throws Exception {
+            if (!zipCryptoHeaders.isEmpty()) {
+                byte[] passwordBytes = new String(password).getBytes(StandardCharsets.UTF_8);
+                for (ZipCryptoHeader header : zipCryptoHeaders) {
+                    if (!header.verify(passwordBytes)) return false;
+                }
+            }
+            for (AesHeader header : aesHeaders) {
+                if (!header.verify(password)) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * ZipCrypto 加密头：12个字节，解密后最后一个字节为校验值（CRC 或修改时间的高位字节）
+     */
+    private static final class ZipCryptoHeader {
+        final byte[] header;
+        final int crcCheck;
+        final int timeCheck;
+
+        ZipCryptoHeader(byte[] header, int crcCheck, int timeCheck) {
+            this.header = header;
+            this.crcCheck = crcCheck;
+            this.timeCheck = timeCheck;
+        }
+
+        boolean verify(byte[] password) {
+            int[] keys = {0x12345678, 0x23456789, 0x34567890};
+            for (byte b : password) {
+                updateKeys(keys, b);
+            }
+            int plain = 0;
+            for (byte b : header) {
+                int temp = keys[2] | 2;
+                plain = (b ^ (temp * (temp ^ 1)) >>> 8) & 0xFF;
+                updateKeys(keys, (byte) plain);
+            }
+            // 与 zip4j 相同，两个校验值任意一个匹配即可
+            return plain == crcCheck || plain == timeCheck;
+        }
+
+        private static void updateKeys(int[] keys, byte b) {
+            keys[0] = crc32(keys[0], b);
+            keys[1] = (keys[1] + (keys[0] & 0xFF)) * 134775813 + 1;
+            keys[2] = crc32(keys[2], (byte) (keys[1] >>> 24));
+        }
+
+        private static int crc32(int crc, byte b) {
+            return CRC_TABLE[(crc ^ b) & 0xFF] ^ (crc >>> 8);
+        }
+    }
+
+    /**
+     * WinZip AES 加密头：盐值之后的2个字节为密码校验值，由 PBKDF2-HMAC-SHA1 派生的密钥的最后2个字节
+     */
+    private static final class AesHeader {
+        final byte[] salt;
+        final byte[] verifier;
+        final int keyLength;
+
+        AesHeader(byte[] salt, byte[] verifier, int keyLength) {
+            this.salt = salt;
+            this.verifier = verifier;
+            this.keyLength = keyLength;
+        }
+
+        boolean verify(char[] password) throws Exception {
+            byte[] derived = WinZipAes.deriveKey(password, salt, keyLength);
+            return derived[derived.length - 2] == verifier[0] && derived[derived.length - 1] == verifier[1];
+        }
+    }
+}
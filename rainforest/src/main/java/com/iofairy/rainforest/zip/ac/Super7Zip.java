@@ -23,6 +23,7 @@ import com.iofairy.lambda.*;
 import com.iofairy.rainforest.zip.attr.SevenZipInputProperty;
 import com.iofairy.rainforest.zip.attr.SevenZipOutputProperty;
 import com.iofairy.rainforest.zip.base.*;
+import com.iofairy.rainforest.zip.config.PasswordCandidates;
 import com.iofairy.rainforest.zip.config.PasswordProvider;
 import com.iofairy.tcf.Close;
 import com.iofairy.top.O;
@@ -35,6 +36,7 @@ import org.apache.commons.compress.archivers.sevenz.SevenZFile;
 import org.apache.commons.compress.archivers.sevenz.SevenZOutputFile;
 
 import java.io.*;
+import java.nio.channels.SeekableByteChannel;
 import java.util.*;
 
 import static com.iofairy.validator.Preconditions.*;
@@ -53,6 +55,12 @@ public class Super7Zip extends SuperACs {
     private SevenZipOutputProperty reZipOutputProperty = SevenZipOutputProperty.of();
     private PasswordProvider unzipPasswordProvider = PasswordProvider.of();
     private PasswordProvider reZipPasswordProvider = PasswordProvider.of();
+    /**
+     * 候选密码，{@link PasswordProvider} 获取不到密码或密码不正确时使用
+     *
+     * @since 0.6.2
+     */
+    private PasswordCandidates passwordCandidates;
 
     public Super7Zip(SevenZipInputProperty unzipInputProperty, SevenZipInputProperty reZipInputProperty,
                      SevenZipOutputProperty reZipOutputProperty, PasswordProvider unzipPasswordProvider,
@@ -99,6 +107,11 @@ public class Super7Zip extends SuperACs {
         return this;
     }
 
+    public Super7Zip setPasswordCandidates(PasswordCandidates passwordCandidates) {
+        this.passwordCandidates = passwordCandidates;
+        return this;
+    }
+
 
     @Override
     public ArchiveFormat format() {
@@ -145,6 +158,34 @@ public class Super7Zip extends SuperACs {
                              ZipLogLevel zipLogLevel,
                              Map<ArchiveFormat, SuperAC> superACs,
                              String unzipId
+    ) throws Exception {
+        try {
+            return unzip(ArchiveSource.of(is), parentZipName, zipFileName, unzipTimes, unzipLevel, unzipFilter, otherFilter,
+                    beforeUnzipFilter, beforeUnzipAction, otherAction, zipLogLevel, superACs, unzipId);
+        } finally {
+            Close.close(is);
+        }
+    }
+
+    /**
+     * 直接在可以随机读取的数据源（文件、内存）上读取压缩包，不再复制整个压缩包；输入流数据源则先读入内存
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> List<R> unzip(ArchiveSource source,
+                             String parentZipName,
+                             String zipFileName,
+                             final int unzipTimes,
+                             final int unzipLevel,
+                             PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                             PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                             PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                             RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                             RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                             ZipLogLevel zipLogLevel,
+                             Map<ArchiveFormat, SuperAC> superACs,
+                             String unzipId
     ) throws Exception {
         if (zipFileName == null) zipFileName = "";
 
@@ -153,17 +194,18 @@ public class Super7Zip extends SuperACs {
         final String logSource = getClass().getSimpleName() + ".unzip()";
         // <<< 打印日志参数
 
-        // 按文件名获取密码
-        char[] password = unzipPasswordProvider.getPassword(zipFileName);
-
         final ArrayList<R> rs = new ArrayList<>();
 
-        MemoryHugeBytesChannel channel = null;
+        SeekableByteChannel channel = null;
         SevenZFile zipis = null;
         try {
             if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
 
-            channel = new MemoryHugeBytesChannel(IOs.readBytes(is, false));
+            // 可以随机读取的数据源（文件、内存）直接读取，否则先读入内存
+            ArchiveSource seekableSource = source.isSeekable() ? source : ArchiveSource.of(IOs.readBytes(source.openStream(), false));
+            // 按文件名获取密码，不正确时校验候选密码
+            char[] password = PasswordTrial.sevenZ(seekableSource, zipFileName, unzipPasswordProvider, passwordCandidates);
+            channel = seekableSource.openChannel();
             zipis = reZipInputProperty.getSevenZFileBuilder().setSeekableByteChannel(channel).setPassword(password).get();
 
             final int newUnzipTimes = unzipTimes + 1;
@@ -182,7 +224,6 @@ public class Super7Zip extends SuperACs {
         } finally {
             Close.close(zipis);
             Close.close(channel);
-            Close.close(is);
         }
         return rs;
     }
@@ -230,6 +271,30 @@ public class Super7Zip extends SuperACs {
                                  Map<ArchiveFormat, SuperAC> superACs,
                                  Set<AutoCloseable> closeables,
                                  String unzipId
+    ) throws Exception {
+        closeables.add(is);
+        return unzipFast(ArchiveSource.of(is), parentZipName, zipFileName, unzipTimes, unzipLevel, unzipFilter, otherFilter, otherAction,
+                zipLogLevel, superACs, closeables, unzipId);
+    }
+
+    /**
+     * 直接在可以随机读取的数据源（文件、内存）上读取压缩包，不再复制整个压缩包；输入流数据源则先读入内存
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> List<R> unzipFast(ArchiveSource source,
+                                 String parentZipName,
+                                 String zipFileName,
+                                 int unzipTimes,
+                                 int unzipLevel,
+                                 PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                 PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                 RT5<InputStream, ? super Integer, ? super String, ? super String, ? super Set<AutoCloseable>, ? extends R, Exception> otherAction,
+                                 ZipLogLevel zipLogLevel,
+                                 Map<ArchiveFormat, SuperAC> superACs,
+                                 Set<AutoCloseable> closeables,
+                                 String unzipId
     ) throws Exception {
         if (zipFileName == null) zipFileName = "";
 
@@ -238,17 +303,18 @@ public class Super7Zip extends SuperACs {
         final String logSource = getClass().getSimpleName() + ".unzipFast()";
         // <<< 打印日志参数
 
-        // 按文件名获取密码
-        char[] password = unzipPasswordProvider.getPassword(zipFileName);
-
         final ArrayList<R> rs = new ArrayList<>();
 
-        MemoryHugeBytesChannel channel = null;
+        SeekableByteChannel channel = null;
         SevenZFile zipis = null;
         try {
             if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
 
-            channel = new MemoryHugeBytesChannel(IOs.readBytes(is, false));
+            // 可以随机读取的数据源（文件、内存）直接读取，否则先读入内存
+            ArchiveSource seekableSource = source.isSeekable() ? source : ArchiveSource.of(IOs.readBytes(source.openStream(), false));
+            // 按文件名获取密码，不正确时校验候选密码
+            char[] password = PasswordTrial.sevenZ(seekableSource, zipFileName, unzipPasswordProvider, passwordCandidates);
+            channel = seekableSource.openChannel();
             zipis = reZipInputProperty.getSevenZFileBuilder().setSeekableByteChannel(channel).setPassword(password).get();
 
             final int newUnzipTimes = unzipTimes + 1;
@@ -267,7 +333,6 @@ public class Super7Zip extends SuperACs {
         } finally {
             closeables.add(zipis);
             closeables.add(channel);
-            closeables.add(is);
         }
         return rs;
     }
@@ -328,6 +393,42 @@ public class Super7Zip extends SuperACs {
                                   ZipLogLevel zipLogLevel,
                                   Map<ArchiveFormat, SuperAC> superACs,
                                   String unzipId
+    ) throws Exception {
+        try {
+            return reZip(ArchiveSource.of(is), parentZipName, zipFileName, unzipTimes, unzipLevel, addFileFilter, deleteFileFilter,
+                    unzipFilter, otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction,
+                    afterZipAction, otherAction, zipLogLevel, superACs, unzipId);
+        } finally {
+            Close.close(is);
+        }
+    }
+
+    /**
+     * 直接在可以随机读取的数据源（文件、内存）上读取压缩包，不再复制整个压缩包；输入流数据源则先读入内存
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> ZipResult<R> reZip(ArchiveSource source,
+                                  String parentZipName,
+                                  String zipFileName,
+                                  final int unzipTimes,
+                                  final int unzipLevel,
+                                  PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                  RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                  ZipLogLevel zipLogLevel,
+                                  Map<ArchiveFormat, SuperAC> superACs,
+                                  String unzipId
     ) throws Exception {
         if (zipFileName == null) zipFileName = "";
 
@@ -336,18 +437,19 @@ public class Super7Zip extends SuperACs {
         final String logSource = getClass().getSimpleName() + ".reZip()";
         // <<< 打印日志参数
 
-        // 按文件名获取密码
-        char[] password = reZipPasswordProvider.getPassword(zipFileName);
-
         final ArrayList<R> rs = new ArrayList<>();
-        MemoryHugeBytesChannel inputChannel = null;
+        SeekableByteChannel inputChannel = null;
         SevenZFile zipis = null;
         MemoryHugeBytesChannel outputChannel = null;
         SevenZOutputFile zos = null;
         try {
             if (reZipACMap == null) reZipACMap = toSuperACMap(superACs);
 
-            inputChannel = new MemoryHugeBytesChannel(IOs.readBytes(is, false));
+            // 可以随机读取的数据源（文件、内存）直接读取，否则先读入内存
+            ArchiveSource seekableSource = source.isSeekable() ? source : ArchiveSource.of(IOs.readBytes(source.openStream(), false));
+            // 按文件名获取密码，不正确时校验候选密码
+            char[] password = PasswordTrial.sevenZ(seekableSource, zipFileName, reZipPasswordProvider, passwordCandidates);
+            inputChannel = seekableSource.openChannel();
 
             zipis = reZipInputProperty.getSevenZFileBuilder().setSeekableByteChannel(inputChannel).setPassword(password).get();
 
@@ -397,23 +499,21 @@ public class Super7Zip extends SuperACs {
 
                     Throwable suppressed = null;
                     try {
-                        byte[][] byteArrays = reZip(currentIs, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
-                                newUnzipTimes, newUnzipLevel, reZipACMap, addFileFilter, deleteFileFilter, unzipFilter, otherFilter,
-                                beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction,
-                                beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, unzipId, logSource);
-
                         // 打印日志信息
                         Stopwatch stopwatch = Stopwatch.run();
                         LogPrinter.printBeforeWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
 
-                        long byteLength = 0;
-                        for (byte[] bytes : byteArrays) {
-                            byteLength += bytes.length;
-                            zos.write(bytes);
-                        }
+                        /*
+                         * 7z 条目不需要预先知道大小，处理后的内容（包括内部压缩包重压缩的结果）直接写入当前条目，不缓存
+                         */
+                        ShieldOutputStream entryOs = closeShield(newSevenZEntryOutputStream(zos));
+                        reZip(currentIs, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
+                                newUnzipTimes, newUnzipLevel, reZipACMap, addFileFilter, deleteFileFilter, unzipFilter, otherFilter,
+                                beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction,
+                                beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, unzipId, logSource, unchanged -> entryOs);
 
                         // 打印日志信息
-                        LogPrinter.printAfterWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, stopwatch, byteLength);
+                        LogPrinter.printAfterWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, stopwatch, entryOs.getCount());
 
                     } catch (Throwable e) {
                         suppressed = e;
@@ -457,19 +557,19 @@ public class Super7Zip extends SuperACs {
                                     // 打印日志信息
                                     LogPrinter.printAppendLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
 
-                                    if (!addFile.isDirectory()) {
+                                    if (!addFile.isDirectory() && addFile.getSource() != null) {
+                                        try (InputStream sis = addFile.getSource().openStream()) {
+                                            // 按块写入，不整个读入内存
+                                            zos.write(sis);
+                                        }
+                                    } else if (!addFile.isDirectory()) {
                                         File file = addFile.getFile();
                                         Objects.requireNonNull(file, "AddFile实例对象中的成员变量`isDirectory`为false时，`file`不能为null！" + errMsg);
                                         checkFileNotFound(!file.exists(), "文件[${path}]不存在。${errMsg}", file.getAbsolutePath(), errMsg);
 
                                         if (file.isFile()) {
-                                            // 自动关闭文件输入流
-                                            try (FileInputStream fis = new FileInputStream(file)) {
-                                                byte[][] bytes = IOs.readBytes(fis);
-                                                for (byte[] byteArray : bytes) {
-                                                    zos.write(byteArray);
-                                                }
-                                            }
+                                            // 按块写入，不整个读入内存
+                                            zos.write(file.toPath());
                                         }
                                     }
 
@@ -535,7 +635,6 @@ public class Super7Zip extends SuperACs {
         } finally {
             Close.close(zipis);
             Close.close(inputChannel);
-            Close.close(is);
             Close.close(zos);
             Close.close(outputChannel);
         }
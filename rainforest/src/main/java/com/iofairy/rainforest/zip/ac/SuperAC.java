@@ -20,14 +20,21 @@ import com.iofairy.falcon.zip.ArchiveFormat;
 import com.iofairy.lambda.*;
 import com.iofairy.rainforest.zip.base.*;
 import com.iofairy.rainforest.zip.error.SuperACException;
+import com.iofairy.rainforest.zip.index.ArchiveIndex;
+import com.iofairy.rainforest.zip.index.ArchiveIndexCache;
+import com.iofairy.rainforest.zip.index.IndexEntry;
+import com.iofairy.rainforest.zip.index.IndexMatch;
 import com.iofairy.tcf.Close;
 import com.iofairy.tuple.Tuple2;
 import net.lingala.zip4j.exception.ZipException;
 import org.apache.commons.compress.PasswordRequiredException;
 
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.iofairy.validator.Preconditions.*;
 
 /**
  * Super <b>AC</b> (<b>Archiver</b> and <b>Compressor</b>)<br>
@@ -383,6 +390,708 @@ public interface SuperAC {
     }
 
 
+    /**
+     * 压缩包解压并处理文件（自动解压），参数与返回值说明见 {@link #unzip(InputStream, ArchiveFormat, String, int, PT3, PT3, PT3, RT4, RT4, ZipLogLevel, List)}<br>
+     * 压缩处理器按数据源选择最快的读取方式（如7z在文件或内存上直接随机读取，不再复制整个压缩包），方法内部会自动关闭数据源
+     *
+     * @param source 压缩包的数据源
+     * @param <R>    Action返回值类型
+     * @return 返回任意你想返回的内容，便于你在lambda表达式外进行操作
+     * @throws Exception 处理过程可能抛异常
+     * @since 0.6.2
+     */
+    static <R> List<R> unzip(final ArchiveSource source,
+                             final ArchiveFormat inputStreamType,
+                             String zipFileName,
+                             final int unzipLevel,
+                             PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                             PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                             PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                             RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                             RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                             ZipLogLevel zipLogLevel,
+                             List<SuperAC> superACs
+    ) throws Exception {
+        if (zipFileName == null) zipFileName = "";
+
+        String unzipId = SuperACs.getUnzipId(7, null);
+
+        try {
+            Tuple2<Map<ArchiveFormat, SuperAC>, SuperAC> tuple = SuperACs.checkParameters(source, inputStreamType, superACs);
+            Map<ArchiveFormat, SuperAC> superACMap = tuple._1;
+            SuperAC superAC = tuple._2;
+
+            Stopwatch stopwatch = Stopwatch.run();
+            String logSource = SuperAC.class.getSimpleName() + ".unzip()";
+            LogPrinter.printBeforeUnzip(unzipId, zipFileName, zipLogLevel, logSource);
+
+            List<R> unzip = superAC.unzip(source, null, zipFileName, SuperACs.INIT_UNZIP_TIMES, unzipLevel, unzipFilter,
+                    otherFilter, beforeUnzipFilter, beforeUnzipAction, otherAction, zipLogLevel, superACMap, null);
+
+            LogPrinter.printAfterUnzip(unzipId, zipFileName, zipLogLevel, logSource, stopwatch);
+
+            return unzip;
+        } catch (PasswordRequiredException e) {
+            throw new SuperACException(e, "【unzip()】解压时<未找到或未提供对应的密码>或<密码不正确>！！！解压ID：[${unzipId}]，解压文件【${zipFileName}】。", unzipId, zipFileName);
+        } catch (Throwable e) {
+            String message;
+            if (e instanceof ZipException && e.getMessage().equals("Wrong password!")) {
+                message = "【unzip()】解压时<未找到或未提供对应的密码>或<密码不正确>！！！解压ID：[${unzipId}]，解压文件【${zipFileName}】。";
+            } else {
+                message = "【unzip()】解压ID：[${unzipId}]，解压【${zipFileName}】异常！";
+            }
+            throw new SuperACException(e, message, unzipId, zipFileName);
+        } finally {
+            Close.close(source);
+        }
+    }
+
+    /**
+     * 压缩包解压并处理文件<b>（快速自动解压，更节约内存）</b>，参数与返回值说明见 {@link #unzipFast(InputStream, ArchiveFormat, String, int, PT3, PT3, RT5, ZipLogLevel, List)}<br>
+     * 压缩处理器按数据源选择最快的读取方式，方法内部会自动关闭数据源
+     *
+     * @param source 压缩包的数据源
+     * @param <R>    Action返回值类型
+     * @return 返回任意你想返回的内容，便于你在lambda表达式外进行操作
+     * @throws Exception 处理过程可能抛异常
+     * @since 0.6.2
+     */
+    static <R> List<R> unzipFast(final ArchiveSource source,
+                                 final ArchiveFormat inputStreamType,
+                                 String zipFileName,
+                                 final int unzipLevel,
+                                 PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                 PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                 RT5<InputStream, ? super Integer, ? super String, ? super String, ? super Set<AutoCloseable>, ? extends R, Exception> otherAction,
+                                 ZipLogLevel zipLogLevel,
+                                 List<SuperAC> superACs
+    ) throws Exception {
+        if (zipFileName == null) zipFileName = "";
+
+        String unzipId = SuperACs.getUnzipId(7, null);
+
+        Set<AutoCloseable> closeables = new LinkedHashSet<>();
+
+        try {
+            Tuple2<Map<ArchiveFormat, SuperAC>, SuperAC> tuple = SuperACs.checkParameters(source, inputStreamType, superACs);
+            Map<ArchiveFormat, SuperAC> superACMap = tuple._1;
+            SuperAC superAC = tuple._2;
+
+            Stopwatch stopwatch = Stopwatch.run();
+            String logSource = SuperAC.class.getSimpleName() + ".unzipFast()";
+            LogPrinter.printBeforeUnzip(unzipId, zipFileName, zipLogLevel, logSource);
+
+            List<R> unzip = superAC.unzipFast(source, null, zipFileName, SuperACs.INIT_UNZIP_TIMES, unzipLevel,
+                    unzipFilter, otherFilter, otherAction, zipLogLevel, superACMap, closeables, null);
+
+            LogPrinter.printAfterUnzip(unzipId, zipFileName, zipLogLevel, logSource, stopwatch);
+
+            return unzip;
+        } catch (PasswordRequiredException e) {
+            throw new SuperACException(e, "【unzipFast()】解压时<未找到或未提供对应的密码>或<密码不正确>！！！解压ID：[${unzipId}]，解压文件【${zipFileName}】。", unzipId, zipFileName);
+        } catch (Throwable e) {
+            String message;
+            if (e instanceof ZipException && e.getMessage().equals("Wrong password!")) {
+                message = "【unzipFast()】解压时<未找到或未提供对应的密码>或<密码不正确>！！！解压ID：[${unzipId}]，解压文件【${zipFileName}】。";
+            } else {
+                message = "【unzipFast()】解压ID：[${unzipId}]，解压【${zipFileName}】异常！";
+            }
+            throw new SuperACException(e, message, unzipId, zipFileName);
+        } finally {
+            closeables.add(source);
+            Close.closeAll(closeables);
+        }
+    }
+
+    /**
+     * 解压处理压缩包中的文件并重新打包压缩（自动解压缩），参数与返回值说明见
+     * {@link #reZip(InputStream, ArchiveFormat, String, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, List)}<br>
+     * 压缩处理器按数据源选择最快的读取方式，方法内部会自动关闭数据源
+     *
+     * @param source 压缩包的数据源
+     * @param <R>    Action返回值类型
+     * @return 返回 压缩后的字节流数组 以及 任意你想返回的内容，便于你在lambda表达式外进行操作
+     * @throws Exception 处理过程可能抛异常
+     * @since 0.6.2
+     */
+    static <R> ZipResult<R> reZip(final ArchiveSource source,
+                                  final ArchiveFormat inputStreamType,
+                                  String zipFileName,
+                                  final int unzipLevel,
+                                  PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                  RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                  ZipLogLevel zipLogLevel,
+                                  List<SuperAC> superACs
+    ) throws Exception {
+        if (zipFileName == null) zipFileName = "";
+
+        String unzipId = SuperACs.getUnzipId(7, null);
+
+        try {
+            Tuple2<Map<ArchiveFormat, SuperAC>, SuperAC> tuple = SuperACs.checkParameters(source, inputStreamType, superACs);
+            Map<ArchiveFormat, SuperAC> superACMap = tuple._1;
+            SuperAC superAC = tuple._2;
+
+            Stopwatch stopwatch = Stopwatch.run();
+            String logSource = SuperAC.class.getSimpleName() + ".reZip()";
+            LogPrinter.printBeforeUnzip(unzipId, zipFileName, zipLogLevel, logSource);
+
+            ZipResult<R> zipResult = superAC.reZip(source, null, zipFileName, SuperACs.INIT_UNZIP_TIMES, unzipLevel, addFileFilter, deleteFileFilter, unzipFilter, otherFilter, beforeUnzipFilter,
+                    afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, superACMap, null);
+
+            long byteLength = 0;
+            if (zipResult.getBytes() != null) {
+                for (byte[] bytes : zipResult.getBytes()) {
+                    byteLength += bytes.length;
+                }
+            }
+            LogPrinter.printAfterReZip(unzipId, zipFileName, zipLogLevel, logSource, stopwatch, byteLength);
+
+            return zipResult;
+        } catch (PasswordRequiredException e) {
+            throw new SuperACException(e, "【reZip()】解压时<未找到或未提供对应的密码>或<密码不正确>！！！解压ID：[${unzipId}]，解压文件【${zipFileName}】。", unzipId, zipFileName);
+        } catch (Throwable e) {
+            String message;
+            if (e instanceof ZipException && e.getMessage().equals("Wrong password!")) {
+                message = "【reZip()】解压时<未找到或未提供对应的密码>或<密码不正确>！！！解压ID：[${unzipId}]，解压文件【${zipFileName}】。";
+            } else {
+                message = "【reZip()】解压ID：[${unzipId}]，解压【${zipFileName}】异常！";
+            }
+            throw new SuperACException(e, message, unzipId, zipFileName);
+        } finally {
+            Close.close(source);
+        }
+    }
+
+    /**
+     * 异步解压处理压缩包中的文件，参数与返回值说明见 {@link #unzip(InputStream, ArchiveFormat, String, int, PT3, PT3, PT3, RT4, RT4, ZipLogLevel, List)}<br>
+     * 处理过程中的异常（已包装为 {@link SuperACException}）通过返回的 {@link CompletableFuture} 传递
+     *
+     * @param executor 执行器，为{@code null}则使用 {@link ZipExecutors#defaultExecutor()}（Java 21 及以上版本使用虚拟线程），
+     *                 也可以使用 {@link ZipExecutors#newVirtualThreadPerTaskExecutor()} 或自定义的线程池
+     * @param <R>      Action返回值类型
+     * @return 解压处理完成后返回 Action 的返回值列表
+     * @since 0.6.2
+     */
+    static <R> CompletableFuture<List<R>> unzipAsync(final InputStream is,
+                                                     final ArchiveFormat inputStreamType,
+                                                     final String zipFileName,
+                                                     final int unzipLevel,
+                                                     PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                                     PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                                     PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                                     RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                                     RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                                     ZipLogLevel zipLogLevel,
+                                                     List<SuperAC> superACs,
+                                                     Executor executor
+    ) {
+        return SuperACs.supplyAsync(() -> unzip(is, inputStreamType, zipFileName, unzipLevel, unzipFilter, otherFilter, beforeUnzipFilter,
+                beforeUnzipAction, otherAction, zipLogLevel, superACs), executor);
+    }
+
+    /**
+     * 异步快速解压处理压缩包中的文件，参数与返回值说明见 {@link #unzipFast(InputStream, ArchiveFormat, String, int, PT3, PT3, RT5, ZipLogLevel, List)}
+     *
+     * @param executor 执行器，为{@code null}则使用 {@link ZipExecutors#defaultExecutor()}
+     * @param <R>      Action返回值类型
+     * @return 解压处理完成后返回 Action 的返回值列表
+     * @since 0.6.2
+     */
+    static <R> CompletableFuture<List<R>> unzipFastAsync(final InputStream is,
+                                                         final ArchiveFormat inputStreamType,
+                                                         final String zipFileName,
+                                                         final int unzipLevel,
+                                                         PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                                         PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                                         RT5<InputStream, ? super Integer, ? super String, ? super String, ? super Set<AutoCloseable>, ? extends R, Exception> otherAction,
+                                                         ZipLogLevel zipLogLevel,
+                                                         List<SuperAC> superACs,
+                                                         Executor executor
+    ) {
+        return SuperACs.supplyAsync(() -> unzipFast(is, inputStreamType, zipFileName, unzipLevel, unzipFilter, otherFilter, otherAction,
+                zipLogLevel, superACs), executor);
+    }
+
+    /**
+     * 异步解压处理压缩包中的文件并重新打包压缩，参数与返回值说明见 {@link #reZip(InputStream, ArchiveFormat, String, int, PT3, PT3, RT5, ZipLogLevel, List)}
+     *
+     * @param executor 执行器，为{@code null}则使用 {@link ZipExecutors#defaultExecutor()}
+     * @param <R>      Action返回值类型
+     * @return 处理完成后返回 压缩后的字节流数组 以及 Action 的返回值
+     * @since 0.6.2
+     */
+    static <R> CompletableFuture<ZipResult<R>> reZipAsync(final InputStream is,
+                                                          final ArchiveFormat inputStreamType,
+                                                          final String zipFileName,
+                                                          final int unzipLevel,
+                                                          PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                                          PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                                          RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                                          ZipLogLevel zipLogLevel,
+                                                          List<SuperAC> superACs,
+                                                          Executor executor
+    ) {
+        return SuperACs.supplyAsync(() -> reZip(is, inputStreamType, zipFileName, unzipLevel, unzipFilter, otherFilter, otherAction,
+                zipLogLevel, superACs), executor);
+    }
+
+    /**
+     * 异步解压处理压缩包中的文件并重新打包压缩，参数与返回值说明见
+     * {@link #reZip(InputStream, ArchiveFormat, String, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, List)}
+     *
+     * @param executor 执行器，为{@code null}则使用 {@link ZipExecutors#defaultExecutor()}
+     * @param <R>      Action返回值类型
+     * @return 处理完成后返回 压缩后的字节流数组 以及 Action 的返回值
+     * @since 0.6.2
+     */
+    static <R> CompletableFuture<ZipResult<R>> reZipAsync(final InputStream is,
+                                                          final ArchiveFormat inputStreamType,
+                                                          final String zipFileName,
+                                                          final int unzipLevel,
+                                                          PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                                          PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                                          PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                                          PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                                          PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                                          PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                                          RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                                          RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                                          RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                                          RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                                          RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                                          RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                                          ZipLogLevel zipLogLevel,
+                                                          List<SuperAC> superACs,
+                                                          Executor executor
+    ) {
+        return SuperACs.supplyAsync(() -> reZip(is, inputStreamType, zipFileName, unzipLevel, addFileFilter, deleteFileFilter, unzipFilter,
+                otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction,
+                afterZipAction, otherAction, zipLogLevel, superACs), executor);
+    }
+
+    /**
+     * 解压处理压缩包中的文件，并记录执行跟踪（见 {@link ZipTrace}），参数说明见 {@link #unzip(InputStream, ArchiveFormat, String, int, PT3, PT3, PT3, RT4, RT4, ZipLogLevel, List)}
+     *
+     * @param <R> Action返回值类型
+     * @return Action 的返回值列表与执行跟踪
+     * @throws Exception 处理过程可能抛异常
+     * @since 0.6.2
+     */
+    static <R> UnzipResult<R> unzipTraced(final InputStream is,
+                                          final ArchiveFormat inputStreamType,
+                                          final String zipFileName,
+                                          final int unzipLevel,
+                                          PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                          PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                          PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                          RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                          RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                          ZipLogLevel zipLogLevel,
+                                          List<SuperAC> superACs
+    ) throws Exception {
+        Tuple2<List<R>, ZipTrace> tuple = ZipTrace.record(() -> unzip(is, inputStreamType, zipFileName, unzipLevel, unzipFilter, otherFilter,
+                beforeUnzipFilter, beforeUnzipAction, otherAction, zipLogLevel, superACs));
+        return UnzipResult.of(tuple._1, tuple._2);
+    }
+
+    /**
+     * 快速解压处理压缩包中的文件，并记录执行跟踪（见 {@link ZipTrace}），参数说明见 {@link #unzipFast(InputStream, ArchiveFormat, String, int, PT3, PT3, RT5, ZipLogLevel, List)}
+     *
+     * @param <R> Action返回值类型
+     * @return Action 的返回值列表与执行跟踪
+     * @throws Exception 处理过程可能抛异常
+     * @since 0.6.2
+     */
+    static <R> UnzipResult<R> unzipFastTraced(final InputStream is,
+                                              final ArchiveFormat inputStreamType,
+                                              final String zipFileName,
+                                              final int unzipLevel,
+                                              PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                              PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                              RT5<InputStream, ? super Integer, ? super String, ? super String, ? super Set<AutoCloseable>, ? extends R, Exception> otherAction,
+                                              ZipLogLevel zipLogLevel,
+                                              List<SuperAC> superACs
+    ) throws Exception {
+        Tuple2<List<R>, ZipTrace> tuple = ZipTrace.record(() -> unzipFast(is, inputStreamType, zipFileName, unzipLevel, unzipFilter, otherFilter,
+                otherAction, zipLogLevel, superACs));
+        return UnzipResult.of(tuple._1, tuple._2);
+    }
+
+    /**
+     * 解压处理压缩包中的文件并重新打包压缩，并记录执行跟踪（见 {@link ZipTrace}，通过 {@link ZipResult#trace} 获取），参数说明见
+     * {@link #reZip(InputStream, ArchiveFormat, String, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, List)}
+     *
+     * @param <R> Action返回值类型
+     * @return 压缩后的字节流数组、Action 的返回值以及执行跟踪
+     * @throws Exception 处理过程可能抛异常
+     * @since 0.6.2
+     */
+    static <R> ZipResult<R> reZipTraced(final InputStream is,
+                                        final ArchiveFormat inputStreamType,
+                                        final String zipFileName,
+                                        final int unzipLevel,
+                                        PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                        PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                        PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                        PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                        PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                        PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                        RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                        RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                        RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                        RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                        RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                        RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                        ZipLogLevel zipLogLevel,
+                                        List<SuperAC> superACs
+    ) throws Exception {
+        Tuple2<ZipResult<R>, ZipTrace> tuple = ZipTrace.record(() -> reZip(is, inputStreamType, zipFileName, unzipLevel, addFileFilter,
+                deleteFileFilter, unzipFilter, otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction,
+                beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, superACs));
+        return tuple._1.setTrace(tuple._2);
+    }
+
+    /**
+     * 为压缩包文件建立索引，记录包括内嵌压缩包在内的条目树（名称、大小、压缩后的大小、偏移量、CRC32、内嵌压缩包的格式）<br>
+     * ZIP 与 7z 直接读取中央目录（文件头）；tar 等只能顺序读取的格式，会在读取条目数据的同时计算CRC32
+     *
+     * @param zipFile         压缩包文件
+     * @param inputStreamType 压缩包的类型
+     * @param unzipLevel      索引的解压层级。-1：无限解压，碰到压缩包就解压；0：只索引<b>当前压缩包</b>，不索引内部压缩包；&gt;=1：对内部压缩包的索引次数
+     * @param superACs        支持哪些类型的压缩/解压处理器（必须包含参数{@code inputStreamType}指定的压缩处理器）
+     * @return 压缩包索引
+     * @throws IllegalArgumentException 在 {@code superACs}中未找到与{@code inputStreamType}相匹配 superAC
+     * @since 0.6.2
+     */
+    static ArchiveIndex index(final File zipFile,
+                              final ArchiveFormat inputStreamType,
+                              final int unzipLevel,
+                              List<SuperAC> superACs
+    ) {
+        String zipFileName = zipFile == null ? "" : zipFile.getName();
+        String unzipId = SuperACs.getUnzipId(7, null);
+
+        try {
+            Tuple2<Map<ArchiveFormat, SuperAC>, SuperAC> tuple = SuperACs.checkParameters(zipFile, inputStreamType, superACs);
+            return SuperACs.index(zipFile, inputStreamType, unzipLevel, tuple._1, tuple._2);
+        } catch (Throwable e) {
+            throw new SuperACException(e, "【index()】解压ID：[${unzipId}]，建立【${zipFileName}】的索引异常！", unzipId, zipFileName);
+        }
+    }
+
+    /**
+     * 列出压缩包文件的条目树（名称、大小、最后修改时间等），<b>不解压条目数据</b><br>
+     * <ul>
+     * <li>ZIP 读取中央目录，7z 读取文件头，tar 读取文件头并 seek 跳过条目数据
+     * <li>只有需要遍历的内嵌压缩包（由 {@code unzipLevel} 与 {@code unzipFilter} 决定）才会读取数据
+     * <li>只能顺序读取的格式（如：tar.gz），条目数据仍需解压后跳过
+     * <li>加密的ZIP（{@link SuperZipProtected}）在 {@code unzipLevel} 为 0 时直接读取中央目录，不需要密码
+     * </ul>
+     *
+     * @param zipFile         压缩包文件
+     * @param inputStreamType 压缩包的类型
+     * @param unzipLevel      解压层级。-1：无限解压，碰到压缩包就解压；0：只列出<b>当前压缩包</b>，不遍历内部压缩包；&gt;=1：对内部压缩包的遍历次数
+     * @param unzipFilter     内部压缩包的是否遍历的过滤器，为{@code null}则<b>都遍历</b>， {@code PT3<Integer, String, String, Exception>(压缩包的第几层, 父压缩包的文件名，当前内部文件的名称)}
+     * @param superACs        支持哪些类型的压缩/解压处理器（必须包含参数{@code inputStreamType}指定的压缩处理器）
+     * @return 压缩包内的条目树，内嵌压缩包的条目见 {@link IndexEntry#children}
+     * @throws IllegalArgumentException 在 {@code superACs}中未找到与{@code inputStreamType}相匹配 superAC
+     * @since 0.6.2
+     */
+    static List<IndexEntry> list(final File zipFile,
+                                 final ArchiveFormat inputStreamType,
+                                 final int unzipLevel,
+                                 PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                 List<SuperAC> superACs
+    ) {
+        String zipFileName = zipFile == null ? "" : zipFile.getName();
+        String unzipId = SuperACs.getUnzipId(7, null);
+
+        try {
+            Tuple2<Map<ArchiveFormat, SuperAC>, SuperAC> tuple = SuperACs.checkParameters(zipFile, inputStreamType, superACs);
+            return SuperACs.list(zipFile, unzipLevel, unzipFilter, tuple._1, tuple._2);
+        } catch (PasswordRequiredException e) {
+            throw new SuperACException(e, "【list()】解压时<未找到或未提供对应的密码>或<密码不正确>！！！解压ID：[${unzipId}]，解压文件【${zipFileName}】。", unzipId, zipFileName);
+        } catch (Throwable e) {
+            throw new SuperACException(e, "【list()】解压ID：[${unzipId}]，列出【${zipFileName}】的条目异常！", unzipId, zipFileName);
+        }
+    }
+
+    /**
+     * 列出压缩包的条目树（名称、大小、最后修改时间等），<b>不解压条目数据</b>（输入流不会被关闭）<br>
+     * 输入流无法随机访问：ZIP 顺序读取本地文件头，条目数据直接跳过；7z 需要先将整个压缩包读入内存
+     *
+     * @param is              压缩包输入流
+     * @param inputStreamType 压缩包的类型
+     * @param zipFileName     压缩包文件名
+     * @param unzipLevel      解压层级。-1：无限解压，碰到压缩包就解压；0：只列出<b>当前压缩包</b>，不遍历内部压缩包；&gt;=1：对内部压缩包的遍历次数
+     * @param unzipFilter     内部压缩包的是否遍历的过滤器，为{@code null}则<b>都遍历</b>， {@code PT3<Integer, String, String, Exception>(压缩包的第几层, 父压缩包的文件名，当前内部文件的名称)}
+     * @param superACs        支持哪些类型的压缩/解压处理器（必须包含参数{@code inputStreamType}指定的压缩处理器）
+     * @return 压缩包内的条目树，内嵌压缩包的条目见 {@link IndexEntry#children}
+     * @throws IllegalArgumentException 在 {@code superACs}中未找到与{@code inputStreamType}相匹配 superAC
+     * @since 0.6.2
+     */
+    static List<IndexEntry> list(final InputStream is,
+                                 final ArchiveFormat inputStreamType,
+                                 final String zipFileName,
+                                 final int unzipLevel,
+                                 PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                 List<SuperAC> superACs
+    ) {
+        String unzipId = SuperACs.getUnzipId(7, null);
+
+        try {
+            Tuple2<Map<ArchiveFormat, SuperAC>, SuperAC> tuple = SuperACs.checkParameters(is, inputStreamType, superACs);
+            return SuperACs.list(is, zipFileName == null ? "" : zipFileName, unzipLevel, unzipFilter, tuple._1, tuple._2);
+        } catch (PasswordRequiredException e) {
+            throw new SuperACException(e, "【list()】解压时<未找到或未提供对应的密码>或<密码不正确>！！！解压ID：[${unzipId}]，解压文件【${zipFileName}】。", unzipId, zipFileName);
+        } catch (Throwable e) {
+            throw new SuperACException(e, "【list()】解压ID：[${unzipId}]，列出【${zipFileName}】的条目异常！", unzipId, zipFileName);
+        }
+    }
+
+    /**
+     * 跨格式转换压缩包（如：tar.gz → tar.zst、7z → zip），用 {@code inputStreamType} 对应的 SuperAC 的解压属性读取，
+     * 用 {@code outputStreamType} 对应的 SuperAC 的压缩属性写入（输入流与输出流都不会被关闭）<br>
+     * <ul>
+     * <li>条目数据直接从源压缩包流向目标压缩包，只有目标格式需要而源压缩包中没有记录条目大小时（如：写入 tar），才在内存中缓存该条目
+     * <li>tar.* 与单文件压缩格式（如：gzip）的解压、压缩分别在独立的线程中执行
+     * <li>内嵌压缩包按 {@code nestedFormats} 递归转换，条目名的后缀名随之改变（如：{@code a.tar.gz} → {@code a.tar.zst}）
+     * <li>单文件压缩格式只能写入一个文件；不支持转换为加密的ZIP（{@link SuperZipProtected}）
+     * </ul>
+     *
+     * @param is               压缩包输入流
+     * @param inputStreamType  压缩包的类型
+     * @param zipFileName      压缩包文件名
+     * @param os               转换后的压缩包的输出流
+     * @param outputStreamType 转换后的压缩包的类型
+     * @param unzipLevel       内嵌压缩包的转换层级。-1：无限转换；0：只转换<b>当前压缩包</b>，内部压缩包原样写入；&gt;=1：对内部压缩包的转换次数
+     * @param nestedFormats    内嵌压缩包的格式映射 {@code (内嵌压缩包的格式 -> 转换后的格式)}，为{@code null}或映射中没有的格式<b>原样写入</b>
+     * @param superACs         支持哪些类型的压缩/解压处理器（必须包含 {@code inputStreamType}、{@code outputStreamType} 以及 {@code nestedFormats} 中的格式对应的压缩处理器）
+     * @return 转换后的压缩包的条目树，转换后的内嵌压缩包的条目见 {@link IndexEntry#children}
+     * @throws IllegalArgumentException 在 {@code superACs}中未找到相匹配 superAC，或者不支持转换的格式
+     * @since 0.6.2
+     */
+    static List<IndexEntry> transcode(final InputStream is,
+                                      final ArchiveFormat inputStreamType,
+                                      final String zipFileName,
+                                      final OutputStream os,
+                                      final ArchiveFormat outputStreamType,
+                                      final int unzipLevel,
+                                      Map<ArchiveFormat, ArchiveFormat> nestedFormats,
+                                      List<SuperAC> superACs
+    ) {
+        String unzipId = SuperACs.getUnzipId(7, null);
+
+        try {
+            checkHasNullNPE(args(os), args("os"));
+            Tuple2<Map<ArchiveFormat, SuperAC>, SuperAC> tuple = SuperACs.checkParameters(is, inputStreamType, superACs);
+            SuperAC target = SuperACs.checkTranscodeParameters(outputStreamType, nestedFormats, tuple._1, tuple._2);
+            return SuperACs.transcode(is, zipFileName == null ? "" : zipFileName, os, outputStreamType, unzipLevel, nestedFormats, tuple._1, tuple._2, target);
+        } catch (PasswordRequiredException e) {
+            throw new SuperACException(e, "【transcode()】解压时<未找到或未提供对应的密码>或<密码不正确>！！！解压ID：[${unzipId}]，解压文件【${zipFileName}】。", unzipId, zipFileName);
+        } catch (Throwable e) {
+            throw new SuperACException(e, "【transcode()】解压ID：[${unzipId}]，转换【${zipFileName}】异常！", unzipId, zipFileName);
+        }
+    }
+
+    /**
+     * 跨格式转换压缩包文件（如：tar.gz → tar.zst、7z → zip），ZIP 与 7z 直接随机读取文件，其他同
+     * {@link #transcode(InputStream, ArchiveFormat, String, OutputStream, ArchiveFormat, int, Map, List)}
+     *
+     * @param zipFile          压缩包文件
+     * @param inputStreamType  压缩包的类型
+     * @param outputFile       转换后的压缩包文件（已存在则覆盖）
+     * @param outputStreamType 转换后的压缩包的类型
+     * @param unzipLevel       内嵌压缩包的转换层级。-1：无限转换；0：只转换<b>当前压缩包</b>，内部压缩包原样写入；&gt;=1：对内部压缩包的转换次数
+     * @param nestedFormats    内嵌压缩包的格式映射 {@code (内嵌压缩包的格式 -> 转换后的格式)}，为{@code null}或映射中没有的格式<b>原样写入</b>
+     * @param superACs         支持哪些类型的压缩/解压处理器（必须包含 {@code inputStreamType}、{@code outputStreamType} 以及 {@code nestedFormats} 中的格式对应的压缩处理器）
+     * @return 转换后的压缩包的条目树，转换后的内嵌压缩包的条目见 {@link IndexEntry#children}
+     * @throws IllegalArgumentException 在 {@code superACs}中未找到相匹配 superAC，或者不支持转换的格式
+     * @since 0.6.2
+     */
+    static List<IndexEntry> transcode(final File zipFile,
+                                      final ArchiveFormat inputStreamType,
+                                      final File outputFile,
+                                      final ArchiveFormat outputStreamType,
+                                      final int unzipLevel,
+                                      Map<ArchiveFormat, ArchiveFormat> nestedFormats,
+                                      List<SuperAC> superACs
+    ) {
+        String zipFileName = zipFile == null ? "" : zipFile.getName();
+        String unzipId = SuperACs.getUnzipId(7, null);
+
+        try {
+            checkHasNullNPE(args(outputFile), args("outputFile"));
+            Tuple2<Map<ArchiveFormat, SuperAC>, SuperAC> tuple = SuperACs.checkParameters(zipFile, inputStreamType, superACs);
+            SuperAC target = SuperACs.checkTranscodeParameters(outputStreamType, nestedFormats, tuple._1, tuple._2);
+            return SuperACs.transcode(zipFile, outputFile, outputStreamType, unzipLevel, nestedFormats, tuple._1, tuple._2, target);
+        } catch (PasswordRequiredException e) {
+            throw new SuperACException(e, "【transcode()】解压时<未找到或未提供对应的密码>或<密码不正确>！！！解压ID：[${unzipId}]，解压文件【${zipFileName}】。", unzipId, zipFileName);
+        } catch (Throwable e) {
+            throw new SuperACException(e, "【transcode()】解压ID：[${unzipId}]，转换【${zipFileName}】异常！", unzipId, zipFileName);
+        }
+    }
+
+    /**
+     * 原地更新磁盘上的 ZIP 或 TAR 文件（添加、替换、删除条目），不重写整个压缩包<br>
+     * <ul>
+     * <li>ZIP：新条目先写入临时文件，全部写完后再复制到最后一个本地条目之后，最后重写中央目录；删除条目只重写中央目录，被删除条目的数据成为空洞，
+     * 空洞占文件大小的比例超过 {@code compactRatio} 时才整理压缩包（只复制条目数据，不重新压缩）
+     * <li>TAR：新条目写在归档结束标记之前；删除条目时把保留的条目复制到临时文件，再替换原文件
+     * <li>新条目与已有的条目同名时，替换已有的条目；新条目使用 {@code inputStreamType} 对应的 SuperAC 的压缩属性写入
+     * </ul>
+     * <b>注：更新直接修改原文件，出错时会恢复原来的中央目录（ZIP）或归档结束标记（TAR），但进程被强制终止时压缩包仍可能损坏，必要时请先备份</b>
+     *
+     * @param zipFile         压缩包文件
+     * @param inputStreamType 压缩包的类型，只支持 {@link ArchiveFormat#ZIP} 与 {@link ArchiveFormat#TAR}
+     * @param addFiles        要添加的文件
+     * @param addBytes        要添加的字节数组
+     * @param deleteFilter    是否删除该条目，为{@code null}则<b>都不删除</b>，{@code PT1<String, Exception>(条目名称)}
+     * @param compactRatio    ZIP中被删除条目的空洞占文件大小的比例超过该值时整理压缩包，&gt;=1 则从不整理
+     * @param superACs        支持哪些类型的压缩/解压处理器（必须包含参数{@code inputStreamType}指定的压缩处理器）
+     * @return 更新后的压缩包的条目
+     * @throws IllegalArgumentException 在 {@code superACs}中未找到与{@code inputStreamType}相匹配 superAC，或者不支持原地更新的格式
+     * @since 0.6.2
+     */
+    static List<IndexEntry> update(final File zipFile,
+                                   final ArchiveFormat inputStreamType,
+                                   List<AddFile> addFiles,
+                                   List<AddBytes> addBytes,
+                                   PT1<? super String, Exception> deleteFilter,
+                                   final double compactRatio,
+                                   List<SuperAC> superACs
+    ) {
+        String zipFileName = zipFile == null ? "" : zipFile.getName();
+        String unzipId = SuperACs.getUnzipId(7, null);
+
+        try {
+            Tuple2<Map<ArchiveFormat, SuperAC>, SuperAC> tuple = SuperACs.checkParameters(zipFile, inputStreamType, superACs);
+            SuperAC superAC = tuple._2;
+            checkArgument(!(superAC instanceof SuperZip || superAC instanceof SuperTar),
+                    "只支持原地更新 ZIP 与 TAR 格式的压缩包，不支持：[${format}]", superAC.format());
+            ArchiveUpdater.update(zipFile, superAC, addFiles, addBytes, deleteFilter, compactRatio);
+            return SuperACs.list(zipFile, 0, null, tuple._1, superAC);
+        } catch (Throwable e) {
+            throw new SuperACException(e, "【update()】解压ID：[${unzipId}]，更新【${zipFileName}】异常！", unzipId, zipFileName);
+        }
+    }
+
+    /**
+     * 通过压缩包索引解压并处理文件（自动解压）<br>
+     * 首次调用时建立索引（包括所有内嵌压缩包）并保存到 {@code indexCache}，之后对同一个压缩包的调用：
+     * <ul>
+     * <li>过滤器没有匹配任何条目时，直接跳过整个压缩包，不读取数据
+     * <li>内嵌压缩包中没有任何条目匹配时，跳过该内嵌压缩包，不再复制与解压
+     * <li>ZIP格式直接seek到匹配的条目，不匹配的条目完全不读取
+     * </ul>
+     * <b>注：过滤器会被调用多次（索引匹配时一次，实际解压时一次），所以过滤器不应有副作用</b>
+     *
+     * @param zipFile           压缩包文件
+     * @param inputStreamType   压缩包的类型
+     * @param unzipLevel        解压层级。-1：无限解压，碰到压缩包就解压；0：只解压<b>当前压缩包</b>，不解压内部压缩包；&gt;=1：对内部压缩包的解压次数
+     * @param unzipFilter       内部压缩包的是否解压的过滤器，为{@code null}则<b>都解压</b>， {@code PT3<Integer, String, String, Exception>(压缩包的第几层, 父压缩包的文件名，当前内部文件的名称)}
+     * @param otherFilter       除压缩包以外的文件是否处理的过滤器，为{@code null}则<b>都处理</b>， {@code PT3<Integer, String, String, Exception>(压缩包的第几层, 父压缩包的文件名，当前内部文件的名称)}
+     * @param beforeUnzipFilter 压缩包解压缩前的Action前的过滤器，为{@code null}则<b>都不处理</b>， {@code PT3<Integer, String, String, Exception>(压缩包的第几层, 父压缩包的文件名，当前内部文件的名称)}
+     * @param beforeUnzipAction 解压之前的操作 {@code RT4<InputStream, Integer, String, String, R, Exception>(解压之前文件流, 压缩包的第几层, 父压缩包的文件名，当前内部文件的名称, 返回值)}
+     * @param otherAction       非压缩包的处理逻辑 {@code RT4<InputStream, Integer, String, String, R, Exception>(解压之前文件流, 压缩包的第几层, 父压缩包的文件名，当前内部文件的名称, 返回值)}
+     * @param zipLogLevel       解压缩日志等级
+     * @param superACs          支持哪些类型的压缩/解压处理器（必须包含参数{@code inputStreamType}指定的压缩处理器）
+     * @param indexCache        压缩包索引的缓存
+     * @param <R>               Action返回值类型
+     * @return 返回任意你想返回的内容，便于你在lambda表达式外进行操作
+     * @throws IllegalArgumentException 在 {@code superACs}中未找到与{@code inputStreamType}相匹配 superAC
+     * @since 0.6.2
+     */
+    static <R> List<R> unzip(final File zipFile,
+                             final ArchiveFormat inputStreamType,
+                             final int unzipLevel,
+                             PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                             PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                             PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                             RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                             RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                             ZipLogLevel zipLogLevel,
+                             List<SuperAC> superACs,
+                             ArchiveIndexCache indexCache
+    ) throws Exception {
+        String zipFileName = zipFile == null ? "" : zipFile.getName();
+        String unzipId = SuperACs.getUnzipId(7, null);
+
+        try {
+            checkHasNullNPE(args(indexCache), args("indexCache"));
+            Tuple2<Map<ArchiveFormat, SuperAC>, SuperAC> tuple = SuperACs.checkParameters(zipFile, inputStreamType, superACs);
+            Map<ArchiveFormat, SuperAC> superACMap = tuple._1;
+            SuperAC superAC = tuple._2;
+
+            /*
+             * 打印最外层压缩包日志信息（解压前）
+             */
+            Stopwatch stopwatch = Stopwatch.run();
+            String logSource = SuperAC.class.getSimpleName() + ".unzip()";
+            LogPrinter.printBeforeUnzip(unzipId, zipFileName, zipLogLevel, logSource);
+
+            /*
+             * 获取或建立压缩包索引（建立完整的索引，以便不同的过滤条件都能使用）
+             */
+            ArchiveIndex archiveIndex = indexCache.get(zipFile, inputStreamType);
+            if (archiveIndex == null) {
+                archiveIndex = SuperACs.index(zipFile, inputStreamType, -1, superACMap, superAC);
+                indexCache.put(archiveIndex);
+            }
+            IndexMatch indexMatch = archiveIndex.match(zipFileName, unzipLevel, unzipFilter, otherFilter, beforeUnzipFilter,
+                    beforeUnzipAction != null, otherAction != null, superACMap);
+
+            /*
+             * 压缩包处理
+             */
+            List<R> unzip;
+            if (!indexMatch.isMatched()) {
+                LogPrinter.printIndexSkipLogs(unzipId, zipFileName, zipLogLevel, logSource);
+                unzip = new ArrayList<>();
+            } else if (superAC instanceof SuperZip) {
+                unzip = ((SuperZip) superAC).unzip(zipFile, indexMatch, unzipLevel, unzipFilter, otherFilter, beforeUnzipFilter,
+                        beforeUnzipAction, otherAction, zipLogLevel, superACMap, null);
+            } else {
+                // xz 传入不带缓冲的文件输入流，以便在文件上按块并行解压（见 SuperACs#newXzInputStream）
+                InputStream is = superAC instanceof SuperTarXz || superAC instanceof SuperXz
+                        ? new FileInputStream(zipFile)
+                        : new BufferedInputStream(new FileInputStream(zipFile), 64 * 1024);
+                unzip = superAC.unzip(is, null, zipFileName, SuperACs.INIT_UNZIP_TIMES, unzipLevel, indexMatch.pruneUnzipFilter(unzipFilter),
+                        otherFilter, beforeUnzipFilter, beforeUnzipAction, otherAction, zipLogLevel, superACMap, null);
+            }
+
+            /*
+             * 打印最外层压缩包日志信息（解压后）
+             */
+            LogPrinter.printAfterUnzip(unzipId, zipFileName, zipLogLevel, logSource, stopwatch);
+
+            return unzip;
+        } catch (PasswordRequiredException e) {
+            throw new SuperACException(e, "【unzip()】解压时<未找到或未提供对应的密码>或<密码不正确>！！！解压ID：[${unzipId}]，解压文件【${zipFileName}】。", unzipId, zipFileName);
+        } catch (Throwable e) {
+            String message;
+            if (e instanceof ZipException && e.getMessage().equals("Wrong password!")) {
+                message = "【unzip()】解压时<未找到或未提供对应的密码>或<密码不正确>！！！解压ID：[${unzipId}]，解压文件【${zipFileName}】。";
+            } else {
+                message = "【unzip()】解压ID：[${unzipId}]，解压【${zipFileName}】异常！";
+            }
+            throw new SuperACException(e, message, unzipId, zipFileName);
+        }
+
+    }
+
+
     /**
      * 压缩包解压并处理文件（自动解压）<br>
      * <br>
@@ -526,5 +1235,143 @@ public interface SuperAC {
                            String unzipId
     ) throws Exception;
 
+    /**
+     * 与 {@link #reZip(InputStream, String, String, int, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, Map, String)} 相同，
+     * 但重新打包的压缩包直接写入 {@code os}，而不是先缓存为字节数组。用于把内部压缩包直接写入父压缩包的条目中，避免每一层都缓存一份完整的副本<br>
+     * <b>注：</b>
+     * <ul>
+     * <li>{@code os} 不会被关闭</li>
+     * <li>默认实现仍先缓存再复制，支持流式写出的 SuperAC 会重写此方法</li>
+     * </ul>
+     *
+     * @param os  输出流，为{@code null}则与上述方法相同
+     * @param <R> Action返回值类型
+     * @return {@code os} 不为{@code null}时，返回的 ZipResult 中字节流数组为{@code null}
+     * @throws Exception 处理过程可能抛异常
+     * @since 0.6.2
+     */
+    default <R> ZipResult<R> reZip(InputStream is,
+                                   String parentZipName,
+                                   String zipFileName,
+                                   int unzipTimes,
+                                   int unzipLevel,
+                                   PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                   PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                   PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                   PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                   PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                   PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                   RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                   RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                   RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                   RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                   RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                   RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                   ZipLogLevel zipLogLevel,
+                                   Map<ArchiveFormat, SuperAC> superACs,
+                                   String unzipId,
+                                   OutputStream os
+    ) throws Exception {
+        ZipResult<R> zipResult = reZip(is, parentZipName, zipFileName, unzipTimes, unzipLevel, addFileFilter, deleteFileFilter, unzipFilter,
+                otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction,
+                afterZipAction, otherAction, zipLogLevel, superACs, unzipId);
+        if (os == null) return zipResult;
+
+        for (byte[] bytes : zipResult.getBytes()) {
+            os.write(bytes);
+        }
+        return ZipResult.of((byte[][]) null, zipResult.getResults()).setEntryMethods(zipResult.getEntryMethods());
+    }
+
+    /**
+     * 与 {@link #unzip(InputStream, String, String, int, int, PT3, PT3, PT3, RT4, RT4, ZipLogLevel, Map, String)} 相同，但从数据源读取压缩包<br>
+     * 默认实现读取数据源的输入流，可以随机读取的格式（如7z、ZIP）会重写此方法，直接随机读取数据源
+     *
+     * @param source 压缩包的数据源（由调用者关闭）
+     * @param <R>    Action返回值类型
+     * @return 返回任意你想返回的内容，便于你在lambda表达式外进行操作
+     * @throws Exception 处理过程可能抛异常
+     * @since 0.6.2
+     */
+    default <R> List<R> unzip(ArchiveSource source,
+                              String parentZipName,
+                              String zipFileName,
+                              int unzipTimes,
+                              int unzipLevel,
+                              PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                              PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                              PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                              RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                              RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                              ZipLogLevel zipLogLevel,
+                              Map<ArchiveFormat, SuperAC> superACs,
+                              String unzipId
+    ) throws Exception {
+        return unzip(source.openStream(), parentZipName, zipFileName, unzipTimes, unzipLevel, unzipFilter, otherFilter, beforeUnzipFilter,
+                beforeUnzipAction, otherAction, zipLogLevel, superACs, unzipId);
+    }
+
+    /**
+     * 与 {@link #unzipFast(InputStream, String, String, int, int, PT3, PT3, RT5, ZipLogLevel, Map, Set, String)} 相同，但从数据源读取压缩包<br>
+     * 默认实现读取数据源的输入流，可以随机读取的格式（如7z、ZIP）会重写此方法，直接随机读取数据源
+     *
+     * @param source 压缩包的数据源（由调用者关闭）
+     * @param <R>    Action返回值类型
+     * @return 返回任意你想返回的内容，便于你在lambda表达式外进行操作
+     * @throws Exception 处理过程可能抛异常
+     * @since 0.6.2
+     */
+    default <R> List<R> unzipFast(ArchiveSource source,
+                                  String parentZipName,
+                                  String zipFileName,
+                                  int unzipTimes,
+                                  int unzipLevel,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                  RT5<InputStream, ? super Integer, ? super String, ? super String, ? super Set<AutoCloseable>, ? extends R, Exception> otherAction,
+                                  ZipLogLevel zipLogLevel,
+                                  Map<ArchiveFormat, SuperAC> superACs,
+                                  Set<AutoCloseable> closeables,
+                                  String unzipId
+    ) throws Exception {
+        return unzipFast(source.openStream(), parentZipName, zipFileName, unzipTimes, unzipLevel, unzipFilter, otherFilter, otherAction,
+                zipLogLevel, superACs, closeables, unzipId);
+    }
+
+    /**
+     * 与 {@link #reZip(InputStream, String, String, int, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, Map, String)} 相同，但从数据源读取压缩包<br>
+     * 默认实现读取数据源的输入流，可以随机读取的格式（如7z、ZIP）会重写此方法，直接随机读取数据源
+     *
+     * @param source 压缩包的数据源（由调用者关闭）
+     * @param <R>    Action返回值类型
+     * @return 返回 压缩后的字节流数组 以及 任意你想返回的内容，便于你在lambda表达式外进行操作
+     * @throws Exception 处理过程可能抛异常
+     * @since 0.6.2
+     */
+    default <R> ZipResult<R> reZip(ArchiveSource source,
+                                   String parentZipName,
+                                   String zipFileName,
+                                   int unzipTimes,
+                                   int unzipLevel,
+                                   PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                   PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                   PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                   PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                   PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                   PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                   RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                   RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                   RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                   RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                   RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                   RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                   ZipLogLevel zipLogLevel,
+                                   Map<ArchiveFormat, SuperAC> superACs,
+                                   String unzipId
+    ) throws Exception {
+        return reZip(source.openStream(), parentZipName, zipFileName, unzipTimes, unzipLevel, addFileFilter, deleteFileFilter, unzipFilter,
+                otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction,
+                afterZipAction, otherAction, zipLogLevel, superACs, unzipId);
+    }
 
 }
@@ -15,22 +15,30 @@
  */
 package com.iofairy.rainforest.zip.ac;
 
+import com.github.luben.zstd.ZstdDictDecompress;
 import com.github.luben.zstd.ZstdInputStream;
 import com.github.luben.zstd.ZstdOutputStream;
-import com.iofairy.falcon.fs.FileName;
-import com.iofairy.falcon.fs.FilePath;
-import com.iofairy.falcon.fs.PathInfo;
 import com.iofairy.falcon.io.IOs;
 import com.iofairy.falcon.io.MultiByteArrayInputStream;
 import com.iofairy.falcon.io.MultiByteArrayOutputStream;
 import com.iofairy.time.Stopwatch;
 import com.iofairy.falcon.zip.ArchiveFormat;
 import com.iofairy.lambda.*;
+import com.iofairy.rainforest.zip.attr.Bzip2InputProperty;
 import com.iofairy.rainforest.zip.attr.GzipInputProperty;
 import com.iofairy.rainforest.zip.attr.GzipOutputProperty;
+import com.iofairy.rainforest.zip.attr.Lz4InputProperty;
+import com.iofairy.rainforest.zip.attr.SnappyInputProperty;
+import com.iofairy.rainforest.zip.attr.TarInputProperty;
+import com.iofairy.rainforest.zip.attr.TarOutputProperty;
+import com.iofairy.rainforest.zip.attr.XzInputProperty;
+import com.iofairy.rainforest.zip.attr.ZipOutputProperty;
 import com.iofairy.rainforest.zip.attr.ZstdInputProperty;
 import com.iofairy.rainforest.zip.attr.ZstdOutputProperty;
 import com.iofairy.rainforest.zip.base.*;
+import com.iofairy.rainforest.zip.index.ArchiveIndex;
+import com.iofairy.rainforest.zip.index.ArchiveIndexCache;
+import com.iofairy.rainforest.zip.index.IndexEntry;
 import com.iofairy.rainforest.zip.utils.ZipKit;
 import com.iofairy.top.G;
 import com.iofairy.top.O;
@@ -40,19 +48,45 @@ import com.iofairy.tuple.Tuple2;
 import net.lingala.zip4j.io.outputstream.ZipOutputStream;
 import net.lingala.zip4j.model.ZipModel;
 import net.lingala.zip4j.model.ZipParameters;
+import net.lingala.zip4j.model.enums.CompressionMethod;
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveOutputStream;
 import org.apache.commons.compress.archivers.sevenz.SevenZOutputFile;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipParameters;
-
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.snappy.FramedSnappyCompressorInputStream;
+import org.tukaani.xz.SingleXZInputStream;
+import org.tukaani.xz.XZInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
 
 import static com.iofairy.falcon.zip.ArchiveFormat.*;
 import static com.iofairy.validator.Preconditions.*;
@@ -66,10 +100,68 @@ public abstract class SuperACs implements SuperAC {
     private static final char[] LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
     private static final char[] NUMBERS = "0123456789".toCharArray();
     public static final int INIT_UNZIP_TIMES = 1;       // 初始的解压次数
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
 
     protected Map<ArchiveFormat, SuperAC> unzipACMap;
     protected Map<ArchiveFormat, SuperAC> reZipACMap;
 
+    /**
+     * 按解压属性（unzipInputProperty）创建解压缩流，只有<b>单文件压缩格式</b>（如：gzip、xz）以及 <b>tar.*</b> 格式需要重写此方法
+     *
+     * @param is 输入流
+     * @return 解压缩流，不支持时返回 {@code null}
+     * @throws IOException IOException
+     * @since 0.6.2
+     */
+    InputStream newUnzipInputStream(InputStream is) throws IOException {
+        return null;
+    }
+
+    /**
+     * 按解压属性（unTarInputProperty）创建 tar 输入流，只有 <b>tar</b> 以及 <b>tar.*</b> 格式需要重写此方法
+     *
+     * @param is 输入流
+     * @return tar 输入流，不是 tar 格式时返回 {@code null}
+     * @throws IOException IOException
+     * @since 0.6.2
+     */
+    TarArchiveInputStream newUnTarInputStream(InputStream is) throws IOException {
+        return null;
+    }
+
+    /**
+     * 按压缩属性（reZipOutputProperty）创建压缩流，只有<b>单文件压缩格式</b>（如：gzip、xz）以及 <b>tar.*</b> 格式需要重写此方法
+     *
+     * @param os            输出流
+     * @param entryFileName 被压缩的文件名（gzip 会记录在文件头中）
+     * @return 压缩流，不支持时返回 {@code null}
+     * @throws IOException IOException
+     * @since 0.6.2
+     */
+    OutputStream newReZipOutputStream(OutputStream os, String entryFileName) throws IOException {
+        return null;
+    }
+
+    /**
+     * 解压时的 tar 属性，<b>tar</b> 以及 <b>tar.*</b> 格式由 lombok 生成的 getter 重写此方法
+     *
+     * @return tar 属性，不是 tar 格式时返回 {@code null}
+     * @since 0.6.2
+     */
+    TarInputProperty getUnTarInputProperty() {
+        return null;
+    }
+
+    /**
+     * 重新压缩时的 tar 属性，<b>tar</b> 以及 <b>tar.*</b> 格式由 lombok 生成的 getter 重写此方法
+     *
+     * @return tar 属性，不是 tar 格式时返回 {@code null}
+     * @since 0.6.2
+     */
+    TarOutputProperty getReTarOutputProperty() {
+        return null;
+    }
+
 
     protected static <R> void unzip(InputStream currentIs,
                                     ArrayList<R> rs,
@@ -91,14 +183,41 @@ public abstract class SuperACs implements SuperAC {
     ) throws Exception {
         SuperAC superAC = getSuperAC(entryFileName, unzipACMap);
 
-        if (superAC != null) {
+        if (superAC != null && beforeUnzipAction instanceof TeeAction && beforeUnzipFilter != null && beforeUnzipFilter.$(unzipTimes, zipFileName, entryFileName)) {
+            // 打印日志信息
+            LogPrinter.printBeforeAfter(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, "前", "beforeUnzipAction");
+            /*
+             * tee 模式：beforeUnzipAction 与内部压缩包的解压同时读取 currentIs，不复制整个压缩包
+             */
+            @SuppressWarnings("unchecked")
+            TeeAction<R> teeAction = (TeeAction<R>) beforeUnzipAction;
+            if (unzipLevel != 0 && (unzipFilter == null || unzipFilter.$(unzipTimes, zipFileName, entryFileName))) {
+                Tuple2<R, List<R>> tuple = TeeStreams.tee(currentIs, teeAction, unzipTimes, zipFileName, entryFileName, entryIs -> {
+                    // 打印日志信息
+                    Stopwatch stopwatch = Stopwatch.run();
+                    LogPrinter.printBeforeUnzip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
+                    /*
+                     * 解压文件
+                     */
+                    List<R> tmpTs = superAC.unzip(entryIs, zipFileName, entryFileName, newUnzipTimes, newUnzipLevel,
+                            unzipFilter, otherFilter, beforeUnzipFilter, beforeUnzipAction, otherAction, zipLogLevel, unzipACMap, null);
+                    // 打印日志信息
+                    LogPrinter.printAfterUnzip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, stopwatch);
+                    return tmpTs;
+                });
+                rs.add(tuple._1);
+                rs.addAll(tuple._2);
+            } else {
+                rs.add(teeAction.$(TeeStreams.closeShield(currentIs), unzipTimes, zipFileName, entryFileName));
+            }
+        } else if (superAC != null) {
             /*
              * 为了避免 currentIs 在后续的 superAC.unzip 中被关闭，这里先复制一个
              */
             try (MultiByteArrayInputStream entryIs = IOs.toMultiBAIS(currentIs)) {
                 if (beforeUnzipFilter != null && beforeUnzipFilter.$(unzipTimes, zipFileName, entryFileName) && beforeUnzipAction != null) {
                     // 打印日志信息
-                    LogPrinter.printBeforeAfter(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, "前");
+                    LogPrinter.printBeforeAfter(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, "前", "beforeUnzipAction");
 
                     R r = beforeUnzipAction.$(entryIs, unzipTimes, zipFileName, entryFileName);
                     rs.add(r);
@@ -225,38 +344,136 @@ public abstract class SuperACs implements SuperAC {
                                         ZipLogLevel zipLogLevel,
                                         String unzipId,
                                         String logSource
+    ) throws Exception {
+        return reZip(currentIs, rs, zipFileName, entryFileName, unzipTimes, unzipLevel, newUnzipTimes, newUnzipLevel, reZipACMap,
+                addFileFilter, deleteFileFilter, unzipFilter, otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction,
+                deleteFileAction, beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, unzipId, logSource, null);
+    }
+
+    /**
+     * 处理父压缩包中的一个文件（内部压缩包则解压并重压缩）<br>
+     * {@code parentEntry} 不为{@code null}时，通过它获取父压缩包当前条目的输出流，处理后的内容（包括内部压缩包重压缩的结果）直接写入该输出流，
+     * 不再在每一层缓存一份完整的副本。需要执行 {@code afterZipAction} 时（需要重新读取重压缩的结果），才先缓存再写入
+     *
+     * @param parentEntry 获取父压缩包当前条目的输出流（不会被关闭）， {@code RT1<Boolean, OutputStream, Exception>(内容是否原样复制, 输出流)}，
+     *                    最多调用一次；返回{@code null}表示父压缩包需要预先知道条目的大小（如：tar 中内容被修改的条目），此时先缓存。
+     *                    为{@code null}则都先缓存
+     * @return 先缓存时返回处理后的内容，否则返回{@code null}
+     * @since 0.6.2
+     */
+    protected static <R> byte[][] reZip(InputStream currentIs,
+                                        ArrayList<R> rs,
+                                        String zipFileName,
+                                        String entryFileName,
+                                        int unzipTimes,
+                                        int unzipLevel,
+                                        int newUnzipTimes,
+                                        int newUnzipLevel,
+                                        Map<ArchiveFormat, SuperAC> reZipACMap,
+                                        PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                        PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                        PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                        PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                        PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                        PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                        RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                        RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                        RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                        RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                        RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                        RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                        ZipLogLevel zipLogLevel,
+                                        String unzipId,
+                                        String logSource,
+                                        RT1<Boolean, ? extends OutputStream, Exception> parentEntry
     ) throws Exception {
         SuperAC superAC = getSuperAC(entryFileName, reZipACMap);
 
         try (MultiByteArrayOutputStream entryOs = new MultiByteArrayOutputStream()) {
             byte[][] byteArrays;
+            boolean unchanged;
+            OutputStream directOs;
+
+            boolean isRunBeforeUnzipAction = superAC != null && beforeUnzipFilter != null && beforeUnzipFilter.$(unzipTimes, zipFileName, entryFileName) && beforeUnzipAction != null;
 
-            if (superAC != null) {
+            if (isRunBeforeUnzipAction && beforeUnzipAction instanceof TeeAction) {
+                // 打印日志信息
+                LogPrinter.printBeforeAfter(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, "前", "beforeUnzipAction");
                 /*
-                 * 为了避免 currentIs 在后续的 superAC.reZip 中被关闭，这里先复制一个
+                 * tee 模式：beforeUnzipAction 与内部压缩包的解压（或复制）同时读取 currentIs，不复制整个压缩包
                  */
-                try (MultiByteArrayInputStream entryIs = IOs.toMultiBAIS(currentIs)) {
-                    boolean isRunBeforeUnzipAction = beforeUnzipFilter != null && beforeUnzipFilter.$(unzipTimes, zipFileName, entryFileName) && beforeUnzipAction != null;
+                @SuppressWarnings("unchecked")
+                TeeAction<R> teeAction = (TeeAction<R>) beforeUnzipAction;
+                boolean isRunAfterZipAction = afterZipFilter != null && afterZipFilter.$(unzipTimes, zipFileName, entryFileName) && afterZipAction != null;
+                if (unzipLevel != 0 && (unzipFilter == null || unzipFilter.$(unzipTimes, zipFileName, entryFileName))) {
+                    unchanged = false;
+                    OutputStream os = directOs = isRunAfterZipAction ? null : openParentEntry(parentEntry, false);
+                    Tuple2<R, ZipResult<R>> tuple = TeeStreams.tee(currentIs, teeAction, unzipTimes, zipFileName, entryFileName, entryIs -> {
+                        // 打印日志信息
+                        Stopwatch stopwatch = Stopwatch.run();
+                        LogPrinter.printBeforeUnzip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
+                        /*
+                         * 解压并重压缩文件
+                         */
+                        ZipResult<R> zipResult = superAC.reZip(entryIs, zipFileName, entryFileName, newUnzipTimes, newUnzipLevel, addFileFilter,
+                                deleteFileFilter, unzipFilter, otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction,
+                                deleteFileAction, beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, reZipACMap, null, os);
+                        // 打印日志信息
+                        LogPrinter.printAfterUnzip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, stopwatch);
+                        return zipResult;
+                    });
+                    rs.add(tuple._1);
+                    rs.addAll(tuple._2.getResults());
+                    byteArrays = tuple._2.getBytes();
+                } else {
+                    // 打印日志信息
+                    LogPrinter.printFilterLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
+
+                    unchanged = true;
+                    directOs = isRunAfterZipAction ? null : openParentEntry(parentEntry, true);
+                    OutputStream os = directOs == null ? entryOs : directOs;
+                    rs.add(TeeStreams.tee(currentIs, teeAction, unzipTimes, zipFileName, entryFileName, entryIs -> IOs.copy(entryIs, os))._1);
+                    byteArrays = directOs == null ? entryOs.toByteArrays() : null;
+                }
+
+                if (isRunAfterZipAction) {
+                    // 打印日志信息
+                    LogPrinter.printBeforeAfter(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, "后", "afterZipAction");
 
+                    try (MultiByteArrayInputStream afterZipIs = new MultiByteArrayInputStream(byteArrays)) {
+                        R r = afterZipAction.$(afterZipIs, unzipTimes, zipFileName, entryFileName);
+                        rs.add(r);
+                    }
+                }
+            } else if (superAC != null) {
+                /*
+                 * 为了避免 currentIs 在后续的 superAC.reZip 中被关闭，这里先复制一个；
+                 * 不需要重复读取时（不执行 beforeUnzipAction），只屏蔽关闭操作，不复制
+                 */
+                try (InputStream entryIs = isRunBeforeUnzipAction ? IOs.toMultiBAIS(currentIs) : TeeStreams.closeShield(currentIs)) {
                     if (isRunBeforeUnzipAction) {
                         // 打印日志信息
-                        LogPrinter.printBeforeAfter(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, "前");
+                        LogPrinter.printBeforeAfter(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, "前", "beforeUnzipAction");
 
                         R r = beforeUnzipAction.$(entryIs, unzipTimes, zipFileName, entryFileName);
                         rs.add(r);
                         entryIs.reset();      // 重复利用 MultiByteArrayInputStream，后续还要使用
                     }
 
+                    boolean isRunAfterZipAction = afterZipFilter != null && afterZipFilter.$(unzipTimes, zipFileName, entryFileName) && afterZipAction != null;
                     if (unzipLevel != 0 && (unzipFilter == null || unzipFilter.$(unzipTimes, zipFileName, entryFileName))) {
                         // 打印日志信息
                         Stopwatch stopwatch = Stopwatch.run();
                         LogPrinter.printBeforeUnzip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
+
+                        unchanged = false;
+                        directOs = isRunAfterZipAction ? null : openParentEntry(parentEntry, false);
                         /*
                          * 解压并重压缩文件
                          */
                         ZipResult<R> zipResult = superAC.reZip(entryIs, zipFileName, entryFileName, newUnzipTimes, newUnzipLevel, addFileFilter,
                                 deleteFileFilter, unzipFilter, otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction,
-                                deleteFileAction, beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, reZipACMap, null);
+                                deleteFileAction, beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, reZipACMap, null, directOs);
                         rs.addAll(zipResult.getResults());
                         byteArrays = zipResult.getBytes();
 
@@ -267,14 +484,16 @@ public abstract class SuperACs implements SuperAC {
                         // 打印日志信息
                         LogPrinter.printFilterLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
 
-                        IOs.copy(entryIs, entryOs);
-                        byteArrays = entryOs.toByteArrays();
+                        unchanged = true;
+                        directOs = isRunAfterZipAction ? null : openParentEntry(parentEntry, true);
+                        IOs.copy(entryIs, directOs == null ? entryOs : directOs);
+                        byteArrays = directOs == null ? entryOs.toByteArrays() : null;
                     }
 
                     // 这段代码需要放在此处，即使压缩包没有被修改。因为可能 isRunBeforeUnzipAction 为false，有些操作就放在 此处执行
-                    if (afterZipFilter != null && afterZipFilter.$(unzipTimes, zipFileName, entryFileName) && afterZipAction != null) {
+                    if (isRunAfterZipAction) {
                         // 打印日志信息
-                        LogPrinter.printBeforeAfter(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, "后");
+                        LogPrinter.printBeforeAfter(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, "后", "afterZipAction");
 
                         try (MultiByteArrayInputStream afterZipIs = new MultiByteArrayInputStream(byteArrays)) {
                             R r = afterZipAction.$(afterZipIs, unzipTimes, zipFileName, entryFileName);
@@ -288,10 +507,12 @@ public abstract class SuperACs implements SuperAC {
                     Stopwatch stopwatch = Stopwatch.run();
                     LogPrinter.printBeforeOther(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
 
+                    unchanged = false;
+                    directOs = openParentEntry(parentEntry, false);
                     /*
                      * 文件处理
                      */
-                    R r = otherAction.$(currentIs, entryOs, unzipTimes, zipFileName, entryFileName);
+                    R r = otherAction.$(currentIs, directOs == null ? entryOs : directOs, unzipTimes, zipFileName, entryFileName);
                     rs.add(r);
 
                     // 打印日志信息
@@ -301,27 +522,191 @@ public abstract class SuperACs implements SuperAC {
                     // 打印日志信息
                     LogPrinter.printFilterLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
 
-                    IOs.copy(currentIs, entryOs);
+                    unchanged = true;
+                    directOs = openParentEntry(parentEntry, true);
+                    IOs.copy(currentIs, directOs == null ? entryOs : directOs);
+                }
+                byteArrays = directOs == null ? entryOs.toByteArrays() : null;
+            }
+
+            if (directOs != null) {
+                directOs.flush();
+                return null;
+            }
+            /*
+             * 执行了 afterZipAction 时，缓存的内容写入父压缩包
+             */
+            if (parentEntry != null && byteArrays != null) {
+                OutputStream os = parentEntry.$(unchanged);
+                if (os != null) {
+                    for (byte[] bytes : byteArrays) {
+                        os.write(bytes);
+                    }
+                    return null;
                 }
-                byteArrays = entryOs.toByteArrays();
             }
             return byteArrays;
         }
     }
 
+    /**
+     * 获取父压缩包当前条目的输出流，关闭时不关闭原输出流
+     */
+    private static OutputStream openParentEntry(RT1<Boolean, ? extends OutputStream, Exception> parentEntry, boolean unchanged) throws Exception {
+        if (parentEntry == null) return null;
+        OutputStream os = parentEntry.$(unchanged);
+        return os == null ? null : closeShield(os);
+    }
+
+    /**
+     * 把 SevenZOutputFile 的当前条目包装为输出流，关闭时不关闭 SevenZOutputFile
+     *
+     * @param zos SevenZOutputFile
+     * @return 输出流
+     * @since 0.6.2
+     */
+    protected static OutputStream newSevenZEntryOutputStream(SevenZOutputFile zos) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                zos.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                zos.write(b, off, len);
+            }
+        };
+    }
+
+    /**
+     * 关闭时只刷新、不关闭原输出流
+     *
+     * @param os 输出流
+     * @return 包装后的输出流
+     * @since 0.6.2
+     */
+    protected static ShieldOutputStream closeShield(OutputStream os) {
+        return new ShieldOutputStream(os);
+    }
+
+    /**
+     * 统计写入字节数，关闭时只刷新、不关闭原输出流
+     *
+     * @since 0.6.2
+     */
+    protected static class ShieldOutputStream extends FilterOutputStream {
+        private long count;
+
+        ShieldOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+
+        /**
+         * 已写入的字节数
+         */
+        public long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * 处理 tar 包中的一个文件并写入 {@code zos}<br>
+     * tar 需要预先写入条目大小：内容原样复制时大小已知（{@code entrySize}），直接写入；
+     * 内容被修改时（如：内部压缩包重压缩）大小未知，才先缓存再写入
+     *
+     * @param zos       TarArchiveOutputStream
+     * @param entrySize 原条目的大小
+     * @since 0.6.2
+     */
+    protected static <R> void reZipTarEntry(TarArchiveOutputStream zos,
+                                            long entrySize,
+                                            InputStream currentIs,
+                                            ArrayList<R> rs,
+                                            String zipFileName,
+                                            String entryFileName,
+                                            int unzipTimes,
+                                            int unzipLevel,
+                                            int newUnzipTimes,
+                                            int newUnzipLevel,
+                                            Map<ArchiveFormat, SuperAC> reZipACMap,
+                                            PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                            PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                            PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                            PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                            PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                            PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                            RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                            RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                            RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                            RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                            RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                            RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                            ZipLogLevel zipLogLevel,
+                                            String unzipId,
+                                            String logSource
+    ) throws Exception {
+        Stopwatch[] stopwatch = {null};
+        Throwable suppressed = null;
+        try {
+            byte[][] byteArrays = reZip(currentIs, rs, zipFileName, entryFileName, unzipTimes, unzipLevel, newUnzipTimes, newUnzipLevel, reZipACMap,
+                    addFileFilter, deleteFileFilter, unzipFilter, otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction,
+                    deleteFileAction, beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, unzipId, logSource, unchanged -> {
+                        if (!unchanged) return null;
+                        // 打印日志信息
+                        stopwatch[0] = Stopwatch.run();
+                        LogPrinter.printBeforeWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
+
+                        zos.putArchiveEntry(getTarArchiveEntry(entryFileName, entrySize));
+                        return zos;
+                    });
+
+            if (byteArrays != null) {
+                // 打印日志信息
+                Stopwatch bufferedStopwatch = Stopwatch.run();
+                LogPrinter.printBeforeWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
+
+                long byteLength = Arrays.stream(byteArrays).mapToInt(bs -> bs.length).sum();
+                putTarArchiveEntry(zos, entryFileName, byteArrays, byteLength);
+
+                // 打印日志信息
+                LogPrinter.printAfterWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, bufferedStopwatch, byteLength);
+            }
+        } catch (Throwable e) {
+            suppressed = e;
+            O.sneakyThrows(e);
+        } finally {
+            if (stopwatch[0] != null) {
+                closeArchiveEntry(zos, suppressed);
+                // 打印日志信息
+                if (suppressed == null) LogPrinter.printAfterWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, stopwatch[0], entrySize);
+            }
+        }
+    }
+
     private static SuperAC getSuperAC(String entryFileName, Map<ArchiveFormat, SuperAC> reZipACMap) {
         /*
          * 这里的 entryFileName 已经是文件，而不是目录，目录在之前已经过滤掉了
          */
-        PathInfo pathInfo = FilePath.info(entryFileName);
-        FileName fileName = pathInfo.getFileName();
-
-        ArchiveFormat archiveFormat = ArchiveFormat.of(fileName.ext1);
-        boolean isMultiExtsFormat = ArchiveFormat.isMultiExtsFormat(archiveFormat); // 判断是否是多扩展名的格式
-        // 单扩展名的格式
-        if (!isMultiExtsFormat) archiveFormat = ArchiveFormat.of(fileName.ext);
-
-        return reZipACMap.get(archiveFormat);
+        ArchiveFormat archiveFormat = ZipKit.getArchiveFormat(entryFileName);
+        return archiveFormat == null ? null : reZipACMap.get(archiveFormat);
     }
 
     protected static String getUnzipId(int length, String unzipId) {
@@ -355,6 +740,123 @@ public abstract class SuperACs implements SuperAC {
         return Tuple.of(superACMap, superAC);
     }
 
+    static Tuple2<Map<ArchiveFormat, SuperAC>, SuperAC> checkParameters(ArchiveSource source, ArchiveFormat inputStreamType, List<SuperAC> superACs) {
+        checkHasNullNPE(args(source, inputStreamType), args("source", "inputStreamType"));
+        checkEmpty(superACs, args("superACs"));
+
+        Map<ArchiveFormat, SuperAC> superACMap = toSuperACMap(superACs);
+        SuperAC superAC = superACMap.get(inputStreamType);
+        checkArgument(superAC == null, "在参数`superACs`中未找到与`inputStreamType`相匹配 SuperAC 对象！");
+
+        return Tuple.of(superACMap, superAC);
+    }
+
+    static Tuple2<Map<ArchiveFormat, SuperAC>, SuperAC> checkParameters(File zipFile, ArchiveFormat inputStreamType, List<SuperAC> superACs) throws FileNotFoundException {
+        checkHasNullNPE(args(zipFile, inputStreamType), args("zipFile", "inputStreamType"));
+        checkFileNotFound(!zipFile.isFile(), "文件[${path}]不存在。", zipFile.getAbsolutePath());
+        checkEmpty(superACs, args("superACs"));
+
+        Map<ArchiveFormat, SuperAC> superACMap = toSuperACMap(superACs);
+        SuperAC superAC = superACMap.get(inputStreamType);
+        checkArgument(superAC == null, "在参数`superACs`中未找到与`inputStreamType`相匹配 SuperAC 对象！");
+
+        return Tuple.of(superACMap, superAC);
+    }
+
+    static ArchiveIndex index(File zipFile, ArchiveFormat inputStreamType, int unzipLevel, Map<ArchiveFormat, SuperAC> superACMap, SuperAC superAC) throws Exception {
+        String hash = ArchiveIndexCache.fingerprint(zipFile);
+        List<IndexEntry> entries = new ArchiveWalker(superACMap, true).walk(zipFile, superAC, zipFile.getName(), INIT_UNZIP_TIMES, unzipLevel);
+        return ArchiveIndex.of(inputStreamType, hash, zipFile.length(), zipFile.lastModified(), unzipLevel, entries);
+    }
+
+    static List<IndexEntry> list(File zipFile,
+                                 int unzipLevel,
+                                 PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                 Map<ArchiveFormat, SuperAC> superACMap,
+                                 SuperAC superAC) throws Exception {
+        return new ArchiveWalker(superACMap, false, unzipFilter).walk(zipFile, superAC, zipFile.getName(), INIT_UNZIP_TIMES, unzipLevel);
+    }
+
+    static List<IndexEntry> list(InputStream is,
+                                 String zipFileName,
+                                 int unzipLevel,
+                                 PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                 Map<ArchiveFormat, SuperAC> superACMap,
+                                 SuperAC superAC) throws Exception {
+        return new ArchiveWalker(superACMap, false, unzipFilter).walk(is, superAC, zipFileName, INIT_UNZIP_TIMES, unzipLevel);
+    }
+
+    static SuperAC checkTranscodeParameters(ArchiveFormat outputStreamType,
+                                            Map<ArchiveFormat, ArchiveFormat> nestedFormats,
+                                            Map<ArchiveFormat, SuperAC> superACMap,
+                                            SuperAC superAC) {
+        checkHasNullNPE(args(outputStreamType), args("outputStreamType"));
+        checkArgument(!ArchiveTranscoder.isReadable(superAC), "不支持转换【${…}】格式的压缩包！", superAC.format());
+
+        SuperAC target = superACMap.get(outputStreamType);
+        checkArgument(target == null, "在参数`superACs`中未找到与`outputStreamType`相匹配 SuperAC 对象！");
+        checkArgument(!ArchiveTranscoder.isWritable(target), "不支持转换为【${…}】格式！", outputStreamType);
+
+        if (nestedFormats != null) {
+            for (Map.Entry<ArchiveFormat, ArchiveFormat> entry : nestedFormats.entrySet()) {
+                checkHasNullNPE(args(entry.getKey(), entry.getValue()), args("nestedFormats.key", "nestedFormats.value"));
+                SuperAC nestedTarget = superACMap.get(entry.getValue());
+                checkArgument(nestedTarget == null, "在参数`superACs`中未找到与`nestedFormats`中的【${…}】相匹配 SuperAC 对象！", entry.getValue());
+                checkArgument(!ArchiveTranscoder.isWritable(nestedTarget), "不支持转换为【${…}】格式！", entry.getValue());
+            }
+        }
+        return target;
+    }
+
+    static List<IndexEntry> transcode(File zipFile,
+                                      File outputFile,
+                                      ArchiveFormat outputStreamType,
+                                      int unzipLevel,
+                                      Map<ArchiveFormat, ArchiveFormat> nestedFormats,
+                                      Map<ArchiveFormat, SuperAC> superACMap,
+                                      SuperAC superAC,
+                                      SuperAC target) throws Exception {
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(outputFile), 64 * 1024)) {
+            return new ArchiveTranscoder(superACMap, nestedFormats).transcode(zipFile, superAC, zipFile.getName(), os,
+                    target, outputStreamType, outputFile.getName(), INIT_UNZIP_TIMES, unzipLevel);
+        }
+    }
+
+    static List<IndexEntry> transcode(InputStream is,
+                                      String zipFileName,
+                                      OutputStream os,
+                                      ArchiveFormat outputStreamType,
+                                      int unzipLevel,
+                                      Map<ArchiveFormat, ArchiveFormat> nestedFormats,
+                                      Map<ArchiveFormat, SuperAC> superACMap,
+                                      SuperAC superAC,
+                                      SuperAC target) throws Exception {
+        String outputFileName = ArchiveTranscoder.transcodedName(zipFileName, superAC.format(), outputStreamType);
+        return new ArchiveTranscoder(superACMap, nestedFormats).transcode(is, superAC, zipFileName, os,
+                target, outputStreamType, outputFileName, INIT_UNZIP_TIMES, unzipLevel);
+    }
+
+    /**
+     * 在执行器中异步执行，任务抛出的异常包装在 {@link CompletionException} 中
+     *
+     * @param task     任务
+     * @param executor 执行器，为{@code null}则使用 {@link ZipExecutors#defaultExecutor()}
+     * @param <T>      任务返回值类型
+     * @return CompletableFuture
+     * @since 0.6.2
+     */
+    static <T> CompletableFuture<T> supplyAsync(RT0<? extends T, Exception> task, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.$();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor == null ? ZipExecutors.defaultExecutor() : executor);
+    }
+
     protected static Map<ArchiveFormat, SuperAC> toSuperACMap(List<SuperAC> superACs) {
         Map<ArchiveFormat, SuperAC> superACMap = new HashMap<>();
         for (SuperAC superAC : superACs) {
@@ -377,6 +879,12 @@ public abstract class SuperACs implements SuperAC {
         fillMap(superACMap, TAR_LZ, TLZ);
         fillMap(superACMap, TAR_XZ, TXZ);
         fillMap(superACMap, TAR_ZST, TZST);
+        fillMap(superACMap, SZ, SNAPPY);
+        // 没有 .tar.sz 的处理器，由 snappy 处理器解压出 .tar 文件，再由 tar 处理器解压
+        if (superACMap.containsKey(SZ)) {
+            superACMap.putIfAbsent(TAR_SZ, superACMap.get(SZ));
+            superACMap.putIfAbsent(TAR_SNAPPY, superACMap.get(SZ));
+        }
     }
 
     private static void fillMap(Map<ArchiveFormat, SuperAC> superACMap, ArchiveFormat format1, ArchiveFormat format2) {
@@ -419,6 +927,11 @@ public abstract class SuperACs implements SuperAC {
                 return SuperTarZstd.of();
             case ZSTD:
                 return SuperZstd.of();
+            case LZ4:
+                return SuperLz4.of();
+            case SZ:
+            case SNAPPY:
+                return SuperSnappy.of();
             default:
                 return null;
         }
@@ -444,6 +957,8 @@ public abstract class SuperACs implements SuperAC {
         superACs.add(SuperZip.of());
         superACs.add(SuperTarZstd.of());
         superACs.add(SuperZstd.of());
+        superACs.add(SuperLz4.of());
+        superACs.add(SuperSnappy.of());
         return superACs;
     }
 
@@ -474,6 +989,73 @@ public abstract class SuperACs implements SuperAC {
         }
     }
 
+    /**
+     * 向TAR输出流中写入文件，文件内容直接从文件通道写入，不会整个读入内存
+     *
+     * @param zos           TarArchiveOutputStream
+     * @param entryFileName entry文件名
+     * @param file          文件
+     * @since 0.6.2
+     */
+    public static void putTarArchiveEntry(TarArchiveOutputStream zos, String entryFileName, File file) {
+        Throwable suppressed = null;
+        try {
+            TarArchiveEntry tarArchiveEntry = getTarArchiveEntry(entryFileName, file.length());
+            zos.putArchiveEntry(tarArchiveEntry);
+            transferFile(file, zos);
+        } catch (Throwable e) {
+            suppressed = e;
+            O.sneakyThrows(e);
+        } finally {
+            closeArchiveEntry(zos, suppressed);
+        }
+    }
+
+    /**
+     * 向TAR输出流中写入数据源，条目大小取自 {@link AddSource#getSize()}，数据直接流式写入，不会整个读入内存
+     *
+     * @param zos           TarArchiveOutputStream
+     * @param entryFileName entry文件名
+     * @param source        数据源
+     * @since 0.6.2
+     */
+    public static void putTarArchiveEntry(TarArchiveOutputStream zos, String entryFileName, AddSource source) {
+        Throwable suppressed = null;
+        try {
+            TarArchiveEntry tarArchiveEntry = getTarArchiveEntry(entryFileName, source.getSize());
+            zos.putArchiveEntry(tarArchiveEntry);
+            source.writeTo(zos);
+        } catch (Throwable e) {
+            suppressed = e;
+            O.sneakyThrows(e);
+        } finally {
+            closeArchiveEntry(zos, suppressed);
+        }
+    }
+
+    /**
+     * 把文件内容按块写入输出流，不会整个读入内存
+     *
+     * @param file 文件
+     * @param os   输出流
+     * @return 写入的字节数
+     * @throws IOException 读取或写入失败
+     * @since 0.6.2
+     */
+    public static long transferFile(File file, OutputStream os) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(TRANSFER_BUFFER_SIZE);
+            long size = 0;
+            int n;
+            while ((n = channel.read(buffer)) != -1) {
+                os.write(buffer.array(), 0, n);
+                buffer.clear();
+                size += n;
+            }
+            return size;
+        }
+    }
+
     public static void closeArchiveEntry(ArchiveOutputStream<? extends ArchiveEntry> zos, Throwable suppressed) {
         try {
             zos.closeArchiveEntry();
@@ -511,12 +1093,38 @@ public abstract class SuperACs implements SuperAC {
         if (outputProperty.getStrategy() != null) zos.setStrategy(outputProperty.getStrategy());
     }
 
+    /**
+     * 创建 zstd 压缩输出流，设置了 {@link ZstdOutputProperty#seekableFrameSize} 时，以 Seekable Format 格式压缩；
+     * 设置了 {@link ZstdOutputProperty#trainDictSize} 时，自动训练字典（见 {@link ZstdDictTrainingOutputStream}）
+     *
+     * @param os             输出流
+     * @param outputProperty 压缩属性
+     * @return zstd 压缩输出流
+     * @throws IOException IOException
+     * @since 0.6.2
+     */
+    protected static OutputStream newZstdOutputStream(OutputStream os, ZstdOutputProperty outputProperty) throws IOException {
+        if (outputProperty.getTrainDictSize() != null) return new ZstdDictTrainingOutputStream(os, outputProperty);
+        if (outputProperty.getSeekableFrameSize() != null) return new ZstdSeekableOutputStream(os, outputProperty);
+
+        ZstdOutputStream zos = new ZstdOutputStream(os, outputProperty.getBufferPool());
+        setZstdOutputStreamOptions(zos, outputProperty);
+        return zos;
+    }
+
     protected static void setZstdInputStreamOptions(ZstdInputStream zipis, ZstdInputProperty inputProperty) throws IOException {
         zipis.setContinuous(inputProperty.isContinuous());
         zipis.setRefMultipleDDicts(inputProperty.isUseMultiple());
         if (inputProperty.getDict() != null) zipis.setDict(inputProperty.getDict());
         if (inputProperty.getDictDecompress() != null) zipis.setDict(inputProperty.getDictDecompress());
         if (inputProperty.getWindowLogMax() != null) zipis.setLongMax(inputProperty.getWindowLogMax());
+        // 引用注册表中的所有字典，解压时根据帧头中的字典ID选择
+        if (inputProperty.getDictRegistry() != null && inputProperty.getDictRegistry().size() > 0) {
+            zipis.setRefMultipleDDicts(true);
+            for (ZstdDictDecompress dictDecompress : inputProperty.getDictRegistry().dictDecompresses()) {
+                zipis.setDict(dictDecompress);
+            }
+        }
     }
 
     protected static ZipModel getZipModel(ZipModel zipModel) {
@@ -536,6 +1144,185 @@ public abstract class SuperACs implements SuperAC {
         return zipParameters;
     }
 
+    /**
+     * 是否自适应选择 ZIP 文件的压缩方法
+     *
+     * @param outputProperty ZIP压缩属性
+     * @return 开启了自适应且默认压缩方法为 {@link ZipEntry#DEFLATED} 时返回 {@code true}
+     * @since 0.6.2
+     */
+    protected static boolean isAdaptiveZipMethod(ZipOutputProperty outputProperty) {
+        return outputProperty.isAdaptiveMethod() && outputProperty.getMethod() == ZipEntry.DEFLATED;
+    }
+
+    /**
+     * 创建 ZipArchiveEntry，自适应选择压缩方法时（{@code entryMethods} 不为{@code null}）根据文件内容设置压缩方法
+     *
+     * @param entryFileName  文件名
+     * @param byteArrays     文件内容
+     * @param outputProperty ZIP压缩属性
+     * @param entryMethods   记录每个文件选择的压缩方法，为{@code null}则不自适应
+     * @return ZipArchiveEntry
+     * @since 0.6.2
+     */
+    protected static ZipArchiveEntry newZipArchiveEntry(String entryFileName, byte[][] byteArrays, ZipOutputProperty outputProperty, Map<String, Integer> entryMethods) {
+        ZipArchiveEntry zipArchiveEntry = new ZipArchiveEntry(entryFileName);
+        if (entryMethods == null || byteArrays == null) return zipArchiveEntry;
+
+        int method = adaptiveZipMethod(entryFileName, byteArrays, outputProperty.getLevel(), outputProperty);
+        zipArchiveEntry.setMethod(method);
+        if (method == ZipEntry.STORED) {
+            // 输出流不可随机写入，STORED 需要预先设置大小与CRC
+            CRC32 crc32 = new CRC32();
+            long size = 0;
+            for (byte[] bytes : byteArrays) {
+                crc32.update(bytes);
+                size += bytes.length;
+            }
+            zipArchiveEntry.setSize(size);
+            zipArchiveEntry.setCrc(crc32.getValue());
+        }
+        entryMethods.put(entryFileName, method);
+        return zipArchiveEntry;
+    }
+
+    /**
+     * 创建 ZipArchiveEntry，自适应选择压缩方法时（{@code entryMethods} 不为{@code null}）根据文件内容设置压缩方法
+     *
+     * @param entryFileName  文件名
+     * @param file           要添加的文件，不是文件时不自适应
+     * @param outputProperty ZIP压缩属性
+     * @param entryMethods   记录每个文件选择的压缩方法，为{@code null}则不自适应
+     * @return ZipArchiveEntry
+     * @throws IOException 读取文件失败
+     * @since 0.6.2
+     */
+    protected static ZipArchiveEntry newZipArchiveEntry(String entryFileName, File file, ZipOutputProperty outputProperty, Map<String, Integer> entryMethods) throws IOException {
+        ZipArchiveEntry zipArchiveEntry = new ZipArchiveEntry(entryFileName);
+        if (entryMethods == null || file == null || !file.isFile()) return zipArchiveEntry;
+
+        int method = adaptiveZipMethod(entryFileName, file, outputProperty.getLevel(), outputProperty);
+        zipArchiveEntry.setMethod(method);
+        if (method == ZipEntry.STORED) {
+            CRC32 crc32 = new CRC32();
+            try (CheckedInputStream cis = new CheckedInputStream(new FileInputStream(file), crc32)) {
+                byte[] buffer = new byte[8192];
+                while (cis.read(buffer) != -1) ;
+            }
+            zipArchiveEntry.setSize(file.length());
+            zipArchiveEntry.setCrc(crc32.getValue());
+        }
+        entryMethods.put(entryFileName, method);
+        return zipArchiveEntry;
+    }
+
+    /**
+     * 自适应选择压缩方法时（{@code entryMethods} 不为{@code null}），根据文件内容设置 zip4j 的压缩方法
+     *
+     * @param zipParameters  ZipParameters
+     * @param byteArrays     文件内容
+     * @param outputProperty ZIP压缩属性
+     * @param entryMethods   记录每个文件选择的压缩方法，为{@code null}则不自适应
+     * @since 0.6.2
+     */
+    protected static void setZipMethod(ZipParameters zipParameters, byte[][] byteArrays, ZipOutputProperty outputProperty, Map<String, Integer> entryMethods) {
+        if (entryMethods == null || byteArrays == null) return;
+
+        String entryFileName = zipParameters.getFileNameInZip();
+        int method = adaptiveZipMethod(entryFileName, byteArrays, zipParameters.getCompressionLevel().getLevel(), outputProperty);
+        if (method == ZipEntry.STORED) {
+            long size = 0;
+            for (byte[] bytes : byteArrays) {
+                size += bytes.length;
+            }
+            zipParameters.setCompressionMethod(CompressionMethod.STORE);
+            zipParameters.setEntrySize(size);
+        }
+        entryMethods.put(entryFileName, method);
+    }
+
+    /**
+     * 自适应选择压缩方法时（{@code entryMethods} 不为{@code null}），根据文件内容设置 zip4j 的压缩方法
+     *
+     * @param zipParameters  ZipParameters
+     * @param file           要添加的文件，不是文件时不自适应
+     * @param outputProperty ZIP压缩属性
+     * @param entryMethods   记录每个文件选择的压缩方法，为{@code null}则不自适应
+     * @throws IOException 读取文件失败
+     * @since 0.6.2
+     */
+    protected static void setZipMethod(ZipParameters zipParameters, File file, ZipOutputProperty outputProperty, Map<String, Integer> entryMethods) throws IOException {
+        if (entryMethods == null || file == null || !file.isFile()) return;
+
+        String entryFileName = zipParameters.getFileNameInZip();
+        int method = adaptiveZipMethod(entryFileName, file, zipParameters.getCompressionLevel().getLevel(), outputProperty);
+        if (method == ZipEntry.STORED) {
+            zipParameters.setCompressionMethod(CompressionMethod.STORE);
+            zipParameters.setEntrySize(file.length());
+        }
+        entryMethods.put(entryFileName, method);
+    }
+
+    private static int adaptiveZipMethod(String entryFileName, byte[][] byteArrays, int level, ZipOutputProperty outputProperty) {
+        if (isCompressedFormat(entryFileName)) return ZipEntry.STORED;
+
+        byte[] sample = new byte[outputProperty.getAdaptiveSampleSize()];
+        int sampleLength = 0;
+        for (byte[] bytes : byteArrays) {
+            int n = Math.min(bytes.length, sample.length - sampleLength);
+            System.arraycopy(bytes, 0, sample, sampleLength, n);
+            sampleLength += n;
+            if (sampleLength == sample.length) break;
+        }
+        return trialZipMethod(sample, sampleLength, level, outputProperty.getAdaptiveMinGain());
+    }
+
+    private static int adaptiveZipMethod(String entryFileName, File file, int level, ZipOutputProperty outputProperty) throws IOException {
+        if (isCompressedFormat(entryFileName)) return ZipEntry.STORED;
+
+        byte[] sample = new byte[outputProperty.getAdaptiveSampleSize()];
+        int sampleLength = 0;
+        try (FileInputStream fis = new FileInputStream(file)) {
+            int n;
+            while (sampleLength < sample.length && (n = fis.read(sample, sampleLength, sample.length - sampleLength)) != -1) {
+                sampleLength += n;
+            }
+        }
+        return trialZipMethod(sample, sampleLength, level, outputProperty.getAdaptiveMinGain());
+    }
+
+    /**
+     * 是否是已压缩的格式（能被 {@link #getSuperAC(ArchiveFormat)} 识别的压缩包，TAR 除外）
+     */
+    private static boolean isCompressedFormat(String entryFileName) {
+        ArchiveFormat archiveFormat = ZipKit.getArchiveFormat(entryFileName);
+        return archiveFormat != null && archiveFormat != TAR && getSuperAC(archiveFormat) != null;
+    }
+
+    /**
+     * 对样本试压缩，压缩后减少的比例小于 {@code minGain} 时返回 {@link ZipEntry#STORED}
+     */
+    private static int trialZipMethod(byte[] sample, int sampleLength, int level, double minGain) {
+        if (sampleLength == 0) return ZipEntry.STORED;
+
+        long maxCompressedLength = (long) (sampleLength * (1 - minGain));
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(sample, 0, sampleLength);
+            deflater.finish();
+            byte[] buffer = new byte[4096];
+            long compressedLength = 0;
+            while (!deflater.finished()) {
+                compressedLength += deflater.deflate(buffer);
+                // 已经超过阈值，不需要再压缩剩下的样本
+                if (compressedLength >= maxCompressedLength) return ZipEntry.STORED;
+            }
+            return ZipEntry.DEFLATED;
+        } finally {
+            deflater.end();
+        }
+    }
+
     protected static void closeZipEntry(ZipOutputStream zos, Throwable suppressed) {
         try {
             zos.closeEntry();
@@ -558,10 +1345,129 @@ public abstract class SuperACs implements SuperAC {
         }
     }
 
-    protected static String fileNameInGzip(GzipCompressorInputStream gcis, String gzipFileName, GzipInputProperty gzipInputProperty) {
+    /**
+     * 创建 gzip 解压输入流，{@link GzipInputProperty#parallelism} 大于1且解压多成员时，使用 {@link ParallelGzipInputStream}
+     *
+     * @param is                输入流
+     * @param gzipInputProperty 解压属性
+     * @return gzip 解压输入流
+     * @throws IOException IOException
+     * @since 0.6.2
+     */
+    protected static InputStream newGzipInputStream(InputStream is, GzipInputProperty gzipInputProperty) throws IOException {
+        Charset fileNameCharset = Charset.forName(gzipInputProperty.getFileNameEncoding1());
+        if (gzipInputProperty.isDecompressConcatenated() && gzipInputProperty.getParallelism() > 1) {
+            return new ParallelGzipInputStream(is, gzipInputProperty.getParallelism(), gzipInputProperty.getExecutor(), fileNameCharset);
+        }
+
+        return GzipCompressorInputStream.builder()
+                .setInputStream(is)
+                .setDecompressConcatenated(gzipInputProperty.isDecompressConcatenated())
+                .setFileNameCharset(fileNameCharset)
+                .get();
+    }
+
+    /**
+     * 创建 bzip2 解压输入流，{@link Bzip2InputProperty#parallelism} 大于1时，使用 {@link ParallelBzip2InputStream}
+     *
+     * @param is                 输入流
+     * @param bzip2InputProperty 解压属性
+     * @return bzip2 解压输入流
+     * @throws IOException IOException
+     * @since 0.6.2
+     */
+    protected static InputStream newBzip2InputStream(InputStream is, Bzip2InputProperty bzip2InputProperty) throws IOException {
+        if (bzip2InputProperty.getParallelism() > 1) {
+            return new ParallelBzip2InputStream(is, bzip2InputProperty.isDecompressConcatenated(), bzip2InputProperty.getParallelism(), bzip2InputProperty.getExecutor());
+        }
+        return new BZip2CompressorInputStream(is, bzip2InputProperty.isDecompressConcatenated());
+    }
+
+    /**
+     * 创建 lz4（Frame Format）解压输入流
+     *
+     * @param is               输入流
+     * @param lz4InputProperty 解压属性
+     * @return lz4 解压输入流
+     * @throws IOException IOException
+     * @since 0.6.2
+     */
+    protected static InputStream newLz4InputStream(InputStream is, Lz4InputProperty lz4InputProperty) throws IOException {
+        return new FramedLZ4CompressorInputStream(is, lz4InputProperty.isDecompressConcatenated());
+    }
+
+    /**
+     * 创建 snappy（Framing Format）解压输入流
+     *
+     * @param is                  输入流
+     * @param snappyInputProperty 解压属性
+     * @return snappy 解压输入流
+     * @throws IOException IOException
+     * @since 0.6.2
+     */
+    protected static InputStream newSnappyInputStream(InputStream is, SnappyInputProperty snappyInputProperty) throws IOException {
+        return new FramedSnappyCompressorInputStream(is, snappyInputProperty.getDialect());
+    }
+
+    /**
+     * 创建 xz 解压输入流，{@link XzInputProperty#parallelism} 大于1、输入可以随机读取且还没有读取
+     * （从头开始读取的 {@link FileInputStream}，或者可随机读取的数据源的 {@link ArchiveSource.SourceInputStream}）
+     * 且压缩数据有多个块时，使用 {@link ParallelXzInputStream} 根据索引按块并发解压；否则（如内嵌的压缩包、单块的 xz）顺序解压
+     *
+     * @param is              输入流
+     * @param xzInputProperty 解压属性
+     * @return xz 解压输入流
+     * @throws IOException IOException
+     * @since 0.6.2
+     */
+    protected static InputStream newXzInputStream(InputStream is, XzInputProperty xzInputProperty) throws IOException {
+        if (xzInputProperty.getParallelism() > 1) {
+            XzSeekableChannel seekableChannel = openXzSeekableChannel(is, xzInputProperty);
+            if (seekableChannel != null) {
+                return new ParallelXzInputStream(seekableChannel, xzInputProperty.getParallelism(), xzInputProperty.getExecutor());
+            }
+        }
+        // 不能并行时，顺序读取文件需要缓冲
+        if (is instanceof FileInputStream) is = new BufferedInputStream(is, 64 * 1024);
+        if (xzInputProperty.isDecompressConcatenated()) {
+            return new XZInputStream(is, xzInputProperty.getMemoryLimitInKb(), xzInputProperty.isVerifyCheck(), xzInputProperty.getArrayCache());
+        }
+        return new SingleXZInputStream(is, xzInputProperty.getMemoryLimitInKb(), xzInputProperty.isVerifyCheck(), xzInputProperty.getArrayCache());
+    }
+
+    /**
+     * 在输入流背后的文件或数据源上打开可随机读取的 xz 通道，不能随机读取或只有一个块时返回{@code null}，原输入流不受影响
+     */
+    private static XzSeekableChannel openXzSeekableChannel(InputStream is, XzInputProperty xzInputProperty) throws IOException {
+        if (is instanceof FileInputStream) {
+            // 读取索引使用不改变通道位置的读取方式，不能并行时原输入流不受影响
+            FileChannel channel = ((FileInputStream) is).getChannel();
+            return channel.position() == 0 ? XzSeekableChannel.open(channel, xzInputProperty) : null;
+        }
+        if (is instanceof ArchiveSource.SourceInputStream && ((ArchiveSource.SourceInputStream) is).isUnread()) {
+            // 在数据源上打开独立的通道，原输入流不再读取，由调用者随数据源一起关闭
+            SeekableByteChannel channel = ((ArchiveSource.SourceInputStream) is).getSource().openChannel();
+            try {
+                XzSeekableChannel seekableChannel = XzSeekableChannel.open(channel, xzInputProperty);
+                if (seekableChannel == null) channel.close();
+                return seekableChannel;
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+        return null;
+    }
+
+    protected static String fileNameInGzip(InputStream gzipIs, String gzipFileName, GzipInputProperty gzipInputProperty) {
         Charset inputFromCharset = Charset.forName(gzipInputProperty.getFileNameEncoding1());
         Charset inputToCharset = Charset.forName(gzipInputProperty.getFileNameEncoding2());
-        String filename = gcis == null ? null : gcis.getMetaData().getFileName();
+        String filename = null;
+        if (gzipIs instanceof GzipCompressorInputStream) {
+            filename = ((GzipCompressorInputStream) gzipIs).getMetaData().getFileName();
+        } else if (gzipIs instanceof ParallelGzipInputStream) {
+            filename = ((ParallelGzipInputStream) gzipIs).getFileName();
+        }
         if (G.isEmpty(filename)) {
             return ZipKit.getUncompressedName(gzipFileName, ArchiveFormat.GZIP);
         } else {
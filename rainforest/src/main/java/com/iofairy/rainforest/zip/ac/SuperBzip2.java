@@ -28,9 +28,9 @@ import com.iofairy.tuple.Tuple2;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
-import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.*;
@@ -82,6 +82,16 @@ public class SuperBzip2 extends SuperACs {
         return ArchiveFormat.BZIP2;
     }
 
+    @Override
+    InputStream newUnzipInputStream(InputStream is) throws IOException {
+        return newBzip2InputStream(is, unzipInputProperty);
+    }
+
+    @Override
+    OutputStream newReZipOutputStream(OutputStream os, String entryFileName) throws IOException {
+        return new BZip2CompressorOutputStream(os, reZipOutputProperty.getBlockSize());
+    }
+
     /**
      * 压缩包解压并处理文件（自动解压）<br>
      * <br>
@@ -131,13 +141,13 @@ public class SuperBzip2 extends SuperACs {
         // <<< 打印日志参数
 
         final ArrayList<R> rs = new ArrayList<>();
-        BZip2CompressorInputStream zipis = null;
+        InputStream zipis = null;
         try {
             if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
 
             String entryFileName = ZipKit.getUncompressedName(zipFileName, format());
 
-            zipis = new BZip2CompressorInputStream(is, unzipInputProperty.isDecompressConcatenated());
+            zipis = newBzip2InputStream(is, unzipInputProperty);
 
             final int newUnzipTimes = unzipTimes + 1;
             final int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
@@ -204,13 +214,13 @@ public class SuperBzip2 extends SuperACs {
         // <<< 打印日志参数
 
         final ArrayList<R> rs = new ArrayList<>();
-        BZip2CompressorInputStream zipis = null;
+        InputStream zipis = null;
         try {
             if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
 
             String entryFileName = ZipKit.getUncompressedName(zipFileName, format());
 
-            zipis = new BZip2CompressorInputStream(is, unzipInputProperty.isDecompressConcatenated());
+            zipis = newBzip2InputStream(is, unzipInputProperty);
 
             final int newUnzipTimes = unzipTimes + 1;
             final int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
@@ -280,6 +290,39 @@ public class SuperBzip2 extends SuperACs {
                                   ZipLogLevel zipLogLevel,
                                   Map<ArchiveFormat, SuperAC> superACs,
                                   String unzipId
+    ) throws Exception {
+        return reZip(is, parentZipName, zipFileName, unzipTimes, unzipLevel, addFileFilter, deleteFileFilter, unzipFilter,
+                otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction,
+                afterZipAction, otherAction, zipLogLevel, superACs, unzipId, null);
+    }
+
+    /**
+     * 重新打包的压缩包直接写入 {@code os}（不关闭），见 {@link SuperAC#reZip(InputStream, String, String, int, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, Map, String, OutputStream)}
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> ZipResult<R> reZip(final InputStream is,
+                                  String parentZipName,
+                                  String zipFileName,
+                                  final int unzipTimes,
+                                  final int unzipLevel,
+                                  PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                  RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                  ZipLogLevel zipLogLevel,
+                                  Map<ArchiveFormat, SuperAC> superACs,
+                                  String unzipId,
+                                  OutputStream os
     ) throws Exception {
         if (zipFileName == null) zipFileName = "";
 
@@ -289,17 +332,17 @@ public class SuperBzip2 extends SuperACs {
         // <<< 打印日志参数
 
         final ArrayList<R> rs = new ArrayList<>();
-        BZip2CompressorInputStream zipis = null;
+        InputStream zipis = null;
         MultiByteArrayOutputStream baos = null;
         BZip2CompressorOutputStream zos = null;
         try {
             if (reZipACMap == null) reZipACMap = toSuperACMap(superACs);
 
             baos = new MultiByteArrayOutputStream();
-            zipis = new BZip2CompressorInputStream(is, reZipInputProperty.isDecompressConcatenated());
+            zipis = newBzip2InputStream(is, reZipInputProperty);
             String entryFileName = ZipKit.getUncompressedName(zipFileName, format());
 
-            zos = new BZip2CompressorOutputStream(baos, reZipOutputProperty.getBlockSize());
+            zos = new BZip2CompressorOutputStream(os == null ? baos : closeShield(os), reZipOutputProperty.getBlockSize());
 
             final int newUnzipTimes = unzipTimes + 1;
             final int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
@@ -328,7 +371,7 @@ public class SuperBzip2 extends SuperACs {
             Close.close(zos);
             Close.close(baos);
         }
-        return ZipResult.of(baos.toByteArrays(), rs);
+        return ZipResult.of(os == null ? baos.toByteArrays() : null, rs);
     }
 
 }
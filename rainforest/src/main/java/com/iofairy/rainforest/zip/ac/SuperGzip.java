@@ -27,12 +27,10 @@ import com.iofairy.tuple.Tuple2;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.compress.compressors.gzip.GzipParameters;
 
 import java.io.*;
-import java.nio.charset.Charset;
 import java.util.*;
 
 /**
@@ -82,6 +80,16 @@ public class SuperGzip extends SuperACs {
         return ArchiveFormat.GZIP;
     }
 
+    @Override
+    InputStream newUnzipInputStream(InputStream is) throws IOException {
+        return newGzipInputStream(is, unzipInputProperty);
+    }
+
+    @Override
+    OutputStream newReZipOutputStream(OutputStream os, String entryFileName) throws IOException {
+        return new GzipCompressorOutputStream(os, getGzipParameters(reZipOutputProperty, entryFileName));
+    }
+
     /**
      * 压缩包解压并处理文件（自动解压）<br>
      * <br>
@@ -132,15 +140,11 @@ public class SuperGzip extends SuperACs {
         // <<< 打印日志参数
 
         final ArrayList<R> rs = new ArrayList<>();
-        GzipCompressorInputStream zipis = null;
+        InputStream zipis = null;
         try {
             if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
 
-            zipis = GzipCompressorInputStream.builder()
-                    .setInputStream(is)
-                    .setDecompressConcatenated(unzipInputProperty.isDecompressConcatenated())
-                    .setFileNameCharset(Charset.forName(unzipInputProperty.getFileNameEncoding1()))
-                    .get();
+            zipis = newGzipInputStream(is, unzipInputProperty);
 
             String entryFileName = fileNameInGzip(zipis, zipFileName, unzipInputProperty);
 
@@ -209,15 +213,11 @@ public class SuperGzip extends SuperACs {
         // <<< 打印日志参数
 
         final ArrayList<R> rs = new ArrayList<>();
-        GzipCompressorInputStream zipis = null;
+        InputStream zipis = null;
         try {
             if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
 
-            zipis = GzipCompressorInputStream.builder()
-                    .setInputStream(is)
-                    .setDecompressConcatenated(unzipInputProperty.isDecompressConcatenated())
-                    .setFileNameCharset(Charset.forName(unzipInputProperty.getFileNameEncoding1()))
-                    .get();
+            zipis = newGzipInputStream(is, unzipInputProperty);
 
             String entryFileName = fileNameInGzip(zipis, zipFileName, unzipInputProperty);
 
@@ -289,6 +289,39 @@ public class SuperGzip extends SuperACs {
                                   ZipLogLevel zipLogLevel,
                                   Map<ArchiveFormat, SuperAC> superACs,
                                   String unzipId
+    ) throws Exception {
+        return reZip(is, parentZipName, zipFileName, unzipTimes, unzipLevel, addFileFilter, deleteFileFilter, unzipFilter,
+                otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction,
+                afterZipAction, otherAction, zipLogLevel, superACs, unzipId, null);
+    }
+
+    /**
+     * 重新打包的压缩包直接写入 {@code os}（不关闭），见 {@link SuperAC#reZip(InputStream, String, String, int, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, Map, String, OutputStream)}
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> ZipResult<R> reZip(final InputStream is,
+                                  String parentZipName,
+                                  String zipFileName,
+                                  final int unzipTimes,
+                                  final int unzipLevel,
+                                  PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                  RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                  ZipLogLevel zipLogLevel,
+                                  Map<ArchiveFormat, SuperAC> superACs,
+                                  String unzipId,
+                                  OutputStream os
     ) throws Exception {
         if (zipFileName == null) zipFileName = "";
 
@@ -298,22 +331,18 @@ public class SuperGzip extends SuperACs {
         // <<< 打印日志参数
 
         final ArrayList<R> rs = new ArrayList<>();
-        GzipCompressorInputStream zipis = null;
+        InputStream zipis = null;
         MultiByteArrayOutputStream baos = null;
         GzipCompressorOutputStream zos = null;
         try {
             if (reZipACMap == null) reZipACMap = toSuperACMap(superACs);
 
-            zipis = GzipCompressorInputStream.builder()
-                    .setInputStream(is)
-                    .setDecompressConcatenated(reZipInputProperty.isDecompressConcatenated())
-                    .setFileNameCharset(Charset.forName(reZipInputProperty.getFileNameEncoding1()))
-                    .get();
+            zipis = newGzipInputStream(is, reZipInputProperty);
             String entryFileName = fileNameInGzip(zipis, zipFileName, reZipInputProperty);
             GzipParameters gzipParameters = getGzipParameters(reZipOutputProperty, entryFileName);
 
             baos = new MultiByteArrayOutputStream();
-            zos = new GzipCompressorOutputStream(baos, gzipParameters);
+            zos = new GzipCompressorOutputStream(os == null ? baos : closeShield(os), gzipParameters);
 
             final int newUnzipTimes = unzipTimes + 1;
             final int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
@@ -341,7 +370,7 @@ public class SuperGzip extends SuperACs {
             Close.close(zos);
             Close.close(baos);
         }
-        return ZipResult.of(baos.toByteArrays(), rs);
+        return ZipResult.of(os == null ? baos.toByteArrays() : null, rs);
     }
 
 
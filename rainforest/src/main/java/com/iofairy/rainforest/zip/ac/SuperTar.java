@@ -84,6 +84,12 @@ public class SuperTar extends SuperACs {
         return ArchiveFormat.TAR;
     }
 
+    @Override
+    TarArchiveInputStream newUnTarInputStream(InputStream is) throws IOException {
+        return new TarArchiveInputStream(is,
+                unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(), unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient());
+    }
+
     /**
      * 压缩包解压并处理文件（自动解压）<br>
      * <br>
@@ -303,6 +309,39 @@ public class SuperTar extends SuperACs {
                                   Map<ArchiveFormat, SuperAC> superACs,
                                   String unzipId
     ) throws Exception {
+        return reZip(is, parentZipName, zipFileName, unzipTimes, unzipLevel, addFileFilter, deleteFileFilter, unzipFilter,
+                otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction,
+                afterZipAction, otherAction, zipLogLevel, superACs, unzipId, null);
+    }
+
+    /**
+     * 重新打包的压缩包直接写入 {@code os}（不关闭），见 {@link SuperAC#reZip(InputStream, String, String, int, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, Map, String, OutputStream)}
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> ZipResult<R> reZip(final InputStream is,
+                                  String parentZipName,
+                                  String zipFileName,
+                                  final int unzipTimes,
+                                  final int unzipLevel,
+                                  PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                  RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                  ZipLogLevel zipLogLevel,
+                                  Map<ArchiveFormat, SuperAC> superACs,
+                                  String unzipId,
+                                  OutputStream os
+    ) throws Exception {
 
         if (zipFileName == null) zipFileName = "";
 
@@ -322,7 +361,7 @@ public class SuperTar extends SuperACs {
                     reTarInputProperty.getFileNameEncoding(), reTarInputProperty.isLenient());
 
             baos = new MultiByteArrayOutputStream();
-            zos = new TarArchiveOutputStream(baos, reTarOutputProperty.getBlockSize(), reTarOutputProperty.getFileNameEncoding());
+            zos = new TarArchiveOutputStream(os == null ? baos : closeShield(os), reTarOutputProperty.getBlockSize(), reTarOutputProperty.getFileNameEncoding());
 
             final int newUnzipTimes = unzipTimes + 1;
             final int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
@@ -358,21 +397,11 @@ public class SuperTar extends SuperACs {
                 }
 
 
-                byte[][] byteArrays = reZip(zipis, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
+                reZipTarEntry(zos, entry.getSize(), zipis, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
                         newUnzipTimes, newUnzipLevel, reZipACMap, addFileFilter, deleteFileFilter, unzipFilter, otherFilter,
                         beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction,
                         beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, unzipId, logSource);
 
-                // 打印日志信息
-                Stopwatch stopwatch = Stopwatch.run();
-                LogPrinter.printBeforeWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
-
-                long byteLength = Arrays.stream(byteArrays).mapToInt(bs -> bs.length).sum();
-                putTarArchiveEntry(zos, entryFileName, byteArrays, byteLength);
-
-                // 打印日志信息
-                LogPrinter.printAfterWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, stopwatch, byteLength);
-
             }
 
             /*
@@ -396,20 +425,16 @@ public class SuperTar extends SuperACs {
                                 // 打印日志信息
                                 LogPrinter.printAppendLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
 
-                                if (!addFile.isDirectory()) {
+                                if (!addFile.isDirectory() && addFile.getSource() != null) {
+                                    putTarArchiveEntry(zos, entryFileName, addFile.getSource());
+                                } else if (!addFile.isDirectory()) {
                                     File file = addFile.getFile();
                                     Objects.requireNonNull(file, "AddFile实例对象中的成员变量`isDirectory`为false时，`file`不能为null！" + errMsg);
                                     checkFileNotFound(!file.exists(), "文件[${path}]不存在。${errMsg}", file.getAbsolutePath(), errMsg);
 
                                     if (file.isFile()) {
-                                        // 自动关闭文件输入流
-                                        try (FileInputStream fis = new FileInputStream(file);
-                                             MultiByteArrayOutputStream tmpBAOS = IOs.toMultiBAOS(fis)) {
-                                            long size = tmpBAOS.size();
-                                            byte[][] byteArrays = tmpBAOS.toByteArrays();
-
-                                            putTarArchiveEntry(zos, entryFileName, byteArrays, size);
-                                        }
+                                        // 直接从文件通道写入，不整个读入内存
+                                        putTarArchiveEntry(zos, entryFileName, file);
                                     } else {
                                         putTarArchiveEntry(zos, entryFileNameWithSlash, null, 0);
                                     }
@@ -463,7 +488,7 @@ public class SuperTar extends SuperACs {
             Close.close(zos);
             Close.close(baos);
         }
-        return ZipResult.of(baos.toByteArrays(), rs);
+        return ZipResult.of(os == null ? baos.toByteArrays() : null, rs);
     }
 
 }
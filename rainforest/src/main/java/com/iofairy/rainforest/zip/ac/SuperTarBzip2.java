@@ -30,7 +30,6 @@ import lombok.ToString;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
-import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
 
 import java.io.*;
@@ -109,6 +108,22 @@ public class SuperTarBzip2 extends SuperACs {
         return ArchiveFormat.TAR_BZ2;
     }
 
+    @Override
+    InputStream newUnzipInputStream(InputStream is) throws IOException {
+        return newBzip2InputStream(is, unzipInputProperty);
+    }
+
+    @Override
+    OutputStream newReZipOutputStream(OutputStream os, String entryFileName) throws IOException {
+        return new BZip2CompressorOutputStream(os, reZipOutputProperty.getBlockSize());
+    }
+
+    @Override
+    TarArchiveInputStream newUnTarInputStream(InputStream is) throws IOException {
+        return new TarArchiveInputStream(newUnzipInputStream(is),
+                unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(), unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient());
+    }
+
     /**
      * 压缩包解压并处理文件（自动解压）<br>
      * <br>
@@ -160,11 +175,11 @@ public class SuperTarBzip2 extends SuperACs {
 
         final ArrayList<R> rs = new ArrayList<>();
         TarArchiveInputStream zipis = null;
-        BZip2CompressorInputStream innerIs = null;
+        InputStream innerIs = null;
         try {
             if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
 
-            innerIs = new BZip2CompressorInputStream(is, unzipInputProperty.isDecompressConcatenated());
+            innerIs = newBzip2InputStream(is, unzipInputProperty);
             zipis = new TarArchiveInputStream(innerIs, unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(),
                     unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient());
 
@@ -246,11 +261,11 @@ public class SuperTarBzip2 extends SuperACs {
 
         final ArrayList<R> rs = new ArrayList<>();
         TarArchiveInputStream zipis = null;
-        BZip2CompressorInputStream innerIs = null;
+        InputStream innerIs = null;
         try {
             if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
 
-            innerIs = new BZip2CompressorInputStream(is, unzipInputProperty.isDecompressConcatenated());
+            innerIs = newBzip2InputStream(is, unzipInputProperty);
             zipis = new TarArchiveInputStream(innerIs, unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(),
                     unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient());
 
@@ -334,6 +349,39 @@ public class SuperTarBzip2 extends SuperACs {
                                   Map<ArchiveFormat, SuperAC> superACs,
                                   String unzipId
     ) throws Exception {
+        return reZip(is, parentZipName, zipFileName, unzipTimes, unzipLevel, addFileFilter, deleteFileFilter, unzipFilter,
+                otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction,
+                afterZipAction, otherAction, zipLogLevel, superACs, unzipId, null);
+    }
+
+    /**
+     * 重新打包的压缩包直接写入 {@code os}（不关闭），见 {@link SuperAC#reZip(InputStream, String, String, int, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, Map, String, OutputStream)}
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> ZipResult<R> reZip(final InputStream is,
+                                  String parentZipName,
+                                  String zipFileName,
+                                  final int unzipTimes,
+                                  final int unzipLevel,
+                                  PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                  RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                  ZipLogLevel zipLogLevel,
+                                  Map<ArchiveFormat, SuperAC> superACs,
+                                  String unzipId,
+                                  OutputStream os
+    ) throws Exception {
 
         if (zipFileName == null) zipFileName = "";
 
@@ -346,17 +394,17 @@ public class SuperTarBzip2 extends SuperACs {
         TarArchiveInputStream zipis = null;
         MultiByteArrayOutputStream baos = null;
         TarArchiveOutputStream zos = null;
-        BZip2CompressorInputStream innerIs = null;
+        InputStream innerIs = null;
         BZip2CompressorOutputStream innerOs = null;
         try {
             if (reZipACMap == null) reZipACMap = toSuperACMap(superACs);
 
-            innerIs = new BZip2CompressorInputStream(is, reZipInputProperty.isDecompressConcatenated());
+            innerIs = newBzip2InputStream(is, reZipInputProperty);
             zipis = new TarArchiveInputStream(innerIs, reTarInputProperty.getBlockSize(), reTarInputProperty.getRecordSize(),
                     reTarInputProperty.getFileNameEncoding(), reTarInputProperty.isLenient());
 
             baos = new MultiByteArrayOutputStream();
-            innerOs = new BZip2CompressorOutputStream(baos, reZipOutputProperty.getBlockSize());
+            innerOs = new BZip2CompressorOutputStream(os == null ? baos : closeShield(os), reZipOutputProperty.getBlockSize());
             zos = new TarArchiveOutputStream(innerOs, reTarOutputProperty.getBlockSize(), reTarOutputProperty.getFileNameEncoding());
 
             final int newUnzipTimes = unzipTimes + 1;
@@ -393,21 +441,11 @@ public class SuperTarBzip2 extends SuperACs {
                 }
 
 
-                byte[][] byteArrays = reZip(zipis, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
+                reZipTarEntry(zos, entry.getSize(), zipis, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
                         newUnzipTimes, newUnzipLevel, reZipACMap, addFileFilter, deleteFileFilter, unzipFilter, otherFilter,
                         beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction,
                         beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, unzipId, logSource);
 
-                // 打印日志信息
-                Stopwatch stopwatch = Stopwatch.run();
-                LogPrinter.printBeforeWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
-
-                long byteLength = Arrays.stream(byteArrays).mapToInt(bs -> bs.length).sum();
-                putTarArchiveEntry(zos, entryFileName, byteArrays, byteLength);
-
-                // 打印日志信息
-                LogPrinter.printAfterWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, stopwatch, byteLength);
-
             }
 
             /*
@@ -431,20 +469,16 @@ public class SuperTarBzip2 extends SuperACs {
                                 // 打印日志信息
                                 LogPrinter.printAppendLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
 
-                                if (!addFile.isDirectory()) {
+                                if (!addFile.isDirectory() && addFile.getSource() != null) {
+                                    putTarArchiveEntry(zos, entryFileName, addFile.getSource());
+                                } else if (!addFile.isDirectory()) {
                                     File file = addFile.getFile();
                                     Objects.requireNonNull(file, "AddFile实例对象中的成员变量`isDirectory`为false时，`file`不能为null！" + errMsg);
                                     checkFileNotFound(!file.exists(), "文件[${path}]不存在。${errMsg}", file.getAbsolutePath(), errMsg);
 
                                     if (file.isFile()) {
-                                        // 自动关闭文件输入流
-                                        try (FileInputStream fis = new FileInputStream(file);
-                                             MultiByteArrayOutputStream tmpBAOS = IOs.toMultiBAOS(fis)) {
-                                            long size = tmpBAOS.size();
-                                            byte[][] byteArrays = tmpBAOS.toByteArrays();
-
-                                            putTarArchiveEntry(zos, entryFileName, byteArrays, size);
-                                        }
+                                        // 直接从文件通道写入，不整个读入内存
+                                        putTarArchiveEntry(zos, entryFileName, file);
                                     } else {
                                         putTarArchiveEntry(zos, entryFileNameWithSlash, null, 0);
                                     }
@@ -500,7 +534,7 @@ public class SuperTarBzip2 extends SuperACs {
             Close.close(innerOs);
             Close.close(baos);
         }
-        return ZipResult.of(baos.toByteArrays(), rs);
+        return ZipResult.of(os == null ? baos.toByteArrays() : null, rs);
     }
 
 }
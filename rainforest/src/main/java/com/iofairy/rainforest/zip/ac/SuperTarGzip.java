@@ -25,6 +25,9 @@ import com.iofairy.rainforest.zip.attr.GzipOutputProperty;
 import com.iofairy.rainforest.zip.attr.TarInputProperty;
 import com.iofairy.rainforest.zip.attr.TarOutputProperty;
 import com.iofairy.rainforest.zip.base.*;
+import com.iofairy.rainforest.zip.error.SuperACException;
+import com.iofairy.rainforest.zip.index.*;
+import com.iofairy.rainforest.zip.utils.ZipKit;
 import com.iofairy.tcf.Close;
 import com.iofairy.tuple.Tuple2;
 import lombok.Getter;
@@ -33,12 +36,10 @@ import lombok.ToString;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.compress.compressors.gzip.GzipParameters;
 
 import java.io.*;
-import java.nio.charset.Charset;
 import java.util.*;
 
 import static com.iofairy.validator.Preconditions.*;
@@ -114,6 +115,161 @@ public class SuperTarGzip extends SuperACs {
         return ArchiveFormat.TAR_GZ;
     }
 
+    @Override
+    InputStream newUnzipInputStream(InputStream is) throws IOException {
+        return newGzipInputStream(is, unzipInputProperty);
+    }
+
+    @Override
+    OutputStream newReZipOutputStream(OutputStream os, String entryFileName) throws IOException {
+        return new GzipCompressorOutputStream(os, getGzipParameters(reZipOutputProperty, entryFileName));
+    }
+
+    @Override
+    TarArchiveInputStream newUnTarInputStream(InputStream is) throws IOException {
+        return new TarArchiveInputStream(newUnzipInputStream(is),
+                unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(), unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient());
+    }
+
+    /**
+     * 获取 .tar.gz 文件的随机访问索引（gzip 访问点 + tar 文件头映射），用于 {@link #unzip(File, GzipIndex, int, PT3, PT3, PT3, RT4, RT4, ZipLogLevel, List)}<br>
+     * 索引文件存在且与压缩包一致（大小与最后修改时间相同）时直接加载；否则完整解压一次，同时记录访问点与 tar 文件头，并保存到索引文件
+     *
+     * @param tarGzFile .tar.gz 文件
+     * @param span      访问点之间的（解压后的）最小间隔，见 {@link GzipIndex#DEFAULT_SPAN}
+     * @param indexFile 索引文件，为{@code null}则保存在压缩包旁边，见 {@link GzipIndex#indexFileOf(File)}
+     * @return gzip 索引（包含 tar 文件头映射）
+     * @throws IOException IOException
+     * @since 0.6.2
+     */
+    public GzipIndex gzipIndex(File tarGzFile, long span, File indexFile) throws IOException {
+        checkHasNullNPE(args(tarGzFile), args("tarGzFile"));
+        checkFileNotFound(!tarGzFile.isFile(), "文件[${path}]不存在。", tarGzFile.getAbsolutePath());
+        if (indexFile == null) indexFile = GzipIndex.indexFileOf(tarGzFile);
+
+        if (indexFile.isFile()) {
+            try {
+                GzipIndex gzipIndex = GzipIndex.load(indexFile);
+                if (gzipIndex.getEntries() != null && gzipIndex.isValidFor(tarGzFile)) return gzipIndex;
+            } catch (IOException e) {
+                // 索引文件损坏或版本不兼容，重建索引
+            }
+        }
+
+        long lastModified = tarGzFile.lastModified();
+        List<IndexEntry> entries = new ArrayList<>();
+        GzipIndex gzipIndex;
+        try (GzipIndexInputStream gis = new GzipIndexInputStream(new FileInputStream(tarGzFile), span)) {
+            TarArchiveInputStream tis = new TarArchiveInputStream(gis,
+                    unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(), unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient());
+            TarArchiveEntry tarEntry;
+            while ((tarEntry = (TarArchiveEntry) tis.getNextEntry()) != null) {
+                String entryFileName = tarEntry.getName();
+                entries.add(IndexEntry.of(entryFileName, tarEntry.isDirectory())
+                        .setSize(tarEntry.getSize())
+                        .setOffset(tis.getBytesRead())
+                        .setLastModified(tarEntry.getModTime().getTime())
+                        .setFormat(ZipKit.getArchiveFormat(entryFileName)));
+            }
+            gzipIndex = GzipIndex.build(gis).setLastModified(lastModified).setEntries(entries);
+        }
+        gzipIndex.save(indexFile);
+        return gzipIndex;
+    }
+
+    /**
+     * 通过 gzip 随机访问索引解压 .tar.gz 文件：根据 tar 文件头映射找到匹配的条目，从最近的访问点开始解压，不匹配的条目不解压<br>
+     * 条目按偏移量顺序处理，相邻的条目之间没有更近的访问点时继续向后解压，不会重新定位<br>
+     * <b>注：过滤器会被调用多次（索引匹配时一次，实际解压时一次），所以过滤器不应有副作用</b>
+     *
+     * @param tarGzFile         .tar.gz 文件
+     * @param gzipIndex         gzip 随机访问索引，见 {@link #gzipIndex(File, long, File)}
+     * @param unzipLevel        解压层级。-1：无限解压，碰到压缩包就解压；0：只解压<b>当前压缩包</b>，不解压内部压缩包；&gt;=1：对内部压缩包的解压次数
+     * @param unzipFilter       内部压缩包的是否解压的过滤器，为{@code null}则<b>都解压</b>， {@code PT3<Integer, String, String, Exception>(压缩包的第几层, 父压缩包的文件名，当前内部文件的名称)}
+     * @param otherFilter       除压缩包以外的文件是否处理的过滤器，为{@code null}则<b>都处理</b>， {@code PT3<Integer, String, String, Exception>(压缩包的第几层, 父压缩包的文件名，当前内部文件的名称)}
+     * @param beforeUnzipFilter 压缩包解压缩前的Action前的过滤器，为{@code null}则<b>都不处理</b>， {@code PT3<Integer, String, String, Exception>(压缩包的第几层, 父压缩包的文件名，当前内部文件的名称)}
+     * @param beforeUnzipAction 解压之前的操作 {@code RT4<InputStream, Integer, String, String, R, Exception>(解压之前文件流, 压缩包的第几层, 父压缩包的文件名，当前内部文件的名称, 返回值)}
+     * @param otherAction       非压缩包的处理逻辑 {@code RT4<InputStream, Integer, String, String, R, Exception>(解压之前文件流, 压缩包的第几层, 父压缩包的文件名，当前内部文件的名称, 返回值)}
+     * @param zipLogLevel       解压缩日志等级
+     * @param superACs          支持哪些类型的压缩/解压处理器
+     * @param <R>               Action返回值类型
+     * @return 返回任意你想返回的内容，便于你在lambda表达式外进行操作
+     * @throws Exception 处理过程可能抛异常
+     * @since 0.6.2
+     */
+    public <R> List<R> unzip(final File tarGzFile,
+                             final GzipIndex gzipIndex,
+                             final int unzipLevel,
+                             PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                             PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                             PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                             RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                             RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                             ZipLogLevel zipLogLevel,
+                             List<SuperAC> superACs
+    ) throws Exception {
+        checkHasNullNPE(args(tarGzFile, gzipIndex), args("tarGzFile", "gzipIndex"));
+        checkFileNotFound(!tarGzFile.isFile(), "文件[${path}]不存在。", tarGzFile.getAbsolutePath());
+        checkArgument(gzipIndex.getEntries() == null, "参数`gzipIndex`中没有 tar 文件头映射！");
+        checkEmpty(superACs, args("superACs"));
+
+        final String zipFileName = tarGzFile.getName();
+        final int unzipTimes = INIT_UNZIP_TIMES;
+
+        // >>> 打印日志参数
+        String unzipId = getUnzipId(5, null);
+        final String logSource = getClass().getSimpleName() + ".unzip()";
+        // <<< 打印日志参数
+
+        try {
+            /*
+             * 打印最外层压缩包日志信息（解压前）
+             */
+            Stopwatch stopwatch = Stopwatch.run();
+            LogPrinter.printBeforeUnzip(unzipId, zipFileName, zipLogLevel, logSource);
+
+            final ArrayList<R> rs = new ArrayList<>();
+            if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
+
+            IndexMatch indexMatch = ArchiveIndex.of(format(), null, gzipIndex.getCompressedSize(), gzipIndex.getLastModified(), -1, gzipIndex.getEntries())
+                    .match(zipFileName, unzipLevel, unzipFilter, otherFilter, beforeUnzipFilter, beforeUnzipAction != null, otherAction != null, unzipACMap);
+            if (!indexMatch.isMatched()) {
+                LogPrinter.printIndexSkipLogs(unzipId, zipFileName, zipLogLevel, logSource);
+            } else {
+                PT3<Integer, String, String, Exception> prunedUnzipFilter = indexMatch.pruneUnzipFilter(unzipFilter);
+                final int newUnzipTimes = unzipTimes + 1;
+                final int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
+
+                try (GzipIndex.Reader reader = gzipIndex.reader(tarGzFile)) {
+                    for (IndexEntry entry : gzipIndex.getEntries()) {
+                        String entryFileName = entry.getName();
+                        if (entry.isDirectory()) continue;
+                        if (hasPathTraversalRisk(entryFileName)) {
+                            LogPrinter.printSkipEntryLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
+                            continue;
+                        }
+                        // 索引中不会被处理的条目，直接跳过，不解压数据
+                        if (!indexMatch.isEntryMatched(unzipTimes, zipFileName, entryFileName)) continue;
+
+                        try (InputStream currentIs = reader.open(entry.getOffset(), entry.getSize())) {
+                            unzip(currentIs, rs, zipFileName, entryFileName, unzipTimes, unzipLevel, newUnzipTimes, newUnzipLevel, unzipACMap,
+                                    prunedUnzipFilter, otherFilter, beforeUnzipFilter, beforeUnzipAction, otherAction, zipLogLevel, unzipId, logSource);
+                        }
+                    }
+                }
+            }
+
+            /*
+             * 打印最外层压缩包日志信息（解压后）
+             */
+            LogPrinter.printAfterUnzip(unzipId, zipFileName, zipLogLevel, logSource, stopwatch);
+
+            return rs;
+        } catch (Throwable e) {
+            throw new SuperACException(e, "【unzip()】解压ID：[${unzipId}]，解压【${zipFileName}】异常！", unzipId, zipFileName);
+        }
+    }
+
     /**
      * 压缩包解压并处理文件（自动解压）<br>
      * <br>
@@ -165,15 +321,11 @@ public class SuperTarGzip extends SuperACs {
 
         final ArrayList<R> rs = new ArrayList<>();
         TarArchiveInputStream zipis = null;
-        GzipCompressorInputStream innerIs = null;
+        InputStream innerIs = null;
         try {
             if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
 
-            innerIs = GzipCompressorInputStream.builder()
-                    .setInputStream(is)
-                    .setDecompressConcatenated(unzipInputProperty.isDecompressConcatenated())
-                    .setFileNameCharset(Charset.forName(unzipInputProperty.getFileNameEncoding1()))
-                    .get();
+            innerIs = newGzipInputStream(is, unzipInputProperty);
             zipis = new TarArchiveInputStream(innerIs,
                     unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(), unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient());
 
@@ -254,15 +406,11 @@ public class SuperTarGzip extends SuperACs {
 
         final ArrayList<R> rs = new ArrayList<>();
         TarArchiveInputStream zipis = null;
-        GzipCompressorInputStream innerIs = null;
+        InputStream innerIs = null;
         try {
             if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
 
-            innerIs = GzipCompressorInputStream.builder()
-                    .setInputStream(is)
-                    .setDecompressConcatenated(unzipInputProperty.isDecompressConcatenated())
-                    .setFileNameCharset(Charset.forName(unzipInputProperty.getFileNameEncoding1()))
-                    .get();
+            innerIs = newGzipInputStream(is, unzipInputProperty);
             zipis = new TarArchiveInputStream(innerIs,
                     unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(), unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient());
 
@@ -345,6 +493,39 @@ public class SuperTarGzip extends SuperACs {
                                   ZipLogLevel zipLogLevel,
                                   Map<ArchiveFormat, SuperAC> superACs,
                                   String unzipId
+    ) throws Exception {
+        return reZip(is, parentZipName, zipFileName, unzipTimes, unzipLevel, addFileFilter, deleteFileFilter, unzipFilter,
+                otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction,
+                afterZipAction, otherAction, zipLogLevel, superACs, unzipId, null);
+    }
+
+    /**
+     * 重新打包的压缩包直接写入 {@code os}（不关闭），见 {@link SuperAC#reZip(InputStream, String, String, int, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, Map, String, OutputStream)}
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> ZipResult<R> reZip(final InputStream is,
+                                  String parentZipName,
+                                  String zipFileName,
+                                  final int unzipTimes,
+                                  final int unzipLevel,
+                                  PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                  RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                  ZipLogLevel zipLogLevel,
+                                  Map<ArchiveFormat, SuperAC> superACs,
+                                  String unzipId,
+                                  OutputStream os
     ) throws Exception {
         if (zipFileName == null) zipFileName = "";
 
@@ -357,23 +538,19 @@ public class SuperTarGzip extends SuperACs {
         TarArchiveInputStream zipis = null;
         MultiByteArrayOutputStream baos = null;
         TarArchiveOutputStream zos = null;
-        GzipCompressorInputStream innerIs = null;
+        InputStream innerIs = null;
         GzipCompressorOutputStream innerOs = null;
         try {
             if (reZipACMap == null) reZipACMap = toSuperACMap(superACs);
 
-            innerIs = GzipCompressorInputStream.builder()
-                    .setInputStream(is)
-                    .setDecompressConcatenated(reZipInputProperty.isDecompressConcatenated())
-                    .setFileNameCharset(Charset.forName(reZipInputProperty.getFileNameEncoding1()))
-                    .get();
+            innerIs = newGzipInputStream(is, reZipInputProperty);
             zipis = new TarArchiveInputStream(innerIs, reTarInputProperty.getBlockSize(), reTarInputProperty.getRecordSize(),
                     reTarInputProperty.getFileNameEncoding(), reTarInputProperty.isLenient());
 
             String fileNameInGzip = fileNameInGzip(innerIs, zipFileName, reZipInputProperty);
             GzipParameters gzipParameters = getGzipParameters(reZipOutputProperty, fileNameInGzip);
             baos = new MultiByteArrayOutputStream();
-            innerOs = new GzipCompressorOutputStream(baos, gzipParameters);
+            innerOs = new GzipCompressorOutputStream(os == null ? baos : closeShield(os), gzipParameters);
             zos = new TarArchiveOutputStream(innerOs, reTarOutputProperty.getBlockSize(), reTarOutputProperty.getFileNameEncoding());
 
             final int newUnzipTimes = unzipTimes + 1;
@@ -410,21 +587,11 @@ public class SuperTarGzip extends SuperACs {
                 }
 
 
-                byte[][] byteArrays = reZip(zipis, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
+                reZipTarEntry(zos, entry.getSize(), zipis, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
                         newUnzipTimes, newUnzipLevel, reZipACMap, addFileFilter, deleteFileFilter, unzipFilter, otherFilter,
                         beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction,
                         beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, unzipId, logSource);
 
-                // 打印日志信息
-                Stopwatch stopwatch = Stopwatch.run();
-                LogPrinter.printBeforeWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
-
-                long byteLength = Arrays.stream(byteArrays).mapToInt(bs -> bs.length).sum();
-                putTarArchiveEntry(zos, entryFileName, byteArrays, byteLength);
-
-                // 打印日志信息
-                LogPrinter.printAfterWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, stopwatch, byteLength);
-
             }
 
             /*
@@ -448,20 +615,16 @@ public class SuperTarGzip extends SuperACs {
                                 // 打印日志信息
                                 LogPrinter.printAppendLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
 
-                                if (!addFile.isDirectory()) {
+                                if (!addFile.isDirectory() && addFile.getSource() != null) {
+                                    putTarArchiveEntry(zos, entryFileName, addFile.getSource());
+                                } else if (!addFile.isDirectory()) {
                                     File file = addFile.getFile();
                                     Objects.requireNonNull(file, "AddFile实例对象中的成员变量`isDirectory`为false时，`file`不能为null！" + errMsg);
                                     checkFileNotFound(!file.exists(), "文件[${path}]不存在。${errMsg}", file.getAbsolutePath(), errMsg);
 
                                     if (file.isFile()) {
-                                        // 自动关闭文件输入流
-                                        try (FileInputStream fis = new FileInputStream(file);
-                                             MultiByteArrayOutputStream tmpBAOS = IOs.toMultiBAOS(fis)) {
-                                            long size = tmpBAOS.size();
-                                            byte[][] byteArrays = tmpBAOS.toByteArrays();
-
-                                            putTarArchiveEntry(zos, entryFileName, byteArrays, size);
-                                        }
+                                        // 直接从文件通道写入，不整个读入内存
+                                        putTarArchiveEntry(zos, entryFileName, file);
                                     } else {
                                         putTarArchiveEntry(zos, entryFileNameWithSlash, null, 0);
                                     }
@@ -517,7 +680,7 @@ public class SuperTarGzip extends SuperACs {
             Close.close(innerOs);
             Close.close(baos);
         }
-        return ZipResult.of(baos.toByteArrays(), rs);
+        return ZipResult.of(os == null ? baos.toByteArrays() : null, rs);
     }
 
 
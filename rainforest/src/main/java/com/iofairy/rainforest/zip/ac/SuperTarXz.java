@@ -31,9 +31,8 @@ import lombok.ToString;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarFile;
 import org.tukaani.xz.LZMA2Options;
-import org.tukaani.xz.SingleXZInputStream;
-import org.tukaani.xz.XZInputStream;
 import org.tukaani.xz.XZOutputStream;
 
 import java.io.*;
@@ -112,6 +111,98 @@ public class SuperTarXz extends SuperACs {
         return ArchiveFormat.TAR_XZ;
     }
 
+    @Override
+    InputStream newUnzipInputStream(InputStream is) throws IOException {
+        return newXzInputStream(is, unzipInputProperty);
+    }
+
+    @Override
+    OutputStream newReZipOutputStream(OutputStream os, String entryFileName) throws IOException {
+        if (G.isEmpty(reZipOutputProperty.getFilterOptions())) {
+            return new XZOutputStream(os, new LZMA2Options(reZipOutputProperty.getPreset()), reZipOutputProperty.getCheckType(), reZipOutputProperty.getArrayCache());
+        }
+        return new XZOutputStream(os, reZipOutputProperty.getFilterOptions(), reZipOutputProperty.getCheckType(), reZipOutputProperty.getArrayCache());
+    }
+
+    @Override
+    TarArchiveInputStream newUnTarInputStream(InputStream is) throws IOException {
+        return new TarArchiveInputStream(newUnzipInputStream(is),
+                unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(), unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient());
+    }
+
+    /**
+     * 解压 .tar.xz 文件：压缩文件有多个块（见 {@link XzSeekableChannel}）时，
+     * 通过 xz 索引只解压 tar 文件头与需要处理的条目所在的块，不需要的条目不解压；否则退化为完整的流式解压
+     *
+     * @param tarXzFile        .tar.xz 文件
+     * @param unzipLevel        解压层级。-1：无限解压，碰到压缩包就解压；0：只解压<b>当前压缩包</b>，不解压内部压缩包；&gt;=1：对内部压缩包的解压次数
+     * @param unzipFilter       内部压缩包的是否解压的过滤器，为{@code null}则<b>都解压</b>， {@code PT3<Integer, String, String, Exception>(压缩包的第几层, 父压缩包的文件名，当前内部文件的名称)}
+     * @param otherFilter       除压缩包以外的文件是否处理的过滤器，为{@code null}则<b>都处理</b>， {@code PT3<Integer, String, String, Exception>(压缩包的第几层, 父压缩包的文件名，当前内部文件的名称)}
+     * @param beforeUnzipFilter 压缩包解压缩前的Action前的过滤器，为{@code null}则<b>都不处理</b>， {@code PT3<Integer, String, String, Exception>(压缩包的第几层, 父压缩包的文件名，当前内部文件的名称)}
+     * @param beforeUnzipAction 解压之前的操作 {@code RT4<InputStream, Integer, String, String, R, Exception>(解压之前文件流, 压缩包的第几层, 父压缩包的文件名，当前内部文件的名称, 返回值)}
+     * @param otherAction       非压缩包的处理逻辑 {@code RT4<InputStream, Integer, String, String, R, Exception>(解压之前文件流, 压缩包的第几层, 父压缩包的文件名，当前内部文件的名称, 返回值)}
+     * @param zipLogLevel       解压缩日志等级
+     * @param superACs          支持哪些类型的压缩/解压处理器
+     * @param <R>               Action返回值类型
+     * @return 返回任意你想返回的内容，便于你在lambda表达式外进行操作
+     * @throws Exception 处理过程可能抛异常
+     * @since 0.6.2
+     */
+    public <R> List<R> unzip(final File tarXzFile,
+                             final int unzipLevel,
+                             PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                             PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                             PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                             RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                             RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                             ZipLogLevel zipLogLevel,
+                             List<SuperAC> superACs
+    ) throws Exception {
+        checkHasNullNPE(args(tarXzFile), args("tarXzFile"));
+        checkFileNotFound(!tarXzFile.isFile(), "文件[${path}]不存在。", tarXzFile.getAbsolutePath());
+        checkEmpty(superACs, args("superACs"));
+
+        final String zipFileName = tarXzFile.getName();
+        final int unzipTimes = INIT_UNZIP_TIMES;
+        XzSeekableChannel channel = XzSeekableChannel.open(tarXzFile, unzipInputProperty);
+        if (channel == null) {
+            return unzip(new BufferedInputStream(new FileInputStream(tarXzFile), 64 * 1024), null, zipFileName, unzipTimes, unzipLevel,
+                    unzipFilter, otherFilter, beforeUnzipFilter, beforeUnzipAction, otherAction, zipLogLevel, toSuperACMap(superACs), null);
+        }
+
+        // >>> 打印日志参数
+        String unzipId = getUnzipId(5, null);
+        final String logSource = getClass().getSimpleName() + ".unzip()";
+        // <<< 打印日志参数
+
+        final ArrayList<R> rs = new ArrayList<>();
+        if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
+
+        final int newUnzipTimes = unzipTimes + 1;
+        final int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
+
+        // TarFile 只读取文件头；条目数据在真正读取时才解压对应的块，没有被处理的条目不会解压
+        try (TarFile tarFile = new TarFile(channel, unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(),
+                unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient())) {
+            for (TarArchiveEntry entry : tarFile.getEntries()) {
+                String entryFileName = entry.getName();
+                if (entry.isDirectory()) continue;
+                if (hasPathTraversalRisk(entryFileName)) {
+                    LogPrinter.printSkipEntryLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
+                    continue;
+                }
+
+                try (InputStream currentIs = tarFile.getInputStream(entry)) {
+                    unzip(currentIs, rs, zipFileName, entryFileName, unzipTimes, unzipLevel, newUnzipTimes, newUnzipLevel, unzipACMap,
+                            unzipFilter, otherFilter, beforeUnzipFilter, beforeUnzipAction, otherAction, zipLogLevel, unzipId, logSource);
+                }
+            }
+        } finally {
+            Close.close(channel);
+        }
+        return rs;
+    }
+
     /**
      * 压缩包解压并处理文件（自动解压）<br>
      * <br>
@@ -167,11 +258,7 @@ public class SuperTarXz extends SuperACs {
         try {
             if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
 
-            if (unzipInputProperty.isDecompressConcatenated()) {
-                innerIs = new XZInputStream(is, unzipInputProperty.getMemoryLimitInKb(), unzipInputProperty.isVerifyCheck(), unzipInputProperty.getArrayCache());
-            } else {
-                innerIs = new SingleXZInputStream(is, unzipInputProperty.getMemoryLimitInKb(), unzipInputProperty.isVerifyCheck(), unzipInputProperty.getArrayCache());
-            }
+            innerIs = newXzInputStream(is, unzipInputProperty);
             zipis = new TarArchiveInputStream(innerIs, unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(),
                     unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient());
 
@@ -256,11 +343,7 @@ public class SuperTarXz extends SuperACs {
         try {
             if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
 
-            if (unzipInputProperty.isDecompressConcatenated()) {
-                innerIs = new XZInputStream(is, unzipInputProperty.getMemoryLimitInKb(), unzipInputProperty.isVerifyCheck(), unzipInputProperty.getArrayCache());
-            } else {
-                innerIs = new SingleXZInputStream(is, unzipInputProperty.getMemoryLimitInKb(), unzipInputProperty.isVerifyCheck(), unzipInputProperty.getArrayCache());
-            }
+            innerIs = newXzInputStream(is, unzipInputProperty);
             zipis = new TarArchiveInputStream(innerIs, unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(),
                     unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient());
 
@@ -344,6 +427,39 @@ public class SuperTarXz extends SuperACs {
                                   Map<ArchiveFormat, SuperAC> superACs,
                                   String unzipId
     ) throws Exception {
+        return reZip(is, parentZipName, zipFileName, unzipTimes, unzipLevel, addFileFilter, deleteFileFilter, unzipFilter,
+                otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction,
+                afterZipAction, otherAction, zipLogLevel, superACs, unzipId, null);
+    }
+
+    /**
+     * 重新打包的压缩包直接写入 {@code os}（不关闭），见 {@link SuperAC#reZip(InputStream, String, String, int, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, Map, String, OutputStream)}
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> ZipResult<R> reZip(final InputStream is,
+                                  String parentZipName,
+                                  String zipFileName,
+                                  final int unzipTimes,
+                                  final int unzipLevel,
+                                  PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                  RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                  ZipLogLevel zipLogLevel,
+                                  Map<ArchiveFormat, SuperAC> superACs,
+                                  String unzipId,
+                                  OutputStream os
+    ) throws Exception {
 
         if (zipFileName == null) zipFileName = "";
 
@@ -361,19 +477,15 @@ public class SuperTarXz extends SuperACs {
         try {
             if (reZipACMap == null) reZipACMap = toSuperACMap(superACs);
 
-            if (reZipInputProperty.isDecompressConcatenated()) {
-                innerIs = new XZInputStream(is, reZipInputProperty.getMemoryLimitInKb(), reZipInputProperty.isVerifyCheck(), reZipInputProperty.getArrayCache());
-            } else {
-                innerIs = new SingleXZInputStream(is, reZipInputProperty.getMemoryLimitInKb(), reZipInputProperty.isVerifyCheck(), reZipInputProperty.getArrayCache());
-            }
+            innerIs = newXzInputStream(is, reZipInputProperty);
             zipis = new TarArchiveInputStream(innerIs, reTarInputProperty.getBlockSize(), reTarInputProperty.getRecordSize(),
                     reTarInputProperty.getFileNameEncoding(), reTarInputProperty.isLenient());
 
             baos = new MultiByteArrayOutputStream();
             if (G.isEmpty(reZipOutputProperty.getFilterOptions())) {
-                innerOs = new XZOutputStream(baos, new LZMA2Options(reZipOutputProperty.getPreset()), reZipOutputProperty.getCheckType(), reZipOutputProperty.getArrayCache());
+                innerOs = new XZOutputStream(os == null ? baos : closeShield(os), new LZMA2Options(reZipOutputProperty.getPreset()), reZipOutputProperty.getCheckType(), reZipOutputProperty.getArrayCache());
             } else {
-                innerOs = new XZOutputStream(baos, reZipOutputProperty.getFilterOptions(), reZipOutputProperty.getCheckType(), reZipOutputProperty.getArrayCache());
+                innerOs = new XZOutputStream(os == null ? baos : closeShield(os), reZipOutputProperty.getFilterOptions(), reZipOutputProperty.getCheckType(), reZipOutputProperty.getArrayCache());
             }
             zos = new TarArchiveOutputStream(innerOs, reTarOutputProperty.getBlockSize(), reTarOutputProperty.getFileNameEncoding());
 
@@ -411,21 +523,11 @@ public class SuperTarXz extends SuperACs {
                 }
 
 
-                byte[][] byteArrays = reZip(zipis, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
+                reZipTarEntry(zos, entry.getSize(), zipis, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
                         newUnzipTimes, newUnzipLevel, reZipACMap, addFileFilter, deleteFileFilter, unzipFilter, otherFilter,
                         beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction,
                         beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, unzipId, logSource);
 
-                // 打印日志信息
-                Stopwatch stopwatch = Stopwatch.run();
-                LogPrinter.printBeforeWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
-
-                long byteLength = Arrays.stream(byteArrays).mapToInt(bs -> bs.length).sum();
-                putTarArchiveEntry(zos, entryFileName, byteArrays, byteLength);
-
-                // 打印日志信息
-                LogPrinter.printAfterWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, stopwatch, byteLength);
-
             }
 
             /*
@@ -449,20 +551,16 @@ public class SuperTarXz extends SuperACs {
                                 // 打印日志信息
                                 LogPrinter.printAppendLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
 
-                                if (!addFile.isDirectory()) {
+                                if (!addFile.isDirectory() && addFile.getSource() != null) {
+                                    putTarArchiveEntry(zos, entryFileName, addFile.getSource());
+                                } else if (!addFile.isDirectory()) {
                                     File file = addFile.getFile();
                                     Objects.requireNonNull(file, "AddFile实例对象中的成员变量`isDirectory`为false时，`file`不能为null！" + errMsg);
                                     checkFileNotFound(!file.exists(), "文件[${path}]不存在。${errMsg}", file.getAbsolutePath(), errMsg);
 
                                     if (file.isFile()) {
-                                        // 自动关闭文件输入流
-                                        try (FileInputStream fis = new FileInputStream(file);
-                                             MultiByteArrayOutputStream tmpBAOS = IOs.toMultiBAOS(fis)) {
-                                            long size = tmpBAOS.size();
-                                            byte[][] byteArrays = tmpBAOS.toByteArrays();
-
-                                            putTarArchiveEntry(zos, entryFileName, byteArrays, size);
-                                        }
+                                        // 直接从文件通道写入，不整个读入内存
+                                        putTarArchiveEntry(zos, entryFileName, file);
                                     } else {
                                         putTarArchiveEntry(zos, entryFileNameWithSlash, null, 0);
                                     }
@@ -518,7 +616,7 @@ public class SuperTarXz extends SuperACs {
             Close.close(innerOs);
             Close.close(baos);
         }
-        return ZipResult.of(baos.toByteArrays(), rs);
+        return ZipResult.of(os == null ? baos.toByteArrays() : null, rs);
     }
 
 }
@@ -16,9 +16,7 @@
 package com.iofairy.rainforest.zip.ac;
 
 import com.github.luben.zstd.ZstdInputStream;
-import com.github.luben.zstd.ZstdOutputStream;
 import com.iofairy.falcon.fs.FilePath;
-import com.iofairy.falcon.io.IOs;
 import com.iofairy.falcon.io.MultiByteArrayOutputStream;
 import com.iofairy.time.Stopwatch;
 import com.iofairy.falcon.zip.ArchiveFormat;
@@ -33,6 +31,7 @@ import lombok.ToString;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarFile;
 
 import java.io.*;
 import java.util.*;
@@ -110,6 +109,97 @@ public class SuperTarZstd extends SuperACs {
         return ArchiveFormat.TAR_ZST;
     }
 
+    @Override
+    InputStream newUnzipInputStream(InputStream is) throws IOException {
+        ZstdInputStream zipis = new ZstdInputStream(is, unzipInputProperty.getBufferPool());
+        setZstdInputStreamOptions(zipis, unzipInputProperty);
+        return zipis;
+    }
+
+    @Override
+    OutputStream newReZipOutputStream(OutputStream os, String entryFileName) throws IOException {
+        return newZstdOutputStream(os, reZipOutputProperty);
+    }
+
+    @Override
+    TarArchiveInputStream newUnTarInputStream(InputStream is) throws IOException {
+        return new TarArchiveInputStream(newUnzipInputStream(is),
+                unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(), unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient());
+    }
+
+    /**
+     * 解压 .tar.zst 文件：压缩文件为 Seekable Format 格式（见 {@link ZstdOutputProperty#seekableFrameSize}）时，
+     * 通过跳表只解压 tar 文件头与需要处理的条目所在的帧，不需要的条目不解压；否则退化为完整的流式解压
+     *
+     * @param tarZstFile        .tar.zst 文件
+     * @param unzipLevel        解压层级。-1：无限解压，碰到压缩包就解压；0：只解压<b>当前压缩包</b>，不解压内部压缩包；&gt;=1：对内部压缩包的解压次数
+     * @param unzipFilter       内部压缩包的是否解压的过滤器，为{@code null}则<b>都解压</b>， {@code PT3<Integer, String, String, Exception>(压缩包的第几层, 父压缩包的文件名，当前内部文件的名称)}
+     * @param otherFilter       除压缩包以外的文件是否处理的过滤器，为{@code null}则<b>都处理</b>， {@code PT3<Integer, String, String, Exception>(压缩包的第几层, 父压缩包的文件名，当前内部文件的名称)}
+     * @param beforeUnzipFilter 压缩包解压缩前的Action前的过滤器，为{@code null}则<b>都不处理</b>， {@code PT3<Integer, String, String, Exception>(压缩包的第几层, 父压缩包的文件名，当前内部文件的名称)}
+     * @param beforeUnzipAction 解压之前的操作 {@code RT4<InputStream, Integer, String, String, R, Exception>(解压之前文件流, 压缩包的第几层, 父压缩包的文件名，当前内部文件的名称, 返回值)}
+     * @param otherAction       非压缩包的处理逻辑 {@code RT4<InputStream, Integer, String, String, R, Exception>(解压之前文件流, 压缩包的第几层, 父压缩包的文件名，当前内部文件的名称, 返回值)}
+     * @param zipLogLevel       解压缩日志等级
+     * @param superACs          支持哪些类型的压缩/解压处理器
+     * @param <R>               Action返回值类型
+     * @return 返回任意你想返回的内容，便于你在lambda表达式外进行操作
+     * @throws Exception 处理过程可能抛异常
+     * @since 0.6.2
+     */
+    public <R> List<R> unzip(final File tarZstFile,
+                             final int unzipLevel,
+                             PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                             PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                             PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                             RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                             RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                             ZipLogLevel zipLogLevel,
+                             List<SuperAC> superACs
+    ) throws Exception {
+        checkHasNullNPE(args(tarZstFile), args("tarZstFile"));
+        checkFileNotFound(!tarZstFile.isFile(), "文件[${path}]不存在。", tarZstFile.getAbsolutePath());
+        checkEmpty(superACs, args("superACs"));
+
+        final String zipFileName = tarZstFile.getName();
+        final int unzipTimes = INIT_UNZIP_TIMES;
+        ZstdSeekableChannel channel = ZstdSeekableChannel.open(tarZstFile, unzipInputProperty);
+        if (channel == null) {
+            return unzip(new BufferedInputStream(new FileInputStream(tarZstFile), 64 * 1024), null, zipFileName, unzipTimes, unzipLevel,
+                    unzipFilter, otherFilter, beforeUnzipFilter, beforeUnzipAction, otherAction, zipLogLevel, toSuperACMap(superACs), null);
+        }
+
+        // >>> 打印日志参数
+        String unzipId = getUnzipId(5, null);
+        final String logSource = getClass().getSimpleName() + ".unzip()";
+        // <<< 打印日志参数
+
+        final ArrayList<R> rs = new ArrayList<>();
+        if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
+
+        final int newUnzipTimes = unzipTimes + 1;
+        final int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
+
+        // TarFile 只读取文件头；条目数据在真正读取时才解压对应的帧，没有被处理的条目不会解压
+        try (TarFile tarFile = new TarFile(channel, unTarInputProperty.getBlockSize(), unTarInputProperty.getRecordSize(),
+                unTarInputProperty.getFileNameEncoding(), unTarInputProperty.isLenient())) {
+            for (TarArchiveEntry entry : tarFile.getEntries()) {
+                String entryFileName = entry.getName();
+                if (entry.isDirectory()) continue;
+                if (hasPathTraversalRisk(entryFileName)) {
+                    LogPrinter.printSkipEntryLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
+                    continue;
+                }
+
+                try (InputStream currentIs = tarFile.getInputStream(entry)) {
+                    unzip(currentIs, rs, zipFileName, entryFileName, unzipTimes, unzipLevel, newUnzipTimes, newUnzipLevel, unzipACMap,
+                            unzipFilter, otherFilter, beforeUnzipFilter, beforeUnzipAction, otherAction, zipLogLevel, unzipId, logSource);
+                }
+            }
+        } finally {
+            Close.close(channel);
+        }
+        return rs;
+    }
+
     /**
      * 压缩包解压并处理文件（自动解压）<br>
      * <br>
@@ -336,6 +426,39 @@ public class SuperTarZstd extends SuperACs {
                                   Map<ArchiveFormat, SuperAC> superACs,
                                   String unzipId
     ) throws Exception {
+        return reZip(is, parentZipName, zipFileName, unzipTimes, unzipLevel, addFileFilter, deleteFileFilter, unzipFilter,
+                otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction,
+                afterZipAction, otherAction, zipLogLevel, superACs, unzipId, null);
+    }
+
+    /**
+     * 重新打包的压缩包直接写入 {@code os}（不关闭），见 {@link SuperAC#reZip(InputStream, String, String, int, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, Map, String, OutputStream)}
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> ZipResult<R> reZip(final InputStream is,
+                                  String parentZipName,
+                                  String zipFileName,
+                                  final int unzipTimes,
+                                  final int unzipLevel,
+                                  PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                  RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                  ZipLogLevel zipLogLevel,
+                                  Map<ArchiveFormat, SuperAC> superACs,
+                                  String unzipId,
+                                  OutputStream os
+    ) throws Exception {
 
         if (zipFileName == null) zipFileName = "";
 
@@ -349,7 +472,7 @@ public class SuperTarZstd extends SuperACs {
         MultiByteArrayOutputStream baos = null;
         TarArchiveOutputStream zos = null;
         ZstdInputStream innerIs = null;
-        ZstdOutputStream innerOs = null;
+        OutputStream innerOs = null;
         try {
             if (reZipACMap == null) reZipACMap = toSuperACMap(superACs);
 
@@ -359,8 +482,7 @@ public class SuperTarZstd extends SuperACs {
                     reTarInputProperty.getFileNameEncoding(), reTarInputProperty.isLenient());
 
             baos = new MultiByteArrayOutputStream();
-            innerOs = new ZstdOutputStream(baos, reZipOutputProperty.getBufferPool());
-            setZstdOutputStreamOptions(innerOs, reZipOutputProperty);
+            innerOs = newZstdOutputStream(os == null ? baos : closeShield(os), reZipOutputProperty);
             zos = new TarArchiveOutputStream(innerOs, reTarOutputProperty.getBlockSize(), reTarOutputProperty.getFileNameEncoding());
 
             final int newUnzipTimes = unzipTimes + 1;
@@ -397,21 +519,11 @@ public class SuperTarZstd extends SuperACs {
                 }
 
 
-                byte[][] byteArrays = reZip(zipis, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
+                reZipTarEntry(zos, entry.getSize(), zipis, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
                         newUnzipTimes, newUnzipLevel, reZipACMap, addFileFilter, deleteFileFilter, unzipFilter, otherFilter,
                         beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction,
                         beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, unzipId, logSource);
 
-                // 打印日志信息
-                Stopwatch stopwatch = Stopwatch.run();
-                LogPrinter.printBeforeWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
-
-                long byteLength = Arrays.stream(byteArrays).mapToInt(bs -> bs.length).sum();
-                putTarArchiveEntry(zos, entryFileName, byteArrays, byteLength);
-
-                // 打印日志信息
-                LogPrinter.printAfterWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, stopwatch, byteLength);
-
             }
 
             /*
@@ -435,20 +547,16 @@ public class SuperTarZstd extends SuperACs {
                                 // 打印日志信息
                                 LogPrinter.printAppendLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
 
-                                if (!addFile.isDirectory()) {
+                                if (!addFile.isDirectory() && addFile.getSource() != null) {
+                                    putTarArchiveEntry(zos, entryFileName, addFile.getSource());
+                                } else if (!addFile.isDirectory()) {
                                     File file = addFile.getFile();
                                     Objects.requireNonNull(file, "AddFile实例对象中的成员变量`isDirectory`为false时，`file`不能为null！" + errMsg);
                                     checkFileNotFound(!file.exists(), "文件[${path}]不存在。${errMsg}", file.getAbsolutePath(), errMsg);
 
                                     if (file.isFile()) {
-                                        // 自动关闭文件输入流
-                                        try (FileInputStream fis = new FileInputStream(file);
-                                             MultiByteArrayOutputStream tmpBAOS = IOs.toMultiBAOS(fis)) {
-                                            long size = tmpBAOS.size();
-                                            byte[][] byteArrays = tmpBAOS.toByteArrays();
-
-                                            putTarArchiveEntry(zos, entryFileName, byteArrays, size);
-                                        }
+                                        // 直接从文件通道写入，不整个读入内存
+                                        putTarArchiveEntry(zos, entryFileName, file);
                                     } else {
                                         putTarArchiveEntry(zos, entryFileNameWithSlash, null, 0);
                                     }
@@ -504,7 +612,7 @@ public class SuperTarZstd extends SuperACs {
             Close.close(innerOs);
             Close.close(baos);
         }
-        return ZipResult.of(baos.toByteArrays(), rs);
+        return ZipResult.of(os == null ? baos.toByteArrays() : null, rs);
     }
 
 }
@@ -30,10 +30,9 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import org.tukaani.xz.LZMA2Options;
-import org.tukaani.xz.SingleXZInputStream;
-import org.tukaani.xz.XZInputStream;
 import org.tukaani.xz.XZOutputStream;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.*;
@@ -85,6 +84,19 @@ public class SuperXz extends SuperACs {
         return ArchiveFormat.XZ;
     }
 
+    @Override
+    InputStream newUnzipInputStream(InputStream is) throws IOException {
+        return newXzInputStream(is, unzipInputProperty);
+    }
+
+    @Override
+    OutputStream newReZipOutputStream(OutputStream os, String entryFileName) throws IOException {
+        if (G.isEmpty(reZipOutputProperty.getFilterOptions())) {
+            return new XZOutputStream(os, new LZMA2Options(reZipOutputProperty.getPreset()), reZipOutputProperty.getCheckType(), reZipOutputProperty.getArrayCache());
+        }
+        return new XZOutputStream(os, reZipOutputProperty.getFilterOptions(), reZipOutputProperty.getCheckType(), reZipOutputProperty.getArrayCache());
+    }
+
     /**
      * 压缩包解压并处理文件（自动解压）<br>
      * <br>
@@ -141,11 +153,7 @@ public class SuperXz extends SuperACs {
 
             String entryFileName = ZipKit.getUncompressedName(zipFileName, format());
 
-            if (unzipInputProperty.isDecompressConcatenated()) {
-                zipis = new XZInputStream(is, unzipInputProperty.getMemoryLimitInKb(), unzipInputProperty.isVerifyCheck(), unzipInputProperty.getArrayCache());
-            } else {
-                zipis = new SingleXZInputStream(is, unzipInputProperty.getMemoryLimitInKb(), unzipInputProperty.isVerifyCheck(), unzipInputProperty.getArrayCache());
-            }
+            zipis = newXzInputStream(is, unzipInputProperty);
 
             final int newUnzipTimes = unzipTimes + 1;
             final int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
@@ -218,11 +226,7 @@ public class SuperXz extends SuperACs {
 
             String entryFileName = ZipKit.getUncompressedName(zipFileName, format());
 
-            if (unzipInputProperty.isDecompressConcatenated()) {
-                zipis = new XZInputStream(is, unzipInputProperty.getMemoryLimitInKb(), unzipInputProperty.isVerifyCheck(), unzipInputProperty.getArrayCache());
-            } else {
-                zipis = new SingleXZInputStream(is, unzipInputProperty.getMemoryLimitInKb(), unzipInputProperty.isVerifyCheck(), unzipInputProperty.getArrayCache());
-            }
+            zipis = newXzInputStream(is, unzipInputProperty);
 
             final int newUnzipTimes = unzipTimes + 1;
             final int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
@@ -293,6 +297,39 @@ public class SuperXz extends SuperACs {
                                   Map<ArchiveFormat, SuperAC> superACs,
                                   String unzipId
     ) throws Exception {
+        return reZip(is, parentZipName, zipFileName, unzipTimes, unzipLevel, addFileFilter, deleteFileFilter, unzipFilter,
+                otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction,
+                afterZipAction, otherAction, zipLogLevel, superACs, unzipId, null);
+    }
+
+    /**
+     * 重新打包的压缩包直接写入 {@code os}（不关闭），见 {@link SuperAC#reZip(InputStream, String, String, int, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, Map, String, OutputStream)}
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> ZipResult<R> reZip(final InputStream is,
+                                  String parentZipName,
+                                  String zipFileName,
+                                  final int unzipTimes,
+                                  final int unzipLevel,
+                                  PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                  RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                  ZipLogLevel zipLogLevel,
+                                  Map<ArchiveFormat, SuperAC> superACs,
+                                  String unzipId,
+                                  OutputStream os
+    ) throws Exception {
 
         if (zipFileName == null) zipFileName = "";
 
@@ -309,19 +346,15 @@ public class SuperXz extends SuperACs {
             if (reZipACMap == null) reZipACMap = toSuperACMap(superACs);
 
 
-            if (reZipInputProperty.isDecompressConcatenated()) {
-                zipis = new XZInputStream(is, reZipInputProperty.getMemoryLimitInKb(), reZipInputProperty.isVerifyCheck(), reZipInputProperty.getArrayCache());
-            } else {
-                zipis = new SingleXZInputStream(is, reZipInputProperty.getMemoryLimitInKb(), reZipInputProperty.isVerifyCheck(), reZipInputProperty.getArrayCache());
-            }
+            zipis = newXzInputStream(is, reZipInputProperty);
             String entryFileName = ZipKit.getUncompressedName(zipFileName, format());
 
             baos = new MultiByteArrayOutputStream();
 
             if (G.isEmpty(reZipOutputProperty.getFilterOptions())) {
-                zos = new XZOutputStream(baos, new LZMA2Options(reZipOutputProperty.getPreset()), reZipOutputProperty.getCheckType(), reZipOutputProperty.getArrayCache());
+                zos = new XZOutputStream(os == null ? baos : closeShield(os), new LZMA2Options(reZipOutputProperty.getPreset()), reZipOutputProperty.getCheckType(), reZipOutputProperty.getArrayCache());
             } else {
-                zos = new XZOutputStream(baos, reZipOutputProperty.getFilterOptions(), reZipOutputProperty.getCheckType(), reZipOutputProperty.getArrayCache());
+                zos = new XZOutputStream(os == null ? baos : closeShield(os), reZipOutputProperty.getFilterOptions(), reZipOutputProperty.getCheckType(), reZipOutputProperty.getArrayCache());
             }
 
 
@@ -352,7 +385,7 @@ public class SuperXz extends SuperACs {
             Close.close(zos);
             Close.close(baos);
         }
-        return ZipResult.of(baos.toByteArrays(), rs);
+        return ZipResult.of(os == null ? baos.toByteArrays() : null, rs);
     }
 
 }
@@ -22,6 +22,8 @@ import com.iofairy.lambda.*;
 import com.iofairy.rainforest.zip.attr.ZipInputProperty;
 import com.iofairy.rainforest.zip.attr.ZipOutputProperty;
 import com.iofairy.rainforest.zip.base.*;
+import com.iofairy.rainforest.zip.index.ArchiveIndexCache;
+import com.iofairy.rainforest.zip.index.IndexMatch;
 import com.iofairy.tcf.Close;
 import com.iofairy.top.O;
 import com.iofairy.tuple.Tuple2;
@@ -30,9 +32,11 @@ import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 
 import java.io.*;
 import java.util.*;
+import java.util.zip.ZipEntry;
 
 import static com.iofairy.validator.Preconditions.*;
 
@@ -163,6 +167,138 @@ public class SuperZip extends SuperACs {
     }
 
 
+    /**
+     * 可以随机读取的数据源（文件、内存）直接读取中央目录，按条目在压缩包中的顺序读取，只包含中央目录中的条目；输入流数据源则流式读取
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> List<R> unzip(ArchiveSource source,
+                             String parentZipName,
+                             String zipFileName,
+                             final int unzipTimes,
+                             final int unzipLevel,
+                             PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                             PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                             PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                             RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                             RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                             ZipLogLevel zipLogLevel,
+                             Map<ArchiveFormat, SuperAC> superACs,
+                             String unzipId
+    ) throws Exception {
+        if (!source.isSeekable()) {
+            return unzip(source.openStream(), parentZipName, zipFileName, unzipTimes, unzipLevel, unzipFilter, otherFilter, beforeUnzipFilter,
+                    beforeUnzipAction, otherAction, zipLogLevel, superACs, unzipId);
+        }
+        if (zipFileName == null) zipFileName = "";
+
+        // >>> 打印日志参数
+        unzipId = getUnzipId(5, unzipId);
+        final String logSource = getClass().getSimpleName() + ".unzip()";
+        // <<< 打印日志参数
+
+        final ArrayList<R> rs = new ArrayList<>();
+        ZipFile zipis = null;
+        try {
+            if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
+
+            zipis = ZipFile.builder().setSeekableByteChannel(source.openChannel()).setCharset(unzipInputProperty.getFileNameEncoding()).get();
+
+            final int newUnzipTimes = unzipTimes + 1;
+            final int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
+
+            Enumeration<ZipArchiveEntry> entries = zipis.getEntriesInPhysicalOrder();
+            while (entries.hasMoreElements()) {
+                ZipArchiveEntry entry = entries.nextElement();
+                String entryFileName = entry.getName();
+                if (entry.isDirectory()) continue;
+                if (hasPathTraversalRisk(entryFileName)) {
+                    LogPrinter.printSkipEntryLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
+                    continue;
+                }
+
+                try (InputStream currentIs = zipis.getInputStream(entry)) {
+                    unzip(currentIs, rs, zipFileName, entryFileName, unzipTimes, unzipLevel, newUnzipTimes, newUnzipLevel, unzipACMap,
+                            unzipFilter, otherFilter, beforeUnzipFilter, beforeUnzipAction, otherAction, zipLogLevel, unzipId, logSource);
+                }
+            }
+        } finally {
+            Close.close(zipis);
+        }
+        return rs;
+    }
+
+    /**
+     * 通过压缩包索引解压ZIP文件：直接读取中央目录，只打开（seek到）索引匹配的条目，不匹配的条目完全不读取<br>
+     * 外部调用者应该调用静态方法： {@link SuperAC#unzip(File, ArchiveFormat, int, PT3, PT3, PT3, RT4, RT4, ZipLogLevel, List, ArchiveIndexCache)}
+     *
+     * @param zipFile           压缩包文件
+     * @param indexMatch        压缩包索引的匹配结果
+     * @param unzipLevel        解压层级。-1：无限解压，碰到压缩包就解压；0：只解压<b>当前压缩包</b>，不解压内部压缩包；&gt;=1：对内部压缩包的解压次数
+     * @param unzipFilter       内部压缩包的是否解压的过滤器
+     * @param otherFilter       除压缩包以外的文件是否处理的过滤器
+     * @param beforeUnzipFilter 压缩包解压缩前的Action前的过滤器
+     * @param beforeUnzipAction 解压之前的操作
+     * @param otherAction       非压缩包的处理逻辑
+     * @param zipLogLevel       解压缩日志等级
+     * @param superACs          支持哪些类型的压缩/解压处理器
+     * @param unzipId           解压ID，用于日志记录
+     * @param <R>               Action返回值类型
+     * @return 返回任意你想返回的内容，便于你在lambda表达式外进行操作
+     * @throws Exception 处理过程可能抛异常
+     * @since 0.6.2
+     */
+    <R> List<R> unzip(final File zipFile,
+                      final IndexMatch indexMatch,
+                      final int unzipLevel,
+                      PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                      PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                      PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                      RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                      RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                      ZipLogLevel zipLogLevel,
+                      Map<ArchiveFormat, SuperAC> superACs,
+                      String unzipId
+    ) throws Exception {
+        final String zipFileName = zipFile.getName();
+        final int unzipTimes = INIT_UNZIP_TIMES;
+
+        // >>> 打印日志参数
+        unzipId = getUnzipId(5, unzipId);
+        final String logSource = getClass().getSimpleName() + ".unzip()";
+        // <<< 打印日志参数
+
+        final ArrayList<R> rs = new ArrayList<>();
+        if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
+
+        PT3<Integer, String, String, Exception> prunedUnzipFilter = indexMatch.pruneUnzipFilter(unzipFilter);
+        final int newUnzipTimes = unzipTimes + 1;
+        final int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
+
+        try (ZipFile zipis = ZipFile.builder().setFile(zipFile).setCharset(unzipInputProperty.getFileNameEncoding()).get()) {
+            Enumeration<ZipArchiveEntry> entries = zipis.getEntriesInPhysicalOrder();
+            while (entries.hasMoreElements()) {
+                ZipArchiveEntry entry = entries.nextElement();
+                String entryFileName = entry.getName();
+                if (entry.isDirectory()) continue;
+                if (hasPathTraversalRisk(entryFileName)) {
+                    LogPrinter.printSkipEntryLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
+                    continue;
+                }
+                // 索引中不会被处理的条目，直接跳过，不读取数据
+                if (!indexMatch.isEntryMatched(unzipTimes, zipFileName, entryFileName)) continue;
+
+                try (InputStream currentIs = zipis.getInputStream(entry)) {
+                    unzip(currentIs, rs, zipFileName, entryFileName, unzipTimes, unzipLevel, newUnzipTimes, newUnzipLevel, unzipACMap,
+                            prunedUnzipFilter, otherFilter, beforeUnzipFilter, beforeUnzipAction, otherAction, zipLogLevel, unzipId, logSource);
+                }
+            }
+        }
+        return rs;
+    }
+
+
     /**
      * 压缩包解压并处理文件<b>（快速自动解压，更节约内存）</b><br>
      * <br>
@@ -243,6 +379,67 @@ public class SuperZip extends SuperACs {
         return rs;
     }
 
+    /**
+     * 可以随机读取的数据源（文件、内存）直接读取中央目录，按条目在压缩包中的顺序读取，只包含中央目录中的条目；输入流数据源则流式读取
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> List<R> unzipFast(ArchiveSource source,
+                                 String parentZipName,
+                                 String zipFileName,
+                                 int unzipTimes,
+                                 int unzipLevel,
+                                 PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                 PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                 RT5<InputStream, ? super Integer, ? super String, ? super String, ? super Set<AutoCloseable>, ? extends R, Exception> otherAction,
+                                 ZipLogLevel zipLogLevel,
+                                 Map<ArchiveFormat, SuperAC> superACs,
+                                 Set<AutoCloseable> closeables,
+                                 String unzipId
+    ) throws Exception {
+        if (!source.isSeekable()) {
+            return unzipFast(source.openStream(), parentZipName, zipFileName, unzipTimes, unzipLevel, unzipFilter, otherFilter, otherAction,
+                    zipLogLevel, superACs, closeables, unzipId);
+        }
+        if (zipFileName == null) zipFileName = "";
+
+        // >>> 打印日志参数
+        unzipId = getUnzipId(5, unzipId);
+        final String logSource = getClass().getSimpleName() + ".unzipFast()";
+        // <<< 打印日志参数
+
+        final ArrayList<R> rs = new ArrayList<>();
+        ZipFile zipis = null;
+        try {
+            if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
+
+            zipis = ZipFile.builder().setSeekableByteChannel(source.openChannel()).setCharset(unzipInputProperty.getFileNameEncoding()).get();
+
+            final int newUnzipTimes = unzipTimes + 1;
+            final int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
+
+            Enumeration<ZipArchiveEntry> entries = zipis.getEntriesInPhysicalOrder();
+            while (entries.hasMoreElements()) {
+                ZipArchiveEntry entry = entries.nextElement();
+                String entryFileName = entry.getName();
+                if (entry.isDirectory()) continue;
+                if (hasPathTraversalRisk(entryFileName)) {
+                    LogPrinter.printSkipEntryLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
+                    continue;
+                }
+
+                InputStream currentIs = zipis.getInputStream(entry);
+                closeables.add(currentIs);
+                unzipFast(currentIs, rs, zipFileName, entryFileName, unzipTimes, unzipLevel, newUnzipTimes, newUnzipLevel, unzipACMap,
+                        unzipFilter, otherFilter, otherAction, zipLogLevel, unzipId, logSource, closeables);
+            }
+        } finally {
+            closeables.add(zipis);
+        }
+        return rs;
+    }
+
     /**
      * 解压处理压缩包中的文件并重新打包压缩（自动解压缩）<br>
      * <br>
@@ -299,6 +496,39 @@ public class SuperZip extends SuperACs {
                                   Map<ArchiveFormat, SuperAC> superACs,
                                   String unzipId
     ) throws Exception {
+        return reZip(is, parentZipName, zipFileName, unzipTimes, unzipLevel, addFileFilter, deleteFileFilter, unzipFilter,
+                otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction,
+                afterZipAction, otherAction, zipLogLevel, superACs, unzipId, null);
+    }
+
+    /**
+     * 重新打包的压缩包直接写入 {@code os}（不关闭），见 {@link SuperAC#reZip(InputStream, String, String, int, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, Map, String, OutputStream)}
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> ZipResult<R> reZip(final InputStream is,
+                                  String parentZipName,
+                                  String zipFileName,
+                                  final int unzipTimes,
+                                  final int unzipLevel,
+                                  PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                  RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                  ZipLogLevel zipLogLevel,
+                                  Map<ArchiveFormat, SuperAC> superACs,
+                                  String unzipId,
+                                  OutputStream os
+    ) throws Exception {
 
         if (zipFileName == null) zipFileName = "";
 
@@ -311,16 +541,18 @@ public class SuperZip extends SuperACs {
         ZipArchiveInputStream zipis = null;
         MultiByteArrayOutputStream baos = null;
         ZipArchiveOutputStream zos = null;
+        Map<String, Integer> entryMethods = null;
         try {
             if (reZipACMap == null) reZipACMap = toSuperACMap(superACs);
 
             zipis = new ZipArchiveInputStream(is, reZipInputProperty.getFileNameEncoding());
             baos = new MultiByteArrayOutputStream();
-            zos = new ZipArchiveOutputStream(baos);
+            zos = new ZipArchiveOutputStream(os == null ? baos : closeShield(os));
             zos.setLevel(reZipOutputProperty.getLevel());
             zos.setMethod(reZipOutputProperty.getMethod());
             zos.setUseZip64(reZipOutputProperty.getZip64Mode());
             zos.setEncoding(reZipOutputProperty.getFileNameEncoding());
+            if (isAdaptiveZipMethod(reZipOutputProperty)) entryMethods = new LinkedHashMap<>();
 
             final int newUnzipTimes = unzipTimes + 1;
             final int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
@@ -350,19 +582,53 @@ public class SuperZip extends SuperACs {
                     continue;
                 }
 
-                zos.putArchiveEntry(new ZipArchiveEntry(entryFileName));
                 if (entry.isDirectory()) {
+                    zos.putArchiveEntry(new ZipArchiveEntry(entryFileName));
                     zos.closeArchiveEntry();
                     continue;
                 }
 
+                /*
+                 * 不需要预先知道处理后的内容时（未开启自适应，且压缩方法为 DEFLATED，大小与CRC写在数据描述符中），
+                 * 处理后的内容（包括内部压缩包重压缩的结果）直接写入当前条目，不缓存
+                 */
+                if (entryMethods == null && reZipOutputProperty.getMethod() == ZipEntry.DEFLATED) {
+                    zos.putArchiveEntry(new ZipArchiveEntry(entryFileName));
+                    Throwable suppressed = null;
+                    try {
+                        // 打印日志信息
+                        Stopwatch stopwatch = Stopwatch.run();
+                        LogPrinter.printBeforeWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
+
+                        ShieldOutputStream entryOs = closeShield(zos);
+                        reZip(zipis, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
+                                newUnzipTimes, newUnzipLevel, reZipACMap, addFileFilter, deleteFileFilter, unzipFilter, otherFilter,
+                                beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction,
+                                beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, unzipId, logSource, unchanged -> entryOs);
+
+                        // 打印日志信息
+                        LogPrinter.printAfterWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, stopwatch, entryOs.getCount());
+
+                    } catch (Throwable e) {
+                        suppressed = e;
+                        O.sneakyThrows(e);
+                    } finally {
+                        closeArchiveEntry(zos, suppressed);
+                    }
+                    continue;
+                }
+
+                /*
+                 * 先处理文件，自适应选择压缩方法时需要根据处理后的内容确定压缩方法
+                 */
+                byte[][] byteArrays = reZip(zipis, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
+                        newUnzipTimes, newUnzipLevel, reZipACMap, addFileFilter, deleteFileFilter, unzipFilter, otherFilter,
+                        beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction,
+                        beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, unzipId, logSource);
+
+                zos.putArchiveEntry(newZipArchiveEntry(entryFileName, byteArrays, reZipOutputProperty, entryMethods));
                 Throwable suppressed = null;
                 try {
-                    byte[][] byteArrays = reZip(zipis, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
-                            newUnzipTimes, newUnzipLevel, reZipACMap, addFileFilter, deleteFileFilter, unzipFilter, otherFilter,
-                            beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction,
-                            beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, unzipId, logSource);
-
                     // 打印日志信息
                     Stopwatch stopwatch = Stopwatch.run();
                     LogPrinter.printBeforeWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
@@ -403,21 +669,24 @@ public class SuperZip extends SuperACs {
 
                                 Throwable suppressed = null;
                                 try {
-                                    zos.putArchiveEntry(new ZipArchiveEntry(entryFileName));
+                                    AddSource source = addFile.isDirectory() ? null : addFile.getSource();
+                                    ZipArchiveEntry zipArchiveEntry = newZipArchiveEntry(entryFileName, addFile.isDirectory() || source != null ? null : addFile.getFile(), reZipOutputProperty, entryMethods);
+                                    // 数据源的大小已知，便于判断是否需要 zip64
+                                    if (source != null) zipArchiveEntry.setSize(source.getSize());
+                                    zos.putArchiveEntry(zipArchiveEntry);
 
                                     // 打印日志信息
                                     LogPrinter.printAppendLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
 
-                                    if (!addFile.isDirectory()) {
+                                    if (!addFile.isDirectory() && addFile.getSource() != null) {
+                                        addFile.getSource().writeTo(zos);
+                                    } else if (!addFile.isDirectory()) {
                                         File file = addFile.getFile();
                                         Objects.requireNonNull(file, "AddFile实例对象中的成员变量`isDirectory`为false时，`file`不能为null！" + errMsg);
                                         checkFileNotFound(!file.exists(), "文件[${path}]不存在。${errMsg}", file.getAbsolutePath(), errMsg);
 
                                         if (file.isFile()) {
-                                            // 自动关闭文件输入流
-                                            try (FileInputStream fis = new FileInputStream(file)) {
-                                                IOs.copy(fis, zos);
-                                            }
+                                            transferFile(file, zos);
                                         }
                                     }
 
@@ -446,7 +715,7 @@ public class SuperZip extends SuperACs {
 
                                 Throwable suppressed = null;
                                 try {
-                                    zos.putArchiveEntry(new ZipArchiveEntry(entryFileName));
+                                    zos.putArchiveEntry(newZipArchiveEntry(entryFileName, addBytes.isDirectory() ? null : addBytes.getBytes(), reZipOutputProperty, entryMethods));
 
                                     // 打印日志信息
                                     LogPrinter.printAppendLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
@@ -480,7 +749,7 @@ public class SuperZip extends SuperACs {
             Close.close(zos);
             Close.close(baos);
         }
-        return ZipResult.of(baos.toByteArrays(), rs);
+        return ZipResult.of(os == null ? baos.toByteArrays() : null, rs).setEntryMethods(entryMethods);
     }
 
 
@@ -22,6 +22,7 @@ import com.iofairy.lambda.*;
 import com.iofairy.rainforest.zip.attr.ZipInputProperty;
 import com.iofairy.rainforest.zip.attr.ZipOutputProperty;
 import com.iofairy.rainforest.zip.base.*;
+import com.iofairy.rainforest.zip.config.PasswordCandidates;
 import com.iofairy.rainforest.zip.config.PasswordProvider;
 import com.iofairy.tcf.Close;
 import com.iofairy.top.O;
@@ -30,7 +31,12 @@ import lombok.*;
 import net.lingala.zip4j.io.inputstream.ZipInputStream;
 import net.lingala.zip4j.io.outputstream.ZipOutputStream;
 import net.lingala.zip4j.model.LocalFileHeader;
+import net.lingala.zip4j.model.Zip4jConfig;
+import net.lingala.zip4j.model.ZipModel;
 import net.lingala.zip4j.model.ZipParameters;
+import net.lingala.zip4j.model.enums.CompressionMethod;
+import net.lingala.zip4j.model.enums.EncryptionMethod;
+import net.lingala.zip4j.util.InternalZipConstants;
 
 import java.io.*;
 import java.nio.charset.Charset;
@@ -52,6 +58,19 @@ public class SuperZipProtected extends SuperACs {
     private ZipOutputProperty reZipOutputProperty = ZipOutputProperty.of();
     private PasswordProvider unzipPasswordProvider = PasswordProvider.of();
     private PasswordProvider reZipPasswordProvider = PasswordProvider.of();
+    /**
+     * 候选密码，{@link PasswordProvider} 获取不到密码或密码不正确时使用
+     *
+     * @since 0.6.2
+     */
+    private PasswordCandidates passwordCandidates;
+    /**
+     * AES 加密的压缩包是否使用 JDK 的 AES 实现（x86 上由 AES-NI 加速）解密与加密，
+     * 为{@code false}、JDK 不支持或密码编码不兼容时使用 zip4j 的纯 Java 实现
+     *
+     * @since 0.6.2
+     */
+    private boolean jceAes = true;
 
     public SuperZipProtected(ZipInputProperty unzipInputProperty, ZipInputProperty reZipInputProperty,
                              ZipOutputProperty reZipOutputProperty, PasswordProvider unzipPasswordProvider,
@@ -98,6 +117,16 @@ public class SuperZipProtected extends SuperACs {
         return this;
     }
 
+    public SuperZipProtected setPasswordCandidates(PasswordCandidates passwordCandidates) {
+        this.passwordCandidates = passwordCandidates;
+        return this;
+    }
+
+    public SuperZipProtected setJceAes(boolean jceAes) {
+        this.jceAes = jceAes;
+        return this;
+    }
+
 
     @Override
     public ArchiveFormat format() {
@@ -153,15 +182,16 @@ public class SuperZipProtected extends SuperACs {
         String logSource = getClass().getSimpleName() + ".unzip()";
         // <<< 打印日志参数
 
-        // 按文件名获取密码
-        char[] password = unzipPasswordProvider.getPassword(zipFileName);
 
         final ArrayList<R> rs = new ArrayList<>();
         ZipInputStream zipis = null;
         try {
             if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
 
-            zipis = new ZipInputStream(is, password, Charset.forName(unzipInputProperty.getFileNameEncoding()));
+            // 按文件名获取密码，不正确时校验候选密码
+            Tuple2<InputStream, char[]> passwordTrial = PasswordTrial.zip(is, zipFileName, unzipPasswordProvider, passwordCandidates);
+            char[] password = passwordTrial._2;
+            zipis = newZipInputStream(passwordTrial._1, password, Charset.forName(unzipInputProperty.getFileNameEncoding()));
 
             int newUnzipTimes = unzipTimes + 1;
             int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
@@ -236,15 +266,16 @@ public class SuperZipProtected extends SuperACs {
         String logSource = getClass().getSimpleName() + ".unzipFast()";
         // <<< 打印日志参数
 
-        // 按文件名获取密码
-        char[] password = unzipPasswordProvider.getPassword(zipFileName);
 
         final ArrayList<R> rs = new ArrayList<>();
         ZipInputStream zipis = null;
         try {
             if (unzipACMap == null) unzipACMap = toSuperACMap(superACs);
 
-            zipis = new ZipInputStream(is, password, Charset.forName(unzipInputProperty.getFileNameEncoding()));
+            // 按文件名获取密码，不正确时校验候选密码
+            Tuple2<InputStream, char[]> passwordTrial = PasswordTrial.zip(is, zipFileName, unzipPasswordProvider, passwordCandidates);
+            char[] password = passwordTrial._2;
+            zipis = newZipInputStream(passwordTrial._1, password, Charset.forName(unzipInputProperty.getFileNameEncoding()));
 
             int newUnzipTimes = unzipTimes + 1;
             int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
@@ -324,6 +355,39 @@ public class SuperZipProtected extends SuperACs {
                                   Map<ArchiveFormat, SuperAC> superACs,
                                   String unzipId
     ) throws Exception {
+        return reZip(is, parentZipName, zipFileName, unzipTimes, unzipLevel, addFileFilter, deleteFileFilter, unzipFilter,
+                otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction,
+                afterZipAction, otherAction, zipLogLevel, superACs, unzipId, null);
+    }
+
+    /**
+     * 重新打包的压缩包直接写入 {@code os}（不关闭），见 {@link SuperAC#reZip(InputStream, String, String, int, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, Map, String, OutputStream)}
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> ZipResult<R> reZip(final InputStream is,
+                                  String parentZipName,
+                                  String zipFileName,
+                                  final int unzipTimes,
+                                  final int unzipLevel,
+                                  PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                  RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                  ZipLogLevel zipLogLevel,
+                                  Map<ArchiveFormat, SuperAC> superACs,
+                                  String unzipId,
+                                  OutputStream os
+    ) throws Exception {
 
         if (zipFileName == null) zipFileName = "";
 
@@ -332,8 +396,6 @@ public class SuperZipProtected extends SuperACs {
         String logSource = getClass().getSimpleName() + ".reZip()";
         // <<< 打印日志参数
 
-        // 按文件名获取密码
-        char[] password = reZipPasswordProvider.getPassword(zipFileName);
 
         ZipParameters defaultZipParameters = reZipOutputProperty.getZipParameters();
 
@@ -341,12 +403,18 @@ public class SuperZipProtected extends SuperACs {
         ZipInputStream zipis = null;
         MultiByteArrayOutputStream baos = null;
         ZipOutputStream zos = null;
+        // zip4j 的压缩方法由 ZipParameters 指定
+        Map<String, Integer> entryMethods = reZipOutputProperty.isAdaptiveMethod() && defaultZipParameters.getCompressionMethod() == CompressionMethod.DEFLATE
+                ? new LinkedHashMap<>() : null;
         try {
             if (reZipACMap == null) reZipACMap = toSuperACMap(superACs);
 
-            zipis = new ZipInputStream(is, password, Charset.forName(reZipInputProperty.getFileNameEncoding()));
+            // 按文件名获取密码，不正确时校验候选密码
+            Tuple2<InputStream, char[]> passwordTrial = PasswordTrial.zip(is, zipFileName, reZipPasswordProvider, passwordCandidates);
+            char[] password = passwordTrial._2;
+            zipis = newZipInputStream(passwordTrial._1, password, Charset.forName(reZipInputProperty.getFileNameEncoding()));
             baos = new MultiByteArrayOutputStream();
-            zos = new ZipOutputStream(baos, password, reZipOutputProperty.getZip4jConfig(), getZipModel(reZipOutputProperty.getZipModel()));
+            zos = newZipOutputStream(os == null ? baos : closeShield(os), password, defaultZipParameters);
 
             int newUnzipTimes = unzipTimes + 1;
             int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
@@ -385,19 +453,24 @@ public class SuperZipProtected extends SuperACs {
 
                 ZipParameters zipParameters = getParameters(defaultZipParameters, entryFileName, encrypted);
 
-                zos.putNextEntry(zipParameters);
                 if (entry.isDirectory()) {
+                    zos.putNextEntry(zipParameters);
                     zos.closeEntry();
                     continue;
                 }
 
+                /*
+                 * 先处理文件，自适应选择压缩方法时需要根据处理后的内容确定压缩方法
+                 */
+                byte[][] byteArrays = reZip(zipis, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
+                        newUnzipTimes, newUnzipLevel, reZipACMap, addFileFilter, deleteFileFilter, unzipFilter, otherFilter,
+                        beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction,
+                        beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, unzipId, logSource);
+
+                setZipMethod(zipParameters, byteArrays, reZipOutputProperty, entryMethods);
+                zos.putNextEntry(zipParameters);
                 Throwable suppressed = null;
                 try {
-                    byte[][] byteArrays = reZip(zipis, rs, zipFileName, entryFileName, unzipTimes, unzipLevel,
-                            newUnzipTimes, newUnzipLevel, reZipACMap, addFileFilter, deleteFileFilter, unzipFilter, otherFilter,
-                            beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction,
-                            beforeUnzipAction, afterZipAction, otherAction, zipLogLevel, unzipId, logSource);
-
                     // 打印日志信息
                     Stopwatch stopwatch = Stopwatch.run();
                     LogPrinter.printBeforeWriteZip(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
@@ -438,12 +511,15 @@ public class SuperZipProtected extends SuperACs {
                                 Throwable suppressed = null;
                                 try {
                                     ZipParameters zipParameters = getParameters(defaultZipParameters, entryFileName, isEncrypted);
+                                    setZipMethod(zipParameters, addFile.isDirectory() || addFile.getSource() != null ? null : addFile.getFile(), reZipOutputProperty, entryMethods);
                                     zos.putNextEntry(zipParameters);
 
                                     // 打印日志信息
                                     LogPrinter.printAppendLogs(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource);
 
-                                    if (!addFile.isDirectory()) {
+                                    if (!addFile.isDirectory() && addFile.getSource() != null) {
+                                        addFile.getSource().writeTo(zos);
+                                    } else if (!addFile.isDirectory()) {
                                         File file = addFile.getFile();
                                         Objects.requireNonNull(file, "AddFile实例对象中的成员变量`isDirectory`为false时，`file`不能为null！" + errMsg);
                                         checkFileNotFound(!file.exists(), "文件[${path}]不存在。${errMsg}", file.getAbsolutePath(), errMsg);
@@ -482,6 +558,7 @@ public class SuperZipProtected extends SuperACs {
                                 Throwable suppressed = null;
                                 try {
                                     ZipParameters zipParameters = getParameters(defaultZipParameters, entryFileName, isEncrypted);
+                                    setZipMethod(zipParameters, addBytes.isDirectory() ? null : addBytes.getBytes(), reZipOutputProperty, entryMethods);
                                     zos.putNextEntry(zipParameters);
 
                                     // 打印日志信息
@@ -516,8 +593,47 @@ public class SuperZipProtected extends SuperACs {
             Close.close(zos);
             Close.close(baos);
         }
-        return ZipResult.of(baos.toByteArrays(), rs);
+        return ZipResult.of(os == null ? baos.toByteArrays() : null, rs).setEntryMethods(entryMethods);
     }
 
+    /**
+     * 创建 zip 输入流，AES 加密且可以使用 JDK 的 AES 实现时使用 {@link JceZipInputStream}，
+     * 否则（ZipCrypto 加密或未加密）使用 zip4j 的 {@link ZipInputStream}
+     *
+     * @param is       输入流
+     * @param password 密码
+     * @param charset  文件名编码
+     * @return zip 输入流
+     * @throws IOException 预读失败
+     * @since 0.6.2
+     */
+    private ZipInputStream newZipInputStream(InputStream is, char[] password, Charset charset) throws IOException {
+        Zip4jConfig zip4jConfig = new Zip4jConfig(charset, InternalZipConstants.BUFF_SIZE, InternalZipConstants.USE_UTF8_FOR_PASSWORD_ENCODING_DECODING);
+        if (jceAes && WinZipAes.isSupported(password, zip4jConfig.isUseUtf8CharsetForPasswords())) {
+            PushbackInputStream pis = new PushbackInputStream(is, JceZipInputStream.PEEK_SIZE);
+            if (JceZipInputStream.isAesEncrypted(pis)) return new JceZipInputStream(pis, password, zip4jConfig);
+            is = pis;
+        }
+        return new ZipInputStream(is, password, zip4jConfig);
+    }
+
+    /**
+     * 创建 zip 输出流，使用 AES 加密且可以使用 JDK 的 AES 实现时使用 {@link JceZipOutputStream}，否则使用 zip4j 的 {@link ZipOutputStream}
+     *
+     * @param os                   输出流
+     * @param password             密码
+     * @param defaultZipParameters 默认的压缩参数
+     * @return zip 输出流
+     * @throws IOException 创建失败
+     * @since 0.6.2
+     */
+    private ZipOutputStream newZipOutputStream(OutputStream os, char[] password, ZipParameters defaultZipParameters) throws IOException {
+        Zip4jConfig zip4jConfig = reZipOutputProperty.getZip4jConfig();
+        ZipModel zipModel = getZipModel(reZipOutputProperty.getZipModel());
+        return jceAes && defaultZipParameters.getEncryptionMethod() == EncryptionMethod.AES
+                && WinZipAes.isSupported(password, zip4jConfig.isUseUtf8CharsetForPasswords())
+                ? new JceZipOutputStream(os, password, zip4jConfig, zipModel)
+                : new ZipOutputStream(os, password, zip4jConfig, zipModel);
+    }
 
 }
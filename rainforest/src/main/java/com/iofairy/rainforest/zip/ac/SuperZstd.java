@@ -16,7 +16,6 @@
 package com.iofairy.rainforest.zip.ac;
 
 import com.github.luben.zstd.ZstdInputStream;
-import com.github.luben.zstd.ZstdOutputStream;
 import com.iofairy.falcon.io.MultiByteArrayOutputStream;
 import com.iofairy.time.Stopwatch;
 import com.iofairy.falcon.zip.ArchiveFormat;
@@ -31,6 +30,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.*;
@@ -82,6 +82,18 @@ public class SuperZstd extends SuperACs {
         return ArchiveFormat.ZSTD;
     }
 
+    @Override
+    InputStream newUnzipInputStream(InputStream is) throws IOException {
+        ZstdInputStream zipis = new ZstdInputStream(is, unzipInputProperty.getBufferPool());
+        setZstdInputStreamOptions(zipis, unzipInputProperty);
+        return zipis;
+    }
+
+    @Override
+    OutputStream newReZipOutputStream(OutputStream os, String entryFileName) throws IOException {
+        return newZstdOutputStream(os, reZipOutputProperty);
+    }
+
     /**
      * 压缩包解压并处理文件（自动解压）<br>
      * <br>
@@ -284,6 +296,39 @@ public class SuperZstd extends SuperACs {
                                   Map<ArchiveFormat, SuperAC> superACs,
                                   String unzipId
     ) throws Exception {
+        return reZip(is, parentZipName, zipFileName, unzipTimes, unzipLevel, addFileFilter, deleteFileFilter, unzipFilter,
+                otherFilter, beforeUnzipFilter, afterZipFilter, addFilesAction, addBytesAction, deleteFileAction, beforeUnzipAction,
+                afterZipAction, otherAction, zipLogLevel, superACs, unzipId, null);
+    }
+
+    /**
+     * 重新打包的压缩包直接写入 {@code os}（不关闭），见 {@link SuperAC#reZip(InputStream, String, String, int, int, PT2, PT3, PT3, PT3, PT3, PT3, RT2, RT2, RT4, RT4, RT4, RT5, ZipLogLevel, Map, String, OutputStream)}
+     *
+     * @since 0.6.2
+     */
+    @Override
+    public <R> ZipResult<R> reZip(final InputStream is,
+                                  String parentZipName,
+                                  String zipFileName,
+                                  final int unzipTimes,
+                                  final int unzipLevel,
+                                  PT2<? super Integer, ? super String, Exception> addFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> deleteFileFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                  PT3<? super Integer, ? super String, ? super String, Exception> afterZipFilter,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddFile>, List<R>>, Exception> addFilesAction,
+                                  RT2<? super Integer, ? super String, Tuple2<List<AddBytes>, List<R>>, Exception> addBytesAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> deleteFileAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> beforeUnzipAction,
+                                  RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> afterZipAction,
+                                  RT5<InputStream, OutputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> otherAction,
+                                  ZipLogLevel zipLogLevel,
+                                  Map<ArchiveFormat, SuperAC> superACs,
+                                  String unzipId,
+                                  OutputStream os
+    ) throws Exception {
 
         if (zipFileName == null) zipFileName = "";
 
@@ -295,7 +340,7 @@ public class SuperZstd extends SuperACs {
         final ArrayList<R> rs = new ArrayList<>();
         ZstdInputStream zipis = null;
         MultiByteArrayOutputStream baos = null;
-        ZstdOutputStream zos = null;
+        OutputStream zos = null;
         try {
             if (reZipACMap == null) reZipACMap = toSuperACMap(superACs);
 
@@ -305,8 +350,7 @@ public class SuperZstd extends SuperACs {
             String entryFileName = ZipKit.getUncompressedName(zipFileName, format());
 
             baos = new MultiByteArrayOutputStream();
-            zos = new ZstdOutputStream(baos, reZipOutputProperty.getBufferPool());
-            setZstdOutputStreamOptions(zos, reZipOutputProperty);
+            zos = newZstdOutputStream(os == null ? baos : closeShield(os), reZipOutputProperty);
 
             final int newUnzipTimes = unzipTimes + 1;
             final int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
@@ -335,7 +379,7 @@ public class SuperZstd extends SuperACs {
             Close.close(zos);
             Close.close(baos);
         }
-        return ZipResult.of(baos.toByteArrays(), rs);
+        return ZipResult.of(os == null ? baos.toByteArrays() : null, rs);
     }
 
 }
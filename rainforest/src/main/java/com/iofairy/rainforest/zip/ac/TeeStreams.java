@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import com.iofairy.lambda.RT1;
+import com.iofairy.rainforest.zip.base.TeeAction;
+import com.iofairy.rainforest.zip.base.ZipExecutors;
+import com.iofairy.top.O;
+import com.iofairy.tuple.Tuple;
+import com.iofairy.tuple.Tuple2;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * tee 模式（见 {@link TeeAction}）：一次读取输入流，同时交给两个消费者
+ *
+ * @since 0.6.2
+ */
+final class TeeStreams {
+    private static final int DRAIN_BUFFER_SIZE = 8192;
+
+    private TeeStreams() {
+    }
+
+    /**
+     * 当前线程中的 {@code consumer} 读取 {@code source} 时，读到的数据同时写入有界管道，由执行器中的 {@code action} 读取。
+     * {@code consumer} 结束后，{@code source} 中剩余的数据也写入管道，保证 {@code action} 读到完整的数据<br>
+     * {@code source} 不会被关闭
+     *
+     * @return {@code (action 的返回值, consumer 的返回值)}
+     */
+    static <R, T> Tuple2<R, T> tee(InputStream source,
+                                   TeeAction<R> action,
+                                   int unzipTimes,
+                                   String zipFileName,
+                                   String entryFileName,
+                                   RT1<InputStream, T, Exception> consumer) throws Exception {
+        Pipe pipe = new Pipe(action.getPipeSize());
+        Executor executor = action.getExecutor() == null ? ZipExecutors.defaultExecutor() : action.getExecutor();
+        CompletableFuture<R> future = SuperACs.supplyAsync(() -> {
+            // 关闭读取端后，写入管道的数据被丢弃，不会阻塞解压
+            try (InputStream pis = pipe.new PipeInputStream()) {
+                return action.$(pis, unzipTimes, zipFileName, entryFileName);
+            }
+        }, executor);
+
+        T t;
+        try (TeeInputStream tis = new TeeInputStream(source, pipe)) {
+            t = consumer.$(tis);
+            tis.drain();
+            pipe.closeWrite(null);
+        } catch (Throwable e) {
+            pipe.closeWrite(e);
+            try {
+                future.join();
+            } catch (Throwable ex) {
+                e.addSuppressed(ex);
+            }
+            O.sneakyThrows(e);
+            return null;
+        }
+
+        try {
+            return Tuple.of(future.join(), t);
+        } catch (CompletionException e) {
+            O.sneakyThrows(e.getCause() == null ? e : e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * 关闭时不关闭原输入流
+     */
+    static InputStream closeShield(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * 读取时把数据同时写入管道的输入流，关闭时不关闭原输入流
+     */
+    private static final class TeeInputStream extends InputStream {
+        private final InputStream in;
+        private final Pipe pipe;
+        private final byte[] singleByte = new byte[1];
+
+        TeeInputStream(InputStream in, Pipe pipe) {
+            this.in = in;
+            this.pipe = pipe;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                singleByte[0] = (byte) b;
+                pipe.write(singleByte, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) pipe.write(b, off, n);
+            return n;
+        }
+
+        /**
+         * 跳过的数据也要写入管道
+         */
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(DRAIN_BUFFER_SIZE, Math.max(n, 1))];
+            long skipped = 0;
+            while (skipped < n) {
+                int count = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (count < 0) break;
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in.available();
+        }
+
+        void drain() throws IOException {
+            byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+            while (read(buffer, 0, buffer.length) != -1) ;
+        }
+
+        @Override
+        public void close() {
+            // 不关闭原输入流
+        }
+    }
+
+    /**
+     * 单生产者、单消费者的有界环形缓冲区
+     */
+    private static final class Pipe {
+        private final byte[] buffer;
+        private int readPos;
+        private int count;
+        private boolean writeClosed;
+        private boolean readClosed;
+        private Throwable writeError;
+
+        Pipe(int size) {
+            this.buffer = new byte[size];
+        }
+
+        synchronized void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (readClosed) return;
+                while (count == buffer.length && !readClosed) {
+                    await();
+                }
+                if (readClosed) return;
+                int writePos = (readPos + count) % buffer.length;
+                int n = Math.min(len, Math.min(buffer.length - count, buffer.length - writePos));
+                System.arraycopy(b, off, buffer, writePos, n);
+                count += n;
+                off += n;
+                len -= n;
+                notifyAll();
+            }
+        }
+
+        synchronized void closeWrite(Throwable error) {
+            writeClosed = true;
+            writeError = error;
+            notifyAll();
+        }
+
+        synchronized int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            while (count == 0 && !writeClosed) {
+                await();
+            }
+            if (count == 0) {
+                if (writeError != null) throw new IOException("tee 模式下数据源读取失败！", writeError);
+                return -1;
+            }
+            int n = Math.min(len, Math.min(count, buffer.length - readPos));
+            System.arraycopy(buffer, readPos, b, off, n);
+            readPos = (readPos + n) % buffer.length;
+            count -= n;
+            notifyAll();
+            return n;
+        }
+
+        synchronized int available() {
+            return count;
+        }
+
+        synchronized void closeRead() {
+            readClosed = true;
+            count = 0;
+            notifyAll();
+        }
+
+        private void await() throws InterruptedIOException {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("tee 管道等待时被中断！");
+            }
+        }
+
+        /**
+         * 管道的读取端
+         */
+        final class PipeInputStream extends InputStream {
+            private final byte[] singleByte = new byte[1];
+
+            @Override
+            public int read() throws IOException {
+                int n = read(singleByte, 0, 1);
+                return n < 0 ? -1 : singleByte[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return Pipe.this.read(b, off, len);
+            }
+
+            @Override
+            public int available() {
+                return Pipe.this.available();
+            }
+
+            @Override
+            public void close() {
+                closeRead();
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * WinZip AES（AE-1/AE-2）的加解密，基于 JDK 的 {@link Cipher}、{@link Mac} 与 PBKDF2 实现，
+ * 在支持 AES-NI 的 CPU 上由 JVM 内建的硬件指令加速（zip4j 使用纯 Java 实现的 AES）<br>
+ * <ul>
+ * <li>密钥派生：PBKDF2-HMAC-SHA1，迭代1000次，依次得到 AES 密钥、HMAC-SHA1 密钥与2个字节的密码校验值
+ * <li>加密：AES-CTR，计数器为<b>小端序</b>、从1开始，与 JCE 的 CTR 模式（大端序）不兼容，所以用 ECB 模式批量加密计数器块得到密钥流
+ * <li>认证码：密文的 HMAC-SHA1 的前10个字节
+ * </ul>
+ * 每个实例只用于一个压缩文件条目，非线程安全
+ *
+ * @since 0.6.2
+ */
+final class WinZipAes {
+    static final int ITERATIONS = 1000;
+    static final int PASSWORD_VERIFIER_LENGTH = 2;
+    static final int MAC_LENGTH = 10;
+    private static final int BLOCK_SIZE = 16;
+    /**
+     * 每次批量生成的密钥流的长度（字节）
+     */
+    private static final int KEYSTREAM_SIZE = 256 * BLOCK_SIZE;
+    /**
+     * JDK 是否提供所需的算法
+     */
+    private static final boolean AVAILABLE = checkAvailable();
+
+    private final Cipher cipher;
+    private final Mac mac;
+    private final byte[] passwordVerifier;
+    private final byte[] counterBlocks = new byte[KEYSTREAM_SIZE];
+    private final byte[] keystream = new byte[KEYSTREAM_SIZE];
+    private int keystreamPos = KEYSTREAM_SIZE;
+    private long counter = 1;
+
+    private WinZipAes(byte[] derivedKey, int keyLength) throws GeneralSecurityException {
+        cipher = Cipher.getInstance("AES/ECB/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(derivedKey, 0, keyLength, "AES"));
+        mac = Mac.getInstance("HmacSHA1");
+        mac.init(new SecretKeySpec(derivedKey, keyLength, keyLength, "HmacSHA1"));
+        passwordVerifier = Arrays.copyOfRange(derivedKey, keyLength * 2, keyLength * 2 + PASSWORD_VERIFIER_LENGTH);
+    }
+
+    /**
+     * 由密码与盐值派生密钥
+     *
+     * @param password  密码
+     * @param salt      盐值
+     * @param keyLength AES 密钥的长度（16、24或32个字节）
+     * @return WinZipAes
+     * @throws GeneralSecurityException 派生密钥失败（如密码为空）
+     */
+    static WinZipAes of(char[] password, byte[] salt, int keyLength) throws GeneralSecurityException {
+        return new WinZipAes(deriveKey(password, salt, keyLength), keyLength);
+    }
+
+    /**
+     * PBKDF2-HMAC-SHA1 派生 {@code keyLength * 2 + 2} 个字节：AES 密钥、HMAC-SHA1 密钥与密码校验值
+     *
+     * @param password  密码
+     * @param salt      盐值
+     * @param keyLength AES 密钥的长度（字节）
+     * @return 派生的字节
+     * @throws GeneralSecurityException 派生密钥失败
+     */
+    static byte[] deriveKey(char[] password, byte[] salt, int keyLength) throws GeneralSecurityException {
+        SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1");
+        PBEKeySpec keySpec = new PBEKeySpec(password, salt, ITERATIONS, (keyLength * 2 + PASSWORD_VERIFIER_LENGTH) * 8);
+        try {
+            return factory.generateSecret(keySpec).getEncoded();
+        } finally {
+            keySpec.clearPassword();
+        }
+    }
+
+    /**
+     * 是否可以用 JDK 处理此密码：JDK 的 PBKDF2 以 UTF-8 编码密码，
+     * zip4j 不使用 UTF-8 编码密码时（每个字符直接截断为1个字节）只有 ASCII 密码的结果相同
+     *
+     * @param password                   密码
+     * @param useUtf8CharsetForPasswords zip4j 是否以 UTF-8 编码密码
+     * @return 是否可以用 JDK 处理
+     */
+    static boolean isSupported(char[] password, boolean useUtf8CharsetForPasswords) {
+        if (!AVAILABLE || password == null || password.length == 0) return false;
+        if (useUtf8CharsetForPasswords) return true;
+        for (char c : password) {
+            if (c > 0x7F) return false;
+        }
+        return true;
+    }
+
+    byte[] getPasswordVerifier() {
+        return passwordVerifier;
+    }
+
+    /**
+     * AES-CTR 加密或解密（两者相同），{@code src} 与 {@code dst} 可以是同一个数组
+     */
+    void crypt(byte[] src, int srcOff, byte[] dst, int dstOff, int len) {
+        while (len > 0) {
+            if (keystreamPos == KEYSTREAM_SIZE) nextKeystream();
+            int n = Math.min(len, KEYSTREAM_SIZE - keystreamPos);
+            for (int i = 0; i < n; i++) {
+                dst[dstOff + i] = (byte) (src[srcOff + i] ^ keystream[keystreamPos + i]);
+            }
+            keystreamPos += n;
+            srcOff += n;
+            dstOff += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * 密文计入认证码
+     */
+    void updateMac(byte[] b, int off, int len) {
+        mac.update(b, off, len);
+    }
+
+    /**
+     * 认证码（HMAC-SHA1 的前10个字节）
+     */
+    byte[] authenticationCode() {
+        return Arrays.copyOf(mac.doFinal(), MAC_LENGTH);
+    }
+
+    /**
+     * 批量加密计数器块，每块前8个字节为小端序的计数器，其余字节为0
+     */
+    private void nextKeystream() {
+        for (int off = 0; off < KEYSTREAM_SIZE; off += BLOCK_SIZE) {
+            long c = counter++;
+            for (int i = 0; i < 8; i++) {
+                counterBlocks[off + i] = (byte) (c >>> (i * 8));
+            }
+        }
+        try {
+            cipher.update(counterBlocks, 0, KEYSTREAM_SIZE, keystream, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+        keystreamPos = 0;
+    }
+
+    private static boolean checkAvailable() {
+        try {
+            Cipher.getInstance("AES/ECB/NoPadding");
+            Mac.getInstance("HmacSHA1");
+            SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1");
+            return true;
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+}
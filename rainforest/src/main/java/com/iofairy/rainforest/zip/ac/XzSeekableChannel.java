@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import com.iofairy.rainforest.zip.attr.XzInputProperty;
+import com.iofairy.tcf.Close;
+import org.tukaani.xz.SeekableInputStream;
+import org.tukaani.xz.SeekableXZInputStream;
+import org.tukaani.xz.XZIOException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 将多块（multi-block）xz 压缩数据<b>解压后的数据</b>作为只读的 {@link SeekableByteChannel}<br>
+ * 根据 xz 流末尾的索引（index）定位到偏移量所在的块，从该块的开头开始解压（{@link SeekableXZInputStream}），最多只需要多解压一个块的数据。
+ * 顺序读取时继续使用当前的解压流，不会重新定位<br>
+ * 配合 {@link org.apache.commons.compress.archivers.tar.TarFile} 使用时，可以只读取 .tar.xz 的文件头和需要的条目，见 {@code SuperTarXz#unzip(File, ...)}；
+ * 按块并发解压见 {@link ParallelXzInputStream}<br>
+ * 多块的 xz 数据由 {@code xz -T}、{@code xz --block-size} 或 {@link org.tukaani.xz.XZOutputStream#endBlock()} 生成
+ *
+ * @since 0.6.2
+ */
+public class XzSeekableChannel implements SeekableByteChannel {
+    private final SeekableByteChannel channel;
+    private final XzInputProperty inputProperty;
+    private final SeekableXZInputStream xz;
+
+    private long position;
+    private boolean open = true;
+
+    private XzSeekableChannel(SeekableByteChannel channel, XzInputProperty inputProperty, SeekableXZInputStream xz) {
+        this.channel = channel;
+        this.inputProperty = inputProperty;
+        this.xz = xz;
+    }
+
+    /**
+     * 打开多块的 xz 压缩数据
+     *
+     * @param channel       压缩数据，关闭返回的通道时一并关闭
+     * @param inputProperty 解压属性
+     * @return 以下情况返回{@code null}（不会关闭 {@code channel}）：不是 xz 格式或索引损坏；只有一个块（无法随机访问）；
+     * 有多个拼接的流，但 {@link XzInputProperty#decompressConcatenated} 为{@code false}
+     * @throws IOException IOException
+     */
+    public static XzSeekableChannel open(SeekableByteChannel channel, XzInputProperty inputProperty) throws IOException {
+        checkHasNullNPE(args(channel), args("channel"));
+        XzInputProperty property = inputProperty == null ? XzInputProperty.of() : inputProperty;
+
+        SeekableXZInputStream xz;
+        try {
+            xz = newDecoder(channel, property);
+        } catch (XZIOException | EOFException e) {
+            return null;
+        }
+        if (xz.getBlockCount() <= 1 || (!property.isDecompressConcatenated() && xz.getStreamCount() > 1)) {
+            xz.close();
+            return null;
+        }
+        return new XzSeekableChannel(channel, property, xz);
+    }
+
+    /**
+     * 打开多块的 xz 压缩文件
+     *
+     * @param file          压缩文件
+     * @param inputProperty 解压属性
+     * @return 不能随机访问时返回{@code null}，见 {@link #open(SeekableByteChannel, XzInputProperty)}
+     * @throws IOException IOException
+     */
+    public static XzSeekableChannel open(File file, XzInputProperty inputProperty) throws IOException {
+        checkHasNullNPE(args(file), args("file"));
+        checkFileNotFound(!file.isFile(), "文件[${path}]不存在。", file.getAbsolutePath());
+
+        SeekableByteChannel channel = Files.newByteChannel(file.toPath(), StandardOpenOption.READ);
+        try {
+            XzSeekableChannel seekableChannel = open(channel, inputProperty);
+            if (seekableChannel == null) channel.close();
+            return seekableChannel;
+        } catch (Throwable e) {
+            Close.close(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * 块的数量（所有流的块数之和）
+     *
+     * @return 块的数量
+     */
+    public int blockCount() {
+        return xz.getBlockCount();
+    }
+
+    /**
+     * 块在解压数据中的起始偏移量
+     */
+    long blockPos(int blockNumber) {
+        return xz.getBlockPos(blockNumber);
+    }
+
+    /**
+     * 块解压后的大小
+     */
+    long blockSize(int blockNumber) {
+        return xz.getBlockSize(blockNumber);
+    }
+
+    /**
+     * 创建一个新的、独立的解压流，与当前通道共享压缩数据，可以在其他线程中使用。调用者负责关闭
+     */
+    SeekableXZInputStream newDecoder() throws IOException {
+        ensureOpen();
+        return newDecoder(channel, inputProperty);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        long size = size();
+        if (position >= size) return -1;
+        if (!dst.hasRemaining()) return 0;
+
+        if (xz.position() != position) xz.seek(position);
+        int len = (int) Math.min(dst.remaining(), size - position);
+        int n;
+        if (dst.hasArray()) {
+            n = xz.read(dst.array(), dst.arrayOffset() + dst.position(), len);
+            if (n > 0) dst.position(dst.position() + n);
+        } else {
+            byte[] bytes = new byte[Math.min(len, 8192)];
+            n = xz.read(bytes, 0, bytes.length);
+            if (n > 0) dst.put(bytes, 0, n);
+        }
+        if (n == -1) throw new EOFException("xz 压缩数据与索引不一致！");
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        checkArgument(newPosition < 0, "参数`newPosition`不能小于0！");
+        position = newPosition;
+        return this;
+    }
+
+    /**
+     * 解压后的总大小
+     *
+     * @return 解压后的总大小
+     */
+    @Override
+    public long size() {
+        return xz.length();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) return;
+        open = false;
+        Close.close(xz);
+        channel.close();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!open) throw new ClosedChannelException();
+    }
+
+    private static SeekableXZInputStream newDecoder(SeekableByteChannel channel, XzInputProperty inputProperty) throws IOException {
+        return new SeekableXZInputStream(new ChannelSeekableInputStream(channel),
+                inputProperty.getMemoryLimitInKb(), inputProperty.isVerifyCheck(), inputProperty.getArrayCache());
+    }
+
+    /**
+     * 按绝对偏移量读取压缩数据，多个解压流（线程）可以共享同一个通道，关闭时不关闭通道<br>
+     * {@link FileChannel} 使用不改变通道位置的 {@link FileChannel#read(ByteBuffer, long)}，其他通道在读取时对通道加锁
+     */
+    private static class ChannelSeekableInputStream extends SeekableInputStream {
+        private final SeekableByteChannel channel;
+        private long pos;
+
+        ChannelSeekableInputStream(SeekableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            int n;
+            if (channel instanceof FileChannel) {
+                n = ((FileChannel) channel).read(buffer, pos);
+            } else {
+                synchronized (channel) {
+                    channel.position(pos);
+                    n = channel.read(buffer);
+                }
+            }
+            if (n > 0) pos += n;
+            return n;
+        }
+
+        @Override
+        public long length() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public long position() {
+            return pos;
+        }
+
+        @Override
+        public void seek(long pos) throws IOException {
+            if (pos < 0) throw new IOException("Negative seek position: " + pos);
+            this.pos = pos;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import com.github.luben.zstd.ZstdException;
+import com.iofairy.rainforest.zip.attr.ZstdOutputProperty;
+import com.iofairy.tcf.Close;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.apache.commons.compress.archivers.tar.TarUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 自动训练字典的 zstd 压缩输出流<br>
+ * 先缓存 {@link ZstdOutputProperty#trainSampleSize} 字节（未压缩）的数据，切分成样本后用 {@link ZstdDictTrainer} 训练字典，
+ * 训练出的字典注册到 {@link ZstdOutputProperty#dictRegistry}，再使用该字典压缩缓存的数据与后续写入的数据。
+ * 帧头中记录了字典ID，解压时可以根据字典ID在注册表中找到字典<br>
+ * <b>注：</b>
+ * <ul>
+ * <li>字典只对每个帧开头的数据有效，所以<b>总是</b>以 Seekable Format 格式压缩：没有设置 {@link ZstdOutputProperty#seekableFrameSize} 时，
+ * 帧的大小为 {@value #DEFAULT_FRAME_SIZE} 字节。帧越小，字典的收益越大</li>
+ * <li>数据是 tar 时，每个条目（文件头 + 数据）为一个样本，超过帧大小的条目按帧大小切分；否则按 {@value #DEFAULT_SAMPLE_BLOCK_SIZE} 字节
+ * （帧更小时按帧的大小）切分。样本太少、训练失败时，不使用字典压缩</li>
+ * <li>样本缓存在堆内存中，没有设置 {@link ZstdOutputProperty#trainSampleSize} 时，最多缓存 {@value #MAX_DEFAULT_SAMPLE_SIZE} 字节</li>
+ * <li>训练完成前 {@link #flush()} 不会输出任何数据</li>
+ * </ul>
+ *
+ * @since 0.6.2
+ */
+public class ZstdDictTrainingOutputStream extends OutputStream {
+    /**
+     * 默认的样本大小
+     */
+    public static final int DEFAULT_SAMPLE_BLOCK_SIZE = 8 * 1024;
+    /**
+     * 没有设置 {@link ZstdOutputProperty#seekableFrameSize} 时，帧的大小
+     */
+    public static final int DEFAULT_FRAME_SIZE = 32 * 1024;
+    /**
+     * 没有设置 {@link ZstdOutputProperty#trainSampleSize} 时，样本总大小（字典大小的100倍）的上限
+     */
+    public static final int MAX_DEFAULT_SAMPLE_SIZE = 4 * 1024 * 1024;
+    /**
+     * zstd 训练字典至少需要的样本数
+     */
+    private static final int MIN_SAMPLES = 8;
+    /**
+     * tar 文件头中条目大小字段的偏移量
+     */
+    private static final int TAR_SIZE_OFFSET = TarConstants.NAMELEN + TarConstants.MODELEN + TarConstants.UIDLEN + TarConstants.GIDLEN;
+
+    private final OutputStream out;
+    private final ZstdOutputProperty outputProperty;
+    private final int dictSize;
+    private final int sampleSize;
+    private final int frameSize;
+    private final byte[] singleByte = new byte[1];
+
+    /**
+     * 训练字典前缓存的数据，开始压缩后为 {@code null}
+     */
+    private SampleBuffer buffer;
+    private OutputStream zos;
+    private ZstdDictCompress dictCompress;
+    private long dictId;
+    private boolean closed;
+
+    /**
+     * 构造自动训练字典的输出流
+     *
+     * @param out            输出流，关闭时一并关闭
+     * @param outputProperty 压缩属性，{@link ZstdOutputProperty#trainDictSize} 与 {@link ZstdOutputProperty#dictRegistry} 不能为{@code null}
+     */
+    public ZstdDictTrainingOutputStream(OutputStream out, ZstdOutputProperty outputProperty) {
+        checkHasNullNPE(args(out, outputProperty), args("out", "outputProperty"));
+        checkHasNullNPE(args(outputProperty.getTrainDictSize()), args("trainDictSize"));
+        checkArgument(outputProperty.getTrainDictSize() <= 0, "参数`trainDictSize`必须大于0！");
+        // 训练出的字典只保存在注册表中，没有注册表时压缩后的数据无法解压
+        checkArgument(outputProperty.getDictRegistry() == null, "训练字典时，参数`dictRegistry`不能为null！");
+        checkArgument(outputProperty.getTrainSampleSize() != null && outputProperty.getTrainSampleSize() <= 0, "参数`trainSampleSize`必须大于0！");
+        checkArgument(outputProperty.getSeekableFrameSize() != null && outputProperty.getSeekableFrameSize() <= 0, "参数`seekableFrameSize`必须大于0！");
+
+        this.out = out;
+        this.outputProperty = outputProperty;
+        this.dictSize = outputProperty.getTrainDictSize();
+        this.sampleSize = outputProperty.getTrainSampleSize() == null
+                ? (int) Math.min(MAX_DEFAULT_SAMPLE_SIZE, 100L * dictSize)
+                : outputProperty.getTrainSampleSize();
+        this.frameSize = outputProperty.getSeekableFrameSize() == null ? DEFAULT_FRAME_SIZE : outputProperty.getSeekableFrameSize();
+        this.buffer = new SampleBuffer(Math.min(sampleSize, 1024 * 1024));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        singleByte[0] = (byte) b;
+        write(singleByte, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (zos == null) {
+            int n = Math.min(len, sampleSize - buffer.size());
+            buffer.write(b, off, n);
+            off += n;
+            len -= n;
+            if (buffer.size() < sampleSize) return;
+            startCompression();
+        }
+        if (len > 0) zos.write(b, off, len);
+    }
+
+    /**
+     * 刷新缓冲区，训练字典前不输出任何数据
+     *
+     * @throws IOException IOException
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (zos != null) zos.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (zos == null) startCompression();
+        } finally {
+            try {
+                if (zos == null) {
+                    out.close();
+                } else {
+                    zos.close();
+                }
+            } finally {
+                Close.close(dictCompress);
+            }
+        }
+    }
+
+    /**
+     * 训练出的字典的ID
+     *
+     * @return 字典ID，还未训练或训练失败时返回 0
+     */
+    public long getDictId() {
+        return dictId;
+    }
+
+    private void startCompression() throws IOException {
+        // 直接使用缓存的数组，不再复制一份
+        byte[] data = buffer.array();
+        int length = buffer.size();
+        buffer = null;
+
+        byte[] dict = train(data, length, dictSize, frameSize);
+        if (dict != null) {
+            dictId = Zstd.getDictIdFromDict(dict);
+            outputProperty.getDictRegistry().register(dict);
+            int level = outputProperty.getLevel() == null ? Zstd.defaultCompressionLevel() : outputProperty.getLevel();
+            dictCompress = new ZstdDictCompress(dict, level);
+        }
+
+        zos = new ZstdSeekableOutputStream(out, outputProperty, frameSize, dictCompress);
+        zos.write(data, 0, length);
+    }
+
+    /**
+     * 把数据切分成样本并训练字典
+     *
+     * @return 样本太少或训练失败时返回 {@code null}
+     */
+    static byte[] train(byte[] data, int length, int dictSize, int frameSize) {
+        List<Integer> samples = tarEntrySamples(data, length, frameSize);
+        if (samples == null) samples = blockSamples(length, Math.min(frameSize, DEFAULT_SAMPLE_BLOCK_SIZE));
+        if (samples.size() < MIN_SAMPLES) return null;
+
+        ZstdDictTrainer trainer = new ZstdDictTrainer(length, dictSize);
+        int off = 0;
+        for (int sample : samples) {
+            trainer.addSample(Arrays.copyOfRange(data, off, off + sample));
+            off += sample;
+        }
+        try {
+            byte[] dict = trainer.trainSamples();
+            return Zstd.getDictIdFromDict(dict) == 0 ? null : dict;
+        } catch (ZstdException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 数据是 tar 时，按条目（文件头 + 数据，包括 PAX 等扩展头）切分样本，超过 {@code maxSampleSize} 的条目再按 {@code maxSampleSize} 切分
+     *
+     * @return 各个样本的大小（按顺序覆盖 {@code [0, length)}），不是 tar 时返回 {@code null}
+     */
+    static List<Integer> tarEntrySamples(byte[] data, int length, int maxSampleSize) {
+        List<Integer> samples = new ArrayList<>();
+        int pos = 0;
+        while (pos + TarConstants.DEFAULT_RCDSIZE <= length) {
+            byte[] header = Arrays.copyOfRange(data, pos, pos + TarConstants.DEFAULT_RCDSIZE);
+            long size;
+            try {
+                if (!TarUtils.verifyCheckSum(header)) break;
+                size = TarUtils.parseOctalOrBinary(header, TAR_SIZE_OFFSET, TarConstants.SIZELEN);
+            } catch (IllegalArgumentException e) {
+                break;
+            }
+            long records = (size + TarConstants.DEFAULT_RCDSIZE - 1) / TarConstants.DEFAULT_RCDSIZE;
+            int end = (int) Math.min(length, pos + TarConstants.DEFAULT_RCDSIZE * (1 + records));
+            addSamples(samples, end - pos, maxSampleSize);
+            pos = end;
+        }
+        if (pos == 0) return null;
+        // 归档结束标记（全为0的记录）或者不完整的条目
+        addSamples(samples, length - pos, maxSampleSize);
+        return samples;
+    }
+
+    static List<Integer> blockSamples(int length, int sampleBlockSize) {
+        List<Integer> samples = new ArrayList<>();
+        addSamples(samples, length, sampleBlockSize);
+        return samples;
+    }
+
+    private static void addSamples(List<Integer> samples, int size, int maxSampleSize) {
+        for (; size > 0; size -= maxSampleSize) {
+            samples.add(Math.min(size, maxSampleSize));
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("Stream closed");
+    }
+
+    /**
+     * 可以直接访问内部数组的 {@link ByteArrayOutputStream}
+     */
+    private static class SampleBuffer extends ByteArrayOutputStream {
+        SampleBuffer(int size) {
+            super(size);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
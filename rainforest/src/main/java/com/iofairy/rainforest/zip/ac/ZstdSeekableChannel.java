@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.iofairy.rainforest.zip.attr.ZstdInputProperty;
+import com.iofairy.tcf.Close;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 读取 <a href="https://github.com/facebook/zstd/blob/dev/contrib/seekable_format/zstd_seekable_compression_format.md">Zstd Seekable Format</a>
+ * 格式的压缩数据，将<b>解压后的数据</b>作为只读的 {@link SeekableByteChannel}<br>
+ * 根据压缩数据末尾的跳表（seek table）定位到偏移量所在的帧，从该帧的开头开始解压，最多只需要多解压一个帧的数据。
+ * 顺序读取时继续使用当前的解压流，不会重新定位<br>
+ * 配合 {@link org.apache.commons.compress.archivers.tar.TarFile} 使用时，可以只读取 .tar.zst 的文件头和需要的条目，见 {@code SuperTarZstd#unzip(File, ...)}<br>
+ * 压缩数据由 {@link ZstdSeekableOutputStream} 或 zstd 官方的 seekable 工具生成
+ *
+ * @since 0.6.2
+ */
+public class ZstdSeekableChannel implements SeekableByteChannel {
+    /**
+     * 跳表所在的可跳过帧（skippable frame）的魔数
+     */
+    static final int SKIPPABLE_MAGIC = 0x184D2A5E;
+    /**
+     * 跳表末尾的魔数
+     */
+    static final int SEEKABLE_MAGIC = 0x8F92EAB1;
+    /**
+     * 可跳过帧的帧头大小：魔数（4字节） + 帧大小（4字节）
+     */
+    static final int SKIPPABLE_HEADER_SIZE = 8;
+    /**
+     * 跳表末尾大小：帧数量（4字节） + 描述符（1字节） + 魔数（4字节）
+     */
+    static final int SEEK_TABLE_FOOTER_SIZE = 9;
+    /**
+     * 不带校验和的跳表记录大小：压缩后大小（4字节） + 解压后大小（4字节）
+     */
+    static final int SEEK_TABLE_ENTRY_SIZE = 8;
+
+    private final SeekableByteChannel channel;
+    private final ZstdInputProperty inputProperty;
+    /**
+     * 每个帧在压缩数据中的起始偏移量，最后一个元素为压缩数据（不含跳表）的总大小
+     */
+    private final long[] compressedOffsets;
+    /**
+     * 每个帧在解压数据中的起始偏移量，最后一个元素为解压后的总大小
+     */
+    private final long[] decompressedOffsets;
+    private final byte[] skipBuffer = new byte[8192];
+
+    private ZstdInputStream zis;
+    /**
+     * {@link #zis} 下一个读取的字节在解压数据中的偏移量
+     */
+    private long zisPos;
+    private long position;
+    private boolean open = true;
+
+    private ZstdSeekableChannel(SeekableByteChannel channel, ZstdInputProperty inputProperty, long[][] offsets) {
+        this.channel = channel;
+        this.inputProperty = inputProperty == null ? ZstdInputProperty.of() : inputProperty;
+        this.compressedOffsets = offsets[0];
+        this.decompressedOffsets = offsets[1];
+    }
+
+    /**
+     * 打开 Seekable Format 格式的压缩数据
+     *
+     * @param channel       压缩数据，关闭返回的通道时一并关闭
+     * @param inputProperty 解压属性
+     * @return 压缩数据末尾没有合法的跳表时，返回{@code null}（不会关闭 {@code channel}）
+     * @throws IOException IOException
+     */
+    public static ZstdSeekableChannel open(SeekableByteChannel channel, ZstdInputProperty inputProperty) throws IOException {
+        checkHasNullNPE(args(channel), args("channel"));
+        long[][] offsets = readSeekTable(channel);
+        return offsets == null ? null : new ZstdSeekableChannel(channel, inputProperty, offsets);
+    }
+
+    /**
+     * 打开 Seekable Format 格式的压缩文件
+     *
+     * @param file          压缩文件
+     * @param inputProperty 解压属性
+     * @return 文件末尾没有合法的跳表时，返回{@code null}
+     * @throws IOException IOException
+     */
+    public static ZstdSeekableChannel open(File file, ZstdInputProperty inputProperty) throws IOException {
+        checkHasNullNPE(args(file), args("file"));
+        checkFileNotFound(!file.isFile(), "文件[${path}]不存在。", file.getAbsolutePath());
+
+        SeekableByteChannel channel = Files.newByteChannel(file.toPath(), StandardOpenOption.READ);
+        try {
+            ZstdSeekableChannel seekableChannel = open(channel, inputProperty);
+            if (seekableChannel == null) channel.close();
+            return seekableChannel;
+        } catch (Throwable e) {
+            Close.close(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * 压缩数据末尾是否有合法的跳表
+     *
+     * @param channel 压缩数据
+     * @return 是否为 Seekable Format 格式
+     * @throws IOException IOException
+     */
+    public static boolean isSeekable(SeekableByteChannel channel) throws IOException {
+        return readSeekTable(channel) != null;
+    }
+
+    /**
+     * 帧的数量
+     *
+     * @return 帧的数量
+     */
+    public int frameCount() {
+        return decompressedOffsets.length - 1;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        long size = size();
+        if (position >= size) return -1;
+        if (!dst.hasRemaining()) return 0;
+
+        int frame = frameIndex(position);
+        if (zis == null || zisPos > position || decompressedOffsets[frame] > zisPos) restart(frame);
+        while (zisPos < position) {
+            int n = zis.read(skipBuffer, 0, (int) Math.min(skipBuffer.length, position - zisPos));
+            if (n == -1) throw new EOFException("zstd 压缩数据与跳表不一致！");
+            zisPos += n;
+        }
+
+        int len = (int) Math.min(dst.remaining(), size - position);
+        int n;
+        if (dst.hasArray()) {
+            n = zis.read(dst.array(), dst.arrayOffset() + dst.position(), len);
+            if (n > 0) dst.position(dst.position() + n);
+        } else {
+            byte[] bytes = new byte[Math.min(len, skipBuffer.length)];
+            n = zis.read(bytes, 0, bytes.length);
+            if (n > 0) dst.put(bytes, 0, n);
+        }
+        if (n == -1) throw new EOFException("zstd 压缩数据与跳表不一致！");
+        position += n;
+        zisPos += n;
+        return n;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        checkArgument(newPosition < 0, "参数`newPosition`不能小于0！");
+        position = newPosition;
+        return this;
+    }
+
+    /**
+     * 解压后的总大小
+     *
+     * @return 解压后的总大小
+     */
+    @Override
+    public long size() {
+        return decompressedOffsets[decompressedOffsets.length - 1];
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) return;
+        open = false;
+        Close.close(zis);
+        zis = null;
+        channel.close();
+    }
+
+    private void restart(int frame) throws IOException {
+        Close.close(zis);
+        zis = new ZstdInputStream(new ChannelInputStream(compressedOffsets[frame]), inputProperty.getBufferPool());
+        SuperACs.setZstdInputStreamOptions(zis, inputProperty);
+        zisPos = decompressedOffsets[frame];
+    }
+
+    /**
+     * 查找偏移量所在的帧：{@code decompressedOffsets[i] <= offset} 的最大的 {@code i}
+     */
+    private int frameIndex(long offset) {
+        int lo = 0, hi = frameCount() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (decompressedOffsets[mid] <= offset) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!open) throw new ClosedChannelException();
+    }
+
+    /**
+     * 读取并校验跳表
+     *
+     * @return {@code [compressedOffsets, decompressedOffsets]}，没有合法的跳表时返回{@code null}
+     */
+    private static long[][] readSeekTable(SeekableByteChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < SKIPPABLE_HEADER_SIZE + SEEK_TABLE_FOOTER_SIZE) return null;
+
+        ByteBuffer footer = readFully(channel, size - SEEK_TABLE_FOOTER_SIZE, SEEK_TABLE_FOOTER_SIZE);
+        long frames = footer.getInt(0) & 0xFFFFFFFFL;
+        byte descriptor = footer.get(4);
+        if (footer.getInt(5) != SEEKABLE_MAGIC) return null;
+        // Reserved_Bits 必须为0
+        if ((descriptor & 0x7C) != 0) return null;
+
+        int entrySize = (descriptor & 0x80) != 0 ? SEEK_TABLE_ENTRY_SIZE + 4 : SEEK_TABLE_ENTRY_SIZE;
+        long tableSize = frames * entrySize + SEEK_TABLE_FOOTER_SIZE;
+        long dataSize = size - SKIPPABLE_HEADER_SIZE - tableSize;
+        if (dataSize < 0 || tableSize + SKIPPABLE_HEADER_SIZE > Integer.MAX_VALUE) return null;
+
+        ByteBuffer table = readFully(channel, dataSize, (int) (tableSize + SKIPPABLE_HEADER_SIZE));
+        if (table.getInt(0) != SKIPPABLE_MAGIC || (table.getInt(4) & 0xFFFFFFFFL) != tableSize) return null;
+
+        long[] compressedOffsets = new long[(int) frames + 1];
+        long[] decompressedOffsets = new long[(int) frames + 1];
+        for (int i = 0; i < frames; i++) {
+            int entryStart = SKIPPABLE_HEADER_SIZE + i * entrySize;
+            compressedOffsets[i + 1] = compressedOffsets[i] + (table.getInt(entryStart) & 0xFFFFFFFFL);
+            decompressedOffsets[i + 1] = decompressedOffsets[i] + (table.getInt(entryStart + 4) & 0xFFFFFFFFL);
+        }
+        // 跳表必须位于压缩数据的末尾，并且紧跟在最后一个帧之后
+        if (compressedOffsets[(int) frames] != dataSize) return null;
+        return new long[][]{compressedOffsets, decompressedOffsets};
+    }
+
+    private static ByteBuffer readFully(SeekableByteChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        channel.position(offset);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) == -1) throw new EOFException();
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 从压缩数据的指定偏移量开始读取，关闭时不关闭通道
+     */
+    private class ChannelInputStream extends InputStream {
+        private long pos;
+
+        ChannelInputStream(long pos) {
+            this.pos = pos;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            channel.position(pos);
+            int n = channel.read(ByteBuffer.wrap(b, off, len));
+            if (n > 0) pos += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.ac;
+
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.iofairy.rainforest.zip.attr.ZstdOutputProperty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static com.iofairy.rainforest.zip.ac.ZstdSeekableChannel.*;
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 以 <a href="https://github.com/facebook/zstd/blob/dev/contrib/seekable_format/zstd_seekable_compression_format.md">Zstd Seekable Format</a>
+ * 格式压缩的输出流<br>
+ * 每写入 {@link ZstdOutputProperty#seekableFrameSize} 字节（解压后）结束一个独立的 zstd 帧，关闭时在末尾追加跳表（seek table）。
+ * 跳表是一个可跳过帧（skippable frame），普通的 zstd 解压器会自动忽略，所以输出仍是合法的 zstd 数据；
+ * 支持跳表的读取器（{@link ZstdSeekableChannel}）则可以直接定位到任意偏移量所在的帧<br>
+ * <b>注：</b>跳表中不写入帧的校验和
+ *
+ * @since 0.6.2
+ */
+public class ZstdSeekableOutputStream extends OutputStream {
+    private final CountingOutputStream out;
+    private final ZstdOutputProperty outputProperty;
+    private final int frameSize;
+    private final ZstdDictCompress dictCompress;
+    /**
+     * 已结束的帧的跳表记录（压缩后大小、解压后大小，均为 u32 小端序）
+     */
+    private final ByteArrayOutputStream seekTableEntries = new ByteArrayOutputStream();
+    private final ByteBuffer entryBuffer = ByteBuffer.allocate(SEEK_TABLE_ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final byte[] singleByte = new byte[1];
+
+    private ZstdOutputStream zos;
+    private long frameStart;
+    private int frameWritten;
+    private int frameCount;
+    private boolean closed;
+
+    /**
+     * 构造 Seekable Format 输出流
+     *
+     * @param out            输出流，关闭时一并关闭
+     * @param outputProperty 压缩属性，{@link ZstdOutputProperty#seekableFrameSize} 不能为{@code null}
+     */
+    public ZstdSeekableOutputStream(OutputStream out, ZstdOutputProperty outputProperty) {
+        this(out, outputProperty, outputProperty == null ? null : outputProperty.getSeekableFrameSize(), null);
+    }
+
+    /**
+     * 构造 Seekable Format 输出流
+     *
+     * @param out            输出流，关闭时一并关闭
+     * @param outputProperty 压缩属性
+     * @param frameSize      每个帧解压后的最大字节数，代替 {@link ZstdOutputProperty#seekableFrameSize}
+     * @param dictCompress   训练出的字典，不为{@code null}时代替 {@code outputProperty} 中的字典
+     */
+    ZstdSeekableOutputStream(OutputStream out, ZstdOutputProperty outputProperty, Integer frameSize, ZstdDictCompress dictCompress) {
+        checkHasNullNPE(args(out, outputProperty), args("out", "outputProperty"));
+        checkHasNullNPE(args(frameSize), args("seekableFrameSize"));
+        checkArgument(frameSize <= 0, "参数`seekableFrameSize`必须大于0！");
+        this.out = new CountingOutputStream(out);
+        this.outputProperty = outputProperty;
+        this.frameSize = frameSize;
+        this.dictCompress = dictCompress;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        singleByte[0] = (byte) b;
+        write(singleByte, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (zos == null) startFrame();
+            int n = Math.min(len, frameSize - frameWritten);
+            zos.write(b, off, n);
+            frameWritten += n;
+            off += n;
+            len -= n;
+            if (frameWritten == frameSize) endFrame();
+        }
+    }
+
+    /**
+     * 刷新缓冲区，<b>不会</b>结束当前帧
+     *
+     * @throws IOException IOException
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (zos != null) zos.flush();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (zos != null) endFrame();
+            writeSeekTable();
+            out.flush();
+        } finally {
+            out.closeTarget();
+        }
+    }
+
+    /**
+     * 已结束的帧的数量
+     *
+     * @return 帧的数量
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    private void startFrame() throws IOException {
+        zos = new ZstdOutputStream(out, outputProperty.getBufferPool());
+        SuperACs.setZstdOutputStreamOptions(zos, outputProperty);
+        if (dictCompress != null) zos.setDict(dictCompress);
+        // 刷新时不能结束帧，否则一个跳表记录会对应多个帧
+        zos.setCloseFrameOnFlush(false);
+        frameStart = out.count;
+        frameWritten = 0;
+    }
+
+    private void endFrame() throws IOException {
+        // 关闭 ZstdOutputStream 结束当前帧，CountingOutputStream 不会关闭底层输出流
+        zos.close();
+        zos = null;
+        long compressedSize = out.count - frameStart;
+        if (compressedSize > 0xFFFFFFFFL) throw new IOException("帧压缩后的大小超过了跳表的上限，请调小`seekableFrameSize`！");
+
+        entryBuffer.clear();
+        entryBuffer.putInt((int) compressedSize).putInt(frameWritten);
+        seekTableEntries.write(entryBuffer.array(), 0, SEEK_TABLE_ENTRY_SIZE);
+        frameCount++;
+    }
+
+    private void writeSeekTable() throws IOException {
+        int tableSize = seekTableEntries.size() + SEEK_TABLE_FOOTER_SIZE;
+        ByteBuffer header = ByteBuffer.allocate(SKIPPABLE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(SKIPPABLE_MAGIC).putInt(tableSize);
+        out.write(header.array());
+        seekTableEntries.writeTo(out);
+
+        ByteBuffer footer = ByteBuffer.allocate(SEEK_TABLE_FOOTER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        // Seek_Table_Descriptor：不带校验和
+        footer.putInt(frameCount).put((byte) 0).putInt(SEEKABLE_MAGIC);
+        out.write(footer.array());
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("Stream closed");
+    }
+
+    /**
+     * 统计写入字节数，关闭时不关闭底层输出流
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        void closeTarget() throws IOException {
+            out.close();
+        }
+    }
+}
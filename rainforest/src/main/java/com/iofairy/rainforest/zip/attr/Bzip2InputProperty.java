@@ -22,6 +22,7 @@ import lombok.experimental.Accessors;
 
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
+import java.util.concurrent.ExecutorService;
 
 /**
  * bzip2解压时的属性设置
@@ -42,6 +43,24 @@ public class Bzip2InputProperty implements ArchiveInputProperty {
     @Setter
     @Accessors(chain = true)
     boolean decompressConcatenated = false;
+    /**
+     * 并行解压的线程数，大于1时使用 {@link com.iofairy.rainforest.zip.ac.ParallelBzip2InputStream} 按块并发解压
+     * <p>
+     * Default: 1（不并行）
+     *
+     * @since 0.6.2
+     */
+    @Setter
+    @Accessors(chain = true)
+    int parallelism = 1;
+    /**
+     * 并行解压使用的线程池，为{@code null}则每个流创建自己的线程池，见 {@link #parallelism}
+     *
+     * @since 0.6.2
+     */
+    @Setter
+    @Accessors(chain = true)
+    ExecutorService executor;
 
     public Bzip2InputProperty() {
     }
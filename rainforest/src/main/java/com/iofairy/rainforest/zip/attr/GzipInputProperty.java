@@ -22,6 +22,7 @@ import lombok.experimental.Accessors;
 
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
+import java.util.concurrent.ExecutorService;
 
 /**
  * GZIP解压时的属性设置
@@ -46,6 +47,25 @@ public class GzipInputProperty implements ArchiveInputProperty {
     @Setter
     @Accessors(chain = true)
     boolean decompressConcatenated = false;
+    /**
+     * 并行解压多成员（multi-member）gzip 的线程数，大于1且 {@link #decompressConcatenated} 为真时，
+     * 使用 {@link com.iofairy.rainforest.zip.ac.ParallelGzipInputStream} 并发解压各个成员（如 BGZF、pigz --independent、拼接的日志文件）
+     * <p>
+     * Default: 1（不并行）
+     *
+     * @since 0.6.2
+     */
+    @Setter
+    @Accessors(chain = true)
+    int parallelism = 1;
+    /**
+     * 并行解压使用的线程池，为{@code null}则每个流创建自己的线程池，见 {@link #parallelism}
+     *
+     * @since 0.6.2
+     */
+    @Setter
+    @Accessors(chain = true)
+    ExecutorService executor;
 
     public GzipInputProperty() {
     }
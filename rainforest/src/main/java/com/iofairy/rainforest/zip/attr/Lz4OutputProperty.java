@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.attr;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream.BlockSize;
+
+import java.nio.charset.Charset;
+import java.nio.charset.UnsupportedCharsetException;
+
+/**
+ * lz4（Frame Format）压缩时的属性设置
+ *
+ * @since 0.6.2
+ */
+@Getter
+@ToString
+public class Lz4OutputProperty implements ArchiveOutputProperty {
+    /**
+     * 文件名编码
+     */
+    private String fileNameEncoding = "GBK";
+    /**
+     * 块的最大大小（未压缩），块越大压缩率越高，占用内存越多
+     * <p>
+     * Default: {@link BlockSize#M4}
+     */
+    @Setter
+    @Accessors(chain = true)
+    private BlockSize blockSize = BlockSize.M4;
+    /**
+     * 是否在帧末尾写入整个内容的校验和
+     * <p>
+     * Default: true
+     */
+    @Setter
+    @Accessors(chain = true)
+    private boolean withContentChecksum = true;
+    /**
+     * 是否为每个块写入校验和
+     * <p>
+     * Default: false
+     */
+    @Setter
+    @Accessors(chain = true)
+    private boolean withBlockChecksum = false;
+    /**
+     * 块之间是否相互依赖（后面的块可以引用前面的块的数据），为真时压缩率更高，但不能单独解压某个块
+     * <p>
+     * Default: false
+     */
+    @Setter
+    @Accessors(chain = true)
+    private boolean withBlockDependency = false;
+
+    public Lz4OutputProperty() {
+    }
+
+    public static Lz4OutputProperty of() {
+        return new Lz4OutputProperty();
+    }
+
+    public Lz4OutputProperty setFileNameEncoding(String fileNameEncoding) {
+        if (!Charset.isSupported(fileNameEncoding)) throw new UnsupportedCharsetException(fileNameEncoding);
+
+        this.fileNameEncoding = fileNameEncoding;
+        return this;
+    }
+
+    /**
+     * 转换为 {@link FramedLZ4CompressorOutputStream.Parameters}
+     *
+     * @return FramedLZ4CompressorOutputStream.Parameters
+     */
+    public FramedLZ4CompressorOutputStream.Parameters toParameters() {
+        return new FramedLZ4CompressorOutputStream.Parameters(blockSize == null ? BlockSize.M4 : blockSize, withContentChecksum, withBlockChecksum, withBlockDependency);
+    }
+
+}
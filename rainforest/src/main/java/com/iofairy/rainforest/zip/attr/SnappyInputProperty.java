@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.attr;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import org.apache.commons.compress.compressors.snappy.FramedSnappyDialect;
+
+import java.nio.charset.Charset;
+import java.nio.charset.UnsupportedCharsetException;
+
+/**
+ * snappy（Framing Format）解压时的属性设置
+ *
+ * @since 0.6.2
+ */
+@Getter
+@ToString
+public class SnappyInputProperty implements ArchiveInputProperty {
+    /**
+     * 文件名编码
+     */
+    private String fileNameEncoding = "GBK";
+    /**
+     * snappy 分帧格式的方言，{@link FramedSnappyDialect#IWORK_ARCHIVE} 为 iWork 文档使用的格式（没有流标识，不校验CRC）
+     * <p>
+     * Default: {@link FramedSnappyDialect#STANDARD}
+     */
+    @Setter
+    @Accessors(chain = true)
+    private FramedSnappyDialect dialect = FramedSnappyDialect.STANDARD;
+
+    public SnappyInputProperty() {
+    }
+
+    public static SnappyInputProperty of() {
+        return new SnappyInputProperty();
+    }
+
+    public SnappyInputProperty setFileNameEncoding(String fileNameEncoding) {
+        if (!Charset.isSupported(fileNameEncoding)) throw new UnsupportedCharsetException(fileNameEncoding);
+
+        this.fileNameEncoding = fileNameEncoding;
+        return this;
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.attr;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import org.apache.commons.compress.compressors.lz77support.Parameters;
+import org.apache.commons.compress.compressors.snappy.SnappyCompressorOutputStream;
+
+import java.nio.charset.Charset;
+import java.nio.charset.UnsupportedCharsetException;
+
+/**
+ * snappy（Framing Format）压缩时的属性设置
+ *
+ * @since 0.6.2
+ */
+@Getter
+@ToString
+public class SnappyOutputProperty implements ArchiveOutputProperty {
+    /**
+     * 文件名编码
+     */
+    private String fileNameEncoding = "GBK";
+    /**
+     * 查找重复数据的窗口大小，必须是2的幂，最大为 32768
+     * <p>
+     * Default: 32768
+     */
+    @Setter
+    @Accessors(chain = true)
+    private int windowSize = 32768;
+    /**
+     * 是否优先考虑压缩速度（压缩率会降低）
+     * <p>
+     * Default: false
+     */
+    @Setter
+    @Accessors(chain = true)
+    private boolean tunedForSpeed = false;
+
+    public SnappyOutputProperty() {
+    }
+
+    public static SnappyOutputProperty of() {
+        return new SnappyOutputProperty();
+    }
+
+    public SnappyOutputProperty setFileNameEncoding(String fileNameEncoding) {
+        if (!Charset.isSupported(fileNameEncoding)) throw new UnsupportedCharsetException(fileNameEncoding);
+
+        this.fileNameEncoding = fileNameEncoding;
+        return this;
+    }
+
+    /**
+     * 转换为 {@link Parameters}
+     *
+     * @return Parameters
+     */
+    public Parameters toParameters() {
+        Parameters.Builder builder = SnappyCompressorOutputStream.createParameterBuilder(windowSize);
+        if (tunedForSpeed) builder.tunedForSpeed();
+        return builder.build();
+    }
+
+}
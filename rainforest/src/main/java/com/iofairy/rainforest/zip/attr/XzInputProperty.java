@@ -23,6 +23,7 @@ import org.tukaani.xz.ArrayCache;
 
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
+import java.util.concurrent.ExecutorService;
 
 /**
  * xz解压时的属性设置
@@ -61,6 +62,26 @@ public class XzInputProperty implements ArchiveInputProperty {
     @Setter
     @Accessors(chain = true)
     ArrayCache arrayCache = ArrayCache.getDefaultCache();
+    /**
+     * 并行解压的线程数，大于1且输入可以随机读取（从头开始读取的 {@link java.io.FileInputStream}，
+     * 或者从 {@link java.io.File}、可随机读取的 {@link com.iofairy.rainforest.zip.base.ArchiveSource} 解压最外层的压缩包）时，
+     * 使用 {@link com.iofairy.rainforest.zip.ac.ParallelXzInputStream} 根据 xz 索引按块并发解压（只有一个块时不并行）
+     * <p>
+     * Default: 1（不并行）
+     *
+     * @since 0.6.2
+     */
+    @Setter
+    @Accessors(chain = true)
+    int parallelism = 1;
+    /**
+     * 并行解压使用的线程池，为{@code null}则每个流创建自己的线程池，见 {@link #parallelism}
+     *
+     * @since 0.6.2
+     */
+    @Setter
+    @Accessors(chain = true)
+    ExecutorService executor;
 
     public XzInputProperty() {
     }
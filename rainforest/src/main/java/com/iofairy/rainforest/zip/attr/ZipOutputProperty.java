@@ -51,6 +51,32 @@ public class ZipOutputProperty implements ArchiveOutputProperty {
     @Setter
     @Accessors(chain = true)
     private int method = ZipEntry.DEFLATED;
+    /**
+     * 是否按文件内容自适应选择压缩方法（仅在 {@link #method} 为 {@link ZipEntry#DEFLATED} 时生效）<br>
+     * 已压缩的格式（如内部压缩包）直接存储（{@link ZipEntry#STORED}）；其他文件对开头 {@link #adaptiveSampleSize} 字节试压缩，
+     * 压缩率达不到 {@link #adaptiveMinGain} 时直接存储。每个文件选择的压缩方法见 {@link com.iofairy.rainforest.zip.base.ZipResult#entryMethods}
+     *
+     * @since 0.6.2
+     */
+    @Setter
+    @Accessors(chain = true)
+    private boolean adaptiveMethod = false;
+    /**
+     * 自适应选择压缩方法时，试压缩的样本大小（字节）
+     *
+     * @since 0.6.2
+     */
+    @Setter
+    @Accessors(chain = true)
+    private int adaptiveSampleSize = 8 * 1024;
+    /**
+     * 自适应选择压缩方法时，试压缩至少要减少的比例（0.05 表示至少减少 5%），达不到则直接存储
+     *
+     * @since 0.6.2
+     */
+    @Setter
+    @Accessors(chain = true)
+    private double adaptiveMinGain = 0.05;
     /**
      * 64位压缩模式
      */
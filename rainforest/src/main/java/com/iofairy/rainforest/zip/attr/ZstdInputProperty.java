@@ -18,6 +18,7 @@ package com.iofairy.rainforest.zip.attr;
 import com.github.luben.zstd.BufferPool;
 import com.github.luben.zstd.NoPool;
 import com.github.luben.zstd.ZstdDictDecompress;
+import com.iofairy.rainforest.zip.base.ZstdDictRegistry;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -64,6 +65,13 @@ public class ZstdInputProperty implements ArchiveInputProperty {
      */
     @Accessors(chain = true)
     boolean useMultiple = false;
+    /**
+     * 字典注册表，不为 {@code null} 时，根据帧头中的字典ID自动使用注册表中对应的字典解压（会启用 {@link #useMultiple}）
+     *
+     * @since 0.6.2
+     */
+    @Accessors(chain = true)
+    ZstdDictRegistry dictRegistry;
 
 
     public ZstdInputProperty() {
@@ -16,6 +16,7 @@
 package com.iofairy.rainforest.zip.attr;
 
 import com.github.luben.zstd.*;
+import com.iofairy.rainforest.zip.base.ZstdDictRegistry;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -138,6 +139,48 @@ public class ZstdOutputProperty implements ArchiveInputProperty {
      */
     @Accessors(chain = true)
     boolean closeFrameOnFlush = false;
+    /**
+     * 以 <a href="https://github.com/facebook/zstd/blob/dev/contrib/seekable_format/zstd_seekable_compression_format.md">Zstd Seekable Format</a>
+     * 格式压缩时，每个帧（frame）解压后的最大字节数。<br>
+     * 不为 {@code null} 时，压缩数据被切分成多个独立的帧，并在末尾追加跳表（seek table），
+     * 解压时可根据解压后的偏移量直接定位到对应的帧，而不需要从头开始解压。
+     * 帧越小，随机访问越快，但压缩率越低。
+     * <p>
+     * Default: null（不使用 Seekable Format）
+     *
+     * @since 0.6.2
+     */
+    @Accessors(chain = true)
+    Integer seekableFrameSize;
+    /**
+     * 自动训练字典时，字典的最大字节数（zstd 推荐 100KB 左右）。<br>
+     * 不为 {@code null} 时，先缓存 {@link #trainSampleSize} 字节的数据作为样本，用 {@link ZstdDictTrainer} 训练出字典，
+     * 再使用该字典压缩全部数据（见 {@code ZstdDictTrainingOutputStream}）。帧头中记录了字典ID，
+     * 训练出的字典注册到 {@link #dictRegistry}（必须设置）后，解压时通过 {@link ZstdInputProperty#dictRegistry} 自动查找。
+     * 字典只对每个帧开头的数据有效，所以训练字典时<b>总是</b>以 Seekable Format 格式压缩（见 {@link #seekableFrameSize}，
+     * 没有设置时帧的大小为 32KB），数据由大量相似的小文件组成时效果最明显。
+     * 样本太少无法训练时，不使用字典压缩
+     * <p>
+     * Default: null（不训练字典）
+     *
+     * @since 0.6.2
+     */
+    @Accessors(chain = true)
+    Integer trainDictSize;
+    /**
+     * 训练字典使用的样本的总字节数（样本缓存在堆内存中），为 {@code null} 则为 {@link #trainDictSize} 的100倍，最多 4MB
+     *
+     * @since 0.6.2
+     */
+    @Accessors(chain = true)
+    Integer trainSampleSize;
+    /**
+     * 训练出的字典注册到此注册表，设置了 {@link #trainDictSize} 时不能为 {@code null}（否则压缩后的数据无法解压）
+     *
+     * @since 0.6.2
+     */
+    @Accessors(chain = true)
+    ZstdDictRegistry dictRegistry;
 
 
     public ZstdOutputProperty() {
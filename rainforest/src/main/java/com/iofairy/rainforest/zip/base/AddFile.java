@@ -44,9 +44,32 @@ public class AddFile {
      * 是否是目录
      */
     boolean isDirectory;
+    /**
+     * 要添加的数据源，不为{@code null}时代替 {@link #file} 写入压缩包，数据直接流式写入，不会整个读入内存<br>
+     * <b>注：</b>ZIP自适应选择压缩方法（见 {@link com.iofairy.rainforest.zip.attr.ZipOutputProperty#adaptiveMethod}）时，数据源使用默认的压缩方法
+     *
+     * @since 0.6.2
+     */
+    AddSource source;
+
+    public AddFile(File file, String entryFileName, boolean isDirectory) {
+        this(file, entryFileName, isDirectory, null);
+    }
 
     public static AddFile of(final File file, final String entryFileName, final boolean isDirectory) {
         return new AddFile(file, entryFileName, isDirectory);
     }
 
+    /**
+     * 添加数据源
+     *
+     * @param source        数据源
+     * @param entryFileName 添加进压缩包的名称
+     * @return AddFile
+     * @since 0.6.2
+     */
+    public static AddFile of(final AddSource source, final String entryFileName) {
+        return new AddFile(null, entryFileName, false, source);
+    }
+
 }
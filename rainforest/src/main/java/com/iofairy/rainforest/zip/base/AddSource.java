@@ -0,0 +1,368 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.base;
+
+import com.iofairy.lambda.RT0;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 添加进压缩包的条目的数据源（见 {@link AddFile#source}）<br>
+ * 数据在写入压缩包时才读取，并直接流式写入压缩包的输出流，不会整个读入内存；条目大小预先已知，
+ * 所以写入 tar 等需要在文件头中记录大小的格式时也不需要缓存数据
+ *
+ * @since 0.6.2
+ */
+public abstract class AddSource {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * 内存映射区域每次映射的最大长度
+     */
+    private static final long MAP_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private AddSource() {
+    }
+
+    /**
+     * 文件数据源，大小取自文件元数据
+     *
+     * @param path 文件路径
+     * @return AddSource
+     */
+    public static AddSource of(Path path) throws IOException {
+        checkHasNullNPE(args(path), args("path"));
+        checkFileNotFound(!Files.isRegularFile(path), "文件[${path}]不存在。", path.toAbsolutePath());
+        return new PathSource(path, 0, Files.size(path), false);
+    }
+
+    /**
+     * 输入流数据源，需要声明数据的大小；每次写入时调用 {@code streamSupplier} 打开新的输入流，写入后关闭该输入流
+     *
+     * @param streamSupplier 输入流的提供者
+     * @param size           数据的大小（字节），写入时实际读取的字节数必须与之相等
+     * @return AddSource
+     */
+    public static AddSource of(RT0<? extends InputStream, Exception> streamSupplier, long size) {
+        checkHasNullNPE(args(streamSupplier), args("streamSupplier"));
+        checkArgument(size < 0, "参数`size`必须 >= 0！");
+        return new StreamSource(streamSupplier, size);
+    }
+
+    /**
+     * 字节缓冲区数据源，写入 {@code buffer} 的 position 到 limit 之间的数据，不改变 {@code buffer} 的 position；
+     * 可以是堆外内存或 {@link MappedByteBuffer}
+     *
+     * @param buffer 字节缓冲区
+     * @return AddSource
+     */
+    public static AddSource of(ByteBuffer buffer) {
+        checkHasNullNPE(args(buffer), args("buffer"));
+        return new BufferSource(buffer);
+    }
+
+    /**
+     * 文件中的一段区域，写入时分段内存映射该区域（每段最多映射64MB）
+     *
+     * @param path     文件路径
+     * @param position 区域在文件中的起始位置
+     * @param size     区域的大小（字节）
+     * @return AddSource
+     */
+    public static AddSource ofMapped(Path path, long position, long size) throws IOException {
+        checkHasNullNPE(args(path), args("path"));
+        checkFileNotFound(!Files.isRegularFile(path), "文件[${path}]不存在。", path.toAbsolutePath());
+        checkArgument(position < 0 || size < 0 || position + size > Files.size(path),
+                "区域[${position}, ${position} + ${size})超出了文件[${path}]的范围！", position, position, size, path.toAbsolutePath());
+        return new PathSource(path, position, size, true);
+    }
+
+    /**
+     * 数据的大小（字节）
+     *
+     * @return 数据的大小
+     */
+    public abstract long getSize();
+
+    /**
+     * 打开数据源的输入流（由调用者关闭）
+     *
+     * @return 输入流
+     * @throws IOException 打开失败
+     */
+    public abstract InputStream openStream() throws IOException;
+
+    /**
+     * 将数据写入输出流（不会关闭输出流）
+     *
+     * @param os 输出流
+     * @return 写入的字节数
+     * @throws IOException 读取或写入失败，或者实际的大小与 {@link #getSize()} 不一致
+     */
+    public long writeTo(OutputStream os) throws IOException {
+        long count = 0;
+        try (InputStream is = openStream()) {
+            byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(getSize(), 1))];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                os.write(buffer, 0, n);
+                count += n;
+            }
+        }
+        return checkSize(count);
+    }
+
+    long checkSize(long count) throws IOException {
+        if (count != getSize()) {
+            throw new IOException("数据源的实际大小[" + count + "]与声明的大小[" + getSize() + "]不一致！");
+        }
+        return count;
+    }
+
+    /**
+     * 将字节缓冲区中剩余的数据写入输出流，文件输出流直接写入文件通道，堆内缓冲区直接写入其底层数组
+     */
+    static void write(ByteBuffer buffer, OutputStream os, byte[] chunk) throws IOException {
+        if (buffer.hasArray()) {
+            os.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+        } else if (os instanceof FileOutputStream) {
+            WritableByteChannel channel = ((FileOutputStream) os).getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } else {
+            while (buffer.hasRemaining()) {
+                int n = Math.min(chunk.length, buffer.remaining());
+                buffer.get(chunk, 0, n);
+                os.write(chunk, 0, n);
+            }
+        }
+    }
+
+    /**
+     * 文件（或文件中的一段区域）数据源
+     */
+    private static final class PathSource extends AddSource {
+        private final Path path;
+        private final long position;
+        private final long size;
+        private final boolean mapped;
+
+        PathSource(Path path, long position, long size, boolean mapped) {
+            this.path = path;
+            this.position = position;
+            this.size = size;
+            this.mapped = mapped;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            channel.position(position);
+            return new BoundedInputStream(Channels.newInputStream(channel), size);
+        }
+
+        @Override
+        public long writeTo(OutputStream os) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                if (!mapped && os instanceof FileOutputStream) {
+                    // 零拷贝
+                    FileChannel target = ((FileOutputStream) os).getChannel();
+                    long count = 0;
+                    while (count < size) {
+                        long n = channel.transferTo(position + count, size - count, target);
+                        if (n <= 0) break;
+                        count += n;
+                    }
+                    return checkSize(count);
+                }
+
+                byte[] chunk = new byte[(int) Math.min(BUFFER_SIZE, Math.max(size, 1))];
+                long count = 0;
+                if (mapped) {
+                    while (count < size) {
+                        long length = Math.min(MAP_WINDOW_SIZE, size - count);
+                        write(channel.map(FileChannel.MapMode.READ_ONLY, position + count, length), os, chunk);
+                        count += length;
+                    }
+                } else {
+                    ByteBuffer buffer = ByteBuffer.wrap(chunk);
+                    while (count < size) {
+                        buffer.clear();
+                        buffer.limit((int) Math.min(chunk.length, size - count));
+                        int n = channel.read(buffer, position + count);
+                        if (n < 0) break;
+                        os.write(chunk, 0, n);
+                        count += n;
+                    }
+                }
+                return checkSize(count);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "AddSource{path=" + path + ", position=" + position + ", size=" + size + ", mapped=" + mapped + '}';
+        }
+    }
+
+    /**
+     * 输入流数据源
+     */
+    private static final class StreamSource extends AddSource {
+        private final RT0<? extends InputStream, Exception> streamSupplier;
+        private final long size;
+
+        StreamSource(RT0<? extends InputStream, Exception> streamSupplier, long size) {
+            this.streamSupplier = streamSupplier;
+            this.size = size;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            InputStream is;
+            try {
+                is = streamSupplier.$();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+            return Objects.requireNonNull(is, "`streamSupplier`返回的输入流不能为null！");
+        }
+
+        @Override
+        public String toString() {
+            return "AddSource{stream, size=" + size + '}';
+        }
+    }
+
+    /**
+     * 字节缓冲区数据源
+     */
+    private static final class BufferSource extends AddSource {
+        private final ByteBuffer buffer;
+
+        BufferSource(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public long getSize() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public InputStream openStream() {
+            ByteBuffer duplicate = buffer.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return duplicate.hasRemaining() ? duplicate.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (len == 0) return 0;
+                    if (!duplicate.hasRemaining()) return -1;
+                    int n = Math.min(len, duplicate.remaining());
+                    duplicate.get(b, off, n);
+                    return n;
+                }
+
+                @Override
+                public int available() {
+                    return duplicate.remaining();
+                }
+            };
+        }
+
+        @Override
+        public long writeTo(OutputStream os) throws IOException {
+            ByteBuffer duplicate = buffer.duplicate();
+            long count = duplicate.remaining();
+            write(duplicate, os, new byte[(int) Math.min(BUFFER_SIZE, Math.max(count, 1))]);
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return "AddSource{buffer=" + buffer + '}';
+        }
+    }
+
+    /**
+     * 最多读取指定字节数的输入流
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long size) {
+            super(in);
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = super.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (remaining <= 0) return -1;
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) remaining -= n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+    }
+}
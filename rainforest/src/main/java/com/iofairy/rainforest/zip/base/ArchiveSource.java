@@ -0,0 +1,473 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.base;
+
+import com.iofairy.falcon.io.MultiByteArrayInputStream;
+import com.iofairy.falcon.nio.MemoryHugeBytesChannel;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 压缩包的数据源（见 {@link com.iofairy.rainforest.zip.ac.SuperAC#unzip(ArchiveSource, com.iofairy.falcon.zip.ArchiveFormat, String, int,
+ * com.iofairy.lambda.PT3, com.iofairy.lambda.PT3, com.iofairy.lambda.PT3, com.iofairy.lambda.RT4, com.iofairy.lambda.RT4, ZipLogLevel, java.util.List)}）<br>
+ * 除输入流以外的数据源都可以随机读取（{@link #isSeekable()}），各个压缩处理器按数据源选择最快的读取方式：
+ * 如7z直接在数据源上随机读取，不再把整个压缩包复制到内存中；ZIP直接读取中央目录；xz按块并行解压；其他流式的格式则直接读取数据源，不需要先包装成输入流<br>
+ * <b>注：</b>解压或重压缩完成后，数据源会被关闭（输入流与通道数据源会关闭调用者传入的输入流与通道）
+ *
+ * @since 0.6.2
+ */
+public abstract class ArchiveSource implements Closeable {
+    /**
+     * 文件内存映射时每段的最大长度（{@link ByteBuffer} 的容量不能超过 {@link Integer#MAX_VALUE}）
+     */
+    private static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+    private ArchiveSource() {
+    }
+
+    /**
+     * 输入流数据源，只能读取一次，不能随机读取
+     *
+     * @param is 输入流
+     * @return ArchiveSource
+     */
+    public static ArchiveSource of(InputStream is) {
+        checkHasNullNPE(args(is), args("is"));
+        return new StreamSource(is);
+    }
+
+    /**
+     * 文件数据源，文件被分段（每段不超过2GB）映射到内存中
+     *
+     * @param path 文件路径
+     * @return ArchiveSource
+     */
+    public static ArchiveSource of(Path path) throws IOException {
+        checkHasNullNPE(args(path), args("path"));
+        checkFileNotFound(!Files.isRegularFile(path), "文件[${path}]不存在。", path.toAbsolutePath());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer[] segments = new ByteBuffer[(int) Math.max(1, (size + MAX_SEGMENT_SIZE - 1) / MAX_SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; i++) {
+                long position = i * MAX_SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_SEGMENT_SIZE, size - position));
+            }
+            // 映射后关闭文件通道，映射的内存依然有效
+            return new BufferSource(segments, "path=" + path);
+        }
+    }
+
+    /**
+     * 字节缓冲区数据源，读取 {@code buffer} 的 position 到 limit 之间的数据，不改变 {@code buffer} 的 position；
+     * 可以是堆内、堆外内存或 {@link java.nio.MappedByteBuffer}
+     *
+     * @param buffer 字节缓冲区
+     * @return ArchiveSource
+     */
+    public static ArchiveSource of(ByteBuffer buffer) {
+        checkHasNullNPE(args(buffer), args("buffer"));
+        return new BufferSource(new ByteBuffer[]{buffer.slice()}, "buffer=" + buffer);
+    }
+
+    /**
+     * 字节数组数据源，多个字节数组按顺序组成压缩包的数据（如 {@link ZipResult#bytes}）
+     *
+     * @param bytes 字节数组
+     * @return ArchiveSource
+     */
+    public static ArchiveSource of(byte[]... bytes) {
+        checkHasNullNPE(args((Object) bytes), args("bytes"));
+        return new BytesSource(bytes);
+    }
+
+    /**
+     * 通道数据源，从通道的开头读取；可以同时打开多个读取位置互相独立的视图（见 {@link #openChannel()}）
+     *
+     * @param channel 可随机读取的通道
+     * @return ArchiveSource
+     */
+    public static ArchiveSource of(SeekableByteChannel channel) {
+        checkHasNullNPE(args(channel), args("channel"));
+        return new ChannelSource(channel);
+    }
+
+    /**
+     * 数据的大小（字节）
+     *
+     * @return 数据的大小，未知则返回 -1
+     */
+    public abstract long size() throws IOException;
+
+    /**
+     * 打开数据源的输入流（由调用者关闭）。输入流数据源直接返回该输入流，只能打开一次；
+     * 可以随机读取的数据源返回 {@link SourceInputStream}，还没有读取时，压缩处理器可以改为在数据源上随机读取
+     *
+     * @return 输入流
+     * @throws IOException 打开失败
+     */
+    public abstract InputStream openStream() throws IOException;
+
+    /**
+     * 是否可以随机读取（即 {@link #openChannel()} 是否可用）
+     *
+     * @return 是否可以随机读取
+     */
+    public boolean isSeekable() {
+        return true;
+    }
+
+    /**
+     * 打开数据源的只读通道（由调用者关闭）。每次打开的通道的读取位置互相独立，可以在多个线程中同时读取
+     *
+     * @return 只读通道
+     * @throws IOException                   打开失败
+     * @throws UnsupportedOperationException 数据源不能随机读取
+     */
+    public abstract SeekableByteChannel openChannel() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    /**
+     * 可以随机读取的数据源的输入流（见 {@link #openStream()}）。
+     * 还没有读取任何数据时（{@link #isUnread()}），压缩处理器可以不读取该输入流，改为在 {@link #getSource()} 上打开通道随机读取（如多块的 xz 并行解压）
+     */
+    public static final class SourceInputStream extends FilterInputStream {
+        private final ArchiveSource source;
+        private boolean unread = true;
+
+        SourceInputStream(ArchiveSource source, InputStream in) {
+            super(in);
+            this.source = source;
+        }
+
+        /**
+         * 输入流所属的数据源
+         *
+         * @return 数据源
+         */
+        public ArchiveSource getSource() {
+            return source;
+        }
+
+        /**
+         * 是否还没有读取任何数据（读取后即使 {@link #reset()} 回到开头，也不再视为未读取）
+         *
+         * @return 是否还没有读取
+         */
+        public boolean isUnread() {
+            return unread;
+        }
+
+        @Override
+        public int read() throws IOException {
+            unread = false;
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len > 0) unread = false;
+            return super.read(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (n > 0) unread = false;
+            return super.skip(n);
+        }
+    }
+
+    /**
+     * 输入流数据源
+     */
+    private static final class StreamSource extends ArchiveSource {
+        private final InputStream is;
+
+        StreamSource(InputStream is) {
+            this.is = is;
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public InputStream openStream() {
+            return is;
+        }
+
+        @Override
+        public boolean isSeekable() {
+            return false;
+        }
+
+        @Override
+        public SeekableByteChannel openChannel() {
+            throw new UnsupportedOperationException("输入流数据源不能随机读取！");
+        }
+
+        @Override
+        public void close() throws IOException {
+            is.close();
+        }
+
+        @Override
+        public String toString() {
+            return "ArchiveSource{stream}";
+        }
+    }
+
+    /**
+     * 字节数组数据源
+     */
+    private static final class BytesSource extends ArchiveSource {
+        private final byte[][] bytes;
+
+        BytesSource(byte[][] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public long size() {
+            long size = 0;
+            for (byte[] b : bytes) {
+                size += b.length;
+            }
+            return size;
+        }
+
+        @Override
+        public InputStream openStream() {
+            return new SourceInputStream(this, new MultiByteArrayInputStream(bytes));
+        }
+
+        @Override
+        public SeekableByteChannel openChannel() {
+            return new MemoryHugeBytesChannel(bytes);
+        }
+
+        @Override
+        public String toString() {
+            return "ArchiveSource{bytes, size=" + size() + '}';
+        }
+    }
+
+    /**
+     * 字节缓冲区（包括文件的内存映射）数据源
+     */
+    private static final class BufferSource extends ArchiveSource {
+        private final ByteBuffer[] segments;
+        private final long size;
+        private final String description;
+
+        BufferSource(ByteBuffer[] segments, String description) {
+            this.segments = segments;
+            long size = 0;
+            for (ByteBuffer segment : segments) {
+                size += segment.remaining();
+            }
+            this.size = size;
+            this.description = description;
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public InputStream openStream() {
+            return new SourceInputStream(this, Channels.newInputStream(openChannel()));
+        }
+
+        @Override
+        public SeekableByteChannel openChannel() {
+            return new SegmentsChannel(segments, size);
+        }
+
+        @Override
+        public String toString() {
+            return "ArchiveSource{" + description + ", size=" + size + '}';
+        }
+    }
+
+    /**
+     * 通道数据源
+     */
+    private static final class ChannelSource extends ArchiveSource {
+        private final SeekableByteChannel channel;
+
+        ChannelSource(SeekableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public InputStream openStream() {
+            return new SourceInputStream(this, Channels.newInputStream(openChannel()));
+        }
+
+        @Override
+        public SeekableByteChannel openChannel() {
+            return new ChannelView(channel);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        @Override
+        public String toString() {
+            return "ArchiveSource{channel=" + channel + '}';
+        }
+    }
+
+    /**
+     * 只读通道的基类，维护独立的读取位置
+     */
+    private abstract static class ReadOnlyChannel implements SeekableByteChannel {
+        long position;
+        private boolean open = true;
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            ensureOpen();
+            return position;
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            ensureOpen();
+            checkArgument(newPosition < 0, "参数`newPosition`必须 >= 0！");
+            position = newPosition;
+            return this;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+
+        void ensureOpen() throws IOException {
+            if (!open) throw new ClosedChannelException();
+        }
+    }
+
+    /**
+     * 多段字节缓冲区组成的只读通道
+     */
+    private static final class SegmentsChannel extends ReadOnlyChannel {
+        private final ByteBuffer[] segments;
+        private final long size;
+
+        SegmentsChannel(ByteBuffer[] segments, long size) {
+            this.segments = new ByteBuffer[segments.length];
+            for (int i = 0; i < segments.length; i++) {
+                this.segments[i] = segments[i].duplicate();
+            }
+            this.size = size;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            ensureOpen();
+            if (position >= size) return -1;
+
+            int count = 0;
+            while (dst.hasRemaining() && position < size) {
+                // 除最后一段外，每段的长度都是 MAX_SEGMENT_SIZE
+                ByteBuffer segment = segments[(int) (position / MAX_SEGMENT_SIZE)];
+                int offset = (int) (position % MAX_SEGMENT_SIZE);
+                int n = Math.min(dst.remaining(), segment.limit() - offset);
+                ByteBuffer slice = segment.duplicate();
+                slice.position(offset).limit(offset + n);
+                dst.put(slice);
+                position += n;
+                count += n;
+            }
+            return count;
+        }
+
+        @Override
+        public long size() throws IOException {
+            ensureOpen();
+            return size;
+        }
+    }
+
+    /**
+     * 通道的视图，读取位置独立；读取时同步调整底层通道的位置，{@link FileChannel} 则按位置读取，不需要同步
+     */
+    private static final class ChannelView extends ReadOnlyChannel {
+        private final SeekableByteChannel channel;
+
+        ChannelView(SeekableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            ensureOpen();
+            int n;
+            if (channel instanceof FileChannel) {
+                n = ((FileChannel) channel).read(dst, position);
+            } else {
+                synchronized (channel) {
+                    channel.position(position);
+                    n = channel.read(dst);
+                }
+            }
+            if (n > 0) position += n;
+            return n;
+        }
+
+        @Override
+        public long size() throws IOException {
+            ensureOpen();
+            return channel.size();
+        }
+    }
+}
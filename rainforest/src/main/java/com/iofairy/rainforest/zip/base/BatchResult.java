@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.base;
+
+import com.iofairy.falcon.zip.ArchiveFormat;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.io.File;
+
+/**
+ * 批量处理压缩包时，单个压缩包的处理结果（见 {@code ArchiveBatch}）
+ *
+ * @param <R> 处理结果类型
+ * @since 0.6.2
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+public class BatchResult<R> {
+    /**
+     * 压缩包文件
+     */
+    File file;
+    /**
+     * 根据文件名识别出的压缩包格式，未识别出（或不支持）时为 {@code null}
+     */
+    ArchiveFormat format;
+    /**
+     * 压缩包大小（字节）
+     */
+    long size;
+    /**
+     * 处理结果
+     */
+    R result;
+    /**
+     * 处理过程中抛出的异常，处理成功时为 {@code null}
+     */
+    Throwable error;
+    /**
+     * 是否跳过（不是压缩包或未找到相匹配的 SuperAC）
+     */
+    boolean skipped;
+    /**
+     * 处理耗时（毫秒）
+     */
+    long elapsedMillis;
+
+    /**
+     * 是否处理成功
+     *
+     * @return 是否处理成功
+     */
+    public boolean isSuccess() {
+        return !skipped && error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "file=" + file +
+                ", format=" + format +
+                ", size=" + size +
+                ", skipped=" + skipped +
+                ", error=" + error +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.base;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+/**
+ * 批量处理压缩包的汇总信息（见 {@code ArchiveBatch}）
+ *
+ * @since 0.6.2
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+public class BatchSummary {
+    /**
+     * 输入的文件总数（包括跳过的文件）
+     */
+    int totalFiles;
+    /**
+     * 处理成功的压缩包数
+     */
+    int succeededFiles;
+    /**
+     * 处理失败的压缩包数
+     */
+    int failedFiles;
+    /**
+     * 跳过的文件数（不是压缩包或未找到相匹配的 SuperAC）
+     */
+    int skippedFiles;
+    /**
+     * 已处理（成功或失败）的压缩包的总大小（字节）
+     */
+    long totalBytes;
+    /**
+     * 批量处理总耗时（毫秒）
+     */
+    long elapsedMillis;
+
+    /**
+     * 吞吐量：每秒处理的字节数
+     *
+     * @return 每秒处理的字节数
+     */
+    public double getBytesPerSecond() {
+        return totalBytes * 1000.0 / Math.max(elapsedMillis, 1);
+    }
+
+    /**
+     * 吞吐量：每秒处理的压缩包数
+     *
+     * @return 每秒处理的压缩包数
+     */
+    public double getFilesPerSecond() {
+        return (succeededFiles + failedFiles) * 1000.0 / Math.max(elapsedMillis, 1);
+    }
+}
@@ -22,7 +22,8 @@ import com.iofairy.top.S;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * SuperAC日志打印控制
+ * SuperAC日志打印控制<br>
+ * 当前线程正在记录执行跟踪时（见 {@link ZipTrace#record}），同时记录跟踪节点
  *
  * @since 0.2.0
  */
@@ -41,18 +42,21 @@ public class LogPrinter {
     }
 
     public static void printBeforeUnzip(String unzipId, String zipFileName, ZipLogLevel zipLogLevel, String logSource) {
+        ZipTrace.begin(TraceSpan.Type.ARCHIVE, unzipId, SuperACs.INIT_UNZIP_TIMES, null, zipFileName);
         if (zipLogLevel.level >= ZipLogLevel.BRIEF.level) {
             logs(">*>*>*>*>*>*>*>*>*>*>*>*>*>*>*>*>*>*>*> 解压ID：[{}]，压缩包【{}】正在处理…… <<{}>>", unzipId, zipFileName, logSource);
         }
     }
 
     public static void printAfterUnzip(String unzipId, String zipFileName, ZipLogLevel zipLogLevel, String logSource, Stopwatch stopwatch) {
+        ZipTrace.end(TraceSpan.Type.ARCHIVE, zipFileName, TraceSpan.UNKNOWN);
         if (zipLogLevel.level >= ZipLogLevel.BRIEF.level) {
             logs("<*<*<*<*<*<*<*<*<*<*<*<*<*<*<*<*<*<*<*< 解压ID：[{}]，压缩包【{}】完成处理！耗时：【{}】 <<{}>>", unzipId, zipFileName, stopwatch, logSource);
         }
     }
 
     public static void printAfterReZip(String unzipId, String zipFileName, ZipLogLevel zipLogLevel, String logSource, Stopwatch stopwatch, long byteLength) {
+        ZipTrace.end(TraceSpan.Type.ARCHIVE, zipFileName, byteLength);
         if (zipLogLevel.level >= ZipLogLevel.BRIEF.level) {
             String byteFormat = Bytes.ofBs((double) byteLength, true).format();
             logs("<*<*<*<*<*<*<*<*<*<*<*<*<*<*<*<*<*<*<*< 解压ID：[{}]，压缩包【{}】完成处理，重压缩后大小：【{}】！耗时：【{}】 <<{}>>", unzipId, zipFileName, byteFormat, stopwatch, logSource);
@@ -60,6 +64,7 @@ public class LogPrinter {
     }
 
     public static void printBeforeUnzip(String unzipId, int unzipTimes, String zipFileName, String entryFileName, ZipLogLevel zipLogLevel, String logSource) {
+        ZipTrace.begin(TraceSpan.Type.NESTED_ARCHIVE, unzipId, unzipTimes, zipFileName, entryFileName);
         if (zipLogLevel.level >= ZipLogLevel.BRIEF.level) {
             String repeat = S.repeat(">", getRepeatTimes(unzipTimes) * REPEAT_FACTOR);
             if (S.isEmpty(zipFileName)) {
@@ -71,6 +76,7 @@ public class LogPrinter {
     }
 
     public static void printAfterUnzip(String unzipId, int unzipTimes, String zipFileName, String entryFileName, ZipLogLevel zipLogLevel, String logSource, Stopwatch stopwatch) {
+        ZipTrace.end(TraceSpan.Type.NESTED_ARCHIVE, entryFileName, TraceSpan.UNKNOWN);
         if (zipLogLevel.level >= ZipLogLevel.BRIEF.level) {
             String repeat = S.repeat("<", getRepeatTimes(unzipTimes) * REPEAT_FACTOR);
             if (S.isEmpty(zipFileName)) {
@@ -82,6 +88,7 @@ public class LogPrinter {
     }
 
     public static void printBeforeWriteZip(String unzipId, int unzipTimes, String zipFileName, String entryFileName, ZipLogLevel zipLogLevel, String logSource) {
+        ZipTrace.begin(TraceSpan.Type.WRITE, unzipId, unzipTimes, zipFileName, entryFileName);
         if (zipLogLevel.level >= ZipLogLevel.BRIEF.level) {
             String repeat = S.repeat("\\", getRepeatTimes(unzipTimes) * REPEAT_FACTOR);
             logs("{} 解压ID：[{}]，当前unzipTimes为：[{}]，正在将文件【{}】写入压缩包【{}】…… <<{}>>", repeat, unzipId, unzipTimes, entryFileName, zipFileName, logSource);
@@ -89,6 +96,7 @@ public class LogPrinter {
     }
 
     public static void printAfterWriteZip(String unzipId, int unzipTimes, String zipFileName, String entryFileName, ZipLogLevel zipLogLevel, String logSource, Stopwatch stopwatch, long byteLength) {
+        ZipTrace.end(TraceSpan.Type.WRITE, entryFileName, byteLength);
         if (zipLogLevel.level >= ZipLogLevel.BRIEF.level) {
             String repeat = S.repeat("/", getRepeatTimes(unzipTimes) * REPEAT_FACTOR);
             String byteFormat = Bytes.ofBs((double) byteLength, true).format();
@@ -97,6 +105,7 @@ public class LogPrinter {
     }
 
     public static void printBeforeOther(String unzipId, int unzipTimes, String zipFileName, String entryFileName, ZipLogLevel zipLogLevel, String logSource) {
+        ZipTrace.begin(TraceSpan.Type.ENTRY, unzipId, unzipTimes, zipFileName, entryFileName);
         if (zipLogLevel.level >= ZipLogLevel.DETAIL.level) {
             String repeat = S.repeat("(", getRepeatTimes(unzipTimes) * REPEAT_FACTOR);
             logs("{} 解压ID：[{}]，当前unzipTimes为：[{}]，正在处理【{}】中的文件【{}】…… <<{}>>", repeat, unzipId, unzipTimes, zipFileName, entryFileName, logSource);
@@ -104,6 +113,7 @@ public class LogPrinter {
     }
 
     public static void printAfterOther(String unzipId, int unzipTimes, String zipFileName, String entryFileName, ZipLogLevel zipLogLevel, String logSource, Stopwatch stopwatch) {
+        ZipTrace.end(TraceSpan.Type.ENTRY, entryFileName, TraceSpan.UNKNOWN);
         if (zipLogLevel.level >= ZipLogLevel.DETAIL.level) {
             String repeat = S.repeat(")", getRepeatTimes(unzipTimes) * REPEAT_FACTOR);
             logs("{} 解压ID：[{}]，当前unzipTimes为：[{}]，完成处理【{}】中的文件【{}】！耗时：【{}】 <<{}>>", repeat, unzipId, unzipTimes, zipFileName, entryFileName, stopwatch, logSource);
@@ -111,6 +121,7 @@ public class LogPrinter {
     }
 
     public static void printDeleteLogs(String unzipId, int unzipTimes, String zipFileName, String entryFileName, ZipLogLevel zipLogLevel, String logSource) {
+        ZipTrace.event("delete", unzipId, unzipTimes, zipFileName, entryFileName);
         if (zipLogLevel.level >= ZipLogLevel.DETAIL.level) {
             String repeat = S.repeat("-", getRepeatTimes(unzipTimes) * REPEAT_FACTOR);
             logs("{} 解压ID：[{}]，当前unzipTimes为：[{}]，正在删除【{}】中的文件【{}】…… <<{}>>", repeat, unzipId, unzipTimes, zipFileName, entryFileName, logSource);
@@ -118,6 +129,7 @@ public class LogPrinter {
     }
 
     public static void printAppendLogs(String unzipId, int unzipTimes, String zipFileName, String entryFileName, ZipLogLevel zipLogLevel, String logSource) {
+        ZipTrace.event("append", unzipId, unzipTimes, zipFileName, entryFileName);
         if (zipLogLevel.level >= ZipLogLevel.DETAIL.level) {
             String repeat = S.repeat("+", getRepeatTimes(unzipTimes) * REPEAT_FACTOR);
             logs("{} 解压ID：[{}]，当前unzipTimes为：[{}]，正在向【{}】中添加文件【{}】…… <<{}>>", repeat, unzipId, unzipTimes, zipFileName, entryFileName, logSource);
@@ -125,6 +137,7 @@ public class LogPrinter {
     }
 
     public static void printFilterLogs(String unzipId, int unzipTimes, String zipFileName, String entryFileName, ZipLogLevel zipLogLevel, String logSource) {
+        ZipTrace.event("filter", unzipId, unzipTimes, zipFileName, entryFileName);
         if (zipLogLevel.level >= ZipLogLevel.DETAIL.level) {
             String repeat = S.repeat("#", getRepeatTimes(unzipTimes) * REPEAT_FACTOR);
             logs("{} 解压ID：[{}]，当前unzipTimes为：[{}]，不处理【{}】中【{}】的文件！ <<{}>>", repeat, unzipId, unzipTimes, zipFileName, entryFileName, logSource);
@@ -132,6 +145,7 @@ public class LogPrinter {
     }
 
     public static void printDeleteActionLogs(String unzipId, int unzipTimes, String zipFileName, String entryFileName, ZipLogLevel zipLogLevel, String logSource) {
+        ZipTrace.event("deleteAction", unzipId, unzipTimes, zipFileName, entryFileName);
         if (zipLogLevel.level >= ZipLogLevel.ALL.level) {
             String repeat = S.repeat("=", getRepeatTimes(unzipTimes) * REPEAT_FACTOR);
             logs("{} 解压ID：[{}]，当前unzipTimes为：[{}]，删除前处理【{}】中的文件【{}】…… <<{}>>", repeat, unzipId, unzipTimes, zipFileName, entryFileName, logSource);
@@ -139,13 +153,32 @@ public class LogPrinter {
     }
 
     public static void printBeforeAfter(String unzipId, int unzipTimes, String zipFileName, String entryFileName, ZipLogLevel zipLogLevel, String logSource, String extMsg) {
+        printBeforeAfter(unzipId, unzipTimes, zipFileName, entryFileName, zipLogLevel, logSource, extMsg, null);
+    }
+
+    /**
+     * 与 {@link #printBeforeAfter(String, int, String, String, ZipLogLevel, String, String)} 相同，并在执行跟踪中记录事件
+     *
+     * @param traceEvent 执行跟踪（{@link ZipTrace}）中的事件名称，为{@code null}则不记录
+     * @since 0.6.2
+     */
+    public static void printBeforeAfter(String unzipId, int unzipTimes, String zipFileName, String entryFileName, ZipLogLevel zipLogLevel, String logSource, String extMsg, String traceEvent) {
+        if (traceEvent != null) ZipTrace.event(traceEvent, unzipId, unzipTimes, zipFileName, entryFileName);
         if (zipLogLevel.level >= ZipLogLevel.ALL.level) {
             String repeat = S.repeat("&", getRepeatTimes(unzipTimes) * REPEAT_FACTOR);
             logs("{} 解压ID：[{}]，当前unzipTimes为：[{}]，【{}】中的压缩包【{}】解压缩【{}】处理！ <<{}>>", repeat, unzipId, unzipTimes, zipFileName, entryFileName, extMsg, logSource);
         }
     }
 
+    public static void printIndexSkipLogs(String unzipId, String zipFileName, ZipLogLevel zipLogLevel, String logSource) {
+        ZipTrace.event("indexSkip", unzipId, SuperACs.INIT_UNZIP_TIMES, null, zipFileName);
+        if (zipLogLevel.level >= ZipLogLevel.BRIEF.level) {
+            logs("解压ID：[{}]，根据压缩包索引，压缩包【{}】中没有需要处理的文件，跳过解压！ <<{}>>", unzipId, zipFileName, logSource);
+        }
+    }
+
     public static void printSkipEntryLogs(String unzipId, int unzipTimes, String zipFileName, String entryFileName, ZipLogLevel zipLogLevel, String logSource) {
+        ZipTrace.event("skip", unzipId, unzipTimes, zipFileName, entryFileName);
         if (zipLogLevel.level >= ZipLogLevel.BRIEF.level) {
             warnLogs("解压ID：[{}]，当前unzipTimes为：[{}]，包含【路径遍历风险】，【{}】中的文件【{}】被跳过！！！ <<{}>>", unzipId, unzipTimes, zipFileName, entryFileName, logSource);
         }
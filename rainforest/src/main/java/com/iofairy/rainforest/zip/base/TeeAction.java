@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.base;
+
+import com.iofairy.lambda.RT4;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.InputStream;
+import java.util.concurrent.Executor;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 以 tee 模式执行的 {@code beforeUnzipAction}<br>
+ * 默认情况下，{@code beforeUnzipFilter} 匹配时，内部压缩包会先被整个读入内存，执行完 {@code beforeUnzipAction} 后再重新读取并解压。
+ * 用 {@code TeeAction} 包装 {@code beforeUnzipAction} 后，内部压缩包的数据只读取一次，通过有界管道<b>同时</b>传给
+ * {@code beforeUnzipAction}（在 {@link #executor} 中执行）与内部压缩包的 SuperAC，内存占用限制在管道大小以内<br>
+ * <b>注：</b>
+ * <ul>
+ * <li>{@code beforeUnzipAction} 与内部压缩包的解压在不同的线程中<b>并发</b>执行，{@code beforeUnzipAction} 不能依赖解压过程中其他 Action 的副作用</li>
+ * <li>{@code beforeUnzipAction} 不读完输入流时，剩余的数据被丢弃；读取较慢时会阻塞解压（背压）</li>
+ * <li>返回值在结果列表中的位置与非 tee 模式相同（在内部压缩包的处理结果之前）</li>
+ * </ul>
+ *
+ * @param <R> Action返回值类型
+ * @since 0.6.2
+ */
+@Getter
+@ToString
+public class TeeAction<R> implements RT4<InputStream, Integer, String, String, R, Exception> {
+    /**
+     * 默认的管道大小（字节）
+     */
+    public static final int DEFAULT_PIPE_SIZE = 256 * 1024;
+
+    /**
+     * 被包装的 {@code beforeUnzipAction}
+     */
+    private final RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> action;
+    /**
+     * 管道大小（字节）
+     */
+    private final int pipeSize;
+    /**
+     * 执行 {@code beforeUnzipAction} 的执行器，为{@code null}则使用 {@link ZipExecutors#defaultExecutor()}。
+     * 执行器必须能立即执行任务（如：不能是已被占满的固定大小线程池），否则解压会一直阻塞在管道上
+     */
+    private final Executor executor;
+
+    private TeeAction(RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> action, int pipeSize, Executor executor) {
+        this.action = action;
+        this.pipeSize = pipeSize;
+        this.executor = executor;
+    }
+
+    public static <R> TeeAction<R> of(RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> action) {
+        return of(action, DEFAULT_PIPE_SIZE, null);
+    }
+
+    public static <R> TeeAction<R> of(RT4<InputStream, ? super Integer, ? super String, ? super String, ? extends R, Exception> action,
+                                      int pipeSize,
+                                      Executor executor) {
+        checkHasNullNPE(args(action), args("action"));
+        checkArgument(pipeSize <= 0, "参数`pipeSize`必须 > 0！");
+        return new TeeAction<>(action, pipeSize, executor);
+    }
+
+    @Override
+    public R $(InputStream is, Integer unzipTimes, String zipFileName, String entryFileName) throws Exception {
+        return action.$(is, unzipTimes, zipFileName, entryFileName);
+    }
+}
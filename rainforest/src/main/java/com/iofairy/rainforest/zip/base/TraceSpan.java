@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.base;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 执行跟踪（见 {@link ZipTrace}）中的一个节点（树形结构，子节点存放于 {@link #children}）
+ *
+ * @since 0.6.2
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+public class TraceSpan {
+    /**
+     * 值未知时的默认值
+     */
+    public static final long UNKNOWN = -1;
+
+    /**
+     * 节点类型
+     */
+    Type type;
+    /**
+     * 名称：压缩包为压缩包文件名，其他为当前内部文件的名称；{@link Type#EVENT} 为文件名称
+     */
+    String name;
+    /**
+     * 父压缩包的文件名，最外层压缩包为 {@code null}
+     */
+    String zipFileName;
+    /**
+     * 压缩包的第几层
+     */
+    int unzipTimes;
+    /**
+     * 解压ID
+     */
+    String unzipId;
+    /**
+     * 事件说明，只有 {@link Type#EVENT} 有值（如：{@code filter}、{@code delete}）
+     */
+    String event;
+    /**
+     * 相对于跟踪开始时的开始时间（纳秒）
+     */
+    long startNanos;
+    /**
+     * 耗时（纳秒），{@link Type#EVENT} 为0
+     */
+    long durationNanos;
+    /**
+     * 写入的字节数（重压缩后的大小或写入压缩包的大小），未知时为 {@link #UNKNOWN}
+     */
+    long bytes = UNKNOWN;
+    /**
+     * 是否正常结束。处理过程中抛出异常（如：尝试密码失败后重试）而未正常结束的节点为 {@code false}，
+     * 其耗时计算到所在的上层节点结束时
+     */
+    boolean completed;
+    /**
+     * 子节点
+     */
+    List<TraceSpan> children = new ArrayList<>();
+
+    /**
+     * 跟踪节点类型
+     */
+    public enum Type {
+        /**
+         * 最外层压缩包
+         */
+        ARCHIVE("archive"),
+        /**
+         * 内部压缩包的解压（或解压并重压缩）
+         */
+        NESTED_ARCHIVE("nested"),
+        /**
+         * 非压缩包文件的处理（解压后的数据边读取边交给 Action 处理）
+         */
+        ENTRY("entry"),
+        /**
+         * 写入压缩包（压缩并写出）
+         */
+        WRITE("write"),
+        /**
+         * 没有耗时的事件（过滤、删除、添加、跳过等）
+         */
+        EVENT("event");
+
+        public final String category;
+
+        Type(String category) {
+            this.category = category;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TraceSpan{" +
+                "type=" + type +
+                ", name='" + name + '\'' +
+                (event == null ? "" : ", event='" + event + '\'') +
+                ", unzipTimes=" + unzipTimes +
+                ", durationNanos=" + durationNanos +
+                ", bytes=" + bytes +
+                ", children=" + children.size() +
+                '}';
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.base;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+/**
+ * 解压后返回的结果（见 {@code SuperAC.unzipTraced}）
+ *
+ * @param <T> Action返回值类型
+ * @since 0.6.2
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnzipResult<T> {
+    List<T> results;
+    /**
+     * 执行跟踪
+     */
+    ZipTrace trace;
+
+    public static <R> UnzipResult<R> of(final List<R> results, final ZipTrace trace) {
+        return new UnzipResult<>(results, trace);
+    }
+
+    @Override
+    public String toString() {
+        return "UnzipResult{" +
+                "results=" + results +
+                ", trace=" + trace +
+                '}';
+    }
+}
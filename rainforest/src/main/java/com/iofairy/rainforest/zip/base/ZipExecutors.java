@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.base;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步解压缩（{@code SuperAC.unzipAsync} 等方法）使用的执行器<br>
+ * 运行在 Java 21 及以上版本时，可使用<b>虚拟线程</b>（每个任务一个虚拟线程），解压缩过程中阻塞的IO不再占用平台线程；
+ * 项目以 Java 8 为编译目标，虚拟线程相关的 API 在运行时通过反射获取
+ *
+ * @since 0.6.2
+ */
+public final class ZipExecutors {
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+    /**
+     * 虚拟线程工厂，运行在 Java 21 以下版本时为{@code null}
+     */
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = virtualThreadFactory();
+
+    private ZipExecutors() {
+    }
+
+    /**
+     * 当前运行环境是否支持虚拟线程（Java 21 及以上版本）
+     *
+     * @return 是否支持虚拟线程
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的执行器，使用完后需调用者关闭
+     *
+     * @return 虚拟线程执行器
+     * @throws UnsupportedOperationException 当前运行环境不支持虚拟线程（Java 21 以下版本）
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (VIRTUAL_THREAD_FACTORY == null) {
+            throw new UnsupportedOperationException("当前Java版本[" + System.getProperty("java.version") + "]不支持虚拟线程，需要 Java 21 及以上版本！");
+        }
+        try {
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, VIRTUAL_THREAD_FACTORY);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("创建虚拟线程执行器失败！", e);
+        }
+    }
+
+    /**
+     * 默认执行器（异步方法未指定执行器时使用）：支持虚拟线程时每个任务一个虚拟线程，
+     * 否则使用共享的平台线程池（守护线程，空闲60秒后回收）
+     *
+     * @return 默认执行器
+     */
+    public static Executor defaultExecutor() {
+        return VIRTUAL_THREAD_FACTORY != null ? VirtualExecutor.INSTANCE : PlatformExecutor.INSTANCE;
+    }
+
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "rainforest-async-virtual-", 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static final class VirtualExecutor {
+        static final Executor INSTANCE = command -> VIRTUAL_THREAD_FACTORY.newThread(command).start();
+    }
+
+    private static final class PlatformExecutor {
+        static final Executor INSTANCE = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "rainforest-async-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
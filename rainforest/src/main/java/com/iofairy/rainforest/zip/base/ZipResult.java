@@ -22,6 +22,7 @@ import lombok.NoArgsConstructor;
 import lombok.experimental.Accessors;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 解压并重压缩后返回的结果
@@ -35,6 +36,25 @@ import java.util.List;
 public class ZipResult<T> {
     byte[][] bytes;
     List<T> results;
+    /**
+     * 自适应选择压缩方法时（见 {@link com.iofairy.rainforest.zip.attr.ZipOutputProperty#adaptiveMethod}），
+     * 当前压缩包中每个文件选择的压缩方法（{@link java.util.zip.ZipEntry#STORED} 或 {@link java.util.zip.ZipEntry#DEFLATED}），
+     * key 为文件名。未开启自适应时为 {@code null}
+     *
+     * @since 0.6.2
+     */
+    Map<String, Integer> entryMethods;
+    /**
+     * 执行跟踪，只有通过 {@code SuperAC.reZipTraced} 处理时才有值，否则为 {@code null}
+     *
+     * @since 0.6.2
+     */
+    ZipTrace trace;
+
+    public ZipResult(byte[][] bytes, List<T> results) {
+        this.bytes = bytes;
+        this.results = results;
+    }
 
     public static <R> ZipResult<R> of(final byte[][] bytes, final List<R> results) {
         return new ZipResult<>(bytes, results);
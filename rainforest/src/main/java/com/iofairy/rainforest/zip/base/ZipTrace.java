@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.base;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.iofairy.lambda.RT0;
+import com.iofairy.rainforest.zip.error.SuperACException;
+import com.iofairy.tuple.Tuple;
+import com.iofairy.tuple.Tuple2;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.*;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 解压缩的执行跟踪：最外层压缩包 → 内部压缩包 → 文件 → 写入压缩包，记录每个节点的耗时与写入的字节数，
+ * 可导出为 Chrome trace-event JSON 格式（在 Perfetto 或 {@code chrome://tracing} 中查看）<br>
+ * 跟踪节点在打印日志的位置（见 {@link LogPrinter}）记录，与 {@link ZipLogLevel} 无关。
+ * 只记录调用 {@link #record(RT0)} 的<b>当前线程</b>中的处理过程，异步方法（如 {@code SuperAC.unzipAsync}）需在任务内调用 {@link #record(RT0)}
+ *
+ * @since 0.6.2
+ */
+public final class ZipTrace {
+    private static final ThreadLocal<ZipTrace> CURRENT = new ThreadLocal<>();
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * 记录跟踪的线程名称
+     */
+    @Getter
+    private final String threadName;
+    /**
+     * 跟踪开始时间（毫秒）
+     */
+    @Getter
+    private final long startMillis;
+    /**
+     * 总耗时（纳秒）
+     */
+    @Getter
+    private long durationNanos;
+    private final long startNanoTime;
+    private final List<TraceSpan> roots = new ArrayList<>();
+    private final Deque<TraceSpan> stack = new ArrayDeque<>();
+
+    private ZipTrace() {
+        threadName = Thread.currentThread().getName();
+        startMillis = System.currentTimeMillis();
+        startNanoTime = System.nanoTime();
+    }
+
+    /**
+     * 在当前线程中执行 {@code task} 并记录执行跟踪，可以嵌套调用（内层的跟踪与外层相互独立）
+     *
+     * @param task 任务，如：{@code () -> SuperAC.reZip(...)}
+     * @param <T>  任务返回值类型
+     * @return {@code (任务的返回值, 执行跟踪)}
+     * @throws Exception 任务抛出的异常，到失败为止的执行跟踪附在异常上，见 {@link #of(Throwable)}
+     */
+    public static <T> Tuple2<T, ZipTrace> record(RT0<? extends T, Exception> task) throws Exception {
+        checkHasNullNPE(args(task), args("task"));
+
+        ZipTrace previous = CURRENT.get();
+        ZipTrace trace = new ZipTrace();
+        CURRENT.set(trace);
+        try {
+            T t = task.$();
+            return Tuple.of(t, trace.finish());
+        } catch (Throwable e) {
+            attach(e, trace.finish());
+            throw e;
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 获取 {@link #record} 执行失败时附在异常上的执行跟踪
+     *
+     * @param e {@link #record} 抛出的异常
+     * @return 到失败为止的执行跟踪，没有则返回{@code null}
+     */
+    public static ZipTrace of(Throwable e) {
+        if (e == null) return null;
+        if (e instanceof SuperACException && ((SuperACException) e).getTrace() != null) return ((SuperACException) e).getTrace();
+        for (Throwable suppressed : e.getSuppressed()) {
+            if (suppressed instanceof SuperACException && ((SuperACException) suppressed).getTrace() != null) {
+                return ((SuperACException) suppressed).getTrace();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 把执行跟踪附在异常上：{@link SuperACException} 直接记录，其他异常通过被抑制的 {@link SuperACException} 记录；
+     * 嵌套调用时保留最内层的跟踪
+     */
+    private static void attach(Throwable e, ZipTrace trace) {
+        if (of(e) != null) return;
+        if (e instanceof SuperACException) {
+            ((SuperACException) e).setTrace(trace);
+        } else {
+            e.addSuppressed(new SuperACException("执行跟踪（线程：[${threadName}]）", trace.threadName).setTrace(trace));
+        }
+    }
+
+    /**
+     * 当前线程是否正在记录执行跟踪
+     *
+     * @return 是否正在记录
+     */
+    public static boolean isRecording() {
+        return CURRENT.get() != null;
+    }
+
+    static void begin(TraceSpan.Type type, String unzipId, int unzipTimes, String zipFileName, String name) {
+        ZipTrace trace = CURRENT.get();
+        if (trace != null) trace.push(newSpan(trace, type, unzipId, unzipTimes, zipFileName, name));
+    }
+
+    static void end(TraceSpan.Type type, String name, long bytes) {
+        ZipTrace trace = CURRENT.get();
+        if (trace != null) trace.pop(type, name, bytes);
+    }
+
+    static void event(String event, String unzipId, int unzipTimes, String zipFileName, String name) {
+        ZipTrace trace = CURRENT.get();
+        if (trace != null) {
+            TraceSpan span = newSpan(trace, TraceSpan.Type.EVENT, unzipId, unzipTimes, zipFileName, name).setEvent(event).setCompleted(true);
+            trace.children().add(span);
+        }
+    }
+
+    private static TraceSpan newSpan(ZipTrace trace, TraceSpan.Type type, String unzipId, int unzipTimes, String zipFileName, String name) {
+        return new TraceSpan()
+                .setType(type)
+                .setUnzipId(unzipId)
+                .setUnzipTimes(unzipTimes)
+                .setZipFileName(zipFileName == null || zipFileName.isEmpty() ? null : zipFileName)
+                .setName(name)
+                .setStartNanos(trace.now());
+    }
+
+    private void push(TraceSpan span) {
+        children().add(span);
+        stack.push(span);
+    }
+
+    /**
+     * 结束最近开始的同类型同名称的节点；在其之后开始而未结束的节点（抛出异常后未打印结束日志）一并结束，标记为未正常结束
+     */
+    private void pop(TraceSpan.Type type, String name, long bytes) {
+        boolean found = false;
+        for (TraceSpan span : stack) {
+            if (span.getType() == type && Objects.equals(span.getName(), name)) {
+                found = true;
+                break;
+            }
+        }
+        if (!found) return;
+
+        long now = now();
+        while (true) {
+            TraceSpan span = stack.pop();
+            span.setDurationNanos(now - span.getStartNanos());
+            if (span.getType() == type && Objects.equals(span.getName(), name)) {
+                span.setBytes(bytes).setCompleted(true);
+                return;
+            }
+        }
+    }
+
+    private ZipTrace finish() {
+        long now = now();
+        while (!stack.isEmpty()) {
+            TraceSpan span = stack.pop();
+            span.setDurationNanos(now - span.getStartNanos());
+        }
+        durationNanos = now;
+        return this;
+    }
+
+    private List<TraceSpan> children() {
+        return stack.isEmpty() ? roots : stack.peek().getChildren();
+    }
+
+    private long now() {
+        return System.nanoTime() - startNanoTime;
+    }
+
+    /**
+     * 最上层的跟踪节点（通常只有一个最外层压缩包）
+     *
+     * @return 跟踪节点
+     */
+    public List<TraceSpan> getRoots() {
+        return Collections.unmodifiableList(roots);
+    }
+
+    /**
+     * 按深度优先的顺序返回所有跟踪节点
+     *
+     * @return 所有跟踪节点
+     */
+    public List<TraceSpan> getSpans() {
+        List<TraceSpan> spans = new ArrayList<>();
+        collect(roots, spans);
+        return spans;
+    }
+
+    private static void collect(List<TraceSpan> children, List<TraceSpan> spans) {
+        for (TraceSpan span : children) {
+            spans.add(span);
+            collect(span.getChildren(), spans);
+        }
+    }
+
+    /**
+     * 导出为 Chrome trace-event JSON 格式
+     *
+     * @return JSON 字符串
+     */
+    public String toChromeTraceJson() {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            writeChromeTrace(generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * 以 Chrome trace-event JSON 格式（UTF-8）写入 {@code os}，不关闭 {@code os}
+     *
+     * @param os 输出流
+     * @throws IOException 写入失败
+     */
+    public void writeChromeTrace(OutputStream os) throws IOException {
+        checkHasNullNPE(args(os), args("os"));
+
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(os, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            writeChromeTrace(generator);
+        }
+    }
+
+    /**
+     * 以 Chrome trace-event JSON 格式写入 {@code writer}，不关闭 {@code writer}
+     *
+     * @param writer Writer
+     * @throws IOException 写入失败
+     */
+    public void writeChromeTrace(Writer writer) throws IOException {
+        checkHasNullNPE(args(writer), args("writer"));
+
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            writeChromeTrace(generator);
+        }
+    }
+
+    /**
+     * 每个节点为一个完整事件（{@code "ph": "X"}），{@link TraceSpan.Type#EVENT} 为瞬时事件（{@code "ph": "i"}），
+     * 时间单位为微秒，相对于跟踪开始时间
+     */
+    private void writeChromeTrace(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("traceEvents");
+
+        generator.writeStartObject();
+        generator.writeStringField("name", "thread_name");
+        generator.writeStringField("ph", "M");
+        generator.writeNumberField("pid", 1);
+        generator.writeNumberField("tid", 1);
+        generator.writeObjectFieldStart("args");
+        generator.writeStringField("name", threadName);
+        generator.writeEndObject();
+        generator.writeEndObject();
+
+        for (TraceSpan span : getSpans()) {
+            boolean isEvent = span.getType() == TraceSpan.Type.EVENT;
+            generator.writeStartObject();
+            generator.writeStringField("name", isEvent ? span.getEvent() + " " + span.getName() : span.getName());
+            generator.writeStringField("cat", span.getType().category);
+            generator.writeStringField("ph", isEvent ? "i" : "X");
+            generator.writeNumberField("ts", span.getStartNanos() / 1000.0);
+            if (isEvent) {
+                generator.writeStringField("s", "t");
+            } else {
+                generator.writeNumberField("dur", span.getDurationNanos() / 1000.0);
+            }
+            generator.writeNumberField("pid", 1);
+            generator.writeNumberField("tid", 1);
+
+            generator.writeObjectFieldStart("args");
+            if (span.getUnzipId() != null) generator.writeStringField("unzipId", span.getUnzipId());
+            if (span.getZipFileName() != null) generator.writeStringField("zipFileName", span.getZipFileName());
+            generator.writeNumberField("unzipTimes", span.getUnzipTimes());
+            if (span.getBytes() != TraceSpan.UNKNOWN) generator.writeNumberField("bytes", span.getBytes());
+            if (!span.isCompleted()) generator.writeBooleanField("completed", false);
+            generator.writeEndObject();
+
+            generator.writeEndObject();
+        }
+
+        generator.writeEndArray();
+        generator.writeStringField("displayTimeUnit", "ms");
+        generator.writeObjectFieldStart("otherData");
+        generator.writeNumberField("startMillis", startMillis);
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    @Override
+    public String toString() {
+        return "ZipTrace{" +
+                "threadName='" + threadName + '\'' +
+                ", durationNanos=" + durationNanos +
+                ", spans=" + getSpans().size() +
+                '}';
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.base;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictDecompress;
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * zstd 字典注册表，按<b>字典ID</b>保存字典<br>
+ * zstd 帧头中记录了压缩时使用的字典ID，解压时（见 {@link com.iofairy.rainforest.zip.attr.ZstdInputProperty#dictRegistry}）
+ * 根据帧头中的字典ID自动选择注册表中的字典，不需要调用者知道每个压缩包使用的是哪个字典<br>
+ * 指定了目录时，字典同时保存为目录下的 {@code <字典ID>.zdict} 文件，创建注册表时自动加载目录中已有的字典
+ *
+ * @since 0.6.2
+ */
+public class ZstdDictRegistry {
+    /**
+     * 字典文件后缀名
+     */
+    public static final String DICT_FILE_EXT = ".zdict";
+
+    /**
+     * 字典文件存放目录，为{@code null}则只保存在内存中
+     */
+    @Getter
+    private final File dictDir;
+    private final Map<Long, byte[]> dicts = new ConcurrentHashMap<>();
+    private final Map<Long, ZstdDictDecompress> dictDecompresses = new ConcurrentHashMap<>();
+
+    public ZstdDictRegistry() {
+        this.dictDir = null;
+    }
+
+    public ZstdDictRegistry(File dictDir) throws IOException {
+        checkHasNullNPE(args(dictDir), args("dictDir"));
+        checkArgument(dictDir.exists() && !dictDir.isDirectory(), "参数`dictDir`[${…}]必须是目录！", dictDir.getAbsolutePath());
+        this.dictDir = dictDir;
+
+        File[] dictFiles = dictDir.listFiles((dir, name) -> name.endsWith(DICT_FILE_EXT));
+        if (dictFiles != null) {
+            for (File dictFile : dictFiles) {
+                byte[] dict = Files.readAllBytes(dictFile.toPath());
+                long dictId = Zstd.getDictIdFromDict(dict);
+                if (dictId != 0) put(dictId, dict);
+            }
+        }
+    }
+
+    public static ZstdDictRegistry of() {
+        return new ZstdDictRegistry();
+    }
+
+    public static ZstdDictRegistry of(File dictDir) throws IOException {
+        return new ZstdDictRegistry(dictDir);
+    }
+
+    /**
+     * 注册字典，已注册相同ID的字典时覆盖
+     *
+     * @param dict zstd 格式的字典（如 {@link com.github.luben.zstd.ZstdDictTrainer} 训练出的字典）
+     * @return 字典ID
+     * @throws IOException 保存字典文件失败
+     */
+    public long register(byte[] dict) throws IOException {
+        checkHasNullNPE(args(dict), args("dict"));
+        long dictId = Zstd.getDictIdFromDict(dict);
+        checkArgument(dictId == 0, "参数`dict`不是 zstd 格式的字典（没有字典ID）！");
+
+        if (dictDir != null) {
+            Files.createDirectories(dictDir.toPath());
+            File dictFile = new File(dictDir, dictId + DICT_FILE_EXT);
+            File tmpFile = new File(dictDir, dictId + DICT_FILE_EXT + ".tmp");
+            Files.write(tmpFile.toPath(), dict);
+            Files.move(tmpFile.toPath(), dictFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        put(dictId, dict);
+        return dictId;
+    }
+
+    /**
+     * 获取字典
+     *
+     * @param dictId 字典ID
+     * @return 字典，未注册时返回 {@code null}
+     */
+    public byte[] get(long dictId) {
+        return dicts.get(dictId);
+    }
+
+    /**
+     * 获取解压使用的字典
+     *
+     * @param dictId 字典ID
+     * @return 解压使用的字典，未注册时返回 {@code null}
+     */
+    public ZstdDictDecompress getDictDecompress(long dictId) {
+        return dictDecompresses.get(dictId);
+    }
+
+    /**
+     * 所有已注册的解压字典
+     *
+     * @return 解压字典
+     */
+    public Collection<ZstdDictDecompress> dictDecompresses() {
+        return Collections.unmodifiableCollection(dictDecompresses.values());
+    }
+
+    /**
+     * 所有已注册的字典ID
+     *
+     * @return 字典ID
+     */
+    public Set<Long> dictIds() {
+        return Collections.unmodifiableSet(dicts.keySet());
+    }
+
+    public int size() {
+        return dicts.size();
+    }
+
+    private void put(long dictId, byte[] dict) {
+        dicts.put(dictId, dict);
+        dictDecompresses.put(dictId, new ZstdDictDecompress(dict));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.config;
+
+import com.iofairy.lambda.RT1;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 候选密码<br>
+ * {@link PasswordProvider} 获取不到密码，或获取到的密码不正确时，依次尝试候选密码。
+ * 候选密码只用加密头校验（ZipCrypto 校验字节、AES 密码校验值、7z 头部解码），不会完整解密文件<br>
+ * <b>注：</b>ZipCrypto 的校验字节只有1个字节，错误的密码有 1/256 的概率通过校验，压缩包中加密的文件越多，误判的概率越低
+ *
+ * @since 0.6.2
+ */
+@Getter
+@ToString(exclude = {"passwords"})
+public class PasswordCandidates {
+    /**
+     * 候选密码，按顺序尝试
+     */
+    private final List<char[]> passwords;
+    /**
+     * 并行校验的线程数，{@code <= 1} 则在当前线程中依次校验
+     */
+    private int parallelism = 1;
+    /**
+     * 并行校验的执行器，为{@code null}则使用 {@link com.iofairy.rainforest.zip.base.ZipExecutors#defaultExecutor()}
+     */
+    private Executor executor;
+    /**
+     * 是否把找到的密码记住（添加到对应的 {@link PasswordProvider} 中），下次直接使用
+     */
+    private boolean remember = true;
+    /**
+     * 记住密码时使用的文件名（可带通配符），{@code RT1<String, String, Exception>(压缩包的文件名, 文件名)}，
+     * 为{@code null}则使用压缩包的文件名（按原样匹配，{@code *} 与 {@code ?} 不作为通配符，见 {@link ZipPassword#ofExact(String, String)}）
+     */
+    private RT1<String, String, Exception> namePattern;
+
+    private PasswordCandidates(List<char[]> passwords) {
+        this.passwords = passwords;
+    }
+
+    public static PasswordCandidates of(String... passwords) {
+        checkHasNullNPE(args((Object) passwords), args("passwords"));
+        List<char[]> list = new ArrayList<>();
+        for (String password : passwords) {
+            Objects.requireNonNull(password, "参数`passwords`中的密码不能为null！");
+            list.add(password.toCharArray());
+        }
+        return new PasswordCandidates(Collections.unmodifiableList(list));
+    }
+
+    public static PasswordCandidates of(List<String> passwords) {
+        checkHasNullNPE(args(passwords), args("passwords"));
+        return of(passwords.toArray(new String[0]));
+    }
+
+    public PasswordCandidates setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public PasswordCandidates setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public PasswordCandidates setRemember(boolean remember) {
+        this.remember = remember;
+        return this;
+    }
+
+    public PasswordCandidates setNamePattern(RT1<String, String, Exception> namePattern) {
+        this.namePattern = namePattern;
+        return this;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.config;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link PasswordProvider} 的不可变查找快照<br>
+ * 结果与按顺序逐个执行 {@code ZipPassword.getPattern().matcher(fileName).matches()} 并取第一个匹配项相同，但：
+ * <ul>
+ * <li>不含通配符的文件名（以及按原样匹配的文件名）放在哈希表中，直接查找</li>
+ * <li>含通配符的文件名按通配符之前的字面量前缀建立前缀树，只对前缀匹配的候选项执行通配符匹配（不使用正则）</li>
+ * <li>查找结果缓存在有界的缓存中</li>
+ * </ul>
+ *
+ * @since 0.6.2
+ */
+final class PasswordMatcher {
+    /**
+     * 查找结果的缓存上限，超过则清空
+     */
+    static final int CACHE_SIZE = 4096;
+
+    static final PasswordMatcher EMPTY = new PasswordMatcher(Collections.emptyList());
+
+    private static final int NOT_FOUND = -1;
+
+    /**
+     * 按优先级排序的密码，下标即优先级（越小越优先）
+     */
+    private final ZipPassword[] zipPasswords;
+    /**
+     * 不含通配符的文件名 -> 下标
+     */
+    private final Map<String, Integer> exactNames = new HashMap<>();
+    /**
+     * 含通配符的文件名的字面量前缀树
+     */
+    private final Node root = new Node();
+    /**
+     * 下标 -> 通配符文件名，不是通配符匹配的为 {@code null}
+     */
+    private final String[] globs;
+    /**
+     * 下标 -> 是否只能使用正则匹配（文件名中含有未转义的正则字符）
+     */
+    private final boolean[] regexOnly;
+    private final Map<String, Integer> cache = new ConcurrentHashMap<>();
+
+    PasswordMatcher(List<ZipPassword> sortedPasswords) {
+        int size = sortedPasswords.size();
+        this.zipPasswords = sortedPasswords.toArray(new ZipPassword[0]);
+        this.globs = new String[size];
+        this.regexOnly = new boolean[size];
+
+        for (int i = 0; i < size; i++) {
+            String fileName = zipPasswords[i].getFileName();
+            if (zipPasswords[i].isExact()) {
+                exactNames.putIfAbsent(fileName, i);
+            } else if (isRegexOnly(fileName)) {
+                // ZipPassword 不转义这些字符，只能用正则匹配
+                regexOnly[i] = true;
+                root.indexes.add(i);
+            } else if (fileName.indexOf('*') < 0 && fileName.indexOf('?') < 0) {
+                exactNames.putIfAbsent(fileName, i);
+            } else {
+                globs[i] = fileName;
+                Node node = root;
+                for (int j = 0; j < fileName.length(); j++) {
+                    char c = fileName.charAt(j);
+                    if (c == '*' || c == '?') break;
+                    node = node.children.computeIfAbsent(c, k -> new Node());
+                }
+                node.indexes.add(i);
+            }
+        }
+    }
+
+    /**
+     * 根据文件名获取密码
+     *
+     * @param fileName 文件名，不能为空
+     * @return 返回密码。如果未找到匹配的文件名，则返回 {@code null}
+     */
+    char[] getPassword(String fileName) {
+        Integer index = cache.get(fileName);
+        if (index == null) {
+            index = find(fileName);
+            if (cache.size() >= CACHE_SIZE) cache.clear();
+            cache.put(fileName, index);
+        }
+        return index == NOT_FOUND ? null : zipPasswords[index].getPassword();
+    }
+
+    private int find(String fileName) {
+        Integer exact = exactNames.get(fileName);
+        int best = exact == null ? Integer.MAX_VALUE : exact;
+
+        /*
+         * 收集前缀匹配的候选项，按优先级依次匹配
+         */
+        List<Integer> candidates = new ArrayList<>(root.indexes);
+        Node node = root;
+        for (int i = 0; i < fileName.length() && node != null; i++) {
+            node = node.children.get(fileName.charAt(i));
+            if (node != null) candidates.addAll(node.indexes);
+        }
+        Collections.sort(candidates);
+
+        boolean useRegex = needsRegex(fileName);
+        for (int index : candidates) {
+            if (index >= best) break;
+            boolean matches = regexOnly[index] || useRegex
+                    ? zipPasswords[index].getPattern().matcher(fileName).matches()
+                    : globMatches(globs[index], fileName);
+            if (matches) return index;
+        }
+        return best == Integer.MAX_VALUE ? NOT_FOUND : best;
+    }
+
+    /**
+     * 通配符匹配：{@code *} 匹配0或多个任意字符，{@code ?} 匹配任意1个字符
+     */
+    static boolean globMatches(String glob, String s) {
+        int g = 0, i = 0;
+        int starG = -1, starI = -1;
+        while (i < s.length()) {
+            if (g < glob.length() && (glob.charAt(g) == '?' || glob.charAt(g) == s.charAt(i))) {
+                g++;
+                i++;
+            } else if (g < glob.length() && glob.charAt(g) == '*') {
+                starG = g++;
+                starI = i;
+            } else if (starG >= 0) {
+                // 回溯：上一个 * 多匹配一个字符
+                g = starG + 1;
+                i = ++starI;
+            } else {
+                return false;
+            }
+        }
+        while (g < glob.length() && glob.charAt(g) == '*') {
+            g++;
+        }
+        return g == glob.length();
+    }
+
+    /**
+     * {@link ZipPassword} 生成正则时不转义 {@code \ | { }}，含有这些字符的文件名只能使用正则匹配
+     */
+    private static boolean isRegexOnly(String fileName) {
+        for (int i = 0; i < fileName.length(); i++) {
+            char c = fileName.charAt(i);
+            if (c == '\\' || c == '|' || c == '{' || c == '}') return true;
+        }
+        return false;
+    }
+
+    /**
+     * 通配符不匹配行终止符，且按 char 而不是按码点匹配，文件名含有行终止符或代理字符时使用正则匹配（与正则的 {@code .} 一致）
+     */
+    private static boolean needsRegex(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029' || Character.isSurrogate(c)) return true;
+        }
+        return false;
+    }
+
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>();
+        final List<Integer> indexes = new ArrayList<>();
+    }
+}
@@ -23,17 +23,19 @@ import lombok.experimental.Accessors;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
 import java.util.stream.Collectors;
 
 /**
- * 压缩包密码提供者，根据文件名获取密码
+ * 压缩包密码提供者，根据文件名获取密码<br>
+ * 查找不加锁：每次添加密码后重新生成不可变的查找快照（见 {@link PasswordMatcher}）并原子替换，
+ * 因此添加后再修改 {@link ZipPassword} 的文件名不会生效，需要重新添加
  *
  * @since 0.1.0
  */
 public class PasswordProvider {
     private final Map<String, ZipPassword> zipPasswordMap = new ConcurrentHashMap<>();
-    private List<ZipPassword> zipPasswordList = new ArrayList<>();
+    private volatile List<ZipPassword> zipPasswordList = new ArrayList<>();
+    private volatile PasswordMatcher passwordMatcher = PasswordMatcher.EMPTY;
 
     /**
      * 预留的备用密码（输入流获取不到名称时使用）
@@ -71,14 +73,10 @@ public class PasswordProvider {
      * @param fileName 文件名
      * @return 返回密码。如果未找到匹配的文件名，则返回 {@code null}
      */
-    public synchronized char[] getPassword(String fileName) {
+    public char[] getPassword(String fileName) {
         if (S.isEmpty(fileName)) return null;
 
-        for (ZipPassword password : zipPasswordList) {
-            Matcher matcher = password.getPattern().matcher(fileName);
-            if (matcher.matches()) return password.getPassword();
-        }
-        return null;
+        return passwordMatcher.getPassword(fileName);
     }
 
     public synchronized PasswordProvider addPassword(ZipPassword zipPassword) {
@@ -122,14 +120,14 @@ public class PasswordProvider {
      */
     private void sortPasswordPattern() {
         Collection<ZipPassword> zipPasswords = zipPasswordMap.values();
-        zipPasswordList = zipPasswords.stream().sorted((zipPassword1, zipPassword2) -> {
+        List<ZipPassword> sortedList = zipPasswords.stream().sorted((zipPassword1, zipPassword2) -> {
             String fileName1 = zipPassword1.getFileName();
             String fileName2 = zipPassword2.getFileName();
 
             if (fileName1.equals(fileName2)) return 0;
 
-            boolean hasWildcard1 = fileName1.contains("*") || fileName1.contains("?");
-            boolean hasWildcard2 = fileName2.contains("*") || fileName2.contains("?");
+            boolean hasWildcard1 = !zipPassword1.isExact() && (fileName1.contains("*") || fileName1.contains("?"));
+            boolean hasWildcard2 = !zipPassword2.isExact() && (fileName2.contains("*") || fileName2.contains("?"));
 
             if (!hasWildcard1 && !hasWildcard2) return 0;   // 都不包含通配符，则不排序
             if (!hasWildcard1) return -1;
@@ -149,6 +147,10 @@ public class PasswordProvider {
             }
             return 0;
         }).collect(Collectors.toList());
+
+        // 先生成查找快照，再发布列表
+        passwordMatcher = new PasswordMatcher(sortedList);
+        zipPasswordList = sortedList;
     }
 
     public Map<String, ZipPassword> getZipPasswordMap() {
@@ -27,7 +27,7 @@ import java.util.regex.Pattern;
  * @since 0.1.0
  */
 @Getter
-@ToString(exclude = {"password"})
+@ToString(exclude = {"password", "exact"})
 public class ZipPassword {
     /**
      * 带通配符的文件名，通配符仅支持：
@@ -41,6 +41,12 @@ public class ZipPassword {
      * 文件名匹配
      */
     private Pattern pattern;
+    /**
+     * 是否按原样匹配文件名（{@code *} 与 {@code ?} 不作为通配符），见 {@link #ofExact(String, String)}
+     *
+     * @since 0.6.2
+     */
+    private boolean exact;
     /**
      * 密码
      */
@@ -65,6 +71,20 @@ public class ZipPassword {
         return new ZipPassword(fileName, password);
     }
 
+    /**
+     * 按原样匹配文件名的密码，文件名中的 {@code *} 与 {@code ?} 不作为通配符
+     *
+     * @param fileName 文件名，为空时匹配所有文件（与 {@link #of(String, String)} 相同）
+     * @param password 密码
+     * @return ZipPassword
+     * @since 0.6.2
+     */
+    public static ZipPassword ofExact(String fileName, String password) {
+        ZipPassword zipPassword = new ZipPassword(null, password);
+        zipPassword.exact = !S.isEmpty(fileName);
+        return zipPassword.setFileName(fileName);
+    }
+
     public ZipPassword setFileName(String fileName) {
         setFileNameAndPattern(fileName);
         return this;
@@ -76,6 +96,12 @@ public class ZipPassword {
     }
 
     private void setFileNameAndPattern(String fileName) {
+        if (exact && !S.isEmpty(fileName)) {
+            this.pattern = Pattern.compile(Pattern.quote(fileName));
+            this.fileName = fileName;
+            return;
+        }
+        this.exact = false;
         this.pattern = Pattern.compile(S.isEmpty(fileName) ? ".*" : getRegex(fileName));
         this.fileName = S.isEmpty(fileName) ? "*" : fileName.replaceAll("(\\*)+", "*");
     }
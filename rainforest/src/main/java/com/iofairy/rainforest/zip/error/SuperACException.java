@@ -18,6 +18,7 @@ package com.iofairy.rainforest.zip.error;
 
 import com.iofairy.si.SI;
 import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.base.ZipTrace;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -40,6 +41,16 @@ public class SuperACException extends RuntimeException {
     @Accessors(chain = true)
     protected String code;
 
+    /**
+     * 执行跟踪：在 {@link ZipTrace#record} 中执行失败时，记录到失败为止的跟踪（未完成的节点 {@code completed} 为 {@code false}）
+     *
+     * @since 0.6.2
+     */
+    @Getter
+    @Setter
+    @Accessors(chain = true)
+    protected transient ZipTrace trace;
+
     /**
      * Constructs a {@code SuperACException} <br>
      *
@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.index;
+
+import com.iofairy.falcon.zip.ArchiveFormat;
+import com.iofairy.lambda.PT3;
+import com.iofairy.rainforest.zip.ac.SuperAC;
+import com.iofairy.rainforest.zip.ac.SuperACs;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 压缩包索引（记录压缩包内的条目树，包括内嵌压缩包的条目），用于重复查询同一个压缩包时跳过不需要的压缩包与条目
+ *
+ * @since 0.6.2
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveIndex {
+    /**
+     * 索引文件的魔数：RFIX
+     */
+    private static final int MAGIC = 0x52464958;
+    /**
+     * 索引文件的版本
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * 压缩包格式
+     */
+    ArchiveFormat format;
+    /**
+     * 压缩包指纹，见 {@link ArchiveIndexCache#fingerprint(File)}
+     */
+    String hash;
+    /**
+     * 压缩包大小
+     */
+    long size;
+    /**
+     * 压缩包最后修改时间（毫秒）
+     */
+    long lastModified;
+    /**
+     * 建立索引时的解压层级
+     */
+    int unzipLevel;
+    /**
+     * 压缩包内的条目
+     */
+    List<IndexEntry> entries;
+
+    public static ArchiveIndex of(ArchiveFormat format, String hash, long size, long lastModified, int unzipLevel, List<IndexEntry> entries) {
+        return new ArchiveIndex(format, hash, size, lastModified, unzipLevel, entries);
+    }
+
+    /**
+     * 条目总数（包括内嵌压缩包中的条目）
+     *
+     * @return 条目总数
+     */
+    public int entryCount() {
+        return count(entries);
+    }
+
+    private static int count(List<IndexEntry> entries) {
+        if (entries == null) return 0;
+        int count = entries.size();
+        for (IndexEntry entry : entries) {
+            count += count(entry.getChildren());
+        }
+        return count;
+    }
+
+    /**
+     * 按 {@link SuperAC#unzip} 的处理逻辑，通过索引预先计算哪些条目会被处理，哪些内嵌压缩包可以跳过<br>
+     * <b>注：过滤器会被调用多次（索引匹配时一次，实际解压时一次），所以过滤器不应有副作用</b>
+     *
+     * @param zipFileName          压缩包文件名
+     * @param unzipLevel           解压层级。-1：无限解压，碰到压缩包就解压；0：只解压<b>当前压缩包</b>，不解压内部压缩包；&gt;=1：对内部压缩包的解压次数
+     * @param unzipFilter          内部压缩包的是否解压的过滤器
+     * @param otherFilter          除压缩包以外的文件是否处理的过滤器
+     * @param beforeUnzipFilter    压缩包解压缩前的Action前的过滤器
+     * @param hasBeforeUnzipAction 是否有解压之前的操作
+     * @param hasOtherAction       是否有非压缩包的处理逻辑
+     * @param superACs             支持哪些类型的压缩/解压处理器
+     * @return 匹配结果
+     * @throws Exception 过滤器可能抛异常
+     */
+    public IndexMatch match(String zipFileName,
+                            int unzipLevel,
+                            PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                            PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                            PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                            boolean hasBeforeUnzipAction,
+                            boolean hasOtherAction,
+                            Map<ArchiveFormat, SuperAC> superACs) throws Exception {
+        IndexMatch indexMatch = new IndexMatch();
+        boolean matched = match(indexMatch, entries, SuperACs.INIT_UNZIP_TIMES, zipFileName == null ? "" : zipFileName, unzipLevel,
+                unzipFilter, otherFilter, beforeUnzipFilter, hasBeforeUnzipAction, hasOtherAction, superACs);
+        return indexMatch.setMatched(matched);
+    }
+
+    private static boolean match(IndexMatch indexMatch,
+                                 List<IndexEntry> entries,
+                                 int unzipTimes,
+                                 String zipFileName,
+                                 int unzipLevel,
+                                 PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter,
+                                 PT3<? super Integer, ? super String, ? super String, Exception> otherFilter,
+                                 PT3<? super Integer, ? super String, ? super String, Exception> beforeUnzipFilter,
+                                 boolean hasBeforeUnzipAction,
+                                 boolean hasOtherAction,
+                                 Map<ArchiveFormat, SuperAC> superACs) throws Exception {
+        if (entries == null) return true;
+
+        boolean matched = false;
+        for (IndexEntry entry : entries) {
+            String entryFileName = entry.getName();
+            if (entry.isDirectory() || SuperACs.hasPathTraversalRisk(entryFileName)) continue;
+
+            boolean entryMatched;
+            if (entry.getFormat() != null && superACs.containsKey(entry.getFormat())) {
+                entryMatched = hasBeforeUnzipAction && beforeUnzipFilter != null && beforeUnzipFilter.$(unzipTimes, zipFileName, entryFileName);
+                if (unzipLevel != 0 && (unzipFilter == null || unzipFilter.$(unzipTimes, zipFileName, entryFileName))) {
+                    int newUnzipLevel = unzipLevel <= 0 ? unzipLevel : unzipLevel - 1;
+                    boolean childrenMatched = match(indexMatch, entry.getChildren(), unzipTimes + 1, entryFileName, newUnzipLevel,
+                            unzipFilter, otherFilter, beforeUnzipFilter, hasBeforeUnzipAction, hasOtherAction, superACs);
+                    indexMatch.putChildrenMatched(unzipTimes, zipFileName, entryFileName, childrenMatched);
+                    entryMatched = entryMatched || childrenMatched;
+                }
+            } else {
+                entryMatched = hasOtherAction && (otherFilter == null || otherFilter.$(unzipTimes, zipFileName, entryFileName));
+            }
+            indexMatch.putEntryMatched(unzipTimes, zipFileName, entryFileName, entryMatched);
+            matched = matched || entryMatched;
+        }
+        return matched;
+    }
+
+    /**
+     * 将索引写入输出流（紧凑的二进制格式，条目部分使用 Deflate 压缩）
+     *
+     * @param os 输出流（不会被关闭）
+     * @throws IOException IOException
+     */
+    public void writeTo(OutputStream os) throws IOException {
+        DataOutputStream headerDos = new DataOutputStream(os);
+        headerDos.writeInt(MAGIC);
+        headerDos.writeShort(VERSION);
+        headerDos.writeUTF(format == null ? "" : format.name());
+        headerDos.writeUTF(hash == null ? "" : hash);
+        headerDos.writeLong(size);
+        headerDos.writeLong(lastModified);
+        headerDos.writeInt(unzipLevel);
+        headerDos.flush();
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            DeflaterOutputStream dos = new DeflaterOutputStream(os, deflater, 8192);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(dos, 8192));
+            writeEntries(out, entries);
+            out.flush();
+            dos.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 从输入流读取索引
+     *
+     * @param is 输入流（不会被关闭）
+     * @return 压缩包索引
+     * @throws IOException 不是索引文件或索引文件版本不支持
+     */
+    public static ArchiveIndex readFrom(InputStream is) throws IOException {
+        DataInputStream headerDis = new DataInputStream(is);
+        if (headerDis.readInt() != MAGIC) throw new IOException("Not an archive index file. ");
+        int version = headerDis.readShort();
+        if (version != VERSION) throw new IOException("Unsupported archive index version: " + version + ". ");
+
+        String formatName = headerDis.readUTF();
+        ArchiveIndex archiveIndex = new ArchiveIndex()
+                .setFormat(formatName.isEmpty() ? null : ArchiveFormat.valueOf(formatName))
+                .setHash(headerDis.readUTF())
+                .setSize(headerDis.readLong())
+                .setLastModified(headerDis.readLong())
+                .setUnzipLevel(headerDis.readInt());
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(is), 8192));
+        return archiveIndex.setEntries(readEntries(in));
+    }
+
+    static void writeEntries(DataOutputStream out, List<IndexEntry> entries) throws IOException {
+        writeVarLong(out, entries == null ? 0 : entries.size() + 1);    // 0 表示 null
+        if (entries == null) return;
+
+        for (IndexEntry entry : entries) {
+            int flags = (entry.isDirectory() ? 1 : 0) | (entry.getFormat() != null ? 2 : 0);
+            out.writeUTF(entry.getName());
+            out.writeByte(flags);
+            writeVarLong(out, entry.getSize() + 1);             // 值未知时为 -1，+1 后变为非负数
+            writeVarLong(out, entry.getCompressedSize() + 1);
+            writeVarLong(out, entry.getCrc() + 1);
+            writeVarLong(out, entry.getOffset() + 1);
+            writeVarLong(out, entry.getLastModified() + 1);
+            if (entry.getFormat() != null) out.writeUTF(entry.getFormat().name());
+            writeEntries(out, entry.getChildren());
+        }
+    }
+
+    static List<IndexEntry> readEntries(DataInputStream in) throws IOException {
+        long count = readVarLong(in);
+        if (count == 0) return null;
+
+        List<IndexEntry> entries = new ArrayList<>((int) Math.min(count - 1, 1024));
+        for (long i = 0; i < count - 1; i++) {
+            IndexEntry entry = IndexEntry.of(in.readUTF(), false);
+            int flags = in.readByte();
+            entry.setDirectory((flags & 1) != 0)
+                    .setSize(readVarLong(in) - 1)
+                    .setCompressedSize(readVarLong(in) - 1)
+                    .setCrc(readVarLong(in) - 1)
+                    .setOffset(readVarLong(in) - 1)
+                    .setLastModified(readVarLong(in) - 1);
+            if ((flags & 2) != 0) entry.setFormat(ArchiveFormat.valueOf(in.readUTF()));
+            entry.setChildren(readEntries(in));
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed archive index file. ");
+    }
+
+    @Override
+    public String toString() {
+        return "ArchiveIndex{" +
+                "format=" + format +
+                ", hash='" + hash + '\'' +
+                ", size=" + size +
+                ", lastModified=" + lastModified +
+                ", unzipLevel=" + unzipLevel +
+                ", entryCount=" + entryCount() +
+                '}';
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.index;
+
+import com.iofairy.falcon.zip.ArchiveFormat;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 压缩包索引的磁盘缓存<br>
+ * 索引文件以 <b>压缩包指纹</b>（压缩包大小、最后修改时间、头尾各 {@value #SAMPLE_SIZE} 字节的 SHA-256）命名，
+ * 压缩包被修改后指纹随之改变，旧的索引自然失效
+ *
+ * @since 0.6.2
+ */
+@Slf4j
+@Getter
+@ToString
+public class ArchiveIndexCache {
+    /**
+     * 计算指纹时，头部与尾部的采样大小
+     */
+    public static final int SAMPLE_SIZE = 64 * 1024;
+    /**
+     * 索引文件后缀名
+     */
+    public static final String INDEX_FILE_EXT = ".rfidx";
+
+    /**
+     * 索引文件存放目录
+     */
+    private final File cacheDir;
+
+    public ArchiveIndexCache(File cacheDir) {
+        checkHasNullNPE(args(cacheDir), args("cacheDir"));
+        checkArgument(cacheDir.exists() && !cacheDir.isDirectory(), "参数`cacheDir`[${…}]必须是目录！", cacheDir.getAbsolutePath());
+        this.cacheDir = cacheDir;
+    }
+
+    public static ArchiveIndexCache of(File cacheDir) {
+        return new ArchiveIndexCache(cacheDir);
+    }
+
+    /**
+     * 获取压缩包的索引
+     *
+     * @param archiveFile 压缩包
+     * @param format      压缩包格式
+     * @return 压缩包的索引，不存在、已失效或格式不一致时返回 {@code null}
+     * @throws IOException IOException
+     */
+    public ArchiveIndex get(File archiveFile, ArchiveFormat format) throws IOException {
+        String hash = fingerprint(archiveFile);
+        File indexFile = indexFile(hash);
+        if (!indexFile.isFile()) return null;
+
+        ArchiveIndex archiveIndex;
+        try (InputStream is = new BufferedInputStream(new FileInputStream(indexFile))) {
+            archiveIndex = ArchiveIndex.readFrom(is);
+        } catch (IOException | IllegalArgumentException e) {
+            // 索引文件损坏或版本不兼容，当作不存在处理，后续会被重建的索引覆盖
+            log.warn("读取压缩包索引文件[{}]失败，将重建索引！", indexFile.getAbsolutePath(), e);
+            return null;
+        }
+
+        boolean isValid = hash.equals(archiveIndex.getHash())
+                && archiveIndex.getSize() == archiveFile.length()
+                && archiveIndex.getLastModified() == archiveFile.lastModified()
+                && (format == null || format == archiveIndex.getFormat());
+        return isValid ? archiveIndex : null;
+    }
+
+    /**
+     * 保存压缩包的索引（先写入临时文件，再替换，避免并发读取到不完整的索引）
+     *
+     * @param archiveIndex 压缩包的索引
+     * @throws IOException IOException
+     */
+    public void put(ArchiveIndex archiveIndex) throws IOException {
+        checkHasNullNPE(args(archiveIndex), args("archiveIndex"));
+        checkHasNullNPE(args(archiveIndex.getHash()), args("archiveIndex.hash"));
+
+        if (!cacheDir.exists()) Files.createDirectories(cacheDir.toPath());
+
+        File indexFile = indexFile(archiveIndex.getHash());
+        File tmpFile = File.createTempFile(archiveIndex.getHash(), ".tmp", cacheDir);
+        try {
+            try (OutputStream os = new BufferedOutputStream(new FileOutputStream(tmpFile))) {
+                archiveIndex.writeTo(os);
+            }
+            try {
+                Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmpFile.toPath());
+        }
+    }
+
+    /**
+     * 删除压缩包的索引
+     *
+     * @param archiveFile 压缩包
+     * @return 删除成功返回 {@code true}
+     * @throws IOException IOException
+     */
+    public boolean remove(File archiveFile) throws IOException {
+        return Files.deleteIfExists(indexFile(fingerprint(archiveFile)).toPath());
+    }
+
+    private File indexFile(String hash) {
+        return new File(cacheDir, hash + INDEX_FILE_EXT);
+    }
+
+    /**
+     * 计算压缩包指纹：SHA-256(文件大小 + 最后修改时间 + 头部{@value #SAMPLE_SIZE}字节 + 尾部{@value #SAMPLE_SIZE}字节)<br>
+     * 只读取头尾的数据，大文件也能快速计算
+     *
+     * @param archiveFile 压缩包
+     * @return 压缩包指纹（十六进制字符串）
+     * @throws IOException IOException
+     */
+    public static String fingerprint(File archiveFile) throws IOException {
+        checkHasNullNPE(args(archiveFile), args("archiveFile"));
+        checkFileNotFound(!archiveFile.isFile(), "文件[${path}]不存在。", archiveFile.getAbsolutePath());
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        try (FileChannel channel = FileChannel.open(archiveFile.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(16);
+            header.putLong(size).putLong(archiveFile.lastModified());
+            digest.update(header.array());
+
+            ByteBuffer sample = ByteBuffer.allocate(SAMPLE_SIZE);
+            readFully(channel, sample, 0);
+            digest.update(sample.array(), 0, sample.position());
+
+            if (size > SAMPLE_SIZE) {
+                sample.clear();
+                readFully(channel, sample, Math.max(SAMPLE_SIZE, size - SAMPLE_SIZE));
+                digest.update(sample.array(), 0, sample.position());
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int read;
+        while (buffer.hasRemaining() && (read = channel.read(buffer, position)) != -1) {
+            position += read;
+        }
+    }
+
+}
@@ -0,0 +1,653 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.index;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * gzip 随机访问索引（zran 方式）<br>
+ * 索引由一系列 <b>访问点</b> 组成：每个访问点记录 deflate 块开头在压缩数据中的比特偏移量、对应的解压后偏移量，以及之前 32KB 的解压数据（窗口）。
+ * 读取任意（解压后的）偏移量时，从最近的访问点开始解压，最多只需要多解压 {@link #getSpan()} 字节，见 {@link #reader(File)}<br>
+ * 索引由 {@link GzipIndexInputStream} 在解压的同时建立；对 tar.gz，还可以同时记录 tar 的文件头（{@link #getEntries()}），
+ * 用于直接定位条目数据，见 {@code SuperTarGzip#gzipIndex}<br>
+ * <b>注：</b>每个访问点需要保存 32KB 的窗口数据，{@code span} 越小，索引越大，读取时多解压的数据越少
+ *
+ * @since 0.6.2
+ */
+public class GzipIndex {
+    /**
+     * 默认的访问点间隔：4MB
+     */
+    public static final long DEFAULT_SPAN = 4L * 1024 * 1024;
+    /**
+     * deflate 的窗口大小
+     */
+    public static final int WINDOW_SIZE = 32768;
+    /**
+     * 索引文件后缀名，默认保存在压缩包旁边：{@code xxx.tar.gz.gzidx}
+     */
+    public static final String INDEX_FILE_EXT = ".gzidx";
+    /**
+     * 索引文件的魔数：RFGI
+     */
+    private static final int MAGIC = 0x52464749;
+    /**
+     * 索引文件的版本
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * 由空的 deflate 块组成的前缀，下标为访问点在字节中的比特位置（1~7），前缀的比特数除以 8 的余数与下标相同
+     */
+    private static final byte[][] PRIMERS = new byte[8][];
+
+    static {
+        for (int bits = 1; bits < 8; bits++) {
+            PrimerWriter writer = new PrimerWriter();
+            int fixedBlocks = bits / 2;
+            if ((bits & 1) == 1) {
+                // 动态 Huffman 空块共 93 比特（93 % 8 == 5），再补 10 比特的固定 Huffman 空块
+                writer.writeDynamicEmptyBlock();
+                fixedBlocks = ((bits - 5) & 7) / 2;
+            }
+            for (int i = 0; i < fixedBlocks; i++) {
+                writer.writeFixedEmptyBlock();
+            }
+            PRIMERS[bits] = writer.toByteArray();
+        }
+    }
+
+    /**
+     * 访问点之间的（解压后的）最小间隔
+     */
+    private final long span;
+    /**
+     * 压缩数据的大小
+     */
+    private final long compressedSize;
+    /**
+     * 解压后的大小
+     */
+    private final long uncompressedSize;
+    /**
+     * 访问点，按解压后的偏移量升序排列
+     */
+    private final List<AccessPoint> points;
+    /**
+     * 压缩包文件的最后修改时间（毫秒），用于判断索引是否失效；不是通过文件建立的索引为 {@link IndexEntry#UNKNOWN}
+     */
+    private long lastModified = IndexEntry.UNKNOWN;
+    /**
+     * tar 文件头映射（条目的 {@link IndexEntry#offset} 为条目数据在解压后的 tar 流中的偏移量），不是 tar.gz 时为 {@code null}
+     */
+    private List<IndexEntry> entries;
+
+    GzipIndex(long span, long compressedSize, long uncompressedSize, List<AccessPoint> points) {
+        this.span = span;
+        this.compressedSize = compressedSize;
+        this.uncompressedSize = uncompressedSize;
+        this.points = Collections.unmodifiableList(points);
+    }
+
+    /**
+     * 访问点
+     */
+    public static final class AccessPoint {
+        /**
+         * 解压后的偏移量
+         */
+        final long out;
+        /**
+         * deflate 块开头在压缩数据中的比特偏移量
+         */
+        final long bitOffset;
+        /**
+         * 是否是 gzip 成员的开头（不需要窗口数据）
+         */
+        final boolean memberStart;
+        /**
+         * 访问点之前的解压数据（最多 {@link #WINDOW_SIZE} 字节）
+         */
+        final byte[] window;
+
+        AccessPoint(long out, long bitOffset, boolean memberStart, byte[] window) {
+            this.out = out;
+            this.bitOffset = bitOffset;
+            this.memberStart = memberStart;
+            this.window = window;
+        }
+
+        public long getOut() {
+            return out;
+        }
+
+        public long getBitOffset() {
+            return bitOffset;
+        }
+
+        public boolean isMemberStart() {
+            return memberStart;
+        }
+    }
+
+    /**
+     * 解压整个 gzip 文件，建立索引
+     *
+     * @param gzipFile gzip 文件
+     * @param span     访问点之间的（解压后的）最小间隔
+     * @return gzip 索引
+     * @throws IOException IOException
+     */
+    public static GzipIndex build(File gzipFile, long span) throws IOException {
+        checkHasNullNPE(args(gzipFile), args("gzipFile"));
+        checkFileNotFound(!gzipFile.isFile(), "文件[${path}]不存在。", gzipFile.getAbsolutePath());
+
+        long lastModified = gzipFile.lastModified();
+        try (GzipIndexInputStream gis = new GzipIndexInputStream(new FileInputStream(gzipFile), span)) {
+            return build(gis).setLastModified(lastModified);
+        }
+    }
+
+    /**
+     * 读取剩余的数据，返回建立的索引（输入流不会被关闭）
+     *
+     * @param gis 建立索引的输入流
+     * @return gzip 索引
+     * @throws IOException IOException
+     */
+    public static GzipIndex build(GzipIndexInputStream gis) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        while (gis.read(buffer, 0, buffer.length) != -1) {
+            // 读取剩余的数据
+        }
+        return gis.getIndex();
+    }
+
+    /**
+     * 压缩包对应的默认索引文件（与压缩包在同一目录）
+     *
+     * @param archiveFile 压缩包
+     * @return 索引文件
+     */
+    public static File indexFileOf(File archiveFile) {
+        return new File(archiveFile.getAbsolutePath() + INDEX_FILE_EXT);
+    }
+
+    /**
+     * 索引是否与压缩包文件一致（大小与最后修改时间都相同）
+     *
+     * @param archiveFile 压缩包
+     * @return 一致返回 {@code true}
+     */
+    public boolean isValidFor(File archiveFile) {
+        return archiveFile.isFile() && archiveFile.length() == compressedSize && archiveFile.lastModified() == lastModified;
+    }
+
+    public long getSpan() {
+        return span;
+    }
+
+    public long getCompressedSize() {
+        return compressedSize;
+    }
+
+    public long getUncompressedSize() {
+        return uncompressedSize;
+    }
+
+    public List<AccessPoint> getPoints() {
+        return points;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public GzipIndex setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+        return this;
+    }
+
+    public List<IndexEntry> getEntries() {
+        return entries;
+    }
+
+    public GzipIndex setEntries(List<IndexEntry> entries) {
+        this.entries = entries;
+        return this;
+    }
+
+    /**
+     * 小于等于 {@code offset} 的最后一个访问点
+     */
+    int pointIndex(long offset) {
+        int low = 0, high = points.size() - 1, index = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (points.get(mid).out <= offset) {
+                index = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 保存索引到文件（先写入临时文件，再替换）
+     *
+     * @param indexFile 索引文件
+     * @throws IOException IOException
+     */
+    public void save(File indexFile) throws IOException {
+        checkHasNullNPE(args(indexFile), args("indexFile"));
+
+        File dir = indexFile.getAbsoluteFile().getParentFile();
+        if (!dir.exists()) Files.createDirectories(dir.toPath());
+        File tmpFile = File.createTempFile(indexFile.getName(), ".tmp", dir);
+        try {
+            try (OutputStream os = new BufferedOutputStream(new FileOutputStream(tmpFile))) {
+                writeTo(os);
+            }
+            try {
+                Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmpFile.toPath());
+        }
+    }
+
+    /**
+     * 从文件加载索引
+     *
+     * @param indexFile 索引文件
+     * @return gzip 索引
+     * @throws IOException 不是索引文件或索引文件版本不支持
+     */
+    public static GzipIndex load(File indexFile) throws IOException {
+        checkHasNullNPE(args(indexFile), args("indexFile"));
+        checkFileNotFound(!indexFile.isFile(), "文件[${path}]不存在。", indexFile.getAbsolutePath());
+
+        try (InputStream is = new BufferedInputStream(new FileInputStream(indexFile))) {
+            return readFrom(is);
+        }
+    }
+
+    /**
+     * 将索引写入输出流（窗口数据使用 Deflate 压缩）
+     *
+     * @param os 输出流（不会被关闭）
+     * @throws IOException IOException
+     */
+    public void writeTo(OutputStream os) throws IOException {
+        DataOutputStream headerDos = new DataOutputStream(os);
+        headerDos.writeInt(MAGIC);
+        headerDos.writeShort(VERSION);
+        headerDos.writeLong(span);
+        headerDos.writeLong(compressedSize);
+        headerDos.writeLong(uncompressedSize);
+        headerDos.writeLong(lastModified);
+        headerDos.flush();
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            DeflaterOutputStream dos = new DeflaterOutputStream(os, deflater, 8192);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(dos, 8192));
+            ArchiveIndex.writeVarLong(out, points.size());
+            for (AccessPoint point : points) {
+                ArchiveIndex.writeVarLong(out, point.out);
+                ArchiveIndex.writeVarLong(out, point.bitOffset);
+                out.writeBoolean(point.memberStart);
+                ArchiveIndex.writeVarLong(out, point.window.length);
+                out.write(point.window);
+            }
+            ArchiveIndex.writeEntries(out, entries);
+            out.flush();
+            dos.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 从输入流读取索引
+     *
+     * @param is 输入流（不会被关闭）
+     * @return gzip 索引
+     * @throws IOException 不是索引文件或索引文件版本不支持
+     */
+    public static GzipIndex readFrom(InputStream is) throws IOException {
+        DataInputStream headerDis = new DataInputStream(is);
+        if (headerDis.readInt() != MAGIC) throw new IOException("Not a gzip index file. ");
+        int version = headerDis.readShort();
+        if (version != VERSION) throw new IOException("Unsupported gzip index version: " + version + ". ");
+
+        long span = headerDis.readLong();
+        long compressedSize = headerDis.readLong();
+        long uncompressedSize = headerDis.readLong();
+        long lastModified = headerDis.readLong();
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(is), 8192));
+        int count = (int) ArchiveIndex.readVarLong(in);
+        List<AccessPoint> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long out = ArchiveIndex.readVarLong(in);
+            long bitOffset = ArchiveIndex.readVarLong(in);
+            boolean memberStart = in.readBoolean();
+            int windowLength = (int) ArchiveIndex.readVarLong(in);
+            if (windowLength > WINDOW_SIZE) throw new IOException("Malformed gzip index file. ");
+            byte[] window = new byte[windowLength];
+            in.readFully(window);
+            points.add(new AccessPoint(out, bitOffset, memberStart, window));
+        }
+        return new GzipIndex(span, compressedSize, uncompressedSize, points)
+                .setLastModified(lastModified)
+                .setEntries(ArchiveIndex.readEntries(in));
+    }
+
+    /**
+     * 创建随机读取器
+     *
+     * @param gzipFile gzip 文件
+     * @return 随机读取器（需要关闭）
+     * @throws IOException IOException
+     */
+    public Reader reader(File gzipFile) throws IOException {
+        checkHasNullNPE(args(gzipFile), args("gzipFile"));
+        return new Reader(this, Files.newByteChannel(gzipFile.toPath(), StandardOpenOption.READ));
+    }
+
+    /**
+     * 创建随机读取器
+     *
+     * @param channel gzip 数据的通道（读取器关闭时会关闭此通道）
+     * @return 随机读取器（需要关闭）
+     */
+    public Reader reader(SeekableByteChannel channel) {
+        checkHasNullNPE(args(channel), args("channel"));
+        return new Reader(this, channel);
+    }
+
+    /**
+     * gzip 随机读取器：从最近的访问点开始解压（{@link Inflater} + 窗口数据作为预设字典）。
+     * {@link Inflater} 不支持从字节中间开始解压（没有 zlib 的 {@code inflatePrime}），所以访问点不在字节边界时，
+     * 在前面补上若干个空的 deflate 块，使补充的比特数与访问点在字节中的比特位置相同，后续的压缩数据不需要移位，stored 块的字节对齐也保持不变<br>
+     * 按偏移量升序读取时，如果两次读取之间没有更近的访问点，则继续向后解压，不会重新定位
+     */
+    public static final class Reader implements Closeable {
+        private final GzipIndex index;
+        private final SeekableByteChannel channel;
+        private final Inflater inflater = new Inflater(true);
+        private final byte[] input = new byte[64 * 1024];
+        private final byte[] skipBuffer = new byte[8192];
+
+        /**
+         * 当前解压起点的访问点下标，-1表示未开始或已到末尾
+         */
+        private int pointIndex = -1;
+        /**
+         * 下一个读取的字节在解压数据中的偏移量
+         */
+        private long pos;
+
+        private Reader(GzipIndex index, SeekableByteChannel channel) {
+            this.index = index;
+            this.channel = channel;
+        }
+
+        /**
+         * 打开从 {@code offset} 开始、最多 {@code length} 字节的输入流。关闭返回的流不会关闭读取器；
+         * 再次调用 {@link #open} 或 {@link #seek} 后，之前返回的流不可再使用
+         *
+         * @param offset 解压后的偏移量
+         * @param length 最多读取的字节数
+         * @return 输入流
+         * @throws IOException IOException
+         */
+        public InputStream open(long offset, long length) throws IOException {
+            checkArgument(length < 0, "参数`length`不能小于0！");
+            seek(offset);
+            return new BoundedInputStream(length);
+        }
+
+        /**
+         * 定位到（解压后的）偏移量
+         *
+         * @param offset 解压后的偏移量
+         * @throws IOException IOException
+         */
+        public void seek(long offset) throws IOException {
+            checkArgument(offset < 0, "参数`offset`不能小于0！");
+            if (index.points.isEmpty()) return;
+
+            int target = index.pointIndex(offset);
+            if (pointIndex < 0 || pos > offset || index.points.get(target).out > pos) restart(target);
+
+            long remaining = offset - pos;
+            while (remaining > 0) {
+                int n = read(skipBuffer, 0, (int) Math.min(skipBuffer.length, remaining));
+                if (n == -1) return;
+                remaining -= n;
+            }
+        }
+
+        /**
+         * 下一个读取的字节在解压数据中的偏移量
+         *
+         * @return 偏移量
+         */
+        public long position() {
+            return pos;
+        }
+
+        private void restart(int i) throws IOException {
+            AccessPoint point = index.points.get(i);
+            channel.position(point.bitOffset >>> 3);
+            inflater.reset();
+            if (point.window.length > 0) inflater.setDictionary(point.window);
+
+            int bits = (int) (point.bitOffset & 7);
+            if (bits != 0) {
+                // 访问点所在字节的低 bits 位属于上一个 deflate 块，替换成空块的最后几位
+                if (readRaw(input, 1) < 0) throw new EOFException("Unexpected end of gzip stream. ");
+                byte[] primer = PRIMERS[bits].clone();
+                primer[primer.length - 1] |= (byte) (input[0] & (0xFF << bits));
+                inflater.setInput(primer);
+            }
+            pos = point.out;
+            pointIndex = i;
+        }
+
+        int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            while (pointIndex >= 0) {
+                int n;
+                try {
+                    n = inflater.inflate(b, off, len);
+                } catch (DataFormatException e) {
+                    throw new IOException(e);
+                }
+                if (n > 0) {
+                    pos += n;
+                    return n;
+                }
+                if (inflater.finished()) {
+                    // 当前 gzip 成员结束，从下一个成员的开头继续
+                    int next = nextMemberStart(pointIndex);
+                    if (next < 0) {
+                        pointIndex = -1;
+                        break;
+                    }
+                    restart(next);
+                } else if (inflater.needsInput()) {
+                    int m = readRaw(input, input.length);
+                    if (m < 0) throw new EOFException("Unexpected end of gzip stream. ");
+                    inflater.setInput(input, 0, m);
+                } else if (inflater.needsDictionary()) {
+                    throw new IOException("Unexpected preset dictionary in gzip stream. ");
+                }
+            }
+            return -1;
+        }
+
+        private int nextMemberStart(int i) {
+            for (int j = i + 1; j < index.points.size(); j++) {
+                if (index.points.get(j).memberStart) return j;
+            }
+            return -1;
+        }
+
+        private int readRaw(byte[] buffer, int length) throws IOException {
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, length);
+            int n;
+            do {
+                n = channel.read(byteBuffer);
+            } while (n == 0);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            channel.close();
+        }
+
+        private final class BoundedInputStream extends InputStream {
+            private long remaining;
+
+            BoundedInputStream(long remaining) {
+                this.remaining = remaining;
+            }
+
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                int n = read(b, 0, 1);
+                return n == -1 ? -1 : b[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (remaining <= 0) return -1;
+                int n = Reader.this.read(b, off, (int) Math.min(len, remaining));
+                if (n > 0) remaining -= n;
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = 0;
+                while (skipped < n) {
+                    int m = read(skipBuffer, 0, (int) Math.min(skipBuffer.length, n - skipped));
+                    if (m == -1) break;
+                    skipped += m;
+                }
+                return skipped;
+            }
+
+            @Override
+            public void close() {
+                // 不关闭读取器
+            }
+        }
+    }
+
+    /**
+     * 写入空的 deflate 块（比特按低位在前的顺序写入）
+     */
+    private static final class PrimerWriter {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private int buffer;
+        private int count;
+
+        private void writeBits(int value, int n) {
+            for (int i = 0; i < n; i++) {
+                buffer |= ((value >>> i) & 1) << count;
+                if (++count == 8) {
+                    bytes.write(buffer);
+                    buffer = 0;
+                    count = 0;
+                }
+            }
+        }
+
+        /**
+         * 非最后一块、固定 Huffman、只有块结束符（256，7 比特的 0），共 10 比特
+         */
+        void writeFixedEmptyBlock() {
+            writeBits(0, 1);
+            writeBits(1, 2);
+            writeBits(0, 7);
+        }
+
+        /**
+         * 非最后一块、动态 Huffman、只有块结束符，共 93 比特<br>
+         * 码长码：0 -&gt; "0"，1 -&gt; "10"，18 -&gt; "11"；字面量/长度码只有 256（码长 1），距离码为空
+         */
+        void writeDynamicEmptyBlock() {
+            writeBits(0, 1);
+            writeBits(2, 2);
+            writeBits(0, 5);                    // HLIT：257
+            writeBits(0, 5);                    // HDIST：1
+            writeBits(18 - 4, 4);               // HCLEN：18
+            // 码长码的码长，顺序：16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1
+            int[] lengths = {0, 0, 2, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 2};
+            for (int length : lengths) {
+                writeBits(length, 3);
+            }
+            writeBits(3, 2);                    // 18："11"，重复 0 共 138 次
+            writeBits(138 - 11, 7);
+            writeBits(3, 2);                    // 18："11"，重复 0 共 118 次
+            writeBits(118 - 11, 7);
+            writeBits(1, 2);                    // 1："10"，256 的码长为 1（Huffman 码从高位开始写入）
+            writeBits(0, 1);                    // 0："0"，唯一的距离码的码长为 0
+            writeBits(0, 1);                    // 块结束符 256："0"
+        }
+
+        byte[] toByteArray() {
+            if (count > 0) bytes.write(buffer);
+            return bytes.toByteArray();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GzipIndex{" +
+                "span=" + span +
+                ", compressedSize=" + compressedSize +
+                ", uncompressedSize=" + uncompressedSize +
+                ", points=" + points.size() +
+                ", lastModified=" + lastModified +
+                ", entries=" + (entries == null ? null : entries.size()) +
+                '}';
+    }
+}
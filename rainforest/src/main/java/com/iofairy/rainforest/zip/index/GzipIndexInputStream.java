@@ -0,0 +1,487 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.index;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static com.iofairy.validator.Preconditions.*;
+
+/**
+ * 解压 gzip 流的同时建立 {@link GzipIndex}（zran 方式的访问点）<br>
+ * {@link java.util.zip.Inflater} 不会暴露 deflate 块的边界，所以这里使用纯 Java 实现的 inflate：
+ * 每输出约 {@code span} 字节后，在下一个 deflate 块的开头记录一个访问点（压缩数据的比特偏移量 + 之前 32KB 的解压数据）。
+ * 支持多成员（concatenated）的 gzip，每个成员的开头也会记录一个不需要窗口数据的访问点<br>
+ * 可以在正常读取（如：解压 tar）的过程中顺便建立索引，读取完毕后调用 {@link #getIndex()}
+ *
+ * @since 0.6.2
+ */
+public class GzipIndexInputStream extends InputStream {
+    private static final int WINDOW_SIZE = GzipIndex.WINDOW_SIZE;
+    private static final int WINDOW_MASK = WINDOW_SIZE - 1;
+    /**
+     * 未被读取的解压数据的上限（留出一个最长匹配的空间，保证不会覆盖未被读取的数据）
+     */
+    private static final int MAX_PENDING = WINDOW_SIZE - 258;
+
+    private static final int[] LENGTH_BASE = {3, 4, 5, 6, 7, 8, 9, 10, 11, 13, 15, 17, 19, 23, 27, 31, 35, 43, 51, 59, 67, 83, 99, 115, 131, 163, 195, 227, 258};
+    private static final int[] LENGTH_EXTRA = {0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 0};
+    private static final int[] DISTANCE_BASE = {1, 2, 3, 4, 5, 7, 9, 13, 17, 25, 33, 49, 65, 97, 129, 193, 257, 385, 513, 769,
+            1025, 1537, 2049, 3073, 4097, 6145, 8193, 12289, 16385, 24577};
+    private static final int[] DISTANCE_EXTRA = {0, 0, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6, 7, 7, 8, 8, 9, 9, 10, 10, 11, 11, 12, 12, 13, 13};
+    private static final int[] CODE_LENGTH_ORDER = {16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1, 15};
+
+    private static final Huffman FIXED_LITERALS;
+    private static final Huffman FIXED_DISTANCES;
+
+    static {
+        int[] lengths = new int[288];
+        Arrays.fill(lengths, 0, 144, 8);
+        Arrays.fill(lengths, 144, 256, 9);
+        Arrays.fill(lengths, 256, 280, 7);
+        Arrays.fill(lengths, 280, 288, 8);
+        int[] distances = new int[30];
+        Arrays.fill(distances, 5);
+        try {
+            FIXED_LITERALS = Huffman.of(lengths, lengths.length);
+            FIXED_DISTANCES = Huffman.of(distances, distances.length);
+        } catch (IOException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final int STATE_HEADER = 0;
+    private static final int STATE_BLOCK = 1;
+    private static final int STATE_STORED = 2;
+    private static final int STATE_HUFFMAN = 3;
+    private static final int STATE_DONE = 4;
+
+    private final InputStream in;
+    private final long span;
+
+    private final byte[] inBuffer = new byte[64 * 1024];
+    private int inPos;
+    private int inLength;
+    /**
+     * 已经放入比特缓冲区的压缩数据字节数
+     */
+    private long inBytes;
+    private long bitBuffer;
+    private int bitCount;
+
+    private final byte[] window = new byte[WINDOW_SIZE];
+    /**
+     * 已解压的字节数
+     */
+    private long out;
+    /**
+     * 已被读取的字节数
+     */
+    private long delivered;
+    /**
+     * 当前 gzip 成员开始时的 {@link #out}
+     */
+    private long memberOut;
+    private final CRC32 crc32 = new CRC32();
+    private long crcPos;
+
+    private int state = STATE_HEADER;
+    private boolean lastBlock;
+    private int storedRemaining;
+    private Huffman literals;
+    private Huffman distances;
+    private int members;
+
+    private final List<GzipIndex.AccessPoint> points = new ArrayList<>();
+    private long lastPointOut;
+
+    public GzipIndexInputStream(InputStream in) {
+        this(in, GzipIndex.DEFAULT_SPAN);
+    }
+
+    /**
+     * @param in   gzip 压缩数据输入流
+     * @param span 访问点之间的（解压后的）最小间隔
+     */
+    public GzipIndexInputStream(InputStream in, long span) {
+        checkHasNullNPE(args(in), args("in"));
+        checkArgument(span <= 0, "参数`span`必须大于0！");
+        this.in = in;
+        this.span = span;
+    }
+
+    /**
+     * 获取已读取部分的索引，应在读取到流的末尾之后调用
+     *
+     * @return gzip 索引
+     */
+    public GzipIndex getIndex() {
+        return new GzipIndex(span, inBytes - (bitCount >>> 3), out, new ArrayList<>(points));
+    }
+
+    /**
+     * 是否已经读取到流的末尾
+     *
+     * @return 读取到流的末尾返回 {@code true}
+     */
+    public boolean isFinished() {
+        return state == STATE_DONE && delivered == out;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n = read(b, 0, 1);
+        return n == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        while (out == delivered) {
+            if (state == STATE_DONE) return -1;
+            fill();
+        }
+        int pos = (int) (delivered & WINDOW_MASK);
+        int n = (int) Math.min(len, Math.min(out - delivered, WINDOW_SIZE - pos));
+        System.arraycopy(window, pos, b, off, n);
+        delivered += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return (int) (out - delivered);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void fill() throws IOException {
+        while (out - delivered < MAX_PENDING && state != STATE_DONE) {
+            switch (state) {
+                case STATE_HEADER:
+                    if (!readGzipHeader()) {
+                        state = STATE_DONE;
+                        break;
+                    }
+                    members++;
+                    memberOut = out;
+                    crc32.reset();
+                    crcPos = out;
+                    addPoint(true);
+                    state = STATE_BLOCK;
+                    break;
+                case STATE_BLOCK:
+                    if (lastBlock) {
+                        finishMember();
+                        lastBlock = false;
+                        state = STATE_HEADER;
+                        break;
+                    }
+                    // 访问点只能在 deflate 块的边界处
+                    if (out - lastPointOut >= span) addPoint(false);
+                    readBlockHeader();
+                    break;
+                case STATE_STORED:
+                    inflateStored();
+                    break;
+                case STATE_HUFFMAN:
+                    inflateHuffman();
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+        updateCrc();
+    }
+
+    private boolean readGzipHeader() throws IOException {
+        refillBits();
+        if (bitCount == 0) {
+            if (members == 0) throw new EOFException("Empty gzip stream. ");
+            return false;
+        }
+        if (bits(8) != 0x1F || bits(8) != 0x8B) throw new IOException("Input is not in the .gz format. ");
+        if (bits(8) != 8) throw new IOException("Unsupported compression method in gzip header. ");
+        int flags = bits(8);
+        skipBytes(6);                                   // MTIME(4) + XFL(1) + OS(1)
+        if ((flags & 0x04) != 0) skipBytes(bits(16));   // FEXTRA
+        if ((flags & 0x08) != 0) skipZeroTerminated();  // FNAME
+        if ((flags & 0x10) != 0) skipZeroTerminated();  // FCOMMENT
+        if ((flags & 0x02) != 0) skipBytes(2);          // FHCRC
+        return true;
+    }
+
+    private void finishMember() throws IOException {
+        updateCrc();
+        bits(bitCount & 7);                             // 跳到字节边界
+        long crc = bits(16) | ((long) bits(16) << 16);
+        long isize = bits(16) | ((long) bits(16) << 16);
+        if (crc != crc32.getValue()) throw new IOException("Gzip CRC32 mismatch. ");
+        if (isize != ((out - memberOut) & 0xFFFFFFFFL)) throw new IOException("Gzip ISIZE mismatch. ");
+    }
+
+    private void readBlockHeader() throws IOException {
+        lastBlock = bits(1) == 1;
+        int type = bits(2);
+        switch (type) {
+            case 0:
+                bits(bitCount & 7);
+                int length = bits(16);
+                int nlength = bits(16);
+                if (length != (~nlength & 0xFFFF)) throw new IOException("Invalid stored block lengths. ");
+                storedRemaining = length;
+                state = STATE_STORED;
+                break;
+            case 1:
+                literals = FIXED_LITERALS;
+                distances = FIXED_DISTANCES;
+                state = STATE_HUFFMAN;
+                break;
+            case 2:
+                readDynamicTables();
+                state = STATE_HUFFMAN;
+                break;
+            default:
+                throw new IOException("Invalid deflate block type. ");
+        }
+    }
+
+    private void readDynamicTables() throws IOException {
+        int literalCount = bits(5) + 257;
+        int distanceCount = bits(5) + 1;
+        int codeLengthCount = bits(4) + 4;
+        if (literalCount > 286 || distanceCount > 30) throw new IOException("Too many length or distance symbols. ");
+
+        int[] codeLengths = new int[19];
+        for (int i = 0; i < codeLengthCount; i++) {
+            codeLengths[CODE_LENGTH_ORDER[i]] = bits(3);
+        }
+        Huffman codeLengthHuffman = Huffman.of(codeLengths, 19);
+
+        int total = literalCount + distanceCount;
+        int[] lengths = new int[total];
+        int i = 0;
+        while (i < total) {
+            int symbol = decode(codeLengthHuffman);
+            if (symbol < 16) {
+                lengths[i++] = symbol;
+                continue;
+            }
+            int value = 0;
+            int repeat;
+            if (symbol == 16) {
+                if (i == 0) throw new IOException("Invalid bit length repeat. ");
+                value = lengths[i - 1];
+                repeat = 3 + bits(2);
+            } else if (symbol == 17) {
+                repeat = 3 + bits(3);
+            } else {
+                repeat = 11 + bits(7);
+            }
+            if (i + repeat > total) throw new IOException("Invalid bit length repeat. ");
+            Arrays.fill(lengths, i, i + repeat, value);
+            i += repeat;
+        }
+        if (lengths[256] == 0) throw new IOException("Missing end-of-block code. ");
+
+        literals = Huffman.of(Arrays.copyOfRange(lengths, 0, literalCount), literalCount);
+        distances = Huffman.of(Arrays.copyOfRange(lengths, literalCount, total), distanceCount);
+    }
+
+    private void inflateStored() throws IOException {
+        while (storedRemaining > 0 && out - delivered < MAX_PENDING) {
+            if (bitCount >= 8) {
+                window[(int) (out++ & WINDOW_MASK)] = (byte) bitBuffer;
+                bitBuffer >>>= 8;
+                bitCount -= 8;
+                storedRemaining--;
+                continue;
+            }
+            if (inPos == inLength && !readInput()) throw new EOFException("Unexpected end of gzip stream. ");
+            int pos = (int) (out & WINDOW_MASK);
+            int n = Math.min(Math.min(storedRemaining, inLength - inPos), Math.min(WINDOW_SIZE - pos, MAX_PENDING - (int) (out - delivered)));
+            System.arraycopy(inBuffer, inPos, window, pos, n);
+            inPos += n;
+            inBytes += n;
+            out += n;
+            storedRemaining -= n;
+        }
+        if (storedRemaining == 0) state = STATE_BLOCK;
+    }
+
+    private void inflateHuffman() throws IOException {
+        while (out - delivered < MAX_PENDING) {
+            int symbol = decode(literals);
+            if (symbol < 256) {
+                window[(int) (out++ & WINDOW_MASK)] = (byte) symbol;
+            } else if (symbol == 256) {
+                state = STATE_BLOCK;
+                return;
+            } else {
+                symbol -= 257;
+                if (symbol >= 29) throw new IOException("Invalid literal/length code. ");
+                int length = LENGTH_BASE[symbol] + bits(LENGTH_EXTRA[symbol]);
+                int distanceSymbol = decode(distances);
+                if (distanceSymbol >= 30) throw new IOException("Invalid distance code. ");
+                int distance = DISTANCE_BASE[distanceSymbol] + bits(DISTANCE_EXTRA[distanceSymbol]);
+                if (distance > out - memberOut) throw new IOException("Invalid distance too far back. ");
+                for (int i = 0; i < length; i++, out++) {
+                    window[(int) (out & WINDOW_MASK)] = window[(int) ((out - distance) & WINDOW_MASK)];
+                }
+            }
+        }
+    }
+
+    private void addPoint(boolean memberStart) {
+        long bitOffset = (inBytes << 3) - bitCount;
+        byte[] snapshot = new byte[memberStart ? 0 : (int) Math.min(WINDOW_SIZE, out - memberOut)];
+        for (int i = 0; i < snapshot.length; ) {
+            int pos = (int) ((out - snapshot.length + i) & WINDOW_MASK);
+            int n = Math.min(snapshot.length - i, WINDOW_SIZE - pos);
+            System.arraycopy(window, pos, snapshot, i, n);
+            i += n;
+        }
+        points.add(new GzipIndex.AccessPoint(out, bitOffset, memberStart, snapshot));
+        lastPointOut = out;
+    }
+
+    private void updateCrc() {
+        while (crcPos < out) {
+            int pos = (int) (crcPos & WINDOW_MASK);
+            int n = (int) Math.min(out - crcPos, WINDOW_SIZE - pos);
+            crc32.update(window, pos, n);
+            crcPos += n;
+        }
+    }
+
+    private int decode(Huffman huffman) throws IOException {
+        if (bitCount < huffman.maxLength) refillBits();
+        int entry = huffman.table[(int) (bitBuffer & huffman.mask)];
+        int length = entry & 0xF;
+        if (length == 0) throw new IOException("Invalid Huffman code. ");
+        if (length > bitCount) throw new EOFException("Unexpected end of gzip stream. ");
+        bitBuffer >>>= length;
+        bitCount -= length;
+        return entry >>> 4;
+    }
+
+    private int bits(int n) throws IOException {
+        if (n == 0) return 0;
+        if (bitCount < n) {
+            refillBits();
+            if (bitCount < n) throw new EOFException("Unexpected end of gzip stream. ");
+        }
+        int value = (int) (bitBuffer & ((1L << n) - 1));
+        bitBuffer >>>= n;
+        bitCount -= n;
+        return value;
+    }
+
+    private void refillBits() throws IOException {
+        while (bitCount <= 56) {
+            if (inPos == inLength && !readInput()) return;
+            bitBuffer |= (long) (inBuffer[inPos++] & 0xFF) << bitCount;
+            bitCount += 8;
+            inBytes++;
+        }
+    }
+
+    private boolean readInput() throws IOException {
+        int n;
+        do {
+            n = in.read(inBuffer, 0, inBuffer.length);
+        } while (n == 0);
+        if (n < 0) return false;
+        inPos = 0;
+        inLength = n;
+        return true;
+    }
+
+    private void skipBytes(int n) throws IOException {
+        for (int i = 0; i < n; i++) {
+            bits(8);
+        }
+    }
+
+    private void skipZeroTerminated() throws IOException {
+        while (bits(8) != 0) {
+            // 跳过以 0 结尾的字符串
+        }
+    }
+
+    /**
+     * 规范 Huffman 编码的查找表（以低位在前的比特序为下标）
+     */
+    private static final class Huffman {
+        /**
+         * 表项：{@code symbol << 4 | length}，length 为 0 表示无效的编码
+         */
+        final int[] table;
+        final int maxLength;
+        final int mask;
+
+        private Huffman(int[] table, int maxLength) {
+            this.table = table;
+            this.maxLength = maxLength;
+            this.mask = table.length - 1;
+        }
+
+        static Huffman of(int[] lengths, int n) throws IOException {
+            int[] count = new int[16];
+            int maxLength = 0;
+            for (int i = 0; i < n; i++) {
+                count[lengths[i]]++;
+                maxLength = Math.max(maxLength, lengths[i]);
+            }
+            count[0] = 0;
+
+            int left = 1;
+            for (int len = 1; len <= 15; len++) {
+                left <<= 1;
+                left -= count[len];
+                if (left < 0) throw new IOException("Over-subscribed Huffman code. ");
+            }
+
+            int[] nextCode = new int[16];
+            int code = 0;
+            for (int len = 1; len <= 15; len++) {
+                code = (code + count[len - 1]) << 1;
+                nextCode[len] = code;
+            }
+
+            maxLength = Math.max(maxLength, 1);
+            int[] table = new int[1 << maxLength];
+            for (int symbol = 0; symbol < n; symbol++) {
+                int len = lengths[symbol];
+                if (len == 0) continue;
+                int reversed = Integer.reverse(nextCode[len]++) >>> (32 - len);
+                for (int i = reversed; i < table.length; i += 1 << len) {
+                    table[i] = symbol << 4 | len;
+                }
+            }
+            return new Huffman(table, maxLength);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.index;
+
+import com.iofairy.falcon.zip.ArchiveFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+/**
+ * 压缩包索引中的条目（树形结构，内嵌压缩包的条目存放于 {@link #children}）
+ *
+ * @since 0.6.2
+ */
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexEntry {
+    /**
+     * 值未知时的默认值
+     */
+    public static final long UNKNOWN = -1;
+
+    /**
+     * 条目名称（在父压缩包中的完整路径）
+     */
+    String name;
+    /**
+     * 是否是目录
+     */
+    boolean isDirectory;
+    /**
+     * 解压后的大小，未知时为 {@link #UNKNOWN}
+     */
+    long size = UNKNOWN;
+    /**
+     * 压缩后的大小，未知时为 {@link #UNKNOWN}
+     */
+    long compressedSize = UNKNOWN;
+    /**
+     * CRC32 校验值，未知时为 {@link #UNKNOWN}
+     */
+    long crc = UNKNOWN;
+    /**
+     * 条目在父压缩包中的偏移量，未知时为 {@link #UNKNOWN}。<br>
+     * ZIP：本地文件头（local file header）的偏移量；TAR：条目数据在（解压后的）tar流中的偏移量
+     */
+    long offset = UNKNOWN;
+    /**
+     * 最后修改时间（毫秒），未知时为 {@link #UNKNOWN}
+     */
+    long lastModified = UNKNOWN;
+    /**
+     * 条目本身是压缩包时，对应的压缩包格式，否则为 {@code null}
+     */
+    ArchiveFormat format;
+    /**
+     * 内嵌压缩包的条目。为 {@code null} 表示该压缩包未被索引（不是压缩包，或超出了索引时的解压层级）
+     */
+    List<IndexEntry> children;
+
+    public static IndexEntry of(final String name, final boolean isDirectory) {
+        return new IndexEntry().setName(name).setDirectory(isDirectory);
+    }
+
+    /**
+     * 是否是已被索引的内嵌压缩包
+     *
+     * @return 已被索引的内嵌压缩包返回 {@code true}
+     */
+    public boolean isIndexedArchive() {
+        return format != null && children != null;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexEntry{" +
+                "name='" + name + '\'' +
+                ", isDirectory=" + isDirectory +
+                ", size=" + size +
+                ", format=" + format +
+                (children == null ? "" : ", children=" + children.size()) +
+                '}';
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2021 iofairy, <https://github.com/iofairy/rainforest>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iofairy.rainforest.zip.index;
+
+import com.iofairy.lambda.PT3;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 压缩包索引与过滤器的匹配结果，见 {@link ArchiveIndex#match}<br>
+ * 条目通过 <b>(压缩包的第几层, 父压缩包的文件名，当前内部文件的名称)</b> 定位，与过滤器的参数一致。
+ * 不同位置出现相同的定位时，只要有一个匹配，则视为匹配
+ *
+ * @since 0.6.2
+ */
+public class IndexMatch {
+    /**
+     * 是否有条目会被处理
+     */
+    private boolean matched;
+    /**
+     * 条目是否会被处理
+     */
+    private final Map<String, Boolean> entryMatches = new HashMap<>();
+    /**
+     * 内嵌压缩包中是否有条目会被处理
+     */
+    private final Map<String, Boolean> childrenMatches = new HashMap<>();
+
+    IndexMatch() {
+    }
+
+    public boolean isMatched() {
+        return matched;
+    }
+
+    IndexMatch setMatched(boolean matched) {
+        this.matched = matched;
+        return this;
+    }
+
+    void putEntryMatched(int unzipTimes, String zipFileName, String entryFileName, boolean entryMatched) {
+        entryMatches.merge(key(unzipTimes, zipFileName, entryFileName), entryMatched, Boolean::logicalOr);
+    }
+
+    void putChildrenMatched(int unzipTimes, String zipFileName, String entryFileName, boolean childrenMatched) {
+        childrenMatches.merge(key(unzipTimes, zipFileName, entryFileName), childrenMatched, Boolean::logicalOr);
+    }
+
+    /**
+     * 条目是否会被处理
+     *
+     * @param unzipTimes    压缩包的第几层
+     * @param zipFileName   父压缩包的文件名
+     * @param entryFileName 当前内部文件的名称
+     * @return 索引中没有该条目时返回 {@code true}（保守处理）
+     */
+    public boolean isEntryMatched(int unzipTimes, String zipFileName, String entryFileName) {
+        return entryMatches.getOrDefault(key(unzipTimes, zipFileName, entryFileName), true);
+    }
+
+    /**
+     * 内嵌压缩包中是否有条目会被处理
+     *
+     * @param unzipTimes    压缩包的第几层
+     * @param zipFileName   父压缩包的文件名
+     * @param entryFileName 当前内部文件（内嵌压缩包）的名称
+     * @return 索引中没有该条目时返回 {@code true}（保守处理）
+     */
+    public boolean isChildrenMatched(int unzipTimes, String zipFileName, String entryFileName) {
+        return childrenMatches.getOrDefault(key(unzipTimes, zipFileName, entryFileName), true);
+    }
+
+    /**
+     * 包装 unzipFilter：内嵌压缩包中没有任何条目会被处理时，直接跳过该内嵌压缩包（不再解压）
+     *
+     * @param unzipFilter 原始的 unzipFilter，为{@code null}则<b>都解压</b>
+     * @return 包装后的 unzipFilter
+     */
+    public PT3<Integer, String, String, Exception> pruneUnzipFilter(PT3<? super Integer, ? super String, ? super String, Exception> unzipFilter) {
+        return (unzipTimes, zipFileName, entryFileName) -> isChildrenMatched(unzipTimes, zipFileName, entryFileName)
+                && (unzipFilter == null || unzipFilter.$(unzipTimes, zipFileName, entryFileName));
+    }
+
+    private static String key(int unzipTimes, String zipFileName, String entryFileName) {
+        return unzipTimes + "\u0000" + zipFileName + "\u0000" + entryFileName;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexMatch{" +
+                "matched=" + matched +
+                ", entryMatches=" + entryMatches.size() +
+                ", childrenMatches=" + childrenMatches.size() +
+                '}';
+    }
+}
@@ -59,4 +59,23 @@ public class ZipKit {
         return isContains ? fileNameInZip + ".tar" : fileNameInZip;
     }
 
+    /**
+     * 根据文件名（后缀名）获取压缩包格式，支持 {@code .tar.gz} 这类多扩展名的格式
+     *
+     * @param fileName 文件名
+     * @return 压缩包格式，不是压缩包则返回 {@code null}
+     * @since 0.6.2
+     */
+    public static ArchiveFormat getArchiveFormat(String fileName) {
+        if (fileName == null) return null;
+
+        FileName fn = FilePath.info(fileName).getFileName();
+        ArchiveFormat archiveFormat = ArchiveFormat.of(fn.ext1);
+        boolean isMultiExtsFormat = ArchiveFormat.isMultiExtsFormat(archiveFormat); // 判断是否是多扩展名的格式
+        // 单扩展名的格式
+        if (!isMultiExtsFormat) archiveFormat = ArchiveFormat.of(fn.ext);
+
+        return archiveFormat;
+    }
+
 }